@@ -0,0 +1,86 @@
+package org.reactome.release.downloaddirectory;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.sql.DataSource;
+import java.util.Properties;
+
+/**
+ * Bounded pools of JDBC connections to the release database and the stable_identifiers database, created once by
+ * Main and shared by the steps that query those databases directly (rather than through the MySQLAdaptor).
+ * Connections borrowed from a pool must be closed by the caller, which returns them to the pool.
+ */
+public class DatabaseConnectionPools implements AutoCloseable {
+	private static final Logger logger = LogManager.getLogger();
+
+	public static final String STABLE_IDENTIFIERS_DATABASE = "stable_identifiers";
+	private static final int DEFAULT_MAXIMUM_POOL_SIZE = 4;
+	// Parallelism of the steps that use the pools; unless 'release.database.poolSize' is set, the pools are sized so
+	// that none of them has fewer connections than worker threads
+	private static final String[] STEP_PARALLELISM_PROPERTIES = {"mapOldStableIds.parallelism", "humanPathwaysWithDiagrams.parallelism"};
+
+	private final HikariDataSource releaseDataSource;
+	private final HikariDataSource stableIdentifiersDataSource;
+
+	/**
+	 * Creates the connection pools from the 'release.database.*' and 'release_current.name' properties.
+	 * 'release.database.poolSize' sets the maximum number of connections of each pool. If it is not set, the maximum is
+	 * the largest of the configured 'mapOldStableIds.parallelism' and 'humanPathwaysWithDiagrams.parallelism', or 4 if
+	 * that is smaller.
+	 * @param props Properties - Configuration loaded by Main.
+	 */
+	public DatabaseConnectionPools(Properties props) {
+		String host = props.getProperty("release.database.host");
+		int port = Integer.parseInt(props.getProperty("release.database.port"));
+		String username = props.getProperty("release.database.user");
+		String password = props.getProperty("release.database.password");
+		int maximumPoolSize = Integer.parseInt(props.getProperty("release.database.poolSize", String.valueOf(getDefaultMaximumPoolSize(props))));
+
+		this.releaseDataSource = createDataSource(host, port, props.getProperty("release_current.name"), username, password, maximumPoolSize);
+		this.stableIdentifiersDataSource = createDataSource(host, port, STABLE_IDENTIFIERS_DATABASE, username, password, maximumPoolSize);
+	}
+
+	public DataSource getReleaseDataSource() {
+		return releaseDataSource;
+	}
+
+	public DataSource getStableIdentifiersDataSource() {
+		return stableIdentifiersDataSource;
+	}
+
+	@Override
+	public void close() {
+		releaseDataSource.close();
+		stableIdentifiersDataSource.close();
+	}
+
+	private static int getDefaultMaximumPoolSize(Properties props) {
+		int maximumPoolSize = DEFAULT_MAXIMUM_POOL_SIZE;
+		for (String stepParallelismProperty : STEP_PARALLELISM_PROPERTIES) {
+			String stepParallelism = props.getProperty(stepParallelismProperty);
+			if (stepParallelism != null) {
+				maximumPoolSize = Math.max(maximumPoolSize, Integer.parseInt(stepParallelism));
+			}
+		}
+		return maximumPoolSize;
+	}
+
+	private static HikariDataSource createDataSource(String host, int port, String database, String username, String password, int maximumPoolSize) {
+		HikariConfig config = new HikariConfig();
+		config.setPoolName(database);
+		config.setDriverClassName("com.mysql.jdbc.Driver");
+		config.setJdbcUrl("jdbc:mysql://" + host + ":" + port + "/" + database);
+		config.setUsername(username);
+		config.setPassword(password);
+		config.setMaximumPoolSize(maximumPoolSize);
+		// Don't connect until a step needs the database, so runs that skip all such steps don't need it to be up.
+		// Connections opened by a step then stay idle in the pool (up to the idle timeout) for the steps after it.
+		config.setInitializationFailTimeout(-1);
+		config.setMinimumIdle(0);
+		logger.info("Creating connection pool for " + database + " with at most " + maximumPoolSize + " connections");
+		return new HikariDataSource(config);
+	}
+}
@@ -0,0 +1,126 @@
+package org.reactome.release.downloaddirectory;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Remembers, between runs of HumanPathwaysWithDiagrams, whether a PathwayDiagram has nodes other than green boxes
+ * (ProcessNodes) and compartments. Each verdict is stored with the DB_ID of the diagram's last InstanceEdit, so a
+ * verdict is only reused while the diagram has not been modified since it was recorded.
+ *
+ * The cache is a tab-delimited text file with one line per diagram:
+ * diagram DB_ID, last InstanceEdit DB_ID, and true/false for "has nodes other than pathways or compartments".
+ */
+class DiagramClassificationCache {
+    private static final Logger logger = LogManager.getLogger();
+
+    private static final String HEADER = "# PathwayDiagram DB_ID\tLast InstanceEdit DB_ID\tHas nodes other than pathways or compartments";
+
+    private final Path cacheFilePath;
+    private final Map<Long, Verdict> previousVerdicts;
+    // Only verdicts of diagrams seen in this run are saved, which drops diagrams that have since been deleted
+    private final SortedMap<Long, Verdict> currentVerdicts = new TreeMap<>();
+
+    private DiagramClassificationCache(Path cacheFilePath, Map<Long, Verdict> previousVerdicts) {
+        this.cacheFilePath = cacheFilePath;
+        this.previousVerdicts = previousVerdicts;
+    }
+
+    /**
+     * Reads the cache file, if it exists. Lines that can't be parsed are skipped, so a damaged cache only costs
+     * re-checking the diagrams it covered.
+     * @param cacheFilePath -- Path to the cache file
+     * @return -- DiagramClassificationCache holding the verdicts from the file (empty if there is no file yet)
+     * @throws IOException -- Thrown if the existing cache file can't be read
+     */
+    static DiagramClassificationCache load(Path cacheFilePath) throws IOException {
+        Map<Long, Verdict> previousVerdicts = new HashMap<>();
+        if (Files.exists(cacheFilePath)) {
+            try (BufferedReader reader = Files.newBufferedReader(cacheFilePath)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isEmpty() || line.startsWith("#")) {
+                        continue;
+                    }
+                    String[] columns = line.split("\t");
+                    try {
+                        previousVerdicts.put(
+                            Long.parseLong(columns[0]),
+                            new Verdict(Long.parseLong(columns[1]), Boolean.parseBoolean(columns[2]))
+                        );
+                    } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                        logger.warn("Skipping malformed line in {}: {}", cacheFilePath, line);
+                    }
+                }
+            }
+        }
+        logger.info("Loaded {} cached diagram verdicts from {}", previousVerdicts.size(), cacheFilePath);
+        return new DiagramClassificationCache(cacheFilePath, previousVerdicts);
+    }
+
+    /**
+     * Looks up the verdict for a diagram. A verdict recorded for an older InstanceEdit is treated as a miss.
+     * Hits are carried over to the cache that will be saved.
+     * @param diagramId -- long, DB_ID of the PathwayDiagram
+     * @param lastInstanceEditId -- long, DB_ID of the last InstanceEdit of the PathwayDiagram
+     * @return -- The cached verdict, or null if the diagram has to be checked again
+     */
+    Boolean get(long diagramId, long lastInstanceEditId) {
+        Verdict verdict = previousVerdicts.get(diagramId);
+        if (verdict == null || verdict.lastInstanceEditId != lastInstanceEditId) {
+            return null;
+        }
+        currentVerdicts.put(diagramId, verdict);
+        return verdict.hasNodeOtherThanPathwayOrCompartment;
+    }
+
+    void put(long diagramId, long lastInstanceEditId, boolean hasNodeOtherThanPathwayOrCompartment) {
+        currentVerdicts.put(diagramId, new Verdict(lastInstanceEditId, hasNodeOtherThanPathwayOrCompartment));
+    }
+
+    /**
+     * Writes the verdicts of this run to a temporary file next to the cache file and then moves it into place, so an
+     * interrupted run never leaves a partially written cache behind.
+     * @throws IOException -- Thrown if the cache file can't be written
+     */
+    void save() throws IOException {
+        Path cacheDirectory = cacheFilePath.toAbsolutePath().getParent();
+        Files.createDirectories(cacheDirectory);
+        Path temporaryCacheFilePath = Files.createTempFile(cacheDirectory, cacheFilePath.getFileName().toString(), ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(temporaryCacheFilePath)) {
+                writer.write(HEADER + "\n");
+                for (Map.Entry<Long, Verdict> diagramVerdict : currentVerdicts.entrySet()) {
+                    Verdict verdict = diagramVerdict.getValue();
+                    writer.write(diagramVerdict.getKey() + "\t" + verdict.lastInstanceEditId + "\t" +
+                        verdict.hasNodeOtherThanPathwayOrCompartment + "\n");
+                }
+            }
+            Files.move(temporaryCacheFilePath, cacheFilePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryCacheFilePath);
+        }
+        logger.info("Saved {} diagram verdicts to {}", currentVerdicts.size(), cacheFilePath);
+    }
+
+    private static class Verdict {
+        private final long lastInstanceEditId;
+        private final boolean hasNodeOtherThanPathwayOrCompartment;
+
+        private Verdict(long lastInstanceEditId, boolean hasNodeOtherThanPathwayOrCompartment) {
+            this.lastInstanceEditId = lastInstanceEditId;
+            this.hasNodeOtherThanPathwayOrCompartment = hasNodeOtherThanPathwayOrCompartment;
+        }
+    }
+}
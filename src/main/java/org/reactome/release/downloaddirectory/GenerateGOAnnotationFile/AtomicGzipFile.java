@@ -0,0 +1,78 @@
+package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzipped file written in one pass, compressing it as it is written. It is written to a temporary file in the same
+ * directory, which is renamed to the file on commit, so the file is never seen partially written and is left as it
+ * was if writing fails. Closing the AtomicGzipFile without committing it deletes the temporary file.
+ *
+ * Temporary files are created readable by their owner only, so on file systems with POSIX permissions the file is
+ * made readable by all before it is renamed, as the files of the release directory are published.
+ */
+class AtomicGzipFile implements Closeable {
+    // Size of the buffers of the gzip stream and of the file stream under it
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+    static final Set<PosixFilePermission> PUBLISHED_FILE_PERMISSIONS = PosixFilePermissions.fromString("rw-r--r--");
+
+    private final Path path;
+    private final Path temporaryPath;
+    private final BufferedWriter writer;
+
+    /**
+     * @param path -- Path of the gzipped file, in an existing directory
+     * @throws IOException -- File writing exceptions.
+     */
+    AtomicGzipFile(Path path) throws IOException {
+        this.path = path;
+        this.temporaryPath =
+            Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            OutputStream fileOutputStream =
+                new BufferedOutputStream(Files.newOutputStream(temporaryPath), GZIP_BUFFER_SIZE);
+            this.writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(fileOutputStream, GZIP_BUFFER_SIZE), StandardCharsets.UTF_8
+            ));
+        } catch (IOException e) {
+            Files.deleteIfExists(temporaryPath);
+            throw e;
+        }
+    }
+
+    /**
+     * @return -- Writer of the uncompressed content of the file
+     */
+    BufferedWriter getWriter() {
+        return writer;
+    }
+
+    /**
+     * Finishes the compressed file and renames it to its path, replacing any existing file.
+     * @throws IOException -- File writing exceptions.
+     */
+    void commit() throws IOException {
+        writer.close();
+        if (Files.getFileStore(temporaryPath).supportsFileAttributeView(PosixFileAttributeView.class)) {
+            Files.setPosixFilePermissions(temporaryPath, PUBLISHED_FILE_PERMISSIONS);
+        }
+        Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            writer.close();
+        } finally {
+            Files.deleteIfExists(temporaryPath);
+        }
+    }
+}
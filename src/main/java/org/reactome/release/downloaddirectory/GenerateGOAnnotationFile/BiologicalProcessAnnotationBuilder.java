@@ -1,12 +1,10 @@
 package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 import org.gk.model.GKInstance;
 import org.gk.model.ReactomeJavaConstants;
 
 import static org.reactome.release.downloaddirectory.GenerateGOAnnotationFile.GOAGeneratorConstants.*;
-import static org.reactome.release.downloaddirectory.GenerateGOAnnotationFile.GOAGeneratorUtilities.getAnyIssueForAnnotationDisqualification;
+import static org.reactome.release.downloaddirectory.GenerateGOAnnotationFile.GOAGeneratorUtilities.getAnyReasonForCatalystActivityDisqualification;
 import static org.reactome.release.downloaddirectory.GenerateGOAnnotationFile.GOAGeneratorUtilities.getGOAnnotatableProteinsFromCatalystActivity;
 import static org.reactome.release.downloaddirectory.GenerateGOAnnotationFile.GOAGeneratorUtilities.getReactomeIdentifier;
 
@@ -14,63 +12,82 @@ import java.util.*;
 
 public class BiologicalProcessAnnotationBuilder {
 
-    private static final Logger logger = LogManager.getLogger();
-
-    // When attempting to find BiologicalProcess accessions, sometimes referral Event instances need to be checked.
-    // We cap this at 2 recursions (the parent and grandparent referrals).
-    private static final int MAX_RECURSION_LEVEL = 2;
-
     /**
      * Initial Biological Function annotations method that determines how to retrieve proteins for annotation.
-     * Protein retrieval methods differ depending on the presence of a catalyst.
+     * Protein retrieval methods differ depending on the presence of a catalyst. The Biological Process accessions
+     * are found once for the reaction and used for all of its proteins.
      * @param reaction -- GKInstance from ReactionlikeEvent class
+     * @param context -- GOAGenerationContext of the run, in which the dates of the annotations are recorded.
      * @throws Exception -- MySQLAdaptor exception
      */
-    public static Set<String> processBiologicalFunctions(GKInstance reaction) throws Exception {
+    public static Set<GOAnnotation> processBiologicalFunctions(GKInstance reaction, GOAGenerationContext context)
+        throws Exception {
+
         Collection<GKInstance> catalystInstances = reaction.getAttributeValuesList(
             ReactomeJavaConstants.catalystActivity
         );
-        Set<String> goaLines = new LinkedHashSet<>();
+        Set<GOAnnotation> goAnnotations = new LinkedHashSet<>();
+        if (catalystInstances.isEmpty()) {
+            return goAnnotations;
+        }
+
+        List<Map<String, String>> biologicalProcessAccessions = getGOBiologicalProcessAccessions(reaction, context);
         for (GKInstance catalystInst : catalystInstances) {
+            DisqualificationReason catalystDisqualificationReason =
+                getAnyReasonForCatalystActivityDisqualification(catalystInst);
+            if (catalystDisqualificationReason != null) {
+                context.getDisqualificationReport().record(catalystDisqualificationReason, catalystInst, reaction);
+                continue;
+            }
             Set<GKInstance> proteinInstances = getGOAnnotatableProteinsFromCatalystActivity(catalystInst);
-            goaLines.addAll(processProteins(proteinInstances, reaction));
+            goAnnotations.addAll(processProteins(proteinInstances, reaction, biologicalProcessAccessions, context));
         }
-        return goaLines;
+        return goAnnotations;
     }
 
     /**
      * Iterates through all retrieved proteins, filtering out any that are invalid or are from the excluded species.
      * @param proteins -- Set of GKInstances, these are all catalyst proteins
      * @param reaction -- GKInstance, parent reaction instance.
+     * @param biologicalProcessAccessions -- Biological Process accessions of the reaction.
+     * @param context -- GOAGenerationContext of the run, in which the dates of the annotations are recorded.
      * @throws Exception -- MySQLAdaptor exception.
      */
-    private static List<String> processProteins(Set<GKInstance> proteins, GKInstance reaction)
-        throws Exception {
-        List<String> goaLines = new ArrayList<>();
+    private static List<GOAnnotation> processProteins(Set<GKInstance> proteins, GKInstance reaction,
+                                                      List<Map<String, String>> biologicalProcessAccessions,
+                                                      GOAGenerationContext context) throws Exception {
+        List<GOAnnotation> goAnnotations = new ArrayList<>();
         for (GKInstance protein : proteins) {
-            String issueDisqualifyingProtein = getAnyIssueForAnnotationDisqualification(protein);
-            if (issueDisqualifyingProtein.isEmpty()) {
-                goaLines.addAll(getGOBiologicalProcessLine(protein, reaction));
+            DisqualificationReason reasonDisqualifyingProtein =
+                context.getAnyReasonForAnnotationDisqualification(protein);
+            if (reasonDisqualifyingProtein == null) {
+                goAnnotations.addAll(
+                    getGOBiologicalProcessAnnotations(protein, reaction, biologicalProcessAccessions, context)
+                );
             } else {
-                logger.warn(issueDisqualifyingProtein);
+                context.getDisqualificationReport().record(reasonDisqualifyingProtein, protein, protein);
             }
         }
-        return goaLines;
+        return goAnnotations;
     }
 
     /**
-     * Before creating GOA line for BP annotations, the reaction in question needs to be checked for the existence of
-     * a 'goBiologicalProcess' attribute. If there is none than the instance's 'hasEvent' referrals are checked for
-     * any.
+     * Creates the BP annotations of a protein for each of the Biological Process accessions of its reaction.
      * @param protein -- GKInstance, Protein instance.
      * @param reaction -- GKInstance, parent reaction instance.
+     * @param biologicalProcessAccessions -- Biological Process accessions of the reaction.
+     * @param context -- GOAGenerationContext of the run, in which the dates of the annotations are recorded.
      * @return Set of Biological Process annotations
      * @throws Exception -- MySQLAdaptor exception.
      */
-    private static Set<String> getGOBiologicalProcessLine(GKInstance protein, GKInstance reaction) throws Exception {
-        Set<String> goaLines = new LinkedHashSet<>();
-        for (Map<String, String> biologicalProcessAccession : getGOBiologicalProcessAccessions(reaction)) {
-            String goaLine = GOAGeneratorUtilities.generateGOALine(
+    private static Set<GOAnnotation> getGOBiologicalProcessAnnotations(
+        GKInstance protein, GKInstance reaction, List<Map<String, String>> biologicalProcessAccessions,
+        GOAGenerationContext context
+    ) throws Exception {
+
+        Set<GOAnnotation> goAnnotations = new LinkedHashSet<>();
+        for (Map<String, String> biologicalProcessAccession : biologicalProcessAccessions) {
+            GOAnnotation goAnnotation = context.generateGOAnnotation(
                 protein,
                 BIOLOGICAL_PROCESS_LETTER,
                 BIOLOGICAL_PROCESS_QUALIFIER,
@@ -78,71 +95,59 @@ public class BiologicalProcessAnnotationBuilder {
                 biologicalProcessAccession.get(EVENT_STRING),
                 TRACEABLE_AUTHOR_STATEMENT_CODE
             );
-            GOAGeneratorUtilities.assignDateForGOALine(reaction, goaLine);
-            goaLines.add(goaLine);
+            context.assignDateForGOAnnotation(reaction, goAnnotation);
+            goAnnotations.add(goAnnotation);
         }
-        return goaLines;
+        return goAnnotations;
     }
 
     /**
      * This method checks for a populated 'goBiologicalProcess' attribute in the incoming ReactionlikeEvent. If there
-     * are none it delegates to #getGOBiologicalProcessAccessions(GKInstance, int) to recurse on parent pathway events
-     * to the pre-determined maximum depth (see constant at the top of this class).
+     * are none, the accessions of its 'hasEvent' referrals are looked up in the run's GOBiologicalProcessIndex, which
+     * recurses on parent pathway events to the pre-determined maximum depth (see constant at the top of that class).
      *
      * @param reactionlikeEvent -- GKInstance, The original ReactionlikeEvent instance
+     * @param context -- GOAGenerationContext of the run, holding the GOBiologicalProcessIndex.
      * @return -- 1 or more Maps containing the GO accession string and event instance it is associated with. These
      * maps contain two fields: {"event":"Reactome:identifier"}, and {"accession":"GO:Accession}"
      * @throws Exception -- MySQLAdaptor exception.
-     * @see #getGOBiologicalProcessAccessions(GKInstance, int)
+     * @see GOBiologicalProcessIndex#getReferrerGOBiologicalProcessAccessions(long)
      */
-    private static List<Map<String, String>> getGOBiologicalProcessAccessions(GKInstance reactionlikeEvent)
+    private static List<Map<String, String>> getGOBiologicalProcessAccessions(GKInstance reactionlikeEvent,
+                                                                              GOAGenerationContext context)
         throws Exception {
 
-        return getGOBiologicalProcessAccessions(reactionlikeEvent, 0);
+        List<Map<String, String>> goBiologicalProcessAccessions =
+            getOwnGOBiologicalProcessAccessions(reactionlikeEvent);
+        if (goBiologicalProcessAccessions.isEmpty()) {
+            goBiologicalProcessAccessions = context.getGOBiologicalProcessIndex()
+                .getReferrerGOBiologicalProcessAccessions(reactionlikeEvent.getDBID());
+        }
+        return goBiologicalProcessAccessions;
     }
 
     /**
-     * This method checks for a populated 'goBiologicalProcess' attribute in the incoming instance. If there are none
-     * and the max recursion has been reached, its 'hasEvent' referral is checked for it. Once finding it, it returns
-     * the 'accession' and 'identifier' for each one, which will be used to generate a GOA line.
-     * @param event -- GKInstance, Can be the original reaction instance, or, if it had no Biological Process
-     * accessions, its Event referrals.
-     * @param recursionDepth -- int, Indicates number of times the method has been recursively called.
-     * @return -- 1 or more Maps containing the GO accession string and event instance it is associated with. These
-     * maps contain two fields: {"event":"Reactome:identifier"}, and {"accession":"GO:Accession}"
+     * Returns the 'accession' and 'identifier' for each 'goBiologicalProcess' of the event, which will be used to
+     * generate a GO annotation.
+     * @param event -- GKInstance, Can be the original reaction instance, or one of its Event referrals.
+     * @return -- Maps containing the GO accession string and event instance it is associated with (empty if the
+     * event has no 'goBiologicalProcess'). These maps contain two fields: {"event":"Reactome:identifier"}, and
+     * {"accession":"GO:Accession}"
      * @throws Exception -- MySQLAdaptor exception.
      */
-    private static List<Map<String, String>> getGOBiologicalProcessAccessions(GKInstance event, int recursionDepth)
-        throws Exception {
-
+    static List<Map<String, String>> getOwnGOBiologicalProcessAccessions(GKInstance event) throws Exception {
         List<Map<String, String>> goBiologicalProcessAccessions = new ArrayList<>();
-        if (recursionDepth <= MAX_RECURSION_LEVEL) {
-            Collection<GKInstance> goBiologicalProcessInstances = event.getAttributeValuesList(
-                ReactomeJavaConstants.goBiologicalProcess
+        Collection<GKInstance> goBiologicalProcessInstances = event.getAttributeValuesList(
+            ReactomeJavaConstants.goBiologicalProcess
+        );
+        for (GKInstance goBiologicalProcessInst : goBiologicalProcessInstances) {
+            Map<String, String> goBiologicalProcessAccession = new HashMap<>();
+            goBiologicalProcessAccession.put(
+                ACCESSION_STRING,
+                getGOAccessionWithPrefix(goBiologicalProcessInst)
             );
-            if (!goBiologicalProcessInstances.isEmpty()) {
-                for (GKInstance goBiologicalProcessInst : goBiologicalProcessInstances) {
-                    Map<String, String> goBiologicalProcessAccession = new HashMap<>();
-                    goBiologicalProcessAccession.put(
-                        ACCESSION_STRING,
-                        getGOAccessionWithPrefix(goBiologicalProcessInst)
-                    );
-                    goBiologicalProcessAccession.put(EVENT_STRING, getReactomeIdentifier(event));
-                    goBiologicalProcessAccessions.add(goBiologicalProcessAccession);
-
-                }
-            } else {
-                recursionDepth++;
-                Collection<GKInstance> hasEventReferralInstances =
-                    (Collection<GKInstance>) event.getReferers(ReactomeJavaConstants.hasEvent);
-                if (hasEventReferralInstances != null) {
-                    for (GKInstance hasEventReferralInst : hasEventReferralInstances) {
-                        goBiologicalProcessAccessions.addAll(
-                            getGOBiologicalProcessAccessions(hasEventReferralInst, recursionDepth)
-                        );
-                    }
-                }
-            }
+            goBiologicalProcessAccession.put(EVENT_STRING, getReactomeIdentifier(event));
+            goBiologicalProcessAccessions.add(goBiologicalProcessAccession);
         }
         return goBiologicalProcessAccessions;
     }
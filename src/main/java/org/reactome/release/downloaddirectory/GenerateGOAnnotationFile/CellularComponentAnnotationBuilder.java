@@ -1,21 +1,14 @@
 package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
-import org.gk.model.ClassAttributeFollowingInstruction;
 import org.gk.model.GKInstance;
-import org.gk.model.InstanceUtilities;
 import org.gk.model.ReactomeJavaConstants;
 
 import static org.reactome.release.downloaddirectory.GenerateGOAnnotationFile.GOAGeneratorConstants.*;
-import static org.reactome.release.downloaddirectory.GenerateGOAnnotationFile.GOAGeneratorUtilities.getAnyIssueForAnnotationDisqualification;
 import static org.reactome.release.downloaddirectory.GenerateGOAnnotationFile.GOAGeneratorUtilities.getReactomeIdentifier;
-import static org.reactome.release.downloaddirectory.GenerateGOAnnotationFile.GOAGeneratorUtilities.getTaxonIdentifier;
 
 import java.util.*;
 
 public class CellularComponentAnnotationBuilder {
-    private static final Logger logger = LogManager.getLogger();
 
     // CrossReference IDs of species containing an alternative GO compartment, which do not receive a GO annotation:
     // HIV 1, unknown, C. botulinum, B. anthracis.
@@ -23,7 +16,7 @@ public class CellularComponentAnnotationBuilder {
         HIV_1_CROSS_REFERENCE, C_BOTULINUM_CROSS_REFERENCE, B_ANTHRACIS_CROSS_REFERENCE
     );
 
-    private static Map<String, List<String>> classToClassAttributesMapForObtainingProteins;
+    private static final Map<String, List<String>> classToClassAttributesMapForObtainingProteins;
 
     static {
         classToClassAttributesMapForObtainingProteins = new HashMap<>();
@@ -68,92 +61,93 @@ public class CellularComponentAnnotationBuilder {
      * Then iterates through each retrieved protein, filtering out any that are invalid or are from the excluded
      * species.
      * @param reactionlikeEvent -- GKInstance from ReactionlikeEvent class.
+     * @param context -- GOAGenerationContext of the run, in which the dates of the annotations are recorded.
      * @return Set of Cellular Component annotations
      * @throws Exception -- MySQLAdaptor exception.
      */
-    public static Set<String> processCellularComponents(GKInstance reactionlikeEvent) throws Exception {
-        Set<String> goaLines = new LinkedHashSet<>();
+    public static Set<GOAnnotation> processCellularComponents(GKInstance reactionlikeEvent,
+                                                              GOAGenerationContext context) throws Exception {
+
+        Set<GOAnnotation> goAnnotations = new LinkedHashSet<>();
         // First retrieve proteins, then build GO annotation
-        for (GKInstance protein : retrieveProteins(reactionlikeEvent)) {
+        for (GKInstance protein : retrieveProteins(reactionlikeEvent, context)) {
             // Check if the protein has any disqualifying attributes.
-            String issueDisqualifyingProtein = getAnyIssueForCellularComponentDisqualification(protein);
-            if (issueDisqualifyingProtein.isEmpty()) {
-                String goaLine = generateGOCellularCompartmentLine(protein, reactionlikeEvent);
-                if (!goaLine.isEmpty()) {
-                    goaLines.add(goaLine);
+            DisqualificationReason reasonDisqualifyingProtein =
+                getAnyReasonForCellularComponentDisqualification(protein, context);
+            if (reasonDisqualifyingProtein == null) {
+                GOAnnotation goAnnotation = generateGOCellularCompartmentAnnotation(protein, reactionlikeEvent, context);
+                if (goAnnotation != null) {
+                    goAnnotations.add(goAnnotation);
                 }
             } else {
-                logger.warn(issueDisqualifyingProtein);
+                context.getDisqualificationReport().record(reasonDisqualifyingProtein, protein, protein);
             }
         }
-        return goaLines;
+        return goAnnotations;
     }
 
     /**
-     * Performs an AttributeQueryRequest on the incoming reaction instance. This will retrieve all proteins
-     * affiliated with the Reaction.
+     * Retrieves all proteins affiliated with the Reaction, through the ProteinTraversal of the current thread, which
+     * keeps the proteins of the complexes and sets already expanded for other reactions.
      * @param reactionlikeEvent -- GKInstance from ReactionlikeEvent class.
-     * @return -- Set of GKInstances output from the AttributeQueryRequest.
+     * @param context -- GOAGenerationContext of the run, holding the ProteinTraversal of each thread.
+     * @return -- Set of EWAS GKInstances associated with the ReactionlikeEvent.
      * @throws Exception -- MySQLAdaptor exception.
      */
-    private static Set<GKInstance> retrieveProteins(GKInstance reactionlikeEvent) throws Exception {
-        // All EWAS' associated with each of the classes in the instructions will be output for this ReactionlikeEvent.
-        String[] outClasses = new String[]{ReactomeJavaConstants.EntityWithAccessionedSequence};
-        return InstanceUtilities.followInstanceAttributes(
-            reactionlikeEvent, getClassAttributeInstructionsToFollow(), outClasses
-        );
-    }
-
-    private static List<ClassAttributeFollowingInstruction> getClassAttributeInstructionsToFollow() {
-        List<ClassAttributeFollowingInstruction> classesToFollow = new ArrayList<>();
-        for (String className : classToClassAttributesMapForObtainingProteins.keySet()) {
-            List<String> classAttributes = classToClassAttributesMapForObtainingProteins.get(className);
-            classesToFollow.add(getClassAttributeFollowingInstruction(className, classAttributes));
-        }
-        return classesToFollow;
+    private static Set<GKInstance> retrieveProteins(GKInstance reactionlikeEvent, GOAGenerationContext context)
+        throws Exception {
+        return context.getProteinTraversal().getEWASs(reactionlikeEvent);
     }
 
-    private static ClassAttributeFollowingInstruction getClassAttributeFollowingInstruction(
-        String className, List<String> classAttributes
-    ) {
-        final List<String> reverseClassAttributes = Collections.emptyList();
-
-        return new ClassAttributeFollowingInstruction(className, classAttributes, reverseClassAttributes);
+    /**
+     * Creates a ProteinTraversal following, for each class, the attributes through which the proteins of a
+     * ReactionlikeEvent are obtained.
+     * @return -- ProteinTraversal with an empty cache of EWAS closures
+     */
+    static ProteinTraversal createProteinTraversal() {
+        return new ProteinTraversal(classToClassAttributesMapForObtainingProteins);
     }
 
-    // Possible issues are any generic issues as defined by "getAnyIssueForAnnotationDisqualification" or
+    // Possible reasons are any generic reasons as defined by "getAnyReasonForAnnotationDisqualification" or
     // the protein having a species that has an alternate GO compartment (specific only to Cellular Component
     // annotations and the species list defined above)
-    private static String getAnyIssueForCellularComponentDisqualification(GKInstance protein) throws Exception {
-        String issueDisqualifyingProtein = getAnyIssueForAnnotationDisqualification(protein);
-        if (issueDisqualifyingProtein.isEmpty() && hasSpeciesWithAlternativeGOComponent(protein)) {
-            issueDisqualifyingProtein = protein.getExtendedDisplayName() + " is from a species with an alternative " +
-                "GO compartment, skipping GO annotation";
+    private static DisqualificationReason getAnyReasonForCellularComponentDisqualification(
+        GKInstance protein, GOAGenerationContext context
+    ) throws Exception {
+        DisqualificationReason reasonDisqualifyingProtein = context.getAnyReasonForAnnotationDisqualification(protein);
+        if (reasonDisqualifyingProtein == null && hasSpeciesWithAlternativeGOComponent(protein, context)) {
+            reasonDisqualifyingProtein = DisqualificationReason.ALTERNATIVE_GO_COMPARTMENT_SPECIES;
         }
-        return issueDisqualifyingProtein;
+        return reasonDisqualifyingProtein;
     }
 
-    private static boolean hasSpeciesWithAlternativeGOComponent(GKInstance protein) throws Exception {
-        return speciesWithAlternateGOCompartment.contains(getTaxonIdentifier(protein));
+    private static boolean hasSpeciesWithAlternativeGOComponent(GKInstance protein, GOAGenerationContext context)
+        throws Exception {
+        return speciesWithAlternateGOCompartment.contains(context.getTaxonIdentifier(protein));
     }
 
     /**
-     * Retrieves the Cellular Compartment accession associated with this protein and then calls the GOA line generator.
+     * Retrieves the Cellular Compartment accession associated with this protein and then calls the GO annotation
+     * generator.
      * @param protein -- GKInstance, Individual protein instance from the retrieved proteins.
      * @param reactionlikeEvent -- GKInstance, Parent ReactionlikeEvent with which the protein is associated.
+     * @param context -- GOAGenerationContext of the run, in which the date of the annotation is recorded.
+     * @return -- GOAnnotation of the protein, or null if the protein has no Cellular Compartment accession.
      * @throws Exception -- MySQLAdaptor exception.
      */
-    private static String generateGOCellularCompartmentLine(GKInstance protein, GKInstance reactionlikeEvent)
-        throws Exception {
+    private static GOAnnotation generateGOCellularCompartmentAnnotation(
+        GKInstance protein, GKInstance reactionlikeEvent, GOAGenerationContext context
+    ) throws Exception {
 
         String goCellularCompartmentAccession = getCellularCompartmentGOAccession(protein);
         if (goCellularCompartmentAccession.isEmpty()) {
-            logger.info(protein.getExtendedDisplayName() + " has no Cellular Compartment accession, " +
-                "skipping GO annotation");
-            return "";
+            context.getDisqualificationReport().record(
+                DisqualificationReason.NO_CELLULAR_COMPARTMENT_ACCESSION, protein, protein
+            );
+            return null;
         }
 
-        String goaLine = GOAGeneratorUtilities.generateGOALine(
+        GOAnnotation goAnnotation = context.generateGOAnnotation(
             protein,
             CELLULAR_COMPONENT_LETTER,
             CELLULAR_COMPONENT_QUALIFIER,
@@ -162,8 +156,8 @@ public class CellularComponentAnnotationBuilder {
             TRACEABLE_AUTHOR_STATEMENT_CODE
         );
 
-        GOAGeneratorUtilities.assignDateForGOALine(protein, goaLine);
-        return goaLine;
+        context.assignDateForGOAnnotation(protein, goAnnotation);
+        return goAnnotation;
     }
 
     /**
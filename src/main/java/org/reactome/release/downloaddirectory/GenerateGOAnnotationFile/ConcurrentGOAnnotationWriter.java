@@ -0,0 +1,142 @@
+package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Writes one pass of annotations to several GOAnnotationWriters concurrently, e.g. to a GAF, a GPAD and a GPI. The
+ * annotations are buffered in batches, and each batch is written by every writer on its own thread while the next
+ * batch is filled. Each writer gets the annotations in the order they were written, so the formats are serialized
+ * (and compressed) in parallel from a single pass over the sorted annotations.
+ *
+ * Closing this writer writes the last batch and closes the writers.
+ */
+class ConcurrentGOAnnotationWriter implements GOAnnotationWriter {
+    // Number of annotations handed to the writers at a time
+    static final int BATCH_SIZE = 4096;
+
+    private final List<GOAnnotationWriter> goAnnotationWriters;
+    private final ExecutorService executor;
+    private final List<Future<?>> pendingBatches = new ArrayList<>();
+    private List<BatchedAnnotation> batch = new ArrayList<>(BATCH_SIZE);
+
+    /**
+     * @param goAnnotationWriters -- Writers to write the annotations to; they are closed with this writer
+     */
+    ConcurrentGOAnnotationWriter(List<GOAnnotationWriter> goAnnotationWriters) {
+        this.goAnnotationWriters = new ArrayList<>(goAnnotationWriters);
+        this.executor = Executors.newFixedThreadPool(goAnnotationWriters.size());
+    }
+
+    @Override
+    public void writeHeader(String releaseNumber, String dateGenerated) throws IOException {
+        writeBatch();
+        awaitPendingBatches();
+        for (GOAnnotationWriter goAnnotationWriter : goAnnotationWriters) {
+            goAnnotationWriter.writeHeader(releaseNumber, dateGenerated);
+        }
+    }
+
+    @Override
+    public void writeAnnotation(GOAnnotation goAnnotation, String date) throws IOException {
+        addToBatch(new BatchedAnnotation(goAnnotation, date, null));
+    }
+
+    /**
+     * Writes an annotation line read back from a GAF. The line is parsed, where needed, by each writer on its own
+     * thread.
+     * @param annotationLine -- GAF line of an annotation, without its line separator
+     * @throws IOException -- File writing exceptions.
+     */
+    @Override
+    public void writeAnnotationLine(String annotationLine) throws IOException {
+        addToBatch(new BatchedAnnotation(null, null, annotationLine));
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            writeBatch();
+            awaitPendingBatches();
+        } finally {
+            executor.shutdownNow();
+            for (GOAnnotationWriter goAnnotationWriter : goAnnotationWriters) {
+                goAnnotationWriter.close();
+            }
+        }
+    }
+
+    private void addToBatch(BatchedAnnotation batchedAnnotation) throws IOException {
+        batch.add(batchedAnnotation);
+        if (batch.size() >= BATCH_SIZE) {
+            writeBatch();
+        }
+    }
+
+    // Hands the batch to the writers once they have written the previous one, which bounds the buffered annotations
+    private void writeBatch() throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        awaitPendingBatches();
+
+        List<BatchedAnnotation> batchToWrite = batch;
+        batch = new ArrayList<>(BATCH_SIZE);
+        for (GOAnnotationWriter goAnnotationWriter : goAnnotationWriters) {
+            pendingBatches.add(executor.submit(() -> {
+                for (BatchedAnnotation batchedAnnotation : batchToWrite) {
+                    batchedAnnotation.writeTo(goAnnotationWriter);
+                }
+                return null;
+            }));
+        }
+    }
+
+    private void awaitPendingBatches() throws IOException {
+        try {
+            for (Future<?> pendingBatch : pendingBatches) {
+                pendingBatch.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing GO annotations");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pendingBatches.clear();
+        }
+    }
+
+    // Annotation with its date, or its GAF line
+    private static class BatchedAnnotation {
+        private final GOAnnotation goAnnotation;
+        private final String date;
+        private final String annotationLine;
+
+        private BatchedAnnotation(GOAnnotation goAnnotation, String date, String annotationLine) {
+            this.goAnnotation = goAnnotation;
+            this.date = date;
+            this.annotationLine = annotationLine;
+        }
+
+        private void writeTo(GOAnnotationWriter goAnnotationWriter) throws IOException {
+            if (annotationLine != null) {
+                goAnnotationWriter.writeAnnotationLine(annotationLine);
+            } else {
+                goAnnotationWriter.writeAnnotation(goAnnotation, date);
+            }
+        }
+    }
+}
@@ -6,18 +6,14 @@ import org.gk.model.GKInstance;
 import org.gk.model.ReactomeJavaConstants;
 import org.gk.persistence.MySQLAdaptor;
 
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.zip.GZIPOutputStream;
+import java.util.concurrent.ForkJoinPool;
 
-import static org.reactome.release.downloaddirectory.GenerateGOAnnotationFile.GOAGeneratorConstants.GOA_FILENAME;
-import static org.reactome.release.downloaddirectory.GenerateGOAnnotationFile.GOAGeneratorConstants.REACTOME_STRING;
 import static org.reactome.release.downloaddirectory.GenerateGOAnnotationFile.GOAGeneratorUtilities.getCurrentDateAsYYYYMMDD;
-import static org.reactome.release.downloaddirectory.GenerateGOAnnotationFile.GOAGeneratorUtilities.getDateForGOALine;
 
 /**
  * Generates gene_association.reactome file from all curated ReactionlikeEvents in the database.
@@ -27,106 +23,186 @@ public class CreateGOAFile {
 
     private static final Logger logger = LogManager.getLogger();
 
+    // Number of GO annotations sorted in memory by default before they are spilled to a temporary file
+    static final int DEFAULT_SORT_BUFFER_SIZE = 1000000;
+
     /**
      * This is called from the Main DownloadDirectory class.
      * @param dbAdaptor -- MySQLAdaptor for database
      * @param releaseNumber -- Reactome release version number
+     * @param props -- Configuration loaded by Main. 'goa.parallelism' sets the number of threads (each with its own
+     * database connection) over which the ReactionlikeEvents are partitioned; 1 processes them serially.
+     * 'goa.shardBySpecies' set to true partitions the ReactionlikeEvents by species and also writes a GAF per taxon.
+     * 'goa.sortBufferSize' is the number of annotations sorted in memory before they are spilled to a temporary file.
+     * 'goa.gpadAndGpi' set to true also writes the annotations to GPAD and GPI files, in the same pass as the GAF.
+     * 'goa.incrementalStore' is the path of a GOAnnotationStore kept between releases; if set, only the reactions
+     * that changed since the store was made are annotated, and the store is updated.
+     * 'goa.disqualificationReport' is the path of a file to which to write the DisqualificationReport of the run.
      * @throws Exception -- General exception. Exception types are MySQLAdaptor or IO exceptions.
      */
-    public static void execute(MySQLAdaptor dbAdaptor, String releaseNumber) throws Exception {
+    public static void execute(MySQLAdaptor dbAdaptor, String releaseNumber, Properties props) throws Exception {
         logger.info("Generating GO annotation file: gene_association.reactome");
 
-        Set<String> goaLines = new LinkedHashSet<>();
-        for (GKInstance reactionInst : getReactionlikeEvents(dbAdaptor)) {
-            // Only finding GO accessions from curated ReactionlikeEvents
-            if (!isInferred(reactionInst)) {
-                logger.info("Creating GO annotations for " + reactionInst);
-
-                goaLines.addAll(CellularComponentAnnotationBuilder.processCellularComponents(reactionInst));
-                goaLines.addAll(MolecularFunctionAnnotationBuilder.processMolecularFunctions(reactionInst));
-                goaLines.addAll(BiologicalProcessAnnotationBuilder.processBiologicalFunctions(reactionInst));
-            }
+        int parallelism = Integer.parseInt(
+            props.getProperty("goa.parallelism", String.valueOf(ForkJoinPool.getCommonPoolParallelism()))
+        );
+        boolean shardBySpecies = Boolean.parseBoolean(props.getProperty("goa.shardBySpecies", "false"));
+        int sortBufferSize = Integer.parseInt(
+            props.getProperty("goa.sortBufferSize", String.valueOf(DEFAULT_SORT_BUFFER_SIZE))
+        );
+        List<GOAnnotationFormat> formats = Boolean.parseBoolean(props.getProperty("goa.gpadAndGpi", "false")) ?
+            Arrays.asList(GOAnnotationFormat.GAF, GOAnnotationFormat.GPAD, GOAnnotationFormat.GPI) :
+            Collections.singletonList(GOAnnotationFormat.GAF);
+        String incrementalStore = props.getProperty("goa.incrementalStore");
+        String disqualificationReport = props.getProperty("goa.disqualificationReport");
+        // Dates are recorded per run, so nothing is carried over from a previous run in the same JVM
+        GOAGenerationContext context = new GOAGenerationContext(GOBiologicalProcessIndex.build(dbAdaptor));
+
+        Set<GOAnnotation> goAnnotations;
+        GOAnnotationStore goAnnotationStore = null;
+        long watermark = 0L;
+        if (incrementalStore == null) {
+            goAnnotations = new GOAGenerationEngine(dbAdaptor, parallelism, shardBySpecies)
+                .generateGOAnnotations(getReactionlikeEvents(dbAdaptor), context);
+        } else {
+            goAnnotationStore = GOAnnotationStore.load(Paths.get(incrementalStore));
+            watermark = GOAnnotationStore.queryWatermark(dbAdaptor);
+            goAnnotations = generateGOAnnotationsIncrementally(
+                dbAdaptor, context, goAnnotationStore, watermark, parallelism, shardBySpecies
+            );
         }
 
-        writeGOAFile(goaLines, releaseNumber);
-        moveFile(GOA_FILENAME + ".gz", releaseNumber + "/");
+        if (shardBySpecies) {
+            writeGOAFilesFromShards(goAnnotations, context, releaseNumber, formats);
+        } else {
+            writeGOAFiles(goAnnotations, context, Paths.get(releaseNumber), releaseNumber, formats, sortBufferSize);
+        }
+        writeDisqualificationReport(context.getDisqualificationReport(), disqualificationReport);
+        // The store is only updated once the files are written, so a failed run is annotated again in full
+        if (goAnnotationStore != null) {
+            goAnnotationStore.save(watermark);
+        }
         logger.info("Finished generating gene_association.reactome");
     }
 
-    @SuppressWarnings("unchecked")
-    private static Collection<GKInstance> getReactionlikeEvents(MySQLAdaptor dbAdaptor) throws Exception {
-        return dbAdaptor.fetchInstancesByClass(ReactomeJavaConstants.ReactionlikeEvent);
-    }
+    /**
+     * Reuses the stored annotations of the reactions that haven't changed since the store was made, and annotates
+     * the others, storing their annotations.
+     * @param dbAdaptor -- MySQLAdaptor for database
+     * @param context -- GOAGenerationContext of the run, in which the dates of the annotations are recorded
+     * @param goAnnotationStore -- GOAnnotationStore loaded from the store of the previous run
+     * @param watermark -- Highest DB_ID in the database before the reactions of this run are annotated
+     * @param parallelism -- Number of threads that annotate reactions
+     * @param shardBySpecies -- Whether the reactions of each species are partitioned separately
+     * @return -- Set of GO annotations of all reactions
+     * @throws Exception -- MySQLAdaptor exception
+     */
+    private static Set<GOAnnotation> generateGOAnnotationsIncrementally(MySQLAdaptor dbAdaptor,
+                                                                        GOAGenerationContext context,
+                                                                        GOAnnotationStore goAnnotationStore,
+                                                                        long watermark, int parallelism,
+                                                                        boolean shardBySpecies) throws Exception {
+        Collection<GKInstance> reactionlikeEvents = getReactionlikeEvents(dbAdaptor);
+        Set<GOAnnotation> goAnnotations = new LinkedHashSet<>();
+        Collection<GKInstance> changedReactionlikeEvents = reactionlikeEvents;
+        // A store with a higher watermark was made from another database, so none of it can be trusted
+        if (goAnnotationStore.hasWatermark() && goAnnotationStore.getWatermark() <= watermark) {
+            Set<Long> changedDbIds = GOAnnotationStore.queryChangedDbIds(dbAdaptor, goAnnotationStore.getWatermark());
+            logger.info(changedDbIds.size() + " instances were created or modified since the GO annotation store");
+            changedReactionlikeEvents =
+                goAnnotationStore.reuseUnchangedReactions(reactionlikeEvents, changedDbIds, context, goAnnotations);
+            context.getDisqualificationReport().setReusedReactionCount(
+                reactionlikeEvents.size() - changedReactionlikeEvents.size()
+            );
+        } else if (goAnnotationStore.hasWatermark()) {
+            logger.warn("GO annotation store is more recent than the database; all reactions will be annotated");
+        }
 
-    // Parent method that houses electronically and manually inferred instance checks.
-    private static boolean isInferred(GKInstance reactionInst) throws Exception {
-        return isElectronicallyInferred(reactionInst) || isManuallyInferred(reactionInst);
+        goAnnotations.addAll(new GOAGenerationEngine(dbAdaptor, parallelism, shardBySpecies, goAnnotationStore)
+            .generateGOAnnotations(changedReactionlikeEvents, context));
+        return goAnnotations;
     }
 
-    private static boolean isManuallyInferred(GKInstance reactionInst) throws Exception {
-        return reactionInst.getAttributeValue(ReactomeJavaConstants.inferredFrom) != null;
+    /**
+     * Logs the number of proteins and catalysts disqualified from annotation for each reason and, if a path is given,
+     * writes their numbers per species and sampled examples to it.
+     * @param report -- DisqualificationReport of the run
+     * @param reportPath -- Path of the file to which to write the report, or null
+     * @throws IOException -- File writing exceptions.
+     */
+    private static void writeDisqualificationReport(DisqualificationReport report, String reportPath)
+        throws IOException {
+
+        for (String summaryLine : report.getSummaryLines()) {
+            logger.info(summaryLine);
+        }
+        if (reportPath != null) {
+            try (Writer reportWriter = Files.newBufferedWriter(Paths.get(reportPath), StandardCharsets.UTF_8)) {
+                report.write(reportWriter);
+            }
+            logger.info("Wrote GO annotation disqualification report to " + reportPath);
+        }
     }
 
-    private static boolean isElectronicallyInferred(GKInstance reactionInst) throws Exception {
-        return reactionInst.getAttributeValue(ReactomeJavaConstants.evidenceType) != null;
+    @SuppressWarnings("unchecked")
+    private static Collection<GKInstance> getReactionlikeEvents(MySQLAdaptor dbAdaptor) throws Exception {
+        return dbAdaptor.fetchInstancesByClass(ReactomeJavaConstants.ReactionlikeEvent);
     }
 
     /**
-     * Iterates through the lines in the 'goaLines' list, retrieves the date associated with that line and also adds
-     * the 'Reactome' column before adding it to the gene_association.reactome file.
-     * @param goaLines Gene Association File annotation lines to write to the file
+     * Sorts the annotations and writes them with their dates to the release's gene_association.reactome.gz file,
+     * after the GAF header, and to the file of each other format. The annotations are sorted by an ExternalGAFSorter,
+     * so no sorted copy of all annotations is held in memory, and all formats are written in one sorted pass.
+     * @param goAnnotations GO annotations to write to the files
+     * @param context -- GOAGenerationContext in which the dates of the annotations were recorded
+     * @param releaseDirectory -- Existing directory in which to write the files
      * @param releaseNumber -- Reactome release version number
+     * @param formats -- Formats of the files to write
+     * @param sortBufferSize -- Number of annotations sorted in memory before they are spilled to a temporary file
      * @throws IOException -- File writing/reading exceptions.
      */
-    private static void writeGOAFile(Set<String> goaLines, String releaseNumber) throws IOException {
-        Path goaFilepath = Paths.get(GOA_FILENAME);
-
-        Files.deleteIfExists(goaFilepath);
-        Files.createFile(goaFilepath);
-
-        writeHeader(goaFilepath, releaseNumber);
-
-        List<String> lines = goaLines.stream().sorted().map(
-            line -> String.join("\t", line, getDateForGOALine(line), REACTOME_STRING, "","")
-        ).collect(Collectors.toList());
-
-        Files.write(goaFilepath, lines, StandardOpenOption.APPEND);
-
-        gzipGOAFile(goaFilepath);
-    }
+    static void writeGOAFiles(Set<GOAnnotation> goAnnotations, GOAGenerationContext context, Path releaseDirectory,
+                              String releaseNumber, List<GOAnnotationFormat> formats, int sortBufferSize)
+        throws IOException {
 
+        try (ExternalGAFSorter gafSorter = new ExternalGAFSorter(sortBufferSize)) {
+            for (GOAnnotation goAnnotation : goAnnotations) {
+                gafSorter.add(goAnnotation, context.getDateForGOAnnotation(goAnnotation));
+            }
+            if (gafSorter.getRunCount() > 0) {
+                logger.info("Spilled " + gafSorter.getRunCount() + " sorted runs of GO annotations to disk");
+            }
 
-    private static void writeHeader(Path goaFilepath, String releaseNumber) throws IOException {
-        final String gafHeader = String.join(System.lineSeparator(),
-            "!gaf-version: 2.2",
-            "!generated-by: Reactome",
-            "!date-generated: " + getCurrentDateAsYYYYMMDD(),
-            "!Project-release: Version " + releaseNumber
-        ).concat(System.lineSeparator());
-
-        Files.write(goaFilepath, gafHeader.getBytes(), StandardOpenOption.APPEND);
+            String dateGenerated = getCurrentDateAsYYYYMMDD();
+            GOAnnotationFormat.writeGzipFiles(releaseDirectory, formats, goAnnotationWriter -> {
+                goAnnotationWriter.writeHeader(releaseNumber, dateGenerated);
+                gafSorter.writeSorted(goAnnotationWriter);
+            });
+        }
     }
 
     /**
-     * Gzips gene_association.reactome file
-     * @param goaFilePath Path to the unzipped gene_association.reactome file
+     * Writes the annotations of each taxon to a sorted, gzipped GAF in the release's gene_association_by_taxon
+     * directory, then merges these shards into the release's gene_association.reactome.gz file and the file of each
+     * other format.
+     * @param goAnnotations GO annotations to write to the files
+     * @param context -- GOAGenerationContext in which the dates of the annotations were recorded
+     * @param releaseNumber -- Reactome release version number
+     * @param formats -- Formats of the files to write
      * @throws IOException -- File writing/reading exceptions.
      */
-    private static void gzipGOAFile(Path goaFilePath) throws IOException {
-        Path goaGzipFilePath = Paths.get(goaFilePath.toAbsolutePath().toString() + ".gz");
-        try (
-        GZIPOutputStream gzipOutputStream = new GZIPOutputStream(new FileOutputStream(goaGzipFilePath.toFile()));
-        FileInputStream fileInputStream = new FileInputStream(goaFilePath.toFile())
-        ) {
-            byte[] buffer = new byte[1024];
-            int length;
-            while ((length = fileInputStream.read(buffer)) != -1) {
-                gzipOutputStream.write(buffer, 0, length);
-            }
-        }
-    }
-
-    private static void moveFile(String sourceFile, String targetDirectory) throws IOException {
-        Files.move(Paths.get(sourceFile), Paths.get(targetDirectory, sourceFile), StandardCopyOption.REPLACE_EXISTING);
+    private static void writeGOAFilesFromShards(Set<GOAnnotation> goAnnotations, GOAGenerationContext context,
+                                                String releaseNumber, List<GOAnnotationFormat> formats)
+        throws IOException {
+
+        Path shardDirectory = Files.createDirectories(Paths.get(releaseNumber, GAFShards.SHARD_DIRECTORY));
+        String dateGenerated = getCurrentDateAsYYYYMMDD();
+        List<Path> shards = GAFShards.writeShards(goAnnotations, context, shardDirectory, releaseNumber, dateGenerated);
+        logger.info("Wrote " + shards.size() + " GO annotation files by taxon to " + shardDirectory);
+
+        GOAnnotationFormat.writeGzipFiles(Paths.get(releaseNumber), formats, goAnnotationWriter -> {
+            goAnnotationWriter.writeHeader(releaseNumber, dateGenerated);
+            GAFShards.mergeShards(shards, goAnnotationWriter);
+        });
     }
 }
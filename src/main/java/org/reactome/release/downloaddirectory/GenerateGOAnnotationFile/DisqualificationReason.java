@@ -0,0 +1,34 @@
+package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
+
+/**
+ * Reasons for which a protein or catalyst activity receives no GO annotation. They are counted in the
+ * DisqualificationReport of the run rather than logged as they are found.
+ */
+public enum DisqualificationReason {
+    INVALID_PROTEIN("is an invalid protein, skipping GO annotation"),
+    EXCLUDED_MICROBIAL_SPECIES("is from an excluded microbial species, skipping GO annotation"),
+    ALTERNATIVE_GO_COMPARTMENT_SPECIES("is from a species with an alternative GO compartment, skipping GO annotation"),
+    NO_CELLULAR_COMPARTMENT_ACCESSION("has no Cellular Compartment accession, skipping GO annotation"),
+    CATALYST_WITHOUT_ACTIVE_UNIT_OR_PHYSICAL_ENTITY("has no Active Unit/Physical Entity, skipping annotation"),
+    CATALYST_ENTITY_WITHOUT_COMPARTMENT("has an Active Unit/Physical Entity with no compartment, skipping annotation"),
+    CATALYST_ENTITY_NOT_EWAS_OR_EWAS_SET(
+        "has an Active Unit/Physical Entity that is not an EWAS or an EntitySet with only EWAS members, " +
+        "skipping annotation"
+    ),
+    CATALYST_WITHOUT_MOLECULAR_FUNCTION("has no GO_MolecularFunction attribute, skipping GO annotation"),
+    PROTEIN_BINDING_ACTIVITY("has a protein binding activity, skipping GO annotation");
+
+    private final String description;
+
+    DisqualificationReason(String description) {
+        this.description = description;
+    }
+
+    /**
+     * @param displayName -- Extended display name of the disqualified protein or catalyst activity
+     * @return -- Message describing the disqualification, as previously logged for each instance
+     */
+    public String describe(String displayName) {
+        return displayName + " " + description;
+    }
+}
@@ -0,0 +1,182 @@
+package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
+
+import org.gk.model.GKInstance;
+import org.gk.model.ReactomeJavaConstants;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the proteins and catalyst activities disqualified from GO annotation during a run, per DisqualificationReason
+ * and per species, instead of logging a line for each of them. An instance is counted each time it is disqualified,
+ * so a protein in several reactions is counted once per reaction, as it was logged.
+ *
+ * For each reason, a sample of the disqualified instances is kept as examples: those with the smallest DB_IDs, so the
+ * sample doesn't depend on the order in which reactions are annotated. Display names are only built for instances
+ * entering the sample. Counts are kept in LongAdders, so reactions can be annotated on several threads sharing one
+ * report.
+ *
+ * In incremental mode, the annotations of unchanged reactions are reused from the GOAnnotationStore without
+ * checking their proteins again, so their disqualifications aren't counted. The report is then marked as partial,
+ * with the number of reused reactions, in its first line and in the logged summary.
+ */
+public class DisqualificationReport {
+    static final int DEFAULT_SAMPLE_SIZE = 10;
+    static final String NO_SPECIES = "No species";
+
+    private final int sampleSize;
+    private final ConcurrentMap<DisqualificationReason, ConcurrentMap<String, LongAdder>> speciesCounts =
+        new ConcurrentHashMap<>();
+    private final Map<DisqualificationReason, TreeMap<Long, String>> samples =
+        new EnumMap<>(DisqualificationReason.class);
+    private volatile int reusedReactionCount;
+
+    public DisqualificationReport() {
+        this(DEFAULT_SAMPLE_SIZE);
+    }
+
+    /**
+     * @param sampleSize -- Number of disqualified instances kept as examples for each reason
+     */
+    DisqualificationReport(int sampleSize) {
+        this.sampleSize = sampleSize;
+        for (DisqualificationReason reason : DisqualificationReason.values()) {
+            samples.put(reason, new TreeMap<>());
+        }
+    }
+
+    /**
+     * Counts a disqualified instance under a species.
+     * @param reason -- DisqualificationReason of the instance
+     * @param disqualifiedInst -- GKInstance, protein or catalyst activity that receives no GO annotation
+     * @param speciesInst -- GKInstance, the disqualified protein itself or, for a catalyst activity, the
+     * ReactionlikeEvent being annotated, whose species the instance is counted under
+     * @throws Exception -- MySQLAdaptor exception.
+     */
+    public void record(DisqualificationReason reason, GKInstance disqualifiedInst, GKInstance speciesInst)
+        throws Exception {
+
+        speciesCounts
+            .computeIfAbsent(reason, key -> new ConcurrentHashMap<>())
+            .computeIfAbsent(getSpeciesName(speciesInst), key -> new LongAdder())
+            .increment();
+        addToSample(reason, disqualifiedInst);
+    }
+
+    /**
+     * Marks the report as partial, as the disqualifications of reactions reused from the GOAnnotationStore aren't
+     * counted.
+     * @param reusedReactionCount -- Number of reactions whose annotations were reused instead of being generated
+     */
+    public void setReusedReactionCount(int reusedReactionCount) {
+        this.reusedReactionCount = reusedReactionCount;
+    }
+
+    /**
+     * @return -- Whether the disqualifications of some reactions aren't counted, as their annotations were reused
+     */
+    public boolean isPartial() {
+        return reusedReactionCount > 0;
+    }
+
+    /**
+     * @param reason -- DisqualificationReason for which to count the disqualified instances
+     * @return -- Number of times an instance was disqualified for the reason
+     */
+    public long getCount(DisqualificationReason reason) {
+        return getSpeciesCounts(reason).values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * @param reason -- DisqualificationReason for which to count the disqualified instances
+     * @return -- Number of times an instance was disqualified for the reason, per species name, sorted by name
+     */
+    public SortedMap<String, Long> getSpeciesCounts(DisqualificationReason reason) {
+        SortedMap<String, Long> counts = new TreeMap<>();
+        speciesCounts.getOrDefault(reason, new ConcurrentHashMap<>())
+            .forEach((speciesName, count) -> counts.put(speciesName, count.sum()));
+        return counts;
+    }
+
+    /**
+     * @param reason -- DisqualificationReason for which to get the examples
+     * @return -- Messages describing the sampled instances disqualified for the reason, by ascending DB_ID
+     */
+    public List<String> getSample(DisqualificationReason reason) {
+        TreeMap<Long, String> sample = samples.get(reason);
+        synchronized (sample) {
+            return new ArrayList<>(sample.values());
+        }
+    }
+
+    /**
+     * @return -- One line per reason for which instances were disqualified, with their number, after the header if
+     * the report is partial
+     */
+    public List<String> getSummaryLines() {
+        List<String> summaryLines = new ArrayList<>();
+        if (isPartial()) {
+            summaryLines.add(getPartialHeader());
+        }
+        for (DisqualificationReason reason : DisqualificationReason.values()) {
+            long count = getCount(reason);
+            if (count > 0) {
+                summaryLines.add(reason + ": " + count + " disqualified for GO annotation");
+            }
+        }
+        return summaryLines;
+    }
+
+    /**
+     * Writes, for each reason for which instances were disqualified, their number in total and per species, followed
+     * by the sampled examples. A partial report starts with a header saying so.
+     * @param writer -- Writer to which to write the report; the caller closes it
+     * @throws IOException -- File writing exceptions.
+     */
+    public void write(Writer writer) throws IOException {
+        if (isPartial()) {
+            writer.write("# " + getPartialHeader() + System.lineSeparator());
+        }
+        for (DisqualificationReason reason : DisqualificationReason.values()) {
+            long count = getCount(reason);
+            if (count == 0) {
+                continue;
+            }
+            writer.write(reason + "\t" + count + System.lineSeparator());
+            for (Map.Entry<String, Long> speciesCount : getSpeciesCounts(reason).entrySet()) {
+                writer.write("\t" + speciesCount.getKey() + "\t" + speciesCount.getValue() + System.lineSeparator());
+            }
+            for (String example : getSample(reason)) {
+                writer.write("\te.g. " + example + System.lineSeparator());
+            }
+        }
+    }
+
+    private String getPartialHeader() {
+        return "Partial (incremental): disqualifications in the " + reusedReactionCount +
+            " reactions reused from the GO annotation store are not counted";
+    }
+
+    private void addToSample(DisqualificationReason reason, GKInstance disqualifiedInst) {
+        TreeMap<Long, String> sample = samples.get(reason);
+        Long dbId = disqualifiedInst.getDBID();
+        synchronized (sample) {
+            if (sample.containsKey(dbId) || (sample.size() >= sampleSize && dbId > sample.lastKey())) {
+                return;
+            }
+            sample.put(dbId, reason.describe(disqualifiedInst.getExtendedDisplayName()));
+            if (sample.size() > sampleSize) {
+                sample.pollLastEntry();
+            }
+        }
+    }
+
+    private static String getSpeciesName(GKInstance speciesInst) throws Exception {
+        GKInstance species = (GKInstance) speciesInst.getAttributeValue(ReactomeJavaConstants.species);
+        return species != null && species.getDisplayName() != null ? species.getDisplayName() : NO_SPECIES;
+    }
+}
@@ -0,0 +1,131 @@
+package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sorts GO annotations for a GAF with bounded memory. Annotations are buffered until the buffer holds
+ * maxAnnotationsInMemory of them; the buffer is then sorted and spilled as a run, i.e. a sorted GAF without header,
+ * to a temporary file before the next annotation is added. Writing merges the runs (see GAFLineMerger), so at most
+ * one buffer of annotations and one line per run are in memory at a time. When no run was spilled, the buffer is
+ * sorted and written directly.
+ *
+ * Closing the sorter deletes its runs.
+ */
+class ExternalGAFSorter implements Closeable {
+    private final int maxAnnotationsInMemory;
+    private final List<DatedGOAnnotation> buffer = new ArrayList<>();
+    private final List<Path> runs = new ArrayList<>();
+    private Path runDirectory;
+
+    /**
+     * @param maxAnnotationsInMemory -- Number of annotations buffered before they are spilled to a run
+     */
+    ExternalGAFSorter(int maxAnnotationsInMemory) {
+        if (maxAnnotationsInMemory < 1) {
+            throw new IllegalArgumentException("At least one annotation must be buffered: " + maxAnnotationsInMemory);
+        }
+        this.maxAnnotationsInMemory = maxAnnotationsInMemory;
+    }
+
+    /**
+     * Adds an annotation to sort, first spilling the buffer to a run if it is full.
+     * @param goAnnotation -- GOAnnotation to write, distinct from the annotations already added
+     * @param date -- Most recent modification date of the annotation, formatted as YYYYMMDD
+     * @throws IOException -- File writing exceptions.
+     */
+    void add(GOAnnotation goAnnotation, String date) throws IOException {
+        if (buffer.size() >= maxAnnotationsInMemory) {
+            spillBuffer();
+        }
+        buffer.add(new DatedGOAnnotation(goAnnotation, date));
+    }
+
+    /**
+     * Writes the lines of all annotations added, in sorted order.
+     * @param goAnnotationWriter -- GOAnnotationWriter to which to write the annotations, after its header
+     * @throws IOException -- File writing/reading exceptions.
+     */
+    void writeSorted(GOAnnotationWriter goAnnotationWriter) throws IOException {
+        if (runs.isEmpty()) {
+            Collections.sort(buffer);
+            writeBuffer(goAnnotationWriter);
+            return;
+        }
+
+        if (!buffer.isEmpty()) {
+            spillBuffer();
+        }
+        List<BufferedReader> runReaders = new ArrayList<>();
+        try {
+            for (Path run : runs) {
+                runReaders.add(Files.newBufferedReader(run, StandardCharsets.UTF_8));
+            }
+            GAFLineMerger.merge(runReaders, goAnnotationWriter);
+        } finally {
+            for (BufferedReader runReader : runReaders) {
+                runReader.close();
+            }
+        }
+    }
+
+    /**
+     * @return -- Number of runs spilled so far
+     */
+    int getRunCount() {
+        return runs.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Path run : runs) {
+            Files.deleteIfExists(run);
+        }
+        if (runDirectory != null) {
+            Files.deleteIfExists(runDirectory);
+        }
+    }
+
+    private void spillBuffer() throws IOException {
+        if (runDirectory == null) {
+            runDirectory = Files.createTempDirectory(GOAGeneratorConstants.GOA_FILENAME);
+        }
+        Path run = runDirectory.resolve("run_" + runs.size());
+        runs.add(run);
+
+        Collections.sort(buffer);
+        try (GAFWriter runWriter = new GAFWriter(Files.newBufferedWriter(run, StandardCharsets.UTF_8))) {
+            writeBuffer(runWriter);
+        }
+        buffer.clear();
+    }
+
+    private void writeBuffer(GOAnnotationWriter goAnnotationWriter) throws IOException {
+        for (DatedGOAnnotation datedGOAnnotation : buffer) {
+            goAnnotationWriter.writeAnnotation(datedGOAnnotation.goAnnotation, datedGOAnnotation.date);
+        }
+    }
+
+    // Annotation with its date, ordered by the annotation
+    private static class DatedGOAnnotation implements Comparable<DatedGOAnnotation> {
+        private final GOAnnotation goAnnotation;
+        private final String date;
+
+        private DatedGOAnnotation(GOAnnotation goAnnotation, String date) {
+            this.goAnnotation = goAnnotation;
+            this.date = date;
+        }
+
+        @Override
+        public int compareTo(DatedGOAnnotation other) {
+            return goAnnotation.compareTo(other.goAnnotation);
+        }
+    }
+}
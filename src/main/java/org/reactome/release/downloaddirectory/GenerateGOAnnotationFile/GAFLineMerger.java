@@ -0,0 +1,63 @@
+package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+
+/**
+ * K-way merge of the annotation lines of GAFs whose annotations are sorted. Annotations are ordered as their lines
+ * are as Strings, so the lines are merged by comparing them, without parsing them back into annotations. Only the
+ * next line of each GAF is held in memory.
+ */
+class GAFLineMerger {
+    private static final String HEADER_LINE_PREFIX = "!";
+
+    private GAFLineMerger() {
+        // No-op constructor to ensure the class is used only by static access
+    }
+
+    /**
+     * Merges the annotation lines read from sorted GAFs, skipping their header lines.
+     * @param sortedGAFReaders -- Readers of GAFs written with sorted annotations; the caller closes them
+     * @param goAnnotationWriter -- GOAnnotationWriter to which to write the merged lines
+     * @throws IOException -- File writing/reading exceptions.
+     */
+    static void merge(List<BufferedReader> sortedGAFReaders, GOAnnotationWriter goAnnotationWriter) throws IOException {
+        PriorityQueue<ReaderLine> nextReaderLines = new PriorityQueue<>();
+        for (BufferedReader sortedGAFReader : sortedGAFReaders) {
+            ReaderLine.readNext(sortedGAFReader).ifPresent(nextReaderLines::add);
+        }
+
+        while (!nextReaderLines.isEmpty()) {
+            ReaderLine readerLine = nextReaderLines.poll();
+            goAnnotationWriter.writeAnnotationLine(readerLine.line);
+            ReaderLine.readNext(readerLine.reader).ifPresent(nextReaderLines::add);
+        }
+    }
+
+    // Next annotation line of a GAF, ordered by the line
+    private static class ReaderLine implements Comparable<ReaderLine> {
+        private final String line;
+        private final BufferedReader reader;
+
+        private ReaderLine(String line, BufferedReader reader) {
+            this.line = line;
+            this.reader = reader;
+        }
+
+        private static Optional<ReaderLine> readNext(BufferedReader reader) throws IOException {
+            String line = reader.readLine();
+            while (line != null && line.startsWith(HEADER_LINE_PREFIX)) {
+                line = reader.readLine();
+            }
+            return line != null ? Optional.of(new ReaderLine(line, reader)) : Optional.empty();
+        }
+
+        @Override
+        public int compareTo(ReaderLine other) {
+            return line.compareTo(other.line);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Species shards of the GO annotation file: one gzipped GAF per taxon, holding the annotations of the proteins of
+ * that taxon sorted like gene_association.reactome, with the same header. They are published for consumers who only
+ * want the annotations of one organism, and merged into gene_association.reactome.
+ *
+ * Annotations are sharded by the taxon of their protein rather than by the species of the reactions they come from,
+ * so each annotation is in exactly one shard. As the sorted shards differ in their taxon column, a k-way merge of
+ * their lines (see GAFLineMerger) gives the same order as sorting all annotations.
+ */
+class GAFShards {
+    private static final Logger logger = LogManager.getLogger();
+
+    static final String SHARD_DIRECTORY = "gene_association_by_taxon";
+
+    private GAFShards() {
+        // No-op constructor to ensure the class is used only by static access
+    }
+
+    /**
+     * Sorts the annotations of each taxon and writes them to the taxon's shard. Shards left in the directory by an
+     * earlier run, of taxa without annotations in this one, are deleted so they are not published with the new ones.
+     * @param goAnnotations -- GO annotations to write to the shards
+     * @param context -- GOAGenerationContext in which the dates of the annotations were recorded
+     * @param shardDirectory -- Existing directory in which to write the shards
+     * @param releaseNumber -- Reactome release version number
+     * @param dateGenerated -- Date on which the files are generated, formatted as YYYY-MM-DD
+     * @return -- Paths of the shards, in ascending taxon order
+     * @throws IOException -- File writing exceptions.
+     */
+    static List<Path> writeShards(Collection<GOAnnotation> goAnnotations, GOAGenerationContext context,
+                                  Path shardDirectory, String releaseNumber, String dateGenerated) throws IOException {
+
+        Map<String, List<GOAnnotation>> taxonIdentifierToGOAnnotations = new TreeMap<>();
+        for (GOAnnotation goAnnotation : goAnnotations) {
+            taxonIdentifierToGOAnnotations
+                .computeIfAbsent(goAnnotation.getTaxonIdentifier(), taxonIdentifier -> new ArrayList<>())
+                .add(goAnnotation);
+        }
+
+        List<Path> shards = new ArrayList<>();
+        for (Map.Entry<String, List<GOAnnotation>> taxonGOAnnotations : taxonIdentifierToGOAnnotations.entrySet()) {
+            List<GOAnnotation> sortedGOAnnotations = taxonGOAnnotations.getValue();
+            Collections.sort(sortedGOAnnotations);
+
+            Path shard = getShardPath(shardDirectory, taxonGOAnnotations.getKey());
+            GAFWriter.writeGzipGAF(shard, gafWriter -> {
+                gafWriter.writeHeader(releaseNumber, dateGenerated);
+                for (GOAnnotation goAnnotation : sortedGOAnnotations) {
+                    gafWriter.writeAnnotation(goAnnotation, context.getDateForGOAnnotation(goAnnotation));
+                }
+            });
+            shards.add(shard);
+        }
+        deleteStaleShards(shardDirectory, shards);
+        return shards;
+    }
+
+    /**
+     * Merges the annotation lines of sorted shards, without their headers, in sorted order.
+     * @param shards -- Paths of shards written by writeShards
+     * @param goAnnotationWriter -- GOAnnotationWriter to which to write the merged lines, after its header
+     * @throws IOException -- File writing/reading exceptions.
+     */
+    static void mergeShards(List<Path> shards, GOAnnotationWriter goAnnotationWriter) throws IOException {
+        List<BufferedReader> shardReaders = new ArrayList<>();
+        try {
+            for (Path shard : shards) {
+                shardReaders.add(getGzipReader(shard));
+            }
+            GAFLineMerger.merge(shardReaders, goAnnotationWriter);
+        } finally {
+            for (BufferedReader shardReader : shardReaders) {
+                shardReader.close();
+            }
+        }
+    }
+
+    static Path getShardPath(Path shardDirectory, String taxonIdentifier) {
+        return shardDirectory.resolve(GOAGeneratorConstants.GOA_FILENAME + ".taxon_" + taxonIdentifier + ".gz");
+    }
+
+    private static void deleteStaleShards(Path shardDirectory, List<Path> shards) throws IOException {
+        String shardGlob = GOAGeneratorConstants.GOA_FILENAME + ".taxon_*.gz";
+        try (DirectoryStream<Path> directoryShards = Files.newDirectoryStream(shardDirectory, shardGlob)) {
+            for (Path directoryShard : directoryShards) {
+                if (!shards.contains(directoryShard)) {
+                    logger.info("Deleting " + directoryShard + ", whose taxon no longer has GO annotations");
+                    Files.delete(directoryShard);
+                }
+            }
+        }
+    }
+
+    private static BufferedReader getGzipReader(Path path) throws IOException {
+        return new BufferedReader(
+            new InputStreamReader(new GZIPInputStream(Files.newInputStream(path)), StandardCharsets.UTF_8)
+        );
+    }
+}
@@ -0,0 +1,92 @@
+package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+
+import static org.reactome.release.downloaddirectory.GenerateGOAnnotationFile.GOAGeneratorConstants.REACTOME_STRING;
+
+/**
+ * Writes GO annotations in GO Annotation File (GAF) 2.2 format. Columns are written straight to a buffered stream,
+ * so no String is built for a line.
+ */
+class GAFWriter implements GOAnnotationWriter {
+    private static final char COLUMN_SEPARATOR = '\t';
+
+    private final BufferedWriter writer;
+
+    /**
+     * @param writer Writer to write the GAF to; it is closed with this GAFWriter
+     */
+    GAFWriter(Writer writer) {
+        this.writer = writer instanceof BufferedWriter ? (BufferedWriter) writer : new BufferedWriter(writer);
+    }
+
+    /**
+     * Writes a gzipped GAF in one pass, as an AtomicGzipFile.
+     * @param path -- Path of the gzipped GAF
+     * @param content -- Writes the header and annotations of the GAF
+     * @throws IOException -- File writing exceptions.
+     */
+    static void writeGzipGAF(Path path, GOAnnotationWriter.Content content) throws IOException {
+        try (AtomicGzipFile gzipGAF = new AtomicGzipFile(path)) {
+            try (GAFWriter gafWriter = new GAFWriter(gzipGAF.getWriter())) {
+                content.writeTo(gafWriter);
+            }
+            gzipGAF.commit();
+        }
+    }
+
+    /**
+     * Writes the GAF header lines.
+     * @param releaseNumber -- Reactome release version number
+     * @param dateGenerated -- Date on which the file is generated, formatted as YYYY-MM-DD
+     * @throws IOException -- File writing exceptions.
+     */
+    @Override
+    public void writeHeader(String releaseNumber, String dateGenerated) throws IOException {
+        writeLine("!gaf-version: 2.2");
+        writeLine("!generated-by: Reactome");
+        writeLine("!date-generated: " + dateGenerated);
+        writeLine("!Project-release: Version " + releaseNumber);
+    }
+
+    /**
+     * Writes the line of an annotation, with its date and the 'Reactome' columns after the first 13 columns.
+     * @param goAnnotation -- GOAnnotation to write
+     * @param date -- Most recent modification date of the annotation, formatted as YYYYMMDD
+     * @throws IOException -- File writing exceptions.
+     */
+    @Override
+    public void writeAnnotation(GOAnnotation goAnnotation, String date) throws IOException {
+        goAnnotation.appendGOALineColumns(writer);
+        writer.write(COLUMN_SEPARATOR);
+        writer.write(date);
+        writer.write(COLUMN_SEPARATOR);
+        writer.write(REACTOME_STRING);
+        writer.write(COLUMN_SEPARATOR);
+        writer.write(COLUMN_SEPARATOR);
+        writer.write(System.lineSeparator());
+    }
+
+    /**
+     * Writes an annotation line as it was read back from a GAF written by a GAFWriter, without parsing it.
+     * @param annotationLine -- Line of an annotation, without its line separator
+     * @throws IOException -- File writing exceptions.
+     */
+    @Override
+    public void writeAnnotationLine(String annotationLine) throws IOException {
+        writeLine(annotationLine);
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private void writeLine(String line) throws IOException {
+        writer.write(line);
+        writer.write(System.lineSeparator());
+    }
+}
@@ -0,0 +1,204 @@
+package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.gk.model.GKInstance;
+import org.gk.model.ReactomeJavaConstants;
+import org.gk.persistence.MySQLAdaptor;
+
+import java.util.*;
+
+/**
+ * Loads the attributes read by the annotation builders for a collection of ReactionlikeEvents and every instance
+ * reachable from them through those attributes, before any annotation is generated. Otherwise each
+ * getAttributeValue call on an instance whose attributes have not been loaded yet is a query of its own.
+ *
+ * Instances are loaded level by level: the reactions, then the instances their attributes refer to (catalyst
+ * activities, physical entities, stable identifiers, instance edits, ...), then the instances those refer to, and so
+ * on. Each level is grouped by schema class and loaded with one MySQLAdaptor.loadInstanceAttributeValues call per
+ * class (and per INSTANCES_PER_LOAD instances), so the annotation passes afterwards run against memory.
+ */
+class GOAAttributePrefetcher {
+    private static final Logger logger = LogManager.getLogger();
+
+    // Maximum number of instances whose attributes are loaded by a single call to the MySQLAdaptor
+    static final int INSTANCES_PER_LOAD = 1000;
+
+    // Attributes read by the annotation builders whose instance values are prefetched in turn
+    private static final List<String> FOLLOWED_ATTRIBUTES = Arrays.asList(
+        ReactomeJavaConstants.input,
+        ReactomeJavaConstants.output,
+        ReactomeJavaConstants.catalystActivity,
+        ReactomeJavaConstants.catalystActivityReference,
+        ReactomeJavaConstants.literatureReference,
+        ReactomeJavaConstants.activity,
+        ReactomeJavaConstants.activeUnit,
+        ReactomeJavaConstants.physicalEntity,
+        ReactomeJavaConstants.hasComponent,
+        ReactomeJavaConstants.hasMember,
+        ReactomeJavaConstants.repeatedUnit,
+        ReactomeJavaConstants.referenceEntity,
+        ReactomeJavaConstants.referenceDatabase,
+        ReactomeJavaConstants.species,
+        ReactomeJavaConstants.crossReference,
+        ReactomeJavaConstants.compartment,
+        ReactomeJavaConstants.goBiologicalProcess,
+        ReactomeJavaConstants.stableIdentifier,
+        ReactomeJavaConstants.modified,
+        ReactomeJavaConstants.created
+    );
+
+    // Followed attributes referring to the InstanceEdits of an instance, which are not instances it is generated from
+    private static final List<String> INSTANCE_EDIT_ATTRIBUTES = Arrays.asList(
+        ReactomeJavaConstants.modified,
+        ReactomeJavaConstants.created
+    );
+
+    // Attributes read by the annotation builders whose values are only checked or printed
+    private static final List<String> VALUE_ATTRIBUTES = Arrays.asList(
+        ReactomeJavaConstants.inferredFrom,
+        ReactomeJavaConstants.evidenceType,
+        ReactomeJavaConstants.identifier,
+        ReactomeJavaConstants.secondaryIdentifier,
+        ReactomeJavaConstants.geneName,
+        ReactomeJavaConstants.accession,
+        ReactomeJavaConstants.pubMedIdentifier,
+        ReactomeJavaConstants.dateTime
+    );
+
+    // Attributes loaded for every instance reached
+    private static final List<String> LOADED_ATTRIBUTES = new ArrayList<>();
+    static {
+        LOADED_ATTRIBUTES.addAll(FOLLOWED_ATTRIBUTES);
+        LOADED_ATTRIBUTES.addAll(VALUE_ATTRIBUTES);
+    }
+
+    private GOAAttributePrefetcher() {
+        // No-op constructor to ensure the class is used only by static access
+    }
+
+    /**
+     * Loads the attributes needed for GO annotation of the ReactionlikeEvents and of the instances reachable from
+     * the curated ones (inferred ReactionlikeEvents are not annotated, so nothing beyond them is loaded).
+     * @param dbAdaptor -- MySQLAdaptor with which the ReactionlikeEvents were fetched
+     * @param reactionlikeEvents -- ReactionlikeEvent instances to be annotated
+     * @throws Exception -- MySQLAdaptor exception
+     */
+    static void prefetch(MySQLAdaptor dbAdaptor, Collection<GKInstance> reactionlikeEvents) throws Exception {
+        Set<Long> prefetchedDbIds = new HashSet<>();
+        List<GKInstance> level = new ArrayList<>();
+        for (GKInstance reactionInst : reactionlikeEvents) {
+            if (prefetchedDbIds.add(reactionInst.getDBID())) {
+                level.add(reactionInst);
+            }
+        }
+
+        loadAttributesByClass(dbAdaptor, level, LOADED_ATTRIBUTES);
+        level = getReferencedInstances(getCuratedReactionlikeEvents(level), prefetchedDbIds);
+        while (!level.isEmpty()) {
+            loadAttributesByClass(dbAdaptor, level, LOADED_ATTRIBUTES);
+            level = getReferencedInstances(level, prefetchedDbIds);
+        }
+        logger.info("Prefetched GO annotation attributes of " + prefetchedDbIds.size() + " instances");
+    }
+
+    /**
+     * Loads attributes of instances with one MySQLAdaptor.loadInstanceAttributeValues call per schema class (and per
+     * INSTANCES_PER_LOAD instances), skipping the attributes a class doesn't have.
+     * @param dbAdaptor -- MySQLAdaptor with which the instances were fetched
+     * @param instances -- Instances whose attributes to load
+     * @param attributeNames -- Names of the attributes to load
+     * @throws Exception -- MySQLAdaptor exception
+     */
+    static void loadAttributesByClass(MySQLAdaptor dbAdaptor, Collection<GKInstance> instances,
+                                      List<String> attributeNames) throws Exception {
+        Map<String, List<GKInstance>> classNameToInstances = new LinkedHashMap<>();
+        for (GKInstance instance : instances) {
+            classNameToInstances
+                .computeIfAbsent(instance.getSchemClass().getName(), className -> new ArrayList<>())
+                .add(instance);
+        }
+
+        for (List<GKInstance> instancesOfClass : classNameToInstances.values()) {
+            String[] validAttributeNames = getValidAttributes(instancesOfClass.get(0), attributeNames);
+            if (validAttributeNames.length == 0) {
+                continue;
+            }
+            for (int from = 0; from < instancesOfClass.size(); from += INSTANCES_PER_LOAD) {
+                List<GKInstance> instancesToLoad =
+                    instancesOfClass.subList(from, Math.min(from + INSTANCES_PER_LOAD, instancesOfClass.size()));
+                dbAdaptor.loadInstanceAttributeValues(instancesToLoad, validAttributeNames);
+            }
+        }
+    }
+
+    /**
+     * Finds the instances from which a prefetched, curated ReactionlikeEvent's annotations are generated: the
+     * reaction and the instances reachable from it through the followed attributes, other than its InstanceEdits.
+     * @param reactionInst -- ReactionlikeEvent whose attributes, and those of the instances reachable from it, were
+     * prefetched
+     * @return -- DB_IDs of the reaction and of the instances reachable from it
+     * @throws Exception -- MySQLAdaptor exception
+     */
+    static Set<Long> getReachableDbIds(GKInstance reactionInst) throws Exception {
+        Set<Long> reachableDbIds = new HashSet<>();
+        reachableDbIds.add(reactionInst.getDBID());
+        Deque<GKInstance> instancesToFollow = new ArrayDeque<>(Collections.singletonList(reactionInst));
+        while (!instancesToFollow.isEmpty()) {
+            GKInstance instance = instancesToFollow.pop();
+            for (String attributeName : FOLLOWED_ATTRIBUTES) {
+                if (INSTANCE_EDIT_ATTRIBUTES.contains(attributeName) ||
+                    !instance.getSchemClass().isValidAttribute(attributeName)) {
+                    continue;
+                }
+                for (Object value : instance.getAttributeValuesList(attributeName)) {
+                    if (value instanceof GKInstance && reachableDbIds.add(((GKInstance) value).getDBID())) {
+                        instancesToFollow.push((GKInstance) value);
+                    }
+                }
+            }
+        }
+        return reachableDbIds;
+    }
+
+    private static String[] getValidAttributes(GKInstance instance, List<String> attributeNames) {
+        List<String> validAttributeNames = new ArrayList<>();
+        for (String attributeName : attributeNames) {
+            if (instance.getSchemClass().isValidAttribute(attributeName)) {
+                validAttributeNames.add(attributeName);
+            }
+        }
+        return validAttributeNames.toArray(new String[0]);
+    }
+
+    private static List<GKInstance> getReferencedInstances(List<GKInstance> instances, Set<Long> prefetchedDbIds)
+        throws Exception {
+
+        List<GKInstance> referencedInstances = new ArrayList<>();
+        for (GKInstance instance : instances) {
+            for (String attributeName : FOLLOWED_ATTRIBUTES) {
+                if (!instance.getSchemClass().isValidAttribute(attributeName)) {
+                    continue;
+                }
+                for (Object value : instance.getAttributeValuesList(attributeName)) {
+                    if (value instanceof GKInstance && prefetchedDbIds.add(((GKInstance) value).getDBID())) {
+                        referencedInstances.add((GKInstance) value);
+                    }
+                }
+            }
+        }
+        return referencedInstances;
+    }
+
+    private static List<GKInstance> getCuratedReactionlikeEvents(List<GKInstance> reactionlikeEvents)
+        throws Exception {
+
+        List<GKInstance> curatedReactionlikeEvents = new ArrayList<>();
+        for (GKInstance reactionInst : reactionlikeEvents) {
+            if (!GOAGenerationEngine.isInferred(reactionInst)) {
+                curatedReactionlikeEvents.add(reactionInst);
+            }
+        }
+        return curatedReactionlikeEvents;
+    }
+}
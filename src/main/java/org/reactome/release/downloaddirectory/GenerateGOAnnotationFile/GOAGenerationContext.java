@@ -0,0 +1,238 @@
+package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
+
+import org.gk.model.GKInstance;
+import org.gk.model.ReactomeJavaConstants;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * State of a single run of GO annotation file generation, passed through the annotation builders. It holds the most
+ * recent modification date found for each GO annotation. An annotation can be generated from several
+ * proteins/catalysts/reactions, each with its own date, and the annotation receives the latest of them. Dates are
+ * merged atomically, so reactions can be annotated on several threads sharing one context, and each run starts with a
+ * new context so nothing is carried over between runs in the same JVM.
+ *
+ * It also caches, by protein DB_ID, what doesn't change between the annotations of a protein: whether it qualifies
+ * for annotation and, if so, its UniProt identifier, secondary identifier and taxon. The same EWAS appears in many
+ * reactions, and after the first one these are map lookups instead of walks through its attributes.
+ *
+ * The GOBiologicalProcessIndex of the run, used to find the Biological Process accessions of reactions through their
+ * 'hasEvent' referrers, is also reached through the context, as is a ProteinTraversal per thread, which keeps the
+ * proteins of each complex or set expanded for Cellular Component annotations. GKInstances belong to the MySQLAdaptor
+ * of the thread that fetched them, and each worker thread keeps its MySQLAdaptor across partitions.
+ *
+ * The proteins and catalysts disqualified from annotation are counted in the DisqualificationReport of the run.
+ */
+public class GOAGenerationContext {
+    private final Map<GOAnnotation, Integer> dates = new ConcurrentHashMap<>();
+    private final Map<Long, ProteinQualification> proteinQualifications;
+    private final Map<Long, ProteinIdentifiers> proteinIdentifiers;
+    private final GOBiologicalProcessIndex goBiologicalProcessIndex;
+    private final ThreadLocal<ProteinTraversal> proteinTraversals;
+    private final DisqualificationReport disqualificationReport;
+
+    /**
+     * Creates a context with an empty GOBiologicalProcessIndex, so only the 'goBiologicalProcess' accessions of
+     * reactions themselves are used.
+     */
+    public GOAGenerationContext() {
+        this(new GOBiologicalProcessIndex());
+    }
+
+    /**
+     * @param goBiologicalProcessIndex -- GOBiologicalProcessIndex of the database being annotated
+     */
+    GOAGenerationContext(GOBiologicalProcessIndex goBiologicalProcessIndex) {
+        this.proteinQualifications = new ConcurrentHashMap<>();
+        this.proteinIdentifiers = new ConcurrentHashMap<>();
+        this.goBiologicalProcessIndex = goBiologicalProcessIndex;
+        this.proteinTraversals = ThreadLocal.withInitial(CellularComponentAnnotationBuilder::createProteinTraversal);
+        this.disqualificationReport = new DisqualificationReport();
+    }
+
+    // Context sharing everything of the run context but its dates
+    private GOAGenerationContext(GOAGenerationContext runContext) {
+        this.proteinQualifications = runContext.proteinQualifications;
+        this.proteinIdentifiers = runContext.proteinIdentifiers;
+        this.goBiologicalProcessIndex = runContext.goBiologicalProcessIndex;
+        this.proteinTraversals = runContext.proteinTraversals;
+        this.disqualificationReport = runContext.disqualificationReport;
+    }
+
+    /**
+     * Creates a context in which to annotate a single reaction, so the dates recorded for its annotations can be
+     * told apart from those of other reactions. It shares the caches, GOBiologicalProcessIndex, ProteinTraversals and
+     * DisqualificationReport of this context; its dates are merged back with mergeDates.
+     * @return -- GOAGenerationContext with no dates recorded
+     */
+    GOAGenerationContext newReactionContext() {
+        return new GOAGenerationContext(this);
+    }
+
+    /**
+     * @return -- Date recorded for each annotation, formatted as YYYYMMDD
+     */
+    Map<GOAnnotation, Integer> getDates() {
+        return Collections.unmodifiableMap(dates);
+    }
+
+    /**
+     * Records dates for annotations, keeping the date already recorded for an annotation if it is more recent.
+     * @param goAnnotationDates -- Date of each annotation, formatted as YYYYMMDD
+     */
+    void mergeDates(Map<GOAnnotation, Integer> goAnnotationDates) {
+        for (Map.Entry<GOAnnotation, Integer> goAnnotationDate : goAnnotationDates.entrySet()) {
+            dates.merge(goAnnotationDate.getKey(), goAnnotationDate.getValue(), Math::max);
+        }
+    }
+
+    GOBiologicalProcessIndex getGOBiologicalProcessIndex() {
+        return goBiologicalProcessIndex;
+    }
+
+    ProteinTraversal getProteinTraversal() {
+        return proteinTraversals.get();
+    }
+
+    /**
+     * @return -- DisqualificationReport in which the disqualified proteins and catalysts of the run are counted
+     */
+    public DisqualificationReport getDisqualificationReport() {
+        return disqualificationReport;
+    }
+
+    /**
+     * Records the most recent modification (or else creation) date of an instance for an annotation, keeping the date
+     * already recorded for the annotation if it is more recent.
+     * @param entityInst -- GKInstance, Protein/catalyst/reaction that is receiving a GO annotation.
+     * @param goAnnotation -- GOAnnotation generated from the instance.
+     * @throws Exception -- MySQLAdaptor exception.
+     */
+    public void assignDateForGOAnnotation(GKInstance entityInst, GOAnnotation goAnnotation) throws Exception {
+        int instanceDate = GOAGeneratorUtilities.getMostRecentDate(entityInst);
+        dates.merge(goAnnotation, instanceDate, Math::max);
+    }
+
+    /**
+     * Returns the date recorded for an annotation.
+     * @param goAnnotation -- GOAnnotation for which to get the date.
+     * @return -- String, date formatted as YYYYMMDD
+     * @throws IllegalStateException -- Thrown if no date was recorded for the annotation
+     */
+    public String getDateForGOAnnotation(GOAnnotation goAnnotation) {
+        Integer date = dates.get(goAnnotation);
+        if (date == null) {
+            throw new IllegalStateException("No date was assigned for GO annotation " + goAnnotation);
+        }
+        return date.toString();
+    }
+
+    /**
+     * Returns the issue disqualifying the protein from GO annotation, described from the reason cached by
+     * getAnyReasonForAnnotationDisqualification.
+     * @param protein -- GKInstance, Protein to check for issue disqualifying it for using in GAF annotation
+     * @return -- String describing first issue found or an empty String if no issue.
+     * @throws Exception -- Thrown if there is a problem in retrieving information from the database for species or
+     * reference database
+     */
+    public String getAnyIssueForAnnotationDisqualification(GKInstance protein) throws Exception {
+        DisqualificationReason reason = getAnyReasonForAnnotationDisqualification(protein);
+        return reason != null ? reason.describe(protein.getExtendedDisplayName()) : "";
+    }
+
+    /**
+     * Returns the reason disqualifying the protein from GO annotation, as found by
+     * GOAGeneratorUtilities.getAnyReasonForAnnotationDisqualification the first time the protein is checked.
+     * @param protein -- GKInstance, Protein to check for issue disqualifying it for using in GAF annotation
+     * @return -- DisqualificationReason of the first issue found or null if no issue.
+     * @throws Exception -- Thrown if there is a problem in retrieving information from the database for species or
+     * reference database
+     */
+    public DisqualificationReason getAnyReasonForAnnotationDisqualification(GKInstance protein) throws Exception {
+        return getProteinQualification(protein).disqualificationReason;
+    }
+
+    /**
+     * Returns the taxon identifier of a protein that qualifies for GO annotation.
+     * @param protein -- GKInstance, Protein for which there is no issue disqualifying it for GO annotation
+     * @return -- Taxon identifier
+     * @throws Exception -- MySQLAdaptor exception
+     * @throws IllegalArgumentException -- Thrown if the protein is disqualified for GO annotation
+     */
+    public String getTaxonIdentifier(GKInstance protein) throws Exception {
+        ProteinQualification proteinQualification = getProteinQualification(protein);
+        if (proteinQualification.disqualificationReason != null) {
+            throw new IllegalArgumentException(
+                proteinQualification.disqualificationReason.describe(protein.getExtendedDisplayName())
+            );
+        }
+        return proteinQualification.taxonIdentifier;
+    }
+
+    /**
+     * Builds the GO annotation of a protein like GOAGeneratorUtilities.generateGOAnnotation, with the protein's
+     * identifiers and taxon taken from the cache.
+     * @param protein -- GKInstance, protein for which to get an annotation.
+     * @param goLetter -- String, can be "C", "F" or "P" for Cellular Component, Molecular Function, or Biological
+     * Process annotations, respectively.
+     * @param goQualifier -- String, GO Qualifier that describes the association meaning between a protein and a
+     * GO term
+     * @param goAccession -- String, GO accession taken from the protein/catalyst/reaction instance.
+     * @param eventIdentifier -- String, identifier of the protein/catalyst/reaction with either a 'REACTOME' or
+     * 'PMID' prefix.
+     * @param evidenceCode -- String, Will be either "TAS" (Traceable Author Statement) or "EXP" (Experimentally
+     * Inferred).
+     * @return -- GOAnnotation of the protein
+     * @throws Exception -- MySQLAdaptor exception.
+     */
+    public GOAnnotation generateGOAnnotation(GKInstance protein, String goLetter, String goQualifier,
+                                             String goAccession, String eventIdentifier, String evidenceCode)
+        throws Exception {
+
+        ProteinIdentifiers identifiers = proteinIdentifiers.get(protein.getDBID());
+        if (identifiers == null) {
+            identifiers = new ProteinIdentifiers(protein);
+            proteinIdentifiers.putIfAbsent(protein.getDBID(), identifiers);
+        }
+        return new GOAnnotation(
+            identifiers.uniProtIdentifier, identifiers.secondaryIdentifier, goQualifier, goAccession, eventIdentifier,
+            evidenceCode, goLetter, getTaxonIdentifier(protein)
+        );
+    }
+
+    // Two threads checking a protein for the first time at once both compute its (identical) qualification
+    private ProteinQualification getProteinQualification(GKInstance protein) throws Exception {
+        ProteinQualification proteinQualification = proteinQualifications.get(protein.getDBID());
+        if (proteinQualification == null) {
+            proteinQualification = new ProteinQualification(protein);
+            proteinQualifications.putIfAbsent(protein.getDBID(), proteinQualification);
+        }
+        return proteinQualification;
+    }
+
+    private static class ProteinQualification {
+        private final DisqualificationReason disqualificationReason;
+        // Only set for qualified proteins, as disqualified ones may have no species
+        private final String taxonIdentifier;
+
+        private ProteinQualification(GKInstance protein) throws Exception {
+            this.disqualificationReason = GOAGeneratorUtilities.getAnyReasonForAnnotationDisqualification(protein);
+            this.taxonIdentifier = disqualificationReason == null ?
+                GOAGeneratorUtilities.getTaxonIdentifier(protein) :
+                null;
+        }
+    }
+
+    private static class ProteinIdentifiers {
+        private final String uniProtIdentifier;
+        private final String secondaryIdentifier;
+
+        private ProteinIdentifiers(GKInstance protein) throws Exception {
+            this.uniProtIdentifier = GOAGeneratorUtilities.getReferenceEntityFromProtein(protein)
+                .getAttributeValue(ReactomeJavaConstants.identifier).toString();
+            this.secondaryIdentifier = GOAGeneratorUtilities.getSecondaryIdentifier(protein);
+        }
+    }
+}
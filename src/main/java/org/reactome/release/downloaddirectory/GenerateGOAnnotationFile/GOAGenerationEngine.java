@@ -0,0 +1,293 @@
+package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.gk.model.GKInstance;
+import org.gk.model.ReactomeJavaConstants;
+import org.gk.persistence.MySQLAdaptor;
+
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates the GO annotations of a collection of ReactionlikeEvents, either serially or by partitioning the
+ * reactions across a pool of worker threads.
+ *
+ * A MySQLAdaptor (and the GKInstances it loads) can't be shared between threads, so each worker opens its own
+ * adaptor to the same database and fetches the reactions of its partitions through it. The annotation sets of all
+ * partitions are merged afterwards. All workers record annotation dates in the same GOAGenerationContext, which keeps
+ * the most recent date found for an annotation regardless of the order in which reactions are processed, so the
+ * sorted file is the same as the one of a serial run.
+ *
+ * Before reactions are annotated, the attributes the builders read are bulk loaded by GOAAttributePrefetcher: for
+ * all reactions at once when running serially, or for each partition by the worker that annotates it.
+ *
+ * Reactions can also be partitioned by species, so that no partition mixes the reactions of several species. The
+ * annotations are still merged into one set, as the annotations of a protein can come from reactions of several
+ * species; CreateGOAFile splits them by taxon when writing the species shards.
+ *
+ * When given a GOAnnotationStore, the engine stores the annotations of each reaction it annotates, with their dates
+ * and the DB_IDs of the instances they depend on. Each reaction is then annotated in a context of its own, whose
+ * dates are merged into the context of the run.
+ */
+class GOAGenerationEngine {
+    private static final Logger logger = LogManager.getLogger();
+
+    // Number of reactions fetched and annotated together by a worker
+    static final int REACTIONS_PER_PARTITION = 100;
+    // Time given to interrupted workers to finish their current query before their adaptors are closed
+    private static final long WORKER_TERMINATION_TIMEOUT_SECONDS = 60;
+
+    private final MySQLAdaptor dbAdaptor;
+    private final int parallelism;
+    private final boolean partitionBySpecies;
+    private final GOAnnotationStore goAnnotationStore;
+
+    /**
+     * @param dbAdaptor -- MySQLAdaptor for database, also used to open the adaptors of the worker threads
+     * @param parallelism -- Number of worker threads. Reactions are processed on the calling thread with dbAdaptor
+     * when this is 1 or less.
+     * @param partitionBySpecies -- Whether the reactions of each species are partitioned separately
+     */
+    GOAGenerationEngine(MySQLAdaptor dbAdaptor, int parallelism, boolean partitionBySpecies) {
+        this(dbAdaptor, parallelism, partitionBySpecies, null);
+    }
+
+    /**
+     * @param dbAdaptor -- MySQLAdaptor for database, also used to open the adaptors of the worker threads
+     * @param parallelism -- Number of worker threads. Reactions are processed on the calling thread with dbAdaptor
+     * when this is 1 or less.
+     * @param partitionBySpecies -- Whether the reactions of each species are partitioned separately
+     * @param goAnnotationStore -- GOAnnotationStore in which to store the annotations of each reaction, or null
+     */
+    GOAGenerationEngine(MySQLAdaptor dbAdaptor, int parallelism, boolean partitionBySpecies,
+                        GOAnnotationStore goAnnotationStore) {
+        this.dbAdaptor = dbAdaptor;
+        this.parallelism = parallelism;
+        this.partitionBySpecies = partitionBySpecies;
+        this.goAnnotationStore = goAnnotationStore;
+    }
+
+    /**
+     * Generates the GO annotations of all curated (i.e. not inferred) ReactionlikeEvents.
+     * @param reactionlikeEvents -- ReactionlikeEvent instances fetched with the engine's MySQLAdaptor
+     * @param context -- GOAGenerationContext of the run, in which the dates of the annotations are recorded
+     * @return Set of GO annotations
+     * @throws Exception -- MySQLAdaptor exception
+     */
+    Set<GOAnnotation> generateGOAnnotations(Collection<GKInstance> reactionlikeEvents, GOAGenerationContext context)
+        throws Exception {
+
+        if (parallelism <= 1) {
+            GOAAttributePrefetcher.prefetch(dbAdaptor, reactionlikeEvents);
+
+            Set<GOAnnotation> goAnnotations = new LinkedHashSet<>();
+            for (GKInstance reactionInst : reactionlikeEvents) {
+                goAnnotations.addAll(generateGOAnnotations(reactionInst, context, goAnnotationStore));
+            }
+            return goAnnotations;
+        }
+
+        List<List<Long>> partitions;
+        if (partitionBySpecies) {
+            GOAAttributePrefetcher.loadAttributesByClass(
+                dbAdaptor, reactionlikeEvents, Collections.singletonList(ReactomeJavaConstants.species)
+            );
+            partitions = getSpeciesPartitions(reactionlikeEvents);
+        } else {
+            partitions = getPartitions(reactionlikeEvents);
+        }
+        return generateGOAnnotationsInParallel(partitions, context);
+    }
+
+    /**
+     * Generates the Cellular Component, Molecular Function and Biological Process annotations of one reaction.
+     * @param reactionInst -- GKInstance from ReactionlikeEvent class
+     * @param context -- GOAGenerationContext of the run, in which the dates of the annotations are recorded
+     * @return Set of GO annotations, empty if the reaction is inferred
+     * @throws Exception -- MySQLAdaptor exception
+     */
+    static Set<GOAnnotation> generateGOAnnotations(GKInstance reactionInst, GOAGenerationContext context) throws Exception {
+        Set<GOAnnotation> goAnnotations = new LinkedHashSet<>();
+        // Only finding GO accessions from curated ReactionlikeEvents
+        if (!isInferred(reactionInst)) {
+            logger.debug("Creating GO annotations for {}", reactionInst);
+
+            goAnnotations.addAll(CellularComponentAnnotationBuilder.processCellularComponents(reactionInst, context));
+            goAnnotations.addAll(MolecularFunctionAnnotationBuilder.processMolecularFunctions(reactionInst, context));
+            goAnnotations.addAll(BiologicalProcessAnnotationBuilder.processBiologicalFunctions(reactionInst, context));
+        }
+        return goAnnotations;
+    }
+
+    // Generates the annotations of a reaction and, if there is a store, stores them with their dates and dependencies
+    private static Set<GOAnnotation> generateGOAnnotations(GKInstance reactionInst, GOAGenerationContext context,
+                                                           GOAnnotationStore goAnnotationStore) throws Exception {
+        if (goAnnotationStore == null) {
+            return generateGOAnnotations(reactionInst, context);
+        }
+
+        GOAGenerationContext reactionContext = context.newReactionContext();
+        Set<GOAnnotation> goAnnotations = generateGOAnnotations(reactionInst, reactionContext);
+        context.mergeDates(reactionContext.getDates());
+
+        // Inferred reactions are not followed any further by the prefetcher, and only change by changing themselves
+        Set<Long> dependencyDbIds = isInferred(reactionInst) ?
+            new HashSet<>(Collections.singleton(reactionInst.getDBID())) :
+            GOAAttributePrefetcher.getReachableDbIds(reactionInst);
+        dependencyDbIds.addAll(
+            context.getGOBiologicalProcessIndex().getReferrerDependencyDbIds(reactionInst.getDBID())
+        );
+        goAnnotationStore.put(reactionInst.getDBID(), dependencyDbIds, reactionContext.getDates());
+        return goAnnotations;
+    }
+
+    // Splits the DB_IDs of the reactions, in ascending order, into partitions of at most REACTIONS_PER_PARTITION
+    static List<List<Long>> getPartitions(Collection<GKInstance> reactionlikeEvents) {
+        List<Long> dbIds = new ArrayList<>();
+        for (GKInstance reactionInst : reactionlikeEvents) {
+            dbIds.add(reactionInst.getDBID());
+        }
+        return partition(dbIds);
+    }
+
+    // Groups the reactions by the DB_ID of their (first) species, in ascending order and with reactions without a
+    // species first, and splits each group like getPartitions, so that a partition has reactions of one species only
+    static List<List<Long>> getSpeciesPartitions(Collection<GKInstance> reactionlikeEvents) throws Exception {
+        Map<Long, List<Long>> speciesDbIdToReactionDbIds =
+            new TreeMap<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+        for (GKInstance reactionInst : reactionlikeEvents) {
+            GKInstance species = (GKInstance) reactionInst.getAttributeValue(ReactomeJavaConstants.species);
+            speciesDbIdToReactionDbIds
+                .computeIfAbsent(species != null ? species.getDBID() : null, speciesDbId -> new ArrayList<>())
+                .add(reactionInst.getDBID());
+        }
+
+        List<List<Long>> partitions = new ArrayList<>();
+        for (List<Long> reactionDbIds : speciesDbIdToReactionDbIds.values()) {
+            partitions.addAll(partition(reactionDbIds));
+        }
+        return partitions;
+    }
+
+    private static List<List<Long>> partition(List<Long> dbIds) {
+        List<Long> sortedDbIds = new ArrayList<>(dbIds);
+        Collections.sort(sortedDbIds);
+
+        List<List<Long>> partitions = new ArrayList<>();
+        for (int from = 0; from < sortedDbIds.size(); from += REACTIONS_PER_PARTITION) {
+            partitions.add(new ArrayList<>(
+                sortedDbIds.subList(from, Math.min(from + REACTIONS_PER_PARTITION, sortedDbIds.size()))
+            ));
+        }
+        return partitions;
+    }
+
+    private Set<GOAnnotation> generateGOAnnotationsInParallel(List<List<Long>> partitions, GOAGenerationContext context)
+        throws Exception {
+
+        logger.info("Generating GO annotations for " + partitions.size() + " partitions of reactions with " +
+            parallelism + " threads");
+
+        List<MySQLAdaptor> workerAdaptors = Collections.synchronizedList(new ArrayList<>());
+        ThreadLocal<MySQLAdaptor> workerAdaptor = ThreadLocal.withInitial(() -> {
+            MySQLAdaptor adaptor = openWorkerAdaptor();
+            workerAdaptors.add(adaptor);
+            return adaptor;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<Set<GOAnnotation>>> partitionResults = new ArrayList<>();
+            for (List<Long> partition : partitions) {
+                partitionResults.add(executor.submit(
+                    () -> generateGOAnnotations(workerAdaptor.get(), partition, context, goAnnotationStore)
+                ));
+            }
+
+            Set<GOAnnotation> goAnnotations = new LinkedHashSet<>();
+            for (Future<Set<GOAnnotation>> partitionResult : partitionResults) {
+                goAnnotations.addAll(getResult(partitionResult));
+            }
+            return goAnnotations;
+        } finally {
+            executor.shutdownNow();
+            awaitTermination(executor);
+            for (MySQLAdaptor adaptor : workerAdaptors) {
+                adaptor.cleanUp();
+            }
+        }
+    }
+
+    /**
+     * Waits for the workers to stop, so their adaptors aren't closed while a query is still running on them.
+     * @param executor -- ExecutorService of the workers, already shut down
+     */
+    private static void awaitTermination(ExecutorService executor) {
+        try {
+            if (!executor.awaitTermination(WORKER_TERMINATION_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                logger.warn("GO annotation workers still running after " + WORKER_TERMINATION_TIMEOUT_SECONDS +
+                    " seconds, closing their database connections");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<GOAnnotation> generateGOAnnotations(MySQLAdaptor workerAdaptor, List<Long> reactionDbIds,
+                                                GOAGenerationContext context, GOAnnotationStore goAnnotationStore)
+        throws Exception {
+
+        Collection<GKInstance> reactionlikeEvents = workerAdaptor.fetchInstanceByAttribute(
+            ReactomeJavaConstants.ReactionlikeEvent, ReactomeJavaConstants.DB_ID, "=", reactionDbIds
+        );
+        GOAAttributePrefetcher.prefetch(workerAdaptor, reactionlikeEvents);
+
+        Set<GOAnnotation> goAnnotations = new LinkedHashSet<>();
+        for (GKInstance reactionInst : reactionlikeEvents) {
+            goAnnotations.addAll(generateGOAnnotations(reactionInst, context, goAnnotationStore));
+        }
+        return goAnnotations;
+    }
+
+    private MySQLAdaptor openWorkerAdaptor() {
+        try {
+            return new MySQLAdaptor(
+                dbAdaptor.getDBHost(), dbAdaptor.getDBName(), dbAdaptor.getDBUser(), dbAdaptor.getDBPwd(),
+                dbAdaptor.getDBPort()
+            );
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to connect to " + dbAdaptor.getDBName(), e);
+        }
+    }
+
+    private static Set<GOAnnotation> getResult(Future<Set<GOAnnotation>> partitionResult) throws Exception {
+        try {
+            return partitionResult.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    // Parent method that houses electronically and manually inferred instance checks.
+    static boolean isInferred(GKInstance reactionInst) throws Exception {
+        return isElectronicallyInferred(reactionInst) || isManuallyInferred(reactionInst);
+    }
+
+    private static boolean isManuallyInferred(GKInstance reactionInst) throws Exception {
+        return reactionInst.getAttributeValue(ReactomeJavaConstants.inferredFrom) != null;
+    }
+
+    private static boolean isElectronicallyInferred(GKInstance reactionInst) throws Exception {
+        return reactionInst.getAttributeValue(ReactomeJavaConstants.evidenceType) != null;
+    }
+}
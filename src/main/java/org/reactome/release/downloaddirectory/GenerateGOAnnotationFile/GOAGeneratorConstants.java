@@ -3,6 +3,8 @@ package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
 public class GOAGeneratorConstants {
 
     public static final String GOA_FILENAME = "gene_association.reactome";
+    public static final String GPAD_FILENAME = "reactome.gpad";
+    public static final String GPI_FILENAME = "reactome.gpi";
 
     public static final String BIOLOGICAL_PROCESS_LETTER = "P";
     public static final String CELLULAR_COMPONENT_LETTER = "C";
@@ -13,6 +15,11 @@ public class GOAGeneratorConstants {
     public static final String CELLULAR_COMPONENT_QUALIFIER = "located_in";
     public static final String MOLECULAR_FUNCTION_QUALIFIER = "enables";
 
+    // Relation Ontology terms of the GO Qualifiers, used in GPAD files
+    public static final String INVOLVED_IN_RELATION = "RO:0002331";
+    public static final String LOCATED_IN_RELATION = "RO:0001025";
+    public static final String ENABLES_RELATION = "RO:0002327";
+
     // Species with alternate GO compartment
     public static final String B_ANTHRACIS_CROSS_REFERENCE = "1392";
     public static final String C_BOTULINUM_CROSS_REFERENCE = "1491";
@@ -42,8 +49,13 @@ public class GOAGeneratorConstants {
     public static final String GO_IDENTIFIER_PREFIX = "GO:";
     public static final String TRACEABLE_AUTHOR_STATEMENT_CODE = "TAS";
     public static final String INFERRED_FROM_EXPERIMENT_CODE = "EXP";
+    // Evidence & Conclusion Ontology terms of the evidence codes, used in GPAD files
+    public static final String TRACEABLE_AUTHOR_STATEMENT_EVIDENCE = "ECO:0000304";
+    public static final String INFERRED_FROM_EXPERIMENT_EVIDENCE = "ECO:0000269";
     public static final String PROTEIN_STRING = "protein";
     public static final String TAXON_PREFIX = "taxon:";
+    public static final String PROTEIN_ONTOLOGY_PROTEIN = "PR:000000001";
+    public static final String NCBI_TAXON_PREFIX = "NCBITaxon:";
     public static final String REACTOME_STRING = "Reactome";
 
 }
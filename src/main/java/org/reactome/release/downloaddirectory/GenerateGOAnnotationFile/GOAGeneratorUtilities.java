@@ -1,7 +1,5 @@
 package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 import org.gk.model.GKInstance;
 import org.gk.model.ReactomeJavaConstants;
 
@@ -14,7 +12,6 @@ import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 public class GOAGeneratorUtilities {
-    private static final Logger logger = LogManager.getLogger();
 
     // CrossReference IDs of excluded microbial species:
     // C. trachomatis, E. coli, N. meningitidis, S. typhimurium, S. aureus, and T. gondii
@@ -22,7 +19,6 @@ public class GOAGeneratorUtilities {
         C_TRACHOMATIS_CROSS_REFERENCE, E_COLI_CROSS_REFERENCE, N_MENINGITIDIS_CROSS_REFERENCE,
         S_AUREUS_CROSS_REFERENCE, S_TYPHIMURIUM_CROSS_REFERENCE, T_GONDII_CROSS_REFERENCE
     );
-    private static Map<String, Integer> dates = new HashMap<>();
 
     private GOAGeneratorUtilities() {
         // No-op constructor to ensure the class is used only by static access
@@ -41,44 +37,49 @@ public class GOAGeneratorUtilities {
      * reference database
      */
     public static String getAnyIssueForAnnotationDisqualification(GKInstance protein) throws Exception {
+        DisqualificationReason reason = getAnyReasonForAnnotationDisqualification(protein);
+        return reason != null ? reason.describe(protein.getExtendedDisplayName()) : "";
+    }
+
+    /**
+     * Checks the protein for the issues of getAnyIssueForAnnotationDisqualification, without describing them.
+     * @param protein Protein to check for issue disqualifying it for using in GAF annotation
+     * @return -- DisqualificationReason of the first issue found or null if no issue.
+     * @throws Exception -- Thrown if there is a problem in retrieving information from the database for species or
+     * reference database
+     */
+    public static DisqualificationReason getAnyReasonForAnnotationDisqualification(GKInstance protein)
+        throws Exception {
         throwIfGKInstanceIsNotAnEWAS(protein);
 
-        String proteinIssue = "";
         if (!isValidProtein(protein)) {
-            proteinIssue = protein.getExtendedDisplayName() + " is an invalid protein, skipping GO annotation";
+            return DisqualificationReason.INVALID_PROTEIN;
         } else if (hasExcludedMicrobialSpecies(protein)) {
-            proteinIssue = protein.getExtendedDisplayName() + " is from an excluded microbial species, " +
-                "skipping GO annotation";
+            return DisqualificationReason.EXCLUDED_MICROBIAL_SPECIES;
         }
-
-        return proteinIssue;
+        return null;
     }
 
     /**
      * Retrieves protein instances from a CatalystActivity instance's "activeUnit" attribute (or "physicalEntity"
-     * attribute when the "activeUnit" is empty) when the attribute value is either:
+     * attribute when the "activeUnit" is empty), which is either:
      * 1) An EWAS
      * 2) An EntitySet whose members are exclusively EWASs
-     * @param catalystActivity -- GKInstance, CatalystActivity instance from a ReactionlikeEvent
+     * The CatalystActivity must first be checked with getAnyReasonForCatalystActivityDisqualification, so that its
+     * ActiveUnit (or PhysicalEntity) is only checked once; this method doesn't check it again.
+     * @param catalystActivity -- GKInstance, CatalystActivity instance from a ReactionlikeEvent, for which
+     * getAnyReasonForCatalystActivityDisqualification returned null
      * @return Set of GKInstances, retrieved protein instances from either ActiveUnit or PhysicalEntity.
-     * NOTE: Returns an empty set if the CatalystActivity's ActiveUnit (or PhysicalEntity if ActiveUnit is empty) is
-     * not an EWAS or EntitySet with only member EWASs.
      * @throws Exception -- MySQLAdaptor exception.
      */
     public static Set<GKInstance> getGOAnnotatableProteinsFromCatalystActivity(GKInstance catalystActivity)
         throws Exception {
 
-        String warningMessage = validateCatalystActivity(catalystActivity);
-        if (!warningMessage.isEmpty()) {
-            logger.warn(warningMessage);
-            return new HashSet<>();
-        }
-
         Set<GKInstance> proteinInstances = new HashSet<>();
         GKInstance activeUnitOrPhysicalEntity = getActiveUnitIfFilledOrElsePhysicalEntity(catalystActivity);
         if (isAnEWAS(activeUnitOrPhysicalEntity)) {
             proteinInstances.add(activeUnitOrPhysicalEntity);
-        } else if (isASetWithOnlyEWASMembers(activeUnitOrPhysicalEntity)) {
+        } else {
             proteinInstances.addAll(
                 activeUnitOrPhysicalEntity.getAttributeValuesList(ReactomeJavaConstants.hasMember)
             );
@@ -87,7 +88,7 @@ public class GOAGeneratorUtilities {
     }
 
     /**
-     * Builds most of the GO annotation line that will be added to gene_association.reactome.
+     * Builds the GO annotation of a protein that will be added to gene_association.reactome.
      *
      * @param protein -- GKInstance, protein for which to get an annotation line.
      * @param goLetter -- String, can be "C", "F" or "P" for Cellular Component, Molecular Function, or Biological
@@ -99,32 +100,25 @@ public class GOAGeneratorUtilities {
      * 'REACTOME' or 'PMID' prefix.
      * @param evidenceCode -- String, Will be either "TAS" (Traceable Author Statement) or "EXP" (Experimentally
      * Inferred). Most will be TAS, unless there is a PMID accession.
-     * @return -- GO annotation line, excluding the DateTime and 'Reactome' columns.
+     * @return -- GOAnnotation, holding the columns of the GO annotation line that vary between annotations.
      * @throws Exception -- MySQLAdaptor exception.
      */
-    public static String generateGOALine(GKInstance protein, String goLetter, String goQualifier,
-                                         String goAccession, String eventIdentifier, String evidenceCode)
+    public static GOAnnotation generateGOAnnotation(GKInstance protein, String goLetter, String goQualifier,
+                                                    String goAccession, String eventIdentifier, String evidenceCode)
         throws Exception {
 
         throwIfGKInstanceIsNotAnEWAS(protein);
 
-        List<String> goaLine = new ArrayList<>();
-        goaLine.add(UNIPROT_KB_STRING);
-        goaLine.add(
-            getReferenceEntityFromProtein(protein).getAttributeValue(ReactomeJavaConstants.identifier).toString()
+        return new GOAnnotation(
+            getReferenceEntityFromProtein(protein).getAttributeValue(ReactomeJavaConstants.identifier).toString(),
+            getSecondaryIdentifier(protein),
+            goQualifier,
+            goAccession,
+            eventIdentifier,
+            evidenceCode,
+            goLetter,
+            getTaxonIdentifier(protein)
         );
-        goaLine.add(getSecondaryIdentifier(protein));
-        goaLine.add(goQualifier);
-        goaLine.add(goAccession);
-        goaLine.add(eventIdentifier);
-        goaLine.add(evidenceCode);
-        goaLine.add("");
-        goaLine.add(goLetter);
-        goaLine.add("");
-        goaLine.add("");
-        goaLine.add(PROTEIN_STRING);
-        goaLine.add(TAXON_PREFIX + getTaxonIdentifier(protein));
-        return String.join("\t", goaLine);
     }
 
     /**
@@ -139,38 +133,26 @@ public class GOAGeneratorUtilities {
     }
 
     /**
-     * Finds most recent modification date for a GOA line. This is a bit of a moving target since GOA lines can be
-     * generated convergently for each type of GO annotation. Depending on if it is looking at the individual protein
-     * or whole reaction level, the date attribute may not be the most recent. If it is found that the goaLine was
-     * generated earlier but that a more recent modification date exists based on the entity that is currently being
-     * checked, then it will just update that date value in the hash associated with the line. (Yes, this is weird).
+     * Finds the most recent modification date of an instance, or its creation date if it was never modified. A GO
+     * annotation can be generated from several proteins/catalysts/reactions, so the date of each is recorded against
+     * the annotation in a GOAGenerationContext, which keeps the most recent one.
      * @param entityInst -- GKInstance, Protein/catalyst/reaction that is receiving a GO annotation.
-     * @param goaLine -- String, GO annotation line, used for checking the 'dates' structure.
      * @return -- int, parsed from the dateTime of the entityInst's modified or created attributes.
      * @throws Exception -- MySQLAdaptor exception.
+     * @see GOAGenerationContext#assignDateForGOAnnotation(GKInstance, GOAnnotation)
      */
-    public static void assignDateForGOALine(GKInstance entityInst, String goaLine) throws Exception {
-        int instanceDate;
+    public static int getMostRecentDate(GKInstance entityInst) throws Exception {
         Collection<GKInstance> modifiedInstances = entityInst.getAttributeValuesList(ReactomeJavaConstants.modified);
         if (!modifiedInstances.isEmpty()) {
             List<GKInstance> modifiedInstancesList = new ArrayList<>(modifiedInstances);
             GKInstance mostRecentModifiedInst = modifiedInstancesList.get(modifiedInstancesList.size() - 1);
-            instanceDate = getDate(mostRecentModifiedInst);
+            return getDate(mostRecentModifiedInst);
         } else {
             GKInstance createdInst = (GKInstance) entityInst.getAttributeValue(ReactomeJavaConstants.created);
-            instanceDate = getDate(createdInst);
-        }
-
-        // Stores date in global hash that allows date value to be updated if a more recent date was found.
-        if (dates.get(goaLine) == null || instanceDate > dates.get(goaLine)) {
-            dates.put(goaLine, instanceDate);
+            return getDate(createdInst);
         }
     }
 
-    public static String getDateForGOALine(String goaLine) {
-        return dates.get(goaLine).toString();
-    }
-
     /**
      * Verifies existence of the protein's ReferenceEntity and Species, and that the ReferenceDatabase associated with
      * the ReferenceEntity is from UniProt.
@@ -288,21 +270,24 @@ public class GOAGeneratorUtilities {
         }
     }
 
-    private static String validateCatalystActivity(GKInstance catalystActivity) throws Exception {
+    /**
+     * Checks that the CatalystActivity's ActiveUnit (or PhysicalEntity if ActiveUnit is empty) exists, has a
+     * compartment and is either an EWAS or an EntitySet whose members are exclusively EWASs.
+     * @param catalystActivity -- GKInstance, CatalystActivity instance from a ReactionlikeEvent
+     * @return -- DisqualificationReason of the first issue found or null if no issue.
+     * @throws Exception -- MySQLAdaptor exception.
+     */
+    public static DisqualificationReason getAnyReasonForCatalystActivityDisqualification(GKInstance catalystActivity)
+        throws Exception {
         GKInstance activeUnitOrPhysicalEntity = getActiveUnitIfFilledOrElsePhysicalEntity(catalystActivity);
-        String warningMessage = "";
         if (activeUnitOrPhysicalEntity == null) {
-            warningMessage = "Active Unit/Physical Entity in " + catalystActivity.getExtendedDisplayName() +
-                " is null - skipping annotation";
+            return DisqualificationReason.CATALYST_WITHOUT_ACTIVE_UNIT_OR_PHYSICAL_ENTITY;
         } else if (!hasCompartment(activeUnitOrPhysicalEntity)) {
-            warningMessage = "Active Unit/Physical Entity " + activeUnitOrPhysicalEntity.getExtendedDisplayName() +
-                " has no compartment in Catalyst Activity " + catalystActivity.getExtendedDisplayName() + " -" +
-                " skipping annotation";
+            return DisqualificationReason.CATALYST_ENTITY_WITHOUT_COMPARTMENT;
         } else if (!isAnEWAS(activeUnitOrPhysicalEntity) && !isASetWithOnlyEWASMembers(activeUnitOrPhysicalEntity)) {
-            warningMessage = "Active Unit/Physical Entity " + activeUnitOrPhysicalEntity.getExtendedDisplayName() +
-                " is not an EWAS or an EntitySet with only EWAS members - skipping annotation";
+            return DisqualificationReason.CATALYST_ENTITY_NOT_EWAS_OR_EWAS_SET;
         }
-        return warningMessage;
+        return null;
     }
 
     /**
@@ -0,0 +1,211 @@
+package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
+
+import java.io.IOException;
+import java.util.Objects;
+
+import static org.reactome.release.downloaddirectory.GenerateGOAnnotationFile.GOAGeneratorConstants.PROTEIN_STRING;
+import static org.reactome.release.downloaddirectory.GenerateGOAnnotationFile.GOAGeneratorConstants.TAXON_PREFIX;
+import static org.reactome.release.downloaddirectory.GenerateGOAnnotationFile.GOAGeneratorConstants.UNIPROT_KB_STRING;
+
+/**
+ * Immutable GO annotation of a protein, holding the columns of its line in gene_association.reactome that vary
+ * between annotations. The remaining columns (DB, With/From, DB Object Name and Synonym, DB Object Type) are
+ * constant and only added when the annotation is written.
+ *
+ * The hash code is computed once. Annotations are ordered as their GOA lines (the first 13 columns) would be as
+ * Strings, so sorting annotations gives the same order as sorting the lines did.
+ */
+public class GOAnnotation implements Comparable<GOAnnotation> {
+    private static final char COLUMN_SEPARATOR = '\t';
+
+    private final String uniProtIdentifier;
+    private final String secondaryIdentifier;
+    private final String goQualifier;
+    private final String goAccession;
+    private final String eventIdentifier;
+    private final String evidenceCode;
+    private final String goLetter;
+    private final String taxonIdentifier;
+    private final int hashCode;
+
+    /**
+     * @param uniProtIdentifier -- String, identifier of the protein's UniProt reference entity
+     * @param secondaryIdentifier -- String, secondary identifier of the protein for GO
+     * @param goQualifier -- String, GO Qualifier that describes the association meaning between a protein and a GO term
+     * @param goAccession -- String, GO accession with the 'GO:' prefix
+     * @param eventIdentifier -- String, identifier with either a 'REACTOME' or 'PMID' prefix
+     * @param evidenceCode -- String, "TAS" or "EXP"
+     * @param goLetter -- String, "C", "F" or "P" for Cellular Component, Molecular Function or Biological Process
+     * @param taxonIdentifier -- String, NCBI taxon identifier of the protein's species, without the 'taxon:' prefix
+     */
+    public GOAnnotation(String uniProtIdentifier, String secondaryIdentifier, String goQualifier, String goAccession,
+                        String eventIdentifier, String evidenceCode, String goLetter, String taxonIdentifier) {
+        this.uniProtIdentifier = Objects.requireNonNull(uniProtIdentifier);
+        this.secondaryIdentifier = Objects.requireNonNull(secondaryIdentifier);
+        this.goQualifier = Objects.requireNonNull(goQualifier);
+        this.goAccession = Objects.requireNonNull(goAccession);
+        this.eventIdentifier = Objects.requireNonNull(eventIdentifier);
+        this.evidenceCode = Objects.requireNonNull(evidenceCode);
+        this.goLetter = Objects.requireNonNull(goLetter);
+        this.taxonIdentifier = Objects.requireNonNull(taxonIdentifier);
+        this.hashCode = Objects.hash(
+            uniProtIdentifier, secondaryIdentifier, goQualifier, goAccession, eventIdentifier, evidenceCode, goLetter,
+            taxonIdentifier
+        );
+    }
+
+    public String getUniProtIdentifier() {
+        return uniProtIdentifier;
+    }
+
+    public String getSecondaryIdentifier() {
+        return secondaryIdentifier;
+    }
+
+    public String getGOQualifier() {
+        return goQualifier;
+    }
+
+    public String getGOAccession() {
+        return goAccession;
+    }
+
+    public String getEventIdentifier() {
+        return eventIdentifier;
+    }
+
+    public String getEvidenceCode() {
+        return evidenceCode;
+    }
+
+    public String getGOLetter() {
+        return goLetter;
+    }
+
+    public String getTaxonIdentifier() {
+        return taxonIdentifier;
+    }
+
+    /**
+     * Appends the first 13 columns of the annotation's line in gene_association.reactome, separated by tabs, i.e.
+     * the line excluding the DateTime and 'Reactome' columns.
+     * @param output Appendable to which to append the columns
+     * @throws IOException -- Thrown if the columns can't be appended
+     */
+    void appendGOALineColumns(Appendable output) throws IOException {
+        output.append(UNIPROT_KB_STRING).append(COLUMN_SEPARATOR)
+            .append(uniProtIdentifier).append(COLUMN_SEPARATOR)
+            .append(secondaryIdentifier).append(COLUMN_SEPARATOR)
+            .append(goQualifier).append(COLUMN_SEPARATOR)
+            .append(goAccession).append(COLUMN_SEPARATOR)
+            .append(eventIdentifier).append(COLUMN_SEPARATOR)
+            .append(evidenceCode).append(COLUMN_SEPARATOR)
+            .append(COLUMN_SEPARATOR)
+            .append(goLetter).append(COLUMN_SEPARATOR)
+            .append(COLUMN_SEPARATOR)
+            .append(COLUMN_SEPARATOR)
+            .append(PROTEIN_STRING).append(COLUMN_SEPARATOR)
+            .append(TAXON_PREFIX).append(taxonIdentifier);
+    }
+
+    /**
+     * Reads an annotation back from the columns of its line in gene_association.reactome.
+     * @param goaLineColumns -- Columns of a GOA line written by appendGOALineColumns, and any columns following them
+     * @return -- GOAnnotation of the line
+     */
+    static GOAnnotation fromGOALineColumns(String[] goaLineColumns) {
+        return new GOAnnotation(
+            goaLineColumns[1], goaLineColumns[2], goaLineColumns[3], goaLineColumns[4], goaLineColumns[5],
+            goaLineColumns[6], goaLineColumns[8], goaLineColumns[12].substring(TAXON_PREFIX.length())
+        );
+    }
+
+    @Override
+    public int compareTo(GOAnnotation other) {
+        // Columns are compared in line order; the constant columns in between are equal for all annotations
+        int comparison = compareColumns(uniProtIdentifier, other.uniProtIdentifier);
+        if (comparison == 0) {
+            comparison = compareColumns(secondaryIdentifier, other.secondaryIdentifier);
+        }
+        if (comparison == 0) {
+            comparison = compareColumns(goQualifier, other.goQualifier);
+        }
+        if (comparison == 0) {
+            comparison = compareColumns(goAccession, other.goAccession);
+        }
+        if (comparison == 0) {
+            comparison = compareColumns(eventIdentifier, other.eventIdentifier);
+        }
+        if (comparison == 0) {
+            comparison = compareColumns(evidenceCode, other.evidenceCode);
+        }
+        if (comparison == 0) {
+            comparison = compareColumns(goLetter, other.goLetter);
+        }
+        if (comparison == 0) {
+            // The taxon is the last column, so nothing follows it in the line
+            comparison = taxonIdentifier.compareTo(other.taxonIdentifier);
+        }
+        return comparison;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof GOAnnotation)) {
+            return false;
+        }
+        GOAnnotation that = (GOAnnotation) o;
+        return hashCode == that.hashCode &&
+            uniProtIdentifier.equals(that.uniProtIdentifier) &&
+            secondaryIdentifier.equals(that.secondaryIdentifier) &&
+            goQualifier.equals(that.goQualifier) &&
+            goAccession.equals(that.goAccession) &&
+            eventIdentifier.equals(that.eventIdentifier) &&
+            evidenceCode.equals(that.evidenceCode) &&
+            goLetter.equals(that.goLetter) &&
+            taxonIdentifier.equals(that.taxonIdentifier);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    /**
+     * @return -- GOA line of the annotation, excluding the DateTime and 'Reactome' columns.
+     */
+    @Override
+    public String toString() {
+        StringBuilder goaLine = new StringBuilder();
+        try {
+            appendGOALineColumns(goaLine);
+        } catch (IOException e) {
+            // A StringBuilder doesn't throw IOExceptions
+            throw new IllegalStateException(e);
+        }
+        return goaLine.toString();
+    }
+
+    // Compares two values of a column that is followed by a tab in the line: when one value is a prefix of the other,
+    // the line with the shorter value has a tab where the other has the next character of the longer value.
+    private static int compareColumns(String column, String otherColumn) {
+        int commonLength = Math.min(column.length(), otherColumn.length());
+        for (int i = 0; i < commonLength; i++) {
+            char character = column.charAt(i);
+            char otherCharacter = otherColumn.charAt(i);
+            if (character != otherCharacter) {
+                return character - otherCharacter;
+            }
+        }
+        if (column.length() == otherColumn.length()) {
+            return 0;
+        }
+        int comparison = column.length() < otherColumn.length() ?
+            COLUMN_SEPARATOR - otherColumn.charAt(commonLength) :
+            column.charAt(commonLength) - COLUMN_SEPARATOR;
+        return comparison != 0 ? comparison : column.length() - otherColumn.length();
+    }
+}
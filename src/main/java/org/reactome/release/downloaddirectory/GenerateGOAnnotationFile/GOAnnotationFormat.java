@@ -0,0 +1,69 @@
+package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.reactome.release.downloaddirectory.GenerateGOAnnotationFile.GOAGeneratorConstants.GOA_FILENAME;
+import static org.reactome.release.downloaddirectory.GenerateGOAnnotationFile.GOAGeneratorConstants.GPAD_FILENAME;
+import static org.reactome.release.downloaddirectory.GenerateGOAnnotationFile.GOAGeneratorConstants.GPI_FILENAME;
+
+/**
+ * Formats of the GO annotation files of a release, with the name of their gzipped file.
+ */
+enum GOAnnotationFormat {
+    GAF(GOA_FILENAME + ".gz", GAFWriter::new),
+    GPAD(GPAD_FILENAME + ".gz", GPADWriter::new),
+    GPI(GPI_FILENAME + ".gz", GPIWriter::new);
+
+    private final String fileName;
+    private final Function<Writer, GOAnnotationWriter> writerFactory;
+
+    GOAnnotationFormat(String fileName, Function<Writer, GOAnnotationWriter> writerFactory) {
+        this.fileName = fileName;
+        this.writerFactory = writerFactory;
+    }
+
+    String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * Writes the same content to a gzipped file in each format, as AtomicGzipFiles committed once all files are
+     * written. When there is more than one format, the files are written concurrently by a
+     * ConcurrentGOAnnotationWriter.
+     * @param directory -- Existing directory in which to write the files
+     * @param formats -- Formats in which to write the content
+     * @param content -- Writes the header and annotations of the files, in sorted order
+     * @throws IOException -- File writing/reading exceptions.
+     */
+    static void writeGzipFiles(Path directory, List<GOAnnotationFormat> formats, GOAnnotationWriter.Content content)
+        throws IOException {
+
+        List<AtomicGzipFile> gzipFiles = new ArrayList<>();
+        try {
+            List<GOAnnotationWriter> goAnnotationWriters = new ArrayList<>();
+            for (GOAnnotationFormat format : formats) {
+                AtomicGzipFile gzipFile = new AtomicGzipFile(directory.resolve(format.getFileName()));
+                gzipFiles.add(gzipFile);
+                goAnnotationWriters.add(format.writerFactory.apply(gzipFile.getWriter()));
+            }
+
+            try (GOAnnotationWriter goAnnotationWriter = goAnnotationWriters.size() == 1 ?
+                goAnnotationWriters.get(0) :
+                new ConcurrentGOAnnotationWriter(goAnnotationWriters)) {
+                content.writeTo(goAnnotationWriter);
+            }
+            for (AtomicGzipFile gzipFile : gzipFiles) {
+                gzipFile.commit();
+            }
+        } finally {
+            for (AtomicGzipFile gzipFile : gzipFiles) {
+                gzipFile.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.gk.model.GKInstance;
+import org.gk.persistence.MySQLAdaptor;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keyed store of the GO annotations of each ReactionlikeEvent, kept between releases by the incremental mode of
+ * CreateGOAFile. The annotations of a reaction are stored with the date recorded for each of them and with the DB_IDs
+ * of the instances they depend on: the instances reachable from the reaction through the attributes read by the
+ * annotation builders (see GOAAttributePrefetcher.getReachableDbIds) and its 'hasEvent' referrers, with the
+ * GO_BiologicalProcess and StableIdentifier instances its inherited accessions come from (see
+ * GOBiologicalProcessIndex.getReferrerDependencyDbIds).
+ *
+ * The store also holds a watermark, the highest DB_ID in the database when the store was made. Instances, including
+ * InstanceEdits, get ascending DB_IDs, so the instances created or modified since are those with a higher DB_ID or
+ * with a 'modified' InstanceEdit with a higher DB_ID. A reaction is reused when neither the instances it depends on
+ * nor its current 'hasEvent' referrers (or the instances of their accessions) are among them; all other reactions
+ * are annotated again.
+ *
+ * Layout (gzipped, written with DataOutputStream):
+ * <pre>
+ * int  magic number ("RGOA")
+ * int  format version
+ * long watermark
+ * int  reaction count, then per reaction: long DB_ID,
+ *      int dependency count, then the dependency DB_IDs in ascending order as variable-length deltas,
+ *      int annotation count, then per annotation: its 8 columns (modified UTF-8) and int date
+ * </pre>
+ */
+class GOAnnotationStore {
+    private static final Logger logger = LogManager.getLogger();
+
+    private static final int MAGIC_NUMBER = 0x52474f41;
+    private static final int FORMAT_VERSION = 1;
+    private static final long NO_WATERMARK = -1L;
+
+    private final Path storePath;
+    private final long previousWatermark;
+    private final Map<Long, StoredReaction> previousReactions;
+    // Only reactions seen in this run are saved, which drops reactions that have since been deleted
+    private final Map<Long, StoredReaction> currentReactions = new ConcurrentHashMap<>();
+
+    private GOAnnotationStore(Path storePath, long previousWatermark, Map<Long, StoredReaction> previousReactions) {
+        this.storePath = storePath;
+        this.previousWatermark = previousWatermark;
+        this.previousReactions = previousReactions;
+    }
+
+    /**
+     * Reads the store file, if it exists.
+     * @param storePath -- Path to the store file
+     * @return -- GOAnnotationStore holding the reactions from the file (empty, without watermark, if there is no file)
+     * @throws IOException -- Thrown if the existing store file can't be read
+     */
+    static GOAnnotationStore load(Path storePath) throws IOException {
+        if (!Files.exists(storePath)) {
+            logger.info("No GO annotation store at " + storePath + "; all reactions will be annotated");
+            return new GOAnnotationStore(storePath, NO_WATERMARK, Collections.emptyMap());
+        }
+
+        Map<Long, StoredReaction> previousReactions = new HashMap<>();
+        long previousWatermark;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(
+            new GZIPInputStream(Files.newInputStream(storePath))))) {
+            if (input.readInt() != MAGIC_NUMBER) {
+                throw new IOException(storePath + " is not a GO annotation store");
+            }
+            int formatVersion = input.readInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException("Unsupported GO annotation store version " + formatVersion + " in " + storePath);
+            }
+            previousWatermark = input.readLong();
+            int reactionCount = input.readInt();
+            for (int i = 0; i < reactionCount; i++) {
+                long reactionDbId = input.readLong();
+                previousReactions.put(reactionDbId, StoredReaction.read(input));
+            }
+        }
+        logger.info("Loaded GO annotations of " + previousReactions.size() + " reactions from " + storePath);
+        return new GOAnnotationStore(storePath, previousWatermark, previousReactions);
+    }
+
+    /**
+     * @return -- Whether the store has a watermark, i.e. was loaded from a file
+     */
+    boolean hasWatermark() {
+        return previousWatermark != NO_WATERMARK;
+    }
+
+    /**
+     * @return -- Highest DB_ID in the database when the loaded store was made
+     */
+    long getWatermark() {
+        return previousWatermark;
+    }
+
+    /**
+     * Reuses the stored annotations of the reactions that have not changed since the store was made: their
+     * annotations are added to goAnnotations, their dates are merged into the context and they are carried over to
+     * the store that will be saved.
+     * @param reactionlikeEvents -- ReactionlikeEvent instances to be annotated
+     * @param changedDbIds -- DB_IDs of the instances created or modified since the watermark of the store
+     * @param context -- GOAGenerationContext of the run, in which the dates of the reused annotations are recorded
+     * @param goAnnotations -- Set to which the reused annotations are added
+     * @return -- ReactionlikeEvents that have to be annotated again
+     */
+    List<GKInstance> reuseUnchangedReactions(Collection<GKInstance> reactionlikeEvents, Set<Long> changedDbIds,
+                                             GOAGenerationContext context, Set<GOAnnotation> goAnnotations) {
+        List<GKInstance> changedReactionlikeEvents = new ArrayList<>();
+        for (GKInstance reactionInst : reactionlikeEvents) {
+            long reactionDbId = reactionInst.getDBID();
+            StoredReaction storedReaction = previousReactions.get(reactionDbId);
+            Set<Long> referrerDependencyDbIds =
+                context.getGOBiologicalProcessIndex().getReferrerDependencyDbIds(reactionDbId);
+            if (storedReaction == null || storedReaction.dependsOnAny(changedDbIds) ||
+                !Collections.disjoint(referrerDependencyDbIds, changedDbIds)) {
+                changedReactionlikeEvents.add(reactionInst);
+                continue;
+            }
+            goAnnotations.addAll(storedReaction.goAnnotationDates.keySet());
+            context.mergeDates(storedReaction.goAnnotationDates);
+            currentReactions.put(reactionDbId, storedReaction);
+        }
+        logger.info("Reusing stored GO annotations of " + currentReactions.size() + " of " +
+            reactionlikeEvents.size() + " reactions");
+        return changedReactionlikeEvents;
+    }
+
+    /**
+     * Stores the annotations of a reaction annotated in this run. Reactions can be stored from several threads.
+     * @param reactionDbId -- DB_ID of the ReactionlikeEvent
+     * @param dependencyDbIds -- DB_IDs of the instances the reaction's annotations depend on
+     * @param goAnnotationDates -- Date recorded for each annotation of the reaction, formatted as YYYYMMDD
+     */
+    void put(long reactionDbId, Set<Long> dependencyDbIds, Map<GOAnnotation, Integer> goAnnotationDates) {
+        long[] sortedDependencyDbIds = new long[dependencyDbIds.size()];
+        int index = 0;
+        for (long dependencyDbId : dependencyDbIds) {
+            sortedDependencyDbIds[index++] = dependencyDbId;
+        }
+        Arrays.sort(sortedDependencyDbIds);
+        currentReactions.put(reactionDbId, new StoredReaction(sortedDependencyDbIds, new HashMap<>(goAnnotationDates)));
+    }
+
+    /**
+     * Writes the reactions of this run to a temporary file next to the store file and then moves it into place, so
+     * the previous store is only replaced by a complete one.
+     * @param watermark -- Highest DB_ID in the database before the reactions of this run were annotated
+     * @throws IOException -- Thrown if the store file can't be written
+     */
+    void save(long watermark) throws IOException {
+        Path storeDirectory = storePath.toAbsolutePath().getParent();
+        Files.createDirectories(storeDirectory);
+        Path temporaryStorePath = Files.createTempFile(storeDirectory, storePath.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(temporaryStorePath))))) {
+                output.writeInt(MAGIC_NUMBER);
+                output.writeInt(FORMAT_VERSION);
+                output.writeLong(watermark);
+                output.writeInt(currentReactions.size());
+                for (Map.Entry<Long, StoredReaction> reaction : new TreeMap<>(currentReactions).entrySet()) {
+                    output.writeLong(reaction.getKey());
+                    reaction.getValue().write(output);
+                }
+            }
+            Files.move(
+                temporaryStorePath, storePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE
+            );
+        } finally {
+            Files.deleteIfExists(temporaryStorePath);
+        }
+        logger.info("Saved GO annotations of " + currentReactions.size() + " reactions to " + storePath);
+    }
+
+    /**
+     * @param dbAdaptor -- MySQLAdaptor for database
+     * @return -- Highest DB_ID in the database
+     * @throws SQLException -- Thrown if the database can't be queried
+     */
+    static long queryWatermark(MySQLAdaptor dbAdaptor) throws SQLException {
+        try (PreparedStatement statement = dbAdaptor.getConnection().prepareStatement(
+                "SELECT MAX(DB_ID) FROM DatabaseObject");
+             ResultSet resultSet = statement.executeQuery()) {
+            return resultSet.next() ? resultSet.getLong(1) : 0L;
+        }
+    }
+
+    /**
+     * Finds the instances created or modified since a watermark, i.e. those with a higher DB_ID and those with a
+     * 'modified' InstanceEdit with a higher DB_ID.
+     * @param dbAdaptor -- MySQLAdaptor for database
+     * @param watermark -- Highest DB_ID in the database at the time from which to find changes
+     * @return -- DB_IDs of the created or modified instances
+     * @throws SQLException -- Thrown if the database can't be queried
+     */
+    static Set<Long> queryChangedDbIds(MySQLAdaptor dbAdaptor, long watermark) throws SQLException {
+        Set<Long> changedDbIds = new HashSet<>();
+        addDbIdsAboveWatermark(
+            dbAdaptor, "SELECT DB_ID FROM DatabaseObject WHERE DB_ID > ?", watermark, changedDbIds
+        );
+        addDbIdsAboveWatermark(
+            dbAdaptor, "SELECT DISTINCT DB_ID FROM DatabaseObject_2_modified WHERE modified > ?", watermark,
+            changedDbIds
+        );
+        return changedDbIds;
+    }
+
+    private static void addDbIdsAboveWatermark(MySQLAdaptor dbAdaptor, String query, long watermark,
+                                               Set<Long> changedDbIds) throws SQLException {
+        try (PreparedStatement statement = dbAdaptor.getConnection().prepareStatement(query)) {
+            statement.setLong(1, watermark);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    changedDbIds.add(resultSet.getLong(1));
+                }
+            }
+        }
+    }
+
+    // Annotations of a reaction with their dates, and the DB_IDs of the instances they depend on
+    private static class StoredReaction {
+        private final long[] sortedDependencyDbIds;
+        private final Map<GOAnnotation, Integer> goAnnotationDates;
+
+        private StoredReaction(long[] sortedDependencyDbIds, Map<GOAnnotation, Integer> goAnnotationDates) {
+            this.sortedDependencyDbIds = sortedDependencyDbIds;
+            this.goAnnotationDates = goAnnotationDates;
+        }
+
+        private boolean dependsOnAny(Set<Long> dbIds) {
+            for (long dependencyDbId : sortedDependencyDbIds) {
+                if (dbIds.contains(dependencyDbId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void write(DataOutputStream output) throws IOException {
+            output.writeInt(sortedDependencyDbIds.length);
+            long previousDbId = 0L;
+            for (long dependencyDbId : sortedDependencyDbIds) {
+                writeVariableLengthLong(output, dependencyDbId - previousDbId);
+                previousDbId = dependencyDbId;
+            }
+
+            output.writeInt(goAnnotationDates.size());
+            for (Map.Entry<GOAnnotation, Integer> goAnnotationDate : goAnnotationDates.entrySet()) {
+                GOAnnotation goAnnotation = goAnnotationDate.getKey();
+                output.writeUTF(goAnnotation.getUniProtIdentifier());
+                output.writeUTF(goAnnotation.getSecondaryIdentifier());
+                output.writeUTF(goAnnotation.getGOQualifier());
+                output.writeUTF(goAnnotation.getGOAccession());
+                output.writeUTF(goAnnotation.getEventIdentifier());
+                output.writeUTF(goAnnotation.getEvidenceCode());
+                output.writeUTF(goAnnotation.getGOLetter());
+                output.writeUTF(goAnnotation.getTaxonIdentifier());
+                output.writeInt(goAnnotationDate.getValue());
+            }
+        }
+
+        private static StoredReaction read(DataInputStream input) throws IOException {
+            long[] sortedDependencyDbIds = new long[input.readInt()];
+            long previousDbId = 0L;
+            for (int i = 0; i < sortedDependencyDbIds.length; i++) {
+                previousDbId += readVariableLengthLong(input);
+                sortedDependencyDbIds[i] = previousDbId;
+            }
+
+            int goAnnotationCount = input.readInt();
+            Map<GOAnnotation, Integer> goAnnotationDates = new HashMap<>();
+            for (int i = 0; i < goAnnotationCount; i++) {
+                GOAnnotation goAnnotation = new GOAnnotation(
+                    input.readUTF(), input.readUTF(), input.readUTF(), input.readUTF(), input.readUTF(),
+                    input.readUTF(), input.readUTF(), input.readUTF()
+                );
+                goAnnotationDates.put(goAnnotation, input.readInt());
+            }
+            return new StoredReaction(sortedDependencyDbIds, goAnnotationDates);
+        }
+
+        // Writes a non-negative value 7 bits at a time, so the small deltas between sorted DB_IDs take a byte or two
+        private static void writeVariableLengthLong(DataOutputStream output, long value) throws IOException {
+            while ((value & ~0x7FL) != 0) {
+                output.writeByte((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            output.writeByte((int) value);
+        }
+
+        private static long readVariableLengthLong(DataInputStream input) throws IOException {
+            long value = 0L;
+            int shift = 0;
+            int currentByte;
+            do {
+                currentByte = input.readUnsignedByte();
+                value |= (long) (currentByte & 0x7F) << shift;
+                shift += 7;
+            } while ((currentByte & 0x80) != 0);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Writes GO annotations in the format of one of the GO annotation files (GAF, GPAD or GPI).
+ */
+interface GOAnnotationWriter extends Closeable {
+    // Index of the DateTime column in a GAF line
+    int GAF_DATE_COLUMN_INDEX = 13;
+
+    /**
+     * Writes the header lines of the file.
+     * @param releaseNumber -- Reactome release version number
+     * @param dateGenerated -- Date on which the file is generated, formatted as YYYY-MM-DD
+     * @throws IOException -- File writing exceptions.
+     */
+    void writeHeader(String releaseNumber, String dateGenerated) throws IOException;
+
+    /**
+     * Writes an annotation. Annotations are written in sorted order.
+     * @param goAnnotation -- GOAnnotation to write
+     * @param date -- Most recent modification date of the annotation, formatted as YYYYMMDD
+     * @throws IOException -- File writing exceptions.
+     */
+    void writeAnnotation(GOAnnotation goAnnotation, String date) throws IOException;
+
+    /**
+     * Writes an annotation from its line as it was read back from a GAF written by a GAFWriter.
+     * @param annotationLine -- GAF line of an annotation, without its line separator
+     * @throws IOException -- File writing exceptions.
+     */
+    default void writeAnnotationLine(String annotationLine) throws IOException {
+        String[] columns = annotationLine.split("\t", -1);
+        writeAnnotation(GOAnnotation.fromGOALineColumns(columns), columns[GAF_DATE_COLUMN_INDEX]);
+    }
+
+    /**
+     * Content of a GO annotation file, written with the GOAnnotationWriter of the file.
+     */
+    @FunctionalInterface
+    interface Content {
+        void writeTo(GOAnnotationWriter goAnnotationWriter) throws IOException;
+    }
+}
@@ -0,0 +1,233 @@
+package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.gk.model.GKInstance;
+import org.gk.model.ReactomeJavaConstants;
+import org.gk.persistence.MySQLAdaptor;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reverse 'hasEvent' index of the database, used to find the Biological Process accessions of ReactionlikeEvents
+ * that have no 'goBiologicalProcess' of their own. It is built once per run from all events with a 'hasEvent'
+ * attribute, instead of querying the 'hasEvent' referrers of each reaction and of its parents.
+ *
+ * The index only holds DB_IDs and Strings, so it can be shared by threads annotating reactions fetched with their own
+ * MySQLAdaptors. The accessions resolved for a referrer are kept, so sibling reactions reuse the resolution of their
+ * shared parent and each event is resolved at most once per recursion depth.
+ *
+ * The accessions of all indexed events are resolved when the index is built, including events no reaction reaches.
+ * An event whose 'goBiologicalProcess' has no accession, or that has no 'stableIdentifier', is therefore skipped
+ * with a warning rather than failing the run; reactions reaching it get no accessions from it.
+ */
+class GOBiologicalProcessIndex {
+    private static final Logger logger = LogManager.getLogger();
+
+    // When attempting to find BiologicalProcess accessions, sometimes referral Event instances need to be checked.
+    // We cap this at 2 recursions (the parent and grandparent referrals).
+    static final int MAX_RECURSION_LEVEL = 2;
+
+    private final Map<Long, List<Long>> referrerDbIdsByEventDbId = new HashMap<>();
+    // DB_IDs of the 'goBiologicalProcess' and 'stableIdentifier' values of each event, from which its accessions are
+    // resolved
+    private final Map<Long, List<Long>> accessionDbIdsByEventDbId = new HashMap<>();
+    private final Map<Long, List<Map<String, String>>> accessionsByEventDbId = new HashMap<>();
+    private final Set<Long> unresolvableEventDbIds = new HashSet<>();
+    // Resolved accessions of referrer events, for each recursion depth from 1 to MAX_RECURSION_LEVEL
+    private final List<Map<Long, List<Map<String, String>>>> resolvedAccessionsByDepth = new ArrayList<>();
+
+    /**
+     * Creates an empty index, in which no event has 'hasEvent' referrers.
+     */
+    GOBiologicalProcessIndex() {
+        for (int recursionDepth = 1; recursionDepth <= MAX_RECURSION_LEVEL; recursionDepth++) {
+            resolvedAccessionsByDepth.add(new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Builds the index from events whose 'hasEvent', 'goBiologicalProcess' and 'stableIdentifier' attributes are
+     * loaded.
+     * @param eventsWithChildren -- GKInstances of an Event class having a 'hasEvent' attribute
+     * @return GOBiologicalProcessIndex of the events
+     * @throws Exception -- MySQLAdaptor exception
+     */
+    static GOBiologicalProcessIndex of(Collection<GKInstance> eventsWithChildren) throws Exception {
+        GOBiologicalProcessIndex goBiologicalProcessIndex = new GOBiologicalProcessIndex();
+        for (GKInstance event : eventsWithChildren) {
+            List<GKInstance> childEvents = event.getAttributeValuesList(ReactomeJavaConstants.hasEvent);
+            for (GKInstance childEvent : childEvents) {
+                goBiologicalProcessIndex.referrerDbIdsByEventDbId
+                    .computeIfAbsent(childEvent.getDBID(), eventDbId -> new ArrayList<>())
+                    .add(event.getDBID());
+            }
+            List<Long> accessionDbIds = getAccessionDbIds(event);
+            if (!accessionDbIds.isEmpty()) {
+                goBiologicalProcessIndex.accessionDbIdsByEventDbId.put(event.getDBID(), accessionDbIds);
+            }
+            String unresolvableIssue = getAnyIssueForUnresolvableAccessions(event);
+            if (unresolvableIssue != null) {
+                logger.warn(event.getExtendedDisplayName() + " " + unresolvableIssue +
+                    ", skipping its GO Biological Process accessions");
+                goBiologicalProcessIndex.unresolvableEventDbIds.add(event.getDBID());
+                continue;
+            }
+            List<Map<String, String>> accessions =
+                BiologicalProcessAnnotationBuilder.getOwnGOBiologicalProcessAccessions(event);
+            if (!accessions.isEmpty()) {
+                goBiologicalProcessIndex.accessionsByEventDbId.put(event.getDBID(), accessions);
+            }
+        }
+        return goBiologicalProcessIndex;
+    }
+
+    /**
+     * Fetches all events with a 'hasEvent' attribute, and the attributes needed for the index, and indexes them.
+     * @param dbAdaptor -- MySQLAdaptor for database
+     * @return GOBiologicalProcessIndex of the database
+     * @throws Exception -- MySQLAdaptor exception
+     */
+    static GOBiologicalProcessIndex build(MySQLAdaptor dbAdaptor) throws Exception {
+        List<GKInstance> eventsWithChildren = new ArrayList<>();
+        for (GKInstance event : (Collection<GKInstance>) dbAdaptor.fetchInstancesByClass(ReactomeJavaConstants.Event)) {
+            if (event.getSchemClass().isValidAttribute(ReactomeJavaConstants.hasEvent)) {
+                eventsWithChildren.add(event);
+            }
+        }
+        GOAAttributePrefetcher.loadAttributesByClass(dbAdaptor, eventsWithChildren, Arrays.asList(
+            ReactomeJavaConstants.hasEvent,
+            ReactomeJavaConstants.goBiologicalProcess,
+            ReactomeJavaConstants.stableIdentifier
+        ));
+
+        Set<GKInstance> goBiologicalProcesses = new HashSet<>();
+        Set<GKInstance> stableIdentifiers = new HashSet<>();
+        for (GKInstance event : eventsWithChildren) {
+            List<GKInstance> eventGOBiologicalProcesses =
+                event.getAttributeValuesList(ReactomeJavaConstants.goBiologicalProcess);
+            if (!eventGOBiologicalProcesses.isEmpty()) {
+                goBiologicalProcesses.addAll(eventGOBiologicalProcesses);
+                stableIdentifiers.add((GKInstance) event.getAttributeValue(ReactomeJavaConstants.stableIdentifier));
+            }
+        }
+        stableIdentifiers.remove(null);
+        GOAAttributePrefetcher.loadAttributesByClass(
+            dbAdaptor, goBiologicalProcesses, Collections.singletonList(ReactomeJavaConstants.accession)
+        );
+        GOAAttributePrefetcher.loadAttributesByClass(
+            dbAdaptor, stableIdentifiers, Collections.singletonList(ReactomeJavaConstants.identifier)
+        );
+
+        GOBiologicalProcessIndex goBiologicalProcessIndex = of(eventsWithChildren);
+        logger.info("Indexed 'hasEvent' referrers of " + goBiologicalProcessIndex.referrerDbIdsByEventDbId.size() +
+            " events");
+        return goBiologicalProcessIndex;
+    }
+
+    /**
+     * Finds the Biological Process accessions of the events referring to an event through 'hasEvent'. Each
+     * referrer's own accessions are used, or else those of its referrers, up to MAX_RECURSION_LEVEL.
+     * @param eventDbId -- DB_ID of an event without 'goBiologicalProcess' accessions of its own
+     * @return -- Maps containing the GO accession string and event instance it is associated with. These
+     * maps contain two fields: {"event":"Reactome:identifier"}, and {"accession":"GO:Accession}"
+     */
+    List<Map<String, String>> getReferrerGOBiologicalProcessAccessions(long eventDbId) {
+        return getReferrerGOBiologicalProcessAccessions(eventDbId, 1);
+    }
+
+    /**
+     * Finds the events whose Biological Process accessions can be used for an event, i.e. its 'hasEvent' referrers
+     * and theirs, up to MAX_RECURSION_LEVEL.
+     * @param eventDbId -- DB_ID of an event
+     * @return -- DB_IDs of the referrers
+     */
+    Set<Long> getReferrerDbIds(long eventDbId) {
+        Set<Long> referrerDbIds = new HashSet<>();
+        List<Long> eventDbIds = Collections.singletonList(eventDbId);
+        for (int recursionDepth = 1; recursionDepth <= MAX_RECURSION_LEVEL; recursionDepth++) {
+            List<Long> nextEventDbIds = new ArrayList<>();
+            for (long dbId : eventDbIds) {
+                for (long referrerDbId : referrerDbIdsByEventDbId.getOrDefault(dbId, Collections.emptyList())) {
+                    if (referrerDbIds.add(referrerDbId)) {
+                        nextEventDbIds.add(referrerDbId);
+                    }
+                }
+            }
+            eventDbIds = nextEventDbIds;
+        }
+        return referrerDbIds;
+    }
+
+    /**
+     * Finds the instances the referrer Biological Process accessions of an event are resolved from: the events
+     * returned by getReferrerDbIds and their 'goBiologicalProcess' and 'stableIdentifier' values. A reaction
+     * annotated with these accessions has to be annotated again when any of them changes.
+     * @param eventDbId -- DB_ID of an event
+     * @return -- DB_IDs of the referrers and of their 'goBiologicalProcess' and 'stableIdentifier' values
+     */
+    Set<Long> getReferrerDependencyDbIds(long eventDbId) {
+        Set<Long> referrerDependencyDbIds = getReferrerDbIds(eventDbId);
+        for (long referrerDbId : new ArrayList<>(referrerDependencyDbIds)) {
+            referrerDependencyDbIds.addAll(
+                accessionDbIdsByEventDbId.getOrDefault(referrerDbId, Collections.emptyList())
+            );
+        }
+        return referrerDependencyDbIds;
+    }
+
+    private static List<Long> getAccessionDbIds(GKInstance event) throws Exception {
+        List<Long> accessionDbIds = new ArrayList<>();
+        for (GKInstance goBiologicalProcess :
+            (List<GKInstance>) event.getAttributeValuesList(ReactomeJavaConstants.goBiologicalProcess)) {
+            accessionDbIds.add(goBiologicalProcess.getDBID());
+        }
+        GKInstance stableIdentifier = (GKInstance) event.getAttributeValue(ReactomeJavaConstants.stableIdentifier);
+        if (stableIdentifier != null) {
+            accessionDbIds.add(stableIdentifier.getDBID());
+        }
+        return accessionDbIds;
+    }
+
+    private static String getAnyIssueForUnresolvableAccessions(GKInstance event) throws Exception {
+        List<GKInstance> goBiologicalProcesses =
+            event.getAttributeValuesList(ReactomeJavaConstants.goBiologicalProcess);
+        if (goBiologicalProcesses.isEmpty()) {
+            return null;
+        } else if (event.getAttributeValue(ReactomeJavaConstants.stableIdentifier) == null) {
+            return "has no stableIdentifier";
+        }
+        for (GKInstance goBiologicalProcess : goBiologicalProcesses) {
+            if (goBiologicalProcess.getAttributeValue(ReactomeJavaConstants.accession) == null) {
+                return "has a goBiologicalProcess without accession";
+            }
+        }
+        return null;
+    }
+
+    private List<Map<String, String>> getReferrerGOBiologicalProcessAccessions(long eventDbId, int recursionDepth) {
+        List<Map<String, String>> goBiologicalProcessAccessions = new ArrayList<>();
+        for (long referrerDbId : referrerDbIdsByEventDbId.getOrDefault(eventDbId, Collections.emptyList())) {
+            goBiologicalProcessAccessions.addAll(getGOBiologicalProcessAccessions(referrerDbId, recursionDepth));
+        }
+        return goBiologicalProcessAccessions;
+    }
+
+    private List<Map<String, String>> getGOBiologicalProcessAccessions(long eventDbId, int recursionDepth) {
+        Map<Long, List<Map<String, String>>> resolvedAccessions = resolvedAccessionsByDepth.get(recursionDepth - 1);
+        List<Map<String, String>> goBiologicalProcessAccessions = resolvedAccessions.get(eventDbId);
+        if (goBiologicalProcessAccessions == null) {
+            goBiologicalProcessAccessions = accessionsByEventDbId.get(eventDbId);
+            if (unresolvableEventDbIds.contains(eventDbId)) {
+                goBiologicalProcessAccessions = Collections.emptyList();
+            } else if (goBiologicalProcessAccessions == null) {
+                goBiologicalProcessAccessions = recursionDepth < MAX_RECURSION_LEVEL ?
+                    getReferrerGOBiologicalProcessAccessions(eventDbId, recursionDepth + 1) :
+                    Collections.emptyList();
+            }
+            resolvedAccessions.putIfAbsent(eventDbId, goBiologicalProcessAccessions);
+        }
+        return goBiologicalProcessAccessions;
+    }
+}
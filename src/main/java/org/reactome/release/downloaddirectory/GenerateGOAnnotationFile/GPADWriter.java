@@ -0,0 +1,104 @@
+package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.reactome.release.downloaddirectory.GenerateGOAnnotationFile.GOAGeneratorConstants.*;
+
+/**
+ * Writes GO annotations in Gene Product Association Data (GPAD) 2.0 format. The GO Qualifier and evidence code of
+ * an annotation are written as the Relation Ontology and Evidence & Conclusion Ontology terms they stand for, and the
+ * date is written as YYYY-MM-DD.
+ */
+class GPADWriter implements GOAnnotationWriter {
+    private static final char COLUMN_SEPARATOR = '\t';
+    private static final Map<String, String> GO_QUALIFIER_TO_RELATION = new HashMap<>();
+    private static final Map<String, String> EVIDENCE_CODE_TO_EVIDENCE_TYPE = new HashMap<>();
+    static {
+        GO_QUALIFIER_TO_RELATION.put(BIOLOGICAL_PROCESS_QUALIFIER, INVOLVED_IN_RELATION);
+        GO_QUALIFIER_TO_RELATION.put(CELLULAR_COMPONENT_QUALIFIER, LOCATED_IN_RELATION);
+        GO_QUALIFIER_TO_RELATION.put(MOLECULAR_FUNCTION_QUALIFIER, ENABLES_RELATION);
+        EVIDENCE_CODE_TO_EVIDENCE_TYPE.put(TRACEABLE_AUTHOR_STATEMENT_CODE, TRACEABLE_AUTHOR_STATEMENT_EVIDENCE);
+        EVIDENCE_CODE_TO_EVIDENCE_TYPE.put(INFERRED_FROM_EXPERIMENT_CODE, INFERRED_FROM_EXPERIMENT_EVIDENCE);
+    }
+
+    private final BufferedWriter writer;
+
+    /**
+     * @param writer Writer to write the GPAD to; it is closed with this GPADWriter
+     */
+    GPADWriter(Writer writer) {
+        this.writer = writer instanceof BufferedWriter ? (BufferedWriter) writer : new BufferedWriter(writer);
+    }
+
+    /**
+     * Writes the GPAD header lines.
+     * @param releaseNumber -- Reactome release version number
+     * @param dateGenerated -- Date on which the file is generated, formatted as YYYY-MM-DD
+     * @throws IOException -- File writing exceptions.
+     */
+    @Override
+    public void writeHeader(String releaseNumber, String dateGenerated) throws IOException {
+        writeLine("!gpad-version: 2.0");
+        writeLine("!generated-by: Reactome");
+        writeLine("!date-generated: " + dateGenerated);
+        writeLine("!Project-release: Version " + releaseNumber);
+    }
+
+    /**
+     * Writes the line of an annotation. The Negation, With/From, Interacting taxon, Annotation Extensions and
+     * Annotation Properties columns are empty.
+     * @param goAnnotation -- GOAnnotation to write
+     * @param date -- Most recent modification date of the annotation, formatted as YYYYMMDD
+     * @throws IOException -- File writing exceptions.
+     */
+    @Override
+    public void writeAnnotation(GOAnnotation goAnnotation, String date) throws IOException {
+        writer.write(UNIPROT_KB_STRING);
+        writer.write(':');
+        writer.write(goAnnotation.getUniProtIdentifier());
+        writer.write(COLUMN_SEPARATOR);
+        writer.write(COLUMN_SEPARATOR);
+        writer.write(getTerm(GO_QUALIFIER_TO_RELATION, goAnnotation.getGOQualifier()));
+        writer.write(COLUMN_SEPARATOR);
+        writer.write(goAnnotation.getGOAccession());
+        writer.write(COLUMN_SEPARATOR);
+        writer.write(goAnnotation.getEventIdentifier());
+        writer.write(COLUMN_SEPARATOR);
+        writer.write(getTerm(EVIDENCE_CODE_TO_EVIDENCE_TYPE, goAnnotation.getEvidenceCode()));
+        writer.write(COLUMN_SEPARATOR);
+        writer.write(COLUMN_SEPARATOR);
+        writer.write(COLUMN_SEPARATOR);
+        writer.write(date, 0, 4);
+        writer.write('-');
+        writer.write(date, 4, 2);
+        writer.write('-');
+        writer.write(date, 6, 2);
+        writer.write(COLUMN_SEPARATOR);
+        writer.write(REACTOME_STRING);
+        writer.write(COLUMN_SEPARATOR);
+        writer.write(COLUMN_SEPARATOR);
+        writer.write(System.lineSeparator());
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private void writeLine(String line) throws IOException {
+        writer.write(line);
+        writer.write(System.lineSeparator());
+    }
+
+    private static String getTerm(Map<String, String> codeToTerm, String code) {
+        String term = codeToTerm.get(code);
+        if (term == null) {
+            throw new IllegalArgumentException("No GPAD term for " + code);
+        }
+        return term;
+    }
+}
@@ -0,0 +1,83 @@
+package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+import static org.reactome.release.downloaddirectory.GenerateGOAnnotationFile.GOAGeneratorConstants.*;
+
+/**
+ * Writes the proteins of GO annotations in Gene Product Information (GPI) 2.0 format, one line per UniProt
+ * identifier. Annotations are sorted by UniProt identifier first, so the annotations of a protein are consecutive
+ * and a protein is written when its first annotation is.
+ */
+class GPIWriter implements GOAnnotationWriter {
+    private static final char COLUMN_SEPARATOR = '\t';
+
+    private final BufferedWriter writer;
+    private String lastUniProtIdentifier;
+
+    /**
+     * @param writer Writer to write the GPI to; it is closed with this GPIWriter
+     */
+    GPIWriter(Writer writer) {
+        this.writer = writer instanceof BufferedWriter ? (BufferedWriter) writer : new BufferedWriter(writer);
+    }
+
+    /**
+     * Writes the GPI header lines.
+     * @param releaseNumber -- Reactome release version number
+     * @param dateGenerated -- Date on which the file is generated, formatted as YYYY-MM-DD
+     * @throws IOException -- File writing exceptions.
+     */
+    @Override
+    public void writeHeader(String releaseNumber, String dateGenerated) throws IOException {
+        writeLine("!gpi-version: 2.0");
+        writeLine("!generated-by: Reactome");
+        writeLine("!date-generated: " + dateGenerated);
+        writeLine("!Project-release: Version " + releaseNumber);
+    }
+
+    /**
+     * Writes the line of the annotation's protein, unless the previous annotation was of the same protein. The
+     * secondary identifier is written as the symbol; the name, synonyms, Encoded by, Parent Protein, Protein
+     * Containing Complex Members, DB Xrefs and Gene Product Properties columns are empty.
+     * @param goAnnotation -- GOAnnotation whose protein to write
+     * @param date -- Unused, as GPI lines have no date
+     * @throws IOException -- File writing exceptions.
+     */
+    @Override
+    public void writeAnnotation(GOAnnotation goAnnotation, String date) throws IOException {
+        if (goAnnotation.getUniProtIdentifier().equals(lastUniProtIdentifier)) {
+            return;
+        }
+        lastUniProtIdentifier = goAnnotation.getUniProtIdentifier();
+
+        writer.write(UNIPROT_KB_STRING);
+        writer.write(':');
+        writer.write(goAnnotation.getUniProtIdentifier());
+        writer.write(COLUMN_SEPARATOR);
+        writer.write(goAnnotation.getSecondaryIdentifier());
+        writer.write(COLUMN_SEPARATOR);
+        writer.write(COLUMN_SEPARATOR);
+        writer.write(COLUMN_SEPARATOR);
+        writer.write(PROTEIN_ONTOLOGY_PROTEIN);
+        writer.write(COLUMN_SEPARATOR);
+        writer.write(NCBI_TAXON_PREFIX);
+        writer.write(goAnnotation.getTaxonIdentifier());
+        for (int column = 0; column < 5; column++) {
+            writer.write(COLUMN_SEPARATOR);
+        }
+        writer.write(System.lineSeparator());
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private void writeLine(String line) throws IOException {
+        writer.write(line);
+        writer.write(System.lineSeparator());
+    }
+}
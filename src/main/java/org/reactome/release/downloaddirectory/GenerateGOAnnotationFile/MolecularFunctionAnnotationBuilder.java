@@ -1,109 +1,128 @@
 package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 import org.gk.model.GKInstance;
 import org.gk.model.ReactomeJavaConstants;
 
 import static org.reactome.release.downloaddirectory.GenerateGOAnnotationFile.GOAGeneratorConstants.*;
+import static org.reactome.release.downloaddirectory.GenerateGOAnnotationFile.GOAGeneratorUtilities.getAnyReasonForCatalystActivityDisqualification;
 import static org.reactome.release.downloaddirectory.GenerateGOAnnotationFile.GOAGeneratorUtilities.getGOAnnotatableProteinsFromCatalystActivity;
-import static org.reactome.release.downloaddirectory.GenerateGOAnnotationFile.GOAGeneratorUtilities.getAnyIssueForAnnotationDisqualification;
 import static org.reactome.release.downloaddirectory.GenerateGOAnnotationFile.GOAGeneratorUtilities.getReactomeIdentifier;
 
 import java.util.*;
 
 public class MolecularFunctionAnnotationBuilder {
 
-    private static final Logger logger = LogManager.getLogger();
-
     /**
      * Initial Molecular Function annotations method that iterates through and validates the reaction's catalyst
      * instances, if any exist.
      * @param reactionlikeEvent -- GKInstance from ReactionlikeEvent class.
+     * @param context -- GOAGenerationContext of the run, in which the dates of the annotations are recorded.
      * @return Set of Molecular Function annotations
      * @throws Exception -- MySQLAdaptor exception.
      */
-    public static Set<String> processMolecularFunctions(GKInstance reactionlikeEvent) throws Exception {
-        Set<String> goaLines = new LinkedHashSet<>();
-
-        for (GKInstance catalystActivity : getCatalystActivitiesWithAnActivityValue(reactionlikeEvent)) {
+    public static Set<GOAnnotation> processMolecularFunctions(GKInstance reactionlikeEvent,
+                                                              GOAGenerationContext context) throws Exception {
+
+        Set<GOAnnotation> goAnnotations = new LinkedHashSet<>();
+
+        for (GKInstance catalystActivity : getCatalystActivitiesWithAnActivityValue(reactionlikeEvent, context)) {
+            DisqualificationReason catalystDisqualificationReason =
+                getAnyReasonForCatalystActivityDisqualification(catalystActivity);
+            if (catalystDisqualificationReason != null) {
+                context.getDisqualificationReport().record(
+                    catalystDisqualificationReason, catalystActivity, reactionlikeEvent
+                );
+                continue;
+            }
             for (GKInstance protein : getGOAnnotatableProteinsFromCatalystActivity(catalystActivity)) {
-                String proteinDisqualificationMessage = getAnyIssueForAnnotationDisqualification(protein);
-                if (proteinDisqualificationMessage.isEmpty()) {
-                    goaLines.addAll(generateGOMolecularFunctionLines(catalystActivity, protein, reactionlikeEvent));
+                DisqualificationReason proteinDisqualificationReason =
+                    context.getAnyReasonForAnnotationDisqualification(protein);
+                if (proteinDisqualificationReason == null) {
+                    goAnnotations.addAll(
+                        generateGOMolecularFunctionAnnotations(catalystActivity, protein, reactionlikeEvent, context)
+                    );
                 } else {
-                    logger.warn(proteinDisqualificationMessage);
+                    context.getDisqualificationReport().record(proteinDisqualificationReason, protein, protein);
                 }
             }
         }
-        return goaLines;
+        return goAnnotations;
     }
 
     /**
-     * Generating GOA lines for MF annotations depends on if the catalyst has any literatureReferences (meaning it has
-     * a PubMed annotation). If it does, multiple GOA lines that are specific to each PubMed annotation will be output,
-     * or, if there are no literatureReferences just a single line with a Reactome identifier will be output.
-     * The GOA line generation will be called differently depending on this.
+     * Generating MF annotations depends on if the catalyst has any literatureReferences (meaning it has a PubMed
+     * annotation). If it does, multiple annotations that are specific to each PubMed annotation will be output,
+     * or, if there are no literatureReferences just a single annotation with a Reactome identifier will be output.
+     * The GO annotation generation will be called differently depending on this.
      * @param catalystInst -- GKInstance, catalyst instance from reaction.
      * @param protein -- GKInstance, protein for which to generate a annotation line
      * @param reactionInst -- GKInstance, parent reaction instance that protein/catalyst comes from.
+     * @param context -- GOAGenerationContext of the run, in which the dates of the annotations are recorded.
      * @throws Exception -- MySQLAdaptor exception.
      */
-    private static List<String> generateGOMolecularFunctionLines(GKInstance catalystInst, GKInstance protein,
-                                                                GKInstance reactionInst) throws Exception {
-        List<String> goaLines = new ArrayList<>();
+    private static List<GOAnnotation> generateGOMolecularFunctionAnnotations(GKInstance catalystInst, GKInstance protein,
+                                                                GKInstance reactionInst, GOAGenerationContext context)
+        throws Exception {
+        List<GOAnnotation> goAnnotations = new ArrayList<>();
 
         if (isProteinBindingAnnotation(catalystInst)) {
-            logger.info("Accession is for protein binding, skipping GO annotation");
-            return goaLines;
+            context.getDisqualificationReport().record(
+                DisqualificationReason.PROTEIN_BINDING_ACTIVITY, catalystInst, reactionInst
+            );
+            return goAnnotations;
         }
 
         List<String> pubMedIdentifiers = getPubMedIdentifiers(catalystInst, reactionInst);
         if (!pubMedIdentifiers.isEmpty()) {
-            return generateGOMolecularFunctionLinesForLiteratureReferences(protein, catalystInst, pubMedIdentifiers);
+            return generateGOMolecularFunctionAnnotationsForLiteratureReferences(
+                protein, catalystInst, pubMedIdentifiers, context
+            );
         } else {
-            return generateGOMolecularFunctionLinesForReactomeReferences(
-                protein, catalystInst, getReactomeIdentifier(reactionInst)
+            return generateGOMolecularFunctionAnnotationsForReactomeReferences(
+                protein, catalystInst, getReactomeIdentifier(reactionInst), context
             );
         }
     }
 
-    private static List<String> generateGOMolecularFunctionLinesForLiteratureReferences(
-        GKInstance protein, GKInstance catalystActivity, List<String> pubMedIdentifiers
+    private static List<GOAnnotation> generateGOMolecularFunctionAnnotationsForLiteratureReferences(
+        GKInstance protein, GKInstance catalystActivity, List<String> pubMedIdentifiers, GOAGenerationContext context
     ) throws Exception {
-        List<String> goMFLinesForLiteratureReferences = new ArrayList<>();
+        List<GOAnnotation> goMFAnnotationsForLiteratureReferences = new ArrayList<>();
         for (String pubmedIdentifier : pubMedIdentifiers) {
-            goMFLinesForLiteratureReferences.add(
-                generateGOMolecularFunctionLineForAnnotationWithLiteratureReference(
-                    protein, catalystActivity, pubmedIdentifier
+            goMFAnnotationsForLiteratureReferences.add(
+                generateGOMolecularFunctionAnnotationWithLiteratureReference(
+                    protein, catalystActivity, pubmedIdentifier, context
                 )
             );
         }
-        return goMFLinesForLiteratureReferences;
+        return goMFAnnotationsForLiteratureReferences;
     }
 
-    private static List<String> generateGOMolecularFunctionLinesForReactomeReferences(
-        GKInstance protein, GKInstance catalystActivity, String reactomeIdentifier
+    private static List<GOAnnotation> generateGOMolecularFunctionAnnotationsForReactomeReferences(
+        GKInstance protein, GKInstance catalystActivity, String reactomeIdentifier, GOAGenerationContext context
     ) throws Exception {
-        List<String> goMFLinesForReactomeReference = new ArrayList<>();
-        goMFLinesForReactomeReference.add(
-            generateGOMolecularFunctionLine(
-                protein, catalystActivity, reactomeIdentifier, TRACEABLE_AUTHOR_STATEMENT_CODE
+        List<GOAnnotation> goMFAnnotationsForReactomeReference = new ArrayList<>();
+        goMFAnnotationsForReactomeReference.add(
+            generateGOMolecularFunctionAnnotation(
+                protein, catalystActivity, reactomeIdentifier, TRACEABLE_AUTHOR_STATEMENT_CODE, context
             )
         );
-        return goMFLinesForReactomeReference;
+        return goMFAnnotationsForReactomeReference;
     }
 
-    private static String generateGOMolecularFunctionLineForAnnotationWithLiteratureReference(
-        GKInstance protein, GKInstance catalystActivity, String identifier
+    private static GOAnnotation generateGOMolecularFunctionAnnotationWithLiteratureReference(
+        GKInstance protein, GKInstance catalystActivity, String identifier, GOAGenerationContext context
     ) throws Exception {
-        return generateGOMolecularFunctionLine(protein, catalystActivity, identifier, INFERRED_FROM_EXPERIMENT_CODE);
+        return generateGOMolecularFunctionAnnotation(
+            protein, catalystActivity, identifier, INFERRED_FROM_EXPERIMENT_CODE, context
+        );
     }
 
-    private static String generateGOMolecularFunctionLine(
-        GKInstance protein, GKInstance catalystActivity, String identifier, String evidenceCode
+    private static GOAnnotation generateGOMolecularFunctionAnnotation(
+        GKInstance protein, GKInstance catalystActivity, String identifier, String evidenceCode,
+        GOAGenerationContext context
     ) throws Exception {
-        String goaLine = GOAGeneratorUtilities.generateGOALine(
+        GOAnnotation goAnnotation = context.generateGOAnnotation(
             protein,
             MOLECULAR_FUNCTION_LETTER,
             MOLECULAR_FUNCTION_QUALIFIER,
@@ -112,12 +131,13 @@ public class MolecularFunctionAnnotationBuilder {
             evidenceCode
         );
 
-        GOAGeneratorUtilities.assignDateForGOALine(catalystActivity, goaLine);
-        return goaLine;
+        context.assignDateForGOAnnotation(catalystActivity, goAnnotation);
+        return goAnnotation;
     }
 
     @SuppressWarnings("unchecked")
-    private static List<GKInstance> getCatalystActivitiesWithAnActivityValue(GKInstance reactionlikeEvent)
+    private static List<GKInstance> getCatalystActivitiesWithAnActivityValue(GKInstance reactionlikeEvent,
+                                                                             GOAGenerationContext context)
             throws Exception {
 
         Collection<GKInstance> allCatalystActivities = reactionlikeEvent.getAttributeValuesList(
@@ -129,7 +149,9 @@ public class MolecularFunctionAnnotationBuilder {
             if (catalystActivity.getAttributeValue(ReactomeJavaConstants.activity) != null) {
                 validCatalystActivities.add(catalystActivity);
             } else {
-                logger.warn("Catalyst has no GO_MolecularFunction attribute, skipping GO annotation");
+                context.getDisqualificationReport().record(
+                    DisqualificationReason.CATALYST_WITHOUT_MOLECULAR_FUNCTION, catalystActivity, reactionlikeEvent
+                );
             }
         }
         return validCatalystActivities;
@@ -0,0 +1,116 @@
+package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
+
+import org.gk.model.GKInstance;
+import org.gk.model.ReactomeJavaConstants;
+import org.gk.schema.SchemaClass;
+
+import java.util.*;
+
+/**
+ * Finds the EWASs reachable from an instance by following, for each class of a plan, the attributes listed for it
+ * (e.g. a ReactionlikeEvent's inputs, a Complex's components or an EntitySet's members).
+ *
+ * The attributes to follow are resolved once for each schema class, and the EWAS closure of every instance reached
+ * is kept by DB_ID, so a Complex or EntitySet shared by many reactions is only expanded the first time it is reached.
+ *
+ * Instances can refer to each other in a cycle (e.g. EntitySets that are members of each other). An instance reached
+ * again while its closure is being found adds nothing, as its EWASs are added once its own traversal completes. The
+ * closures of the instances whose traversal reached such an instance are then incomplete, so they are not kept.
+ *
+ * A ProteinTraversal holds GKInstances of a single MySQLAdaptor and is not thread-safe, so GOAGenerationContext keeps
+ * one per thread.
+ */
+class ProteinTraversal {
+    private final Map<String, List<String>> classNameToFollowedAttributes;
+    private final Map<String, List<String>> schemaClassNameToFollowedAttributes = new HashMap<>();
+    private final Map<Long, Set<GKInstance>> dbIdToEWASClosure = new HashMap<>();
+    // Instances whose closure is being found, with their depth in the traversal
+    private final Map<Long, Integer> inProgressDbIdToDepth = new HashMap<>();
+    // Smallest depth of the in-progress instances reached again by the current traversal
+    private int shallowestCycleDepth = Integer.MAX_VALUE;
+
+    /**
+     * @param classNameToFollowedAttributes -- Names of the attributes to follow for instances of each class (and of
+     * its subclasses)
+     */
+    ProteinTraversal(Map<String, List<String>> classNameToFollowedAttributes) {
+        this.classNameToFollowedAttributes = new LinkedHashMap<>(classNameToFollowedAttributes);
+    }
+
+    /**
+     * Returns the EWASs reachable from the instance. The closure of the instance itself isn't kept, as each
+     * ReactionlikeEvent is only traversed once, but those of the instances reached from it are.
+     * @param instance -- GKInstance from which to follow the attributes of the plan
+     * @return -- Set of EWAS GKInstances
+     * @throws Exception -- MySQLAdaptor exception
+     */
+    Set<GKInstance> getEWASs(GKInstance instance) throws Exception {
+        shallowestCycleDepth = Integer.MAX_VALUE;
+        return getEWASsOfFollowedAttributes(instance);
+    }
+
+    private Set<GKInstance> getEWASsOfFollowedAttributes(GKInstance instance) throws Exception {
+        Set<GKInstance> ewasClosure = new LinkedHashSet<>();
+        for (String attributeName : getFollowedAttributes(instance.getSchemClass())) {
+            for (Object value : instance.getAttributeValuesList(attributeName)) {
+                if (value instanceof GKInstance) {
+                    ewasClosure.addAll(getEWASClosure((GKInstance) value));
+                }
+            }
+        }
+        return ewasClosure;
+    }
+
+    private Set<GKInstance> getEWASClosure(GKInstance instance) throws Exception {
+        if (instance.getSchemClass().isa(ReactomeJavaConstants.EntityWithAccessionedSequence)) {
+            return Collections.singleton(instance);
+        }
+
+        Set<GKInstance> ewasClosure = dbIdToEWASClosure.get(instance.getDBID());
+        if (ewasClosure != null) {
+            return ewasClosure;
+        }
+        Integer inProgressDepth = inProgressDbIdToDepth.get(instance.getDBID());
+        if (inProgressDepth != null) {
+            // Guards against cycles, which would otherwise recurse endlessly
+            shallowestCycleDepth = Math.min(shallowestCycleDepth, inProgressDepth);
+            return Collections.emptySet();
+        }
+
+        int depth = inProgressDbIdToDepth.size();
+        int enclosingShallowestCycleDepth = shallowestCycleDepth;
+        shallowestCycleDepth = Integer.MAX_VALUE;
+        inProgressDbIdToDepth.put(instance.getDBID(), depth);
+        try {
+            ewasClosure = Collections.unmodifiableSet(getEWASsOfFollowedAttributes(instance));
+        } finally {
+            inProgressDbIdToDepth.remove(instance.getDBID());
+        }
+        // The closure is complete unless an instance still in progress above this one was reached again
+        if (shallowestCycleDepth >= depth) {
+            dbIdToEWASClosure.put(instance.getDBID(), ewasClosure);
+            shallowestCycleDepth = Integer.MAX_VALUE;
+        }
+        shallowestCycleDepth = Math.min(shallowestCycleDepth, enclosingShallowestCycleDepth);
+        return ewasClosure;
+    }
+
+    private List<String> getFollowedAttributes(SchemaClass schemaClass) {
+        List<String> followedAttributes = schemaClassNameToFollowedAttributes.get(schemaClass.getName());
+        if (followedAttributes == null) {
+            Set<String> attributeNames = new LinkedHashSet<>();
+            for (Map.Entry<String, List<String>> classAttributes : classNameToFollowedAttributes.entrySet()) {
+                if (schemaClass.isa(classAttributes.getKey())) {
+                    for (String attributeName : classAttributes.getValue()) {
+                        if (schemaClass.isValidAttribute(attributeName)) {
+                            attributeNames.add(attributeName);
+                        }
+                    }
+                }
+            }
+            followedAttributes = new ArrayList<>(attributeNames);
+            schemaClassNameToFollowedAttributes.put(schemaClass.getName(), followedAttributes);
+        }
+        return followedAttributes;
+    }
+}
@@ -1,98 +1,283 @@
 package org.reactome.release.downloaddirectory;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.gk.model.GKInstance;
 import org.gk.model.ReactomeJavaConstants;
 import org.gk.persistence.MySQLAdaptor;
-import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import java.io.File;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedWriter;
 import java.io.StringReader;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.nio.file.StandardOpenOption;
-import java.util.Collection;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 public class HumanPathwaysWithDiagrams {
+    private static final Logger logger = LogManager.getLogger();
 
     private static final String humanPathwaysWithDiagramsFilename = "humanPathwaysWithDiagrams.txt";
     private static final Integer HUMAN_DATABASE_ID = 48887;
     private static final String PROCESS_NODE_STRING = "org.gk.render.ProcessNode";
     private static final String RENDERABLE_COMPARTMENT_STRING = "org.gk.render.RenderableCompartment";
+    private static final String NODES_STRING = "Nodes";
+
+    // Number of PathwayDiagram XML blobs fetched per query. While one batch is being parsed by the worker pool, the
+    // next one is being fetched, so at most two batches of XML are held in memory at once.
+    private static final int DIAGRAM_BATCH_SIZE = 50;
+
+    private static final XMLInputFactory xmlInputFactory = createXMLInputFactory();
 
     /**
      * This class goes through all Human Pathway instances checking if it has a PathwayDiagram associated with it.
      * If it does, it is recorded in a file containing the Pathways db id, name and if it has a disease instance associated with it.
+     * All PathwayDiagrams and their 'representedPathway' values are loaded in bulk, the diagram XML of those
+     * representing human pathways is checked on a worker pool and the file is written once, sorted by DB_ID.
+     * Diagrams that have not been modified since their last check are not fetched or parsed again: their verdict is
+     * taken from the diagram classification cache.
      * @param dba -- MySQLAdaptor
+     * @param connectionPools -- DatabaseConnectionPools, the diagram XML is fetched through a pooled release database connection
      * @param releaseNumber -- String, release number
+     * @param diagramClassificationCachePath -- Path, location of the diagram classification cache file
+     * @param parallelism -- int, number of threads that parse the diagram XML
      * @throws Exception
      */
-    public static void execute(MySQLAdaptor dba, String releaseNumber) throws Exception {
-
-        // Create new file
-        File humanPathwaysWithDiagramsFile = new File(humanPathwaysWithDiagramsFilename);
-        humanPathwaysWithDiagramsFile.delete();
-        humanPathwaysWithDiagramsFile.createNewFile();
-
+    @SuppressWarnings("unchecked")
+    public static void execute(MySQLAdaptor dba, DatabaseConnectionPools connectionPools, String releaseNumber, Path diagramClassificationCachePath, int parallelism) throws Exception {
         // Fetch all Human Pathway instances
         Collection<GKInstance> humanPathways = dba.fetchInstanceByAttribute(ReactomeJavaConstants.Pathway, ReactomeJavaConstants.species, "=", HUMAN_DATABASE_ID);
+        dba.loadInstanceAttributeValues(humanPathways, new String[]{ReactomeJavaConstants.disease});
+
+        // Fetch all PathwayDiagram instances with the Pathways they represent in one pass, rather than a
+        // 'representedPathway' referrer query per human Pathway
+        Collection<GKInstance> pathwayDiagrams = dba.fetchInstancesByClass(ReactomeJavaConstants.PathwayDiagram);
+        dba.loadInstanceAttributeValues(pathwayDiagrams, new String[]{
+            ReactomeJavaConstants.representedPathway, ReactomeJavaConstants.modified, ReactomeJavaConstants.created
+        });
+        Map<Long, List<Long>> pathwayIdToDiagramIds = getPathwayIdToDiagramIds(pathwayDiagrams);
+        Map<Long, Long> diagramIdToLastInstanceEditId = getDiagramIdToLastInstanceEditId(pathwayDiagrams);
+
+        List<Long> humanPathwayDiagramIds = humanPathways.stream()
+            .flatMap(humanPathway -> pathwayIdToDiagramIds.getOrDefault(humanPathway.getDBID(), Collections.emptyList()).stream())
+            .distinct()
+            .sorted()
+            .collect(Collectors.toList());
 
+        DiagramClassificationCache diagramClassificationCache = DiagramClassificationCache.load(diagramClassificationCachePath);
+        Set<Long> diagramIdsWithOtherNodes = new HashSet<>();
+        List<Long> diagramIdsToCheck = new ArrayList<>();
+        for (Long diagramId : humanPathwayDiagramIds) {
+            Long lastInstanceEditId = diagramIdToLastInstanceEditId.get(diagramId);
+            Boolean cachedVerdict = lastInstanceEditId != null ? diagramClassificationCache.get(diagramId, lastInstanceEditId) : null;
+            if (cachedVerdict == null) {
+                diagramIdsToCheck.add(diagramId);
+            } else if (cachedVerdict) {
+                diagramIdsWithOtherNodes.add(diagramId);
+            }
+        }
+        logger.info("Checking {} of {} PathwayDiagrams of {} human Pathways ({} verdicts taken from the cache)",
+            diagramIdsToCheck.size(), humanPathwayDiagramIds.size(), humanPathways.size(),
+            humanPathwayDiagramIds.size() - diagramIdsToCheck.size());
+
+        Set<Long> checkedDiagramIdsWithOtherNodes;
+        try (Connection releaseConnection = connectionPools.getReleaseDataSource().getConnection()) {
+            checkedDiagramIdsWithOtherNodes = getDiagramIdsWithNodesOtherThanPathwaysOrCompartments(releaseConnection, diagramIdsToCheck, parallelism);
+        }
+        diagramIdsWithOtherNodes.addAll(checkedDiagramIdsWithOtherNodes);
+        for (Long diagramId : diagramIdsToCheck) {
+            // Diagrams without any InstanceEdit can't be told apart from a modified version of themselves, so they
+            // are checked on every run
+            Long lastInstanceEditId = diagramIdToLastInstanceEditId.get(diagramId);
+            if (lastInstanceEditId != null) {
+                diagramClassificationCache.put(diagramId, lastInstanceEditId, checkedDiagramIdsWithOtherNodes.contains(diagramId));
+            }
+        }
+        diagramClassificationCache.save();
+
+        SortedMap<Long, String> humanPathwayLines = new TreeMap<>();
         for (GKInstance humanPathway : humanPathways) {
-            // Default disease value is false
-            boolean isDisease = false;
+            // A Pathway is considered to have a diagram if any PathwayDiagram representing it is not only
+            // made up of green boxes and compartments
+            List<Long> diagramIds = pathwayIdToDiagramIds.getOrDefault(humanPathway.getDBID(), Collections.emptyList());
+            if (diagramIds.stream().anyMatch(diagramIdsWithOtherNodes::contains)) {
+                String line = humanPathway.getDBID() + "\t" + humanPathway.getDisplayName() + "\t" + isDisease(humanPathway) + "\n";
+                humanPathwayLines.put(humanPathway.getDBID(), line);
+            }
+        }
+
+        // Write file to directory pertaining to release
+        Path humanPathwaysWithDiagramsFilePath = Paths.get(releaseNumber, humanPathwaysWithDiagramsFilename);
+        try (BufferedWriter writer = Files.newBufferedWriter(humanPathwaysWithDiagramsFilePath)) {
+            for (String line : humanPathwayLines.values()) {
+                writer.write(line);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Long, List<Long>> getPathwayIdToDiagramIds(Collection<GKInstance> pathwayDiagrams) throws Exception {
+        Map<Long, List<Long>> pathwayIdToDiagramIds = new HashMap<>();
+        for (GKInstance pathwayDiagram : pathwayDiagrams) {
+            Collection<GKInstance> representedPathways = pathwayDiagram.getAttributeValuesList(ReactomeJavaConstants.representedPathway);
+            for (GKInstance representedPathway : representedPathways) {
+                pathwayIdToDiagramIds.computeIfAbsent(representedPathway.getDBID(), k -> new ArrayList<>()).add(pathwayDiagram.getDBID());
+            }
+        }
+        return pathwayIdToDiagramIds;
+    }
+
+    // The last 'modified' InstanceEdit of a diagram or, if it has never been modified, its 'created' InstanceEdit
+    @SuppressWarnings("unchecked")
+    private static Map<Long, Long> getDiagramIdToLastInstanceEditId(Collection<GKInstance> pathwayDiagrams) throws Exception {
+        Map<Long, Long> diagramIdToLastInstanceEditId = new HashMap<>();
+        for (GKInstance pathwayDiagram : pathwayDiagrams) {
+            List<GKInstance> modifiedInstanceEdits = pathwayDiagram.getAttributeValuesList(ReactomeJavaConstants.modified);
+            GKInstance lastInstanceEdit = !modifiedInstanceEdits.isEmpty() ?
+                modifiedInstanceEdits.get(modifiedInstanceEdits.size() - 1) :
+                (GKInstance) pathwayDiagram.getAttributeValue(ReactomeJavaConstants.created);
+            if (lastInstanceEdit != null) {
+                diagramIdToLastInstanceEditId.put(pathwayDiagram.getDBID(), lastInstanceEdit.getDBID());
+            }
+        }
+        return diagramIdToLastInstanceEditId;
+    }
 
-            // If returned value from 'disease' query is not null, its considered to be a disease-containing Pathway
-            if (isDisease(humanPathway)) {
-                isDisease = true;
+    /**
+     * Finds the diagrams that are not only comprised of green boxes (ProcessNodes) and compartments, which we want to
+     * exclude. The 'storedATXML' of the diagrams is fetched in batches on this thread and parsed on a worker pool.
+     * @param releaseConnection -- Connection to the release database
+     * @param diagramIds -- List of PathwayDiagram DB_IDs to check
+     * @param parallelism -- Number of threads that parse the diagram XML
+     * @return -- Set of DB_IDs of the diagrams that have at least one node other than a ProcessNode or a
+     * RenderableCompartment
+     * @throws Exception -- Thrown if there is a problem fetching or parsing the diagram XML
+     */
+    private static Set<Long> getDiagramIdsWithNodesOtherThanPathwaysOrCompartments(Connection releaseConnection, List<Long> diagramIds, int parallelism) throws Exception {
+        Set<Long> diagramIdsWithOtherNodes = new HashSet<>();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            Map<Long, Future<Boolean>> pendingDiagramChecks = Collections.emptyMap();
+            for (int batchStart = 0; batchStart < diagramIds.size(); batchStart += DIAGRAM_BATCH_SIZE) {
+                List<Long> diagramIdBatch = diagramIds.subList(batchStart, Math.min(batchStart + DIAGRAM_BATCH_SIZE, diagramIds.size()));
+                Map<Long, String> diagramIdToXML = fetchStoredATXML(releaseConnection, diagramIdBatch);
+
+                Map<Long, Future<Boolean>> submittedDiagramChecks = new HashMap<>();
+                for (Map.Entry<Long, String> diagramXML : diagramIdToXML.entrySet()) {
+                    String pathwayDiagramXML = diagramXML.getValue();
+                    submittedDiagramChecks.put(diagramXML.getKey(), pool.submit(() -> hasNodeOtherThanPathwayOrCompartment(pathwayDiagramXML)));
+                }
+                // Collect the previous batch's results only now, so its parsing overlaps with fetching this batch
+                collectDiagramIdsWithOtherNodes(pendingDiagramChecks, diagramIdsWithOtherNodes);
+                pendingDiagramChecks = submittedDiagramChecks;
             }
+            collectDiagramIdsWithOtherNodes(pendingDiagramChecks, diagramIdsWithOtherNodes);
+        } finally {
+            pool.shutdownNow();
+        }
+        return diagramIdsWithOtherNodes;
+    }
 
-            Collection<GKInstance> representedPathwayInstances = humanPathway.getReferers(ReactomeJavaConstants.representedPathway);
-            // If returned value from 'representedPathway' referral is not null, it is considered to have a pathway diagram
+    private static void collectDiagramIdsWithOtherNodes(Map<Long, Future<Boolean>> diagramChecks, Set<Long> diagramIdsWithOtherNodes) throws Exception {
+        for (Map.Entry<Long, Future<Boolean>> diagramCheck : diagramChecks.entrySet()) {
+            try {
+                if (diagramCheck.getValue().get()) {
+                    diagramIdsWithOtherNodes.add(diagramCheck.getKey());
+                }
+            } catch (ExecutionException e) {
+                throw new Exception("Unable to parse the XML of PathwayDiagram " + diagramCheck.getKey(), e.getCause());
+            }
+        }
+    }
 
-            if (representedPathwayInstances != null && !onlyGreenBoxDiagrams(representedPathwayInstances)) {
-                // Generate line in file and append to that file
-                String line = humanPathway.getDBID() + "\t" + humanPathway.getDisplayName() + "\t" + isDisease + "\n";
-                Files.write(Paths.get(humanPathwaysWithDiagramsFilename), line.getBytes(), StandardOpenOption.APPEND);
+    // The XML is read straight from the PathwayDiagram table so the multi-MB blobs don't end up in the instance cache.
+    private static Map<Long, String> fetchStoredATXML(Connection releaseConnection, List<Long> diagramIds) throws Exception {
+        String placeholders = String.join(",", Collections.nCopies(diagramIds.size(), "?"));
+        String query = "SELECT DB_ID, storedATXML FROM PathwayDiagram WHERE DB_ID IN (" + placeholders + ")";
+
+        Map<Long, String> diagramIdToXML = new HashMap<>();
+        try (PreparedStatement statement = releaseConnection.prepareStatement(query)) {
+            for (int i = 0; i < diagramIds.size(); i++) {
+                statement.setLong(i + 1, diagramIds.get(i));
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    long diagramId = resultSet.getLong(1);
+                    String pathwayDiagramXML = resultSet.getString(2);
+                    if (pathwayDiagramXML != null) {
+                        diagramIdToXML.put(diagramId, pathwayDiagramXML);
+                    } else {
+                        logger.warn("PathwayDiagram {} has no storedATXML, skipping", diagramId);
+                    }
+                }
             }
         }
-        // Move file to directory pertaining to release
-        String outpathName = releaseNumber + "/" + humanPathwaysWithDiagramsFilename;
-        Files.move(Paths.get(humanPathwaysWithDiagramsFilename), Paths.get(outpathName), StandardCopyOption.REPLACE_EXISTING);
+        return diagramIdToXML;
     }
 
-    // Method for checking if diagrams are only comprised of GreenBoxDiagrams/Compartments, which we want to exclude.
-    // Involves going through the PathwayDiagram XML and searching for particular strings that denote the green boxes and compartments.
-    private static boolean onlyGreenBoxDiagrams(Collection<GKInstance> representedPathwayInstances) throws Exception {
-        DocumentBuilderFactory documentBuildFactory = DocumentBuilderFactory.newInstance();
-        DocumentBuilder documentBuilder = documentBuildFactory.newDocumentBuilder();
-
-        for (GKInstance pathwayDiagramInst : representedPathwayInstances) {
-            String pathwayDiagramXML = pathwayDiagramInst.getAttributeValue(ReactomeJavaConstants.storedATXML).toString();
-            Document parsedXMLDoc = documentBuilder.parse(new InputSource(new StringReader(pathwayDiagramXML)));
-            parsedXMLDoc.getDocumentElement().normalize();
-            NodeList nList = parsedXMLDoc.getElementsByTagName("Nodes");
-            for (int n = 0; n < nList.getLength(); n++) {
-                Node node = nList.item(n);
-                NodeList nChildList = node.getChildNodes();
-                for (int c = 0; c < nChildList.getLength(); c++) {
-                    if (isNotAPathwayOrCompartmentNode(nChildList.item(c))) {
-                        return false;
+    /**
+     * Streams through the PathwayDiagram XML looking for an element directly under a 'Nodes' element that is not a
+     * ProcessNode (green box) or RenderableCompartment. Reading stops at the first such node, so only the start of
+     * the (possibly multi-MB) XML is usually parsed and no document tree is built.
+     * @param pathwayDiagramXML -- String, XML content from the 'storedATXML' attribute of a PathwayDiagram.
+     * @return -- true if a node other than a ProcessNode or RenderableCompartment is found, false otherwise.
+     * @throws XMLStreamException -- Thrown if the XML is malformed.
+     */
+    private static boolean hasNodeOtherThanPathwayOrCompartment(String pathwayDiagramXML) throws XMLStreamException {
+        XMLStreamReader xmlReader = xmlInputFactory.createXMLStreamReader(new StringReader(pathwayDiagramXML));
+        try {
+            // Depth of each currently open 'Nodes' element, so its direct children can be recognized.
+            Deque<Integer> nodesElementDepths = new ArrayDeque<>();
+            int depth = 0;
+            while (xmlReader.hasNext()) {
+                int event = xmlReader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    String elementName = xmlReader.getLocalName();
+                    if (isDirectChildOfNodesElement(nodesElementDepths, depth) &&
+                        isNotAPathwayOrCompartmentNode(elementName)) {
+                        return true;
                     }
+                    if (elementName.equals(NODES_STRING)) {
+                        nodesElementDepths.push(depth);
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    if (!nodesElementDepths.isEmpty() && nodesElementDepths.peek() == depth) {
+                        nodesElementDepths.pop();
+                    }
+                    depth--;
                 }
             }
+            return false;
+        } finally {
+            xmlReader.close();
         }
-        return true;
     }
 
-    private static boolean isNotAPathwayOrCompartmentNode(Node childNode) {
-        return childNode.getNodeType() == Node.ELEMENT_NODE &&
-            !childNode.getNodeName().equals(PROCESS_NODE_STRING) &&
-            !childNode.getNodeName().equals(RENDERABLE_COMPARTMENT_STRING);
+    private static boolean isDirectChildOfNodesElement(Deque<Integer> nodesElementDepths, int depth) {
+        return !nodesElementDepths.isEmpty() && nodesElementDepths.peek() == depth - 1;
+    }
+
+    private static boolean isNotAPathwayOrCompartmentNode(String elementName) {
+        return !elementName.equals(PROCESS_NODE_STRING) && !elementName.equals(RENDERABLE_COMPARTMENT_STRING);
+    }
+
+    // Diagram XML is stored by the curator tool and never needs a DTD or external entities resolved.
+    private static XMLInputFactory createXMLInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
     }
 
     // Check if disease attribute is populated
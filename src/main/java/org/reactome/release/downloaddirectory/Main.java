@@ -4,6 +4,7 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileReader;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.ArrayList;
@@ -11,6 +12,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 import org.apache.commons.cli.CommandLine;
@@ -85,126 +87,133 @@ public class Main {
 		String releaseDirAbsolute = props.getProperty("absoluteReleaseDirectoryPath");
 		String releaseDownloadDirWithNumber = Paths.get(releaseDirAbsolute,  "download_directory", releaseNumber).toString();
 		MySQLAdaptor dbAdaptor = new MySQLAdaptor(host, database, username, password, port);
-		File releaseDir = new File(releaseNumber);
-		if (!releaseDir.exists()) {
-			releaseDir.mkdir();
-		}
-
 		// Temporary system for catching failed steps -- this will need to be cleaned up in future
 		List<String> failedSteps = new ArrayList<>();
-		//Begin download directory steps
-		if (stepsToRun.contains("DatabaseDumps")) {
-			// This step takes a DB Dump of the stable_identifiers and test_reactome DBs
-			// Outputs: gk_stable_ids.sql, gk_current.sql
-			try {
-				DatabaseDumps.execute(releaseNumber, username, password, host, port, database);
-			} catch (Exception e) {
-				failedSteps.add("DatabaseDumps");
-				e.printStackTrace();
-			}
-		}
-		if (stepsToRun.contains("BioPAX2") || stepsToRun.contains("BioPAX3")) {
-			// This step runs BioPAX level 2 and BioPAX level 3 for Reactome's data using the Pathway-Exchange functions
-			// Outputs: biopax2.zip and biopax2_validator.zip, and biopax.zip and biopax_validator.zip (for level 3)
-			// These zip files should contain a number of species-specific 'owl' (BioPAX files) and 'xml' validation files
-			List<Integer> biopaxLevels = new ArrayList<>();
-			if (stepsToRun.contains("BioPAX2")) {
-				biopaxLevels.add(2);
+		// Shared by the steps that query the release and stable_identifiers databases with plain JDBC
+		try (DatabaseConnectionPools connectionPools = new DatabaseConnectionPools(props)) {
+			File releaseDir = new File(releaseNumber);
+			if (!releaseDir.exists()) {
+				releaseDir.mkdir();
 			}
-			if (stepsToRun.contains("BioPAX3")) {
-				biopaxLevels.add(3);
+
+			//Begin download directory steps
+			if (stepsToRun.contains("DatabaseDumps")) {
+				// This step takes a DB Dump of the stable_identifiers and test_reactome DBs
+				// Outputs: gk_stable_ids.sql, gk_current.sql
+				try {
+					DatabaseDumps.execute(releaseNumber, username, password, host, port, database);
+				} catch (Exception e) {
+					failedSteps.add("DatabaseDumps");
+					e.printStackTrace();
+				}
 			}
-			try {
-				BioPax.execute(username, password, host, Integer.toString(port), database, releaseNumber, pathToSpeciesConfig, biopaxLevels);
-			} catch (Exception e) {
-				failedSteps.add("BioPAX");
-				//TODO: Catch the specific exception when its a DataModel problem
-				logger.warn("\nAn error was caught during BioPAX -- have you updated the Pathway-Exchange installation?");
-				e.printStackTrace();
+			if (stepsToRun.contains("BioPAX2") || stepsToRun.contains("BioPAX3")) {
+				// This step runs BioPAX level 2 and BioPAX level 3 for Reactome's data using the Pathway-Exchange functions
+				// Outputs: biopax2.zip and biopax2_validator.zip, and biopax.zip and biopax_validator.zip (for level 3)
+				// These zip files should contain a number of species-specific 'owl' (BioPAX files) and 'xml' validation files
+				List<Integer> biopaxLevels = new ArrayList<>();
+				if (stepsToRun.contains("BioPAX2")) {
+					biopaxLevels.add(2);
+				}
+				if (stepsToRun.contains("BioPAX3")) {
+					biopaxLevels.add(3);
+				}
+				try {
+					BioPax.execute(username, password, host, Integer.toString(port), database, releaseNumber, pathToSpeciesConfig, biopaxLevels);
+				} catch (Exception e) {
+					failedSteps.add("BioPAX");
+					//TODO: Catch the specific exception when its a DataModel problem
+					logger.warn("\nAn error was caught during BioPAX -- have you updated the Pathway-Exchange installation?");
+					e.printStackTrace();
+				}
 			}
-		}
-		if (stepsToRun.contains("GSEAOutput")) {
-			// This step converts all Human Pathways to the MSigDB format used by GSEA
-			// Output: ReactomePathways.gmt.zip
-			try {
-				GSEAOutput.execute(dbAdaptor, releaseNumber);
-			} catch (Exception e) {
-				failedSteps.add("GSEAOutput");
-				e.printStackTrace();
+			if (stepsToRun.contains("GSEAOutput")) {
+				// This step converts all Human Pathways to the MSigDB format used by GSEA
+				// Output: ReactomePathways.gmt.zip
+				try {
+					GSEAOutput.execute(dbAdaptor, releaseNumber);
+				} catch (Exception e) {
+					failedSteps.add("GSEAOutput");
+					e.printStackTrace();
+				}
 			}
-		}
 
-		if (stepsToRun.contains("FetchTestReactomeOntologyFiles")) {
-			// This step, (formerly fetchEmptyProject), takes the blob output from the Ontology.ontology and parses it into 3 files
-			// Outputs: reactome_data_model.pprj, reactome_data_model.pont, reactome_data_model.pins
-			try {
-				FetchTestReactomeOntologyFiles.execute(dbAdaptor, releaseNumber);
-			} catch (Exception e) {
-				failedSteps.add("FetchTestReactomeOntologyFiles");
-				e.printStackTrace();
+			if (stepsToRun.contains("FetchTestReactomeOntologyFiles")) {
+				// This step, (formerly fetchEmptyProject), takes the blob output from the Ontology.ontology and parses it into 3 files
+				// Outputs: reactome_data_model.pprj, reactome_data_model.pont, reactome_data_model.pins
+				try {
+					FetchTestReactomeOntologyFiles.execute(dbAdaptor, releaseNumber);
+				} catch (Exception e) {
+					failedSteps.add("FetchTestReactomeOntologyFiles");
+					e.printStackTrace();
+				}
 			}
-		}
 
-		if (stepsToRun.contains("PathwaySummationMappingFile")) {
-			// This step takes all Human Pathway and creates a tab-separated file with columns containing the stableIdentifier, name, and summation of the instance
-			// Output: pathway2summation.txt
-			try {
-				PathwaySummationMappingFile.execute(dbAdaptor, releaseNumber);
-			} catch (Exception e) {
-				failedSteps.add("PathwaySummationMappingFile");
-				e.printStackTrace();
+			if (stepsToRun.contains("PathwaySummationMappingFile")) {
+				// This step takes all Human Pathway and creates a tab-separated file with columns containing the stableIdentifier, name, and summation of the instance
+				// Output: pathway2summation.txt
+				try {
+					PathwaySummationMappingFile.execute(dbAdaptor, releaseNumber);
+				} catch (Exception e) {
+					failedSteps.add("PathwaySummationMappingFile");
+					e.printStackTrace();
+				}
 			}
-		}
-		if (stepsToRun.contains("MapOldStableIds")) {
-			// This step iterates through all StableIdentifiers and maps them to the old Reactome ID in 'REACT_#####' format. Human instances are displayed first.
-			// Output: reactome_stable_ids.txt
-			try {
-				MapOldStableIds.execute(dbAdaptor, releaseNumber);
-			} catch (Exception e) {
-				failedSteps.add("MapOldStableIds");
-				e.printStackTrace();
+			if (stepsToRun.contains("MapOldStableIds")) {
+				// This step iterates through all StableIdentifiers and maps them to the old Reactome ID in 'REACT_#####' format. Human instances are displayed first.
+				// Output: reactome_stable_ids.txt (optionally also reactome_stable_ids.txt.gz and reactome_stable_ids.lookup)
+				try {
+					MapOldStableIds.execute(connectionPools, releaseNumber, props);
+				} catch (Exception e) {
+					failedSteps.add("MapOldStableIds");
+					e.printStackTrace();
+				}
 			}
-		}
-		// These file copy commands now use absolute paths instead of relative ones
-		if (stepsToRun.contains("GenerateGOAnnotationFile")) {
-			// This step generates the gene_association.reactome file
-			// Output: gene_association.reactome
-			try {
-				CreateGOAFile.execute(dbAdaptor, releaseNumber);
+			// These file copy commands now use absolute paths instead of relative ones
+			if (stepsToRun.contains("GenerateGOAnnotationFile")) {
+				// This step generates the GO annotation files of the release
+				// Output: gene_association.reactome.gz (optionally also reactome.gpad.gz and reactome.gpi.gz, per-taxon shards
+				// of gene_association.reactome.gz and a disqualification report)
+				try {
+					CreateGOAFile.execute(dbAdaptor, releaseNumber, props);
 
-			} catch (Exception e) {
-				failedSteps.add("GenerateGOAnnotationFile");
-				e.printStackTrace();
+				} catch (Exception e) {
+					failedSteps.add("GenerateGOAnnotationFile");
+					e.printStackTrace();
+				}
 			}
-		}
-		if (stepsToRun.contains("protegeexporter")) {
-			try {
-				ProtegeExporter protegeExporter = new ProtegeExporter(props, releaseDirAbsolute, releaseNumber);
-				protegeExporter.execute(dbAdaptor);
-			} catch (Exception e) {
-				failedSteps.add("protegeexporter");
-				e.printStackTrace();
+			if (stepsToRun.contains("protegeexporter")) {
+				try {
+					ProtegeExporter protegeExporter = new ProtegeExporter(props, releaseDirAbsolute, releaseNumber);
+					protegeExporter.execute(dbAdaptor);
+				} catch (Exception e) {
+					failedSteps.add("protegeexporter");
+					e.printStackTrace();
+				}
 			}
-		}
-		if (stepsToRun.contains("HumanPathwaysWithDiagrams"))
-		{
-			logger.info("Generating HumanPathwaysWithDiagrams file");
-			try {
-				HumanPathwaysWithDiagrams.execute(dbAdaptor, releaseNumber);
-			} catch (Exception e) {
-				failedSteps.add("HumanPathwaysWithDiagrams");
+			if (stepsToRun.contains("HumanPathwaysWithDiagrams"))
+			{
+				logger.info("Generating HumanPathwaysWithDiagrams file");
+				try {
+					Path diagramClassificationCachePath = Paths.get(props.getProperty("humanPathwaysWithDiagrams.diagramClassificationCache", "diagramClassificationCache.txt"));
+					int parallelism = Integer.parseInt(props.getProperty("humanPathwaysWithDiagrams.parallelism", String.valueOf(ForkJoinPool.getCommonPoolParallelism())));
+					HumanPathwaysWithDiagrams.execute(dbAdaptor, connectionPools, releaseNumber, diagramClassificationCachePath, parallelism);
+				} catch (Exception e) {
+					failedSteps.add("HumanPathwaysWithDiagrams");
+					e.printStackTrace();
+				}
 			}
-		}
-		if (stepsToRun.contains("CreateReactome2BioSystems"))
-		{
-			// This step converts Reactome Pathway instances into the NCBI BioSystems format (http://www.ncbi.nlm.nih.gov/biosystems/).
-			// Output: ReactomeToBioSystems.zip
-			// This zip file contains an 'xml' file for each species in Reactome in BioSystems format
-			try {
-				CreateReactome2BioSystems.execute(host, database, username, password, port, releaseNumber);
-			} catch (Exception e) {
-				failedSteps.add("CreateReactome2BioSystems");
-				e.printStackTrace();
+			if (stepsToRun.contains("CreateReactome2BioSystems"))
+			{
+				// This step converts Reactome Pathway instances into the NCBI BioSystems format (http://www.ncbi.nlm.nih.gov/biosystems/).
+				// Output: ReactomeToBioSystems.zip
+				// This zip file contains an 'xml' file for each species in Reactome in BioSystems format
+				try {
+					CreateReactome2BioSystems.execute(host, database, username, password, port, releaseNumber);
+				} catch (Exception e) {
+					failedSteps.add("CreateReactome2BioSystems");
+					e.printStackTrace();
+				}
 			}
 		}
 		if (failedSteps.size() > 0) {
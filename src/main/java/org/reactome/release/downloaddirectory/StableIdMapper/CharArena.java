@@ -0,0 +1,94 @@
+package org.reactome.release.downloaddirectory.StableIdMapper;
+
+import java.util.Arrays;
+
+/**
+ * Append-only store for many short strings (e.g. stable identifiers) that keeps their characters back to back in one
+ * shared char array. Each added string is referred to by an int handle, so millions of identifiers cost a few bytes
+ * each instead of a String object, a char array and their headers apiece.
+ */
+class CharArena {
+	private static final int INITIAL_CHAR_CAPACITY = 1 << 16;
+	private static final int INITIAL_STRING_CAPACITY = 1 << 12;
+
+	private char[] chars = new char[INITIAL_CHAR_CAPACITY];
+	private int charCount;
+	// Start offset of each string in 'chars'; the string with handle h ends where string h + 1 starts
+	private int[] starts = new int[INITIAL_STRING_CAPACITY + 1];
+	private int stringCount;
+
+	/**
+	 * Copies the characters of a string into the arena.
+	 * @param string CharSequence - String to store.
+	 * @return int - Handle of the stored string, handles are assigned consecutively from 0.
+	 */
+	int add(CharSequence string) {
+		int length = string.length();
+		if (charCount + length > chars.length) {
+			chars = Arrays.copyOf(chars, Math.max(chars.length * 2, charCount + length));
+		}
+		if (stringCount + 2 > starts.length) {
+			starts = Arrays.copyOf(starts, starts.length * 2);
+		}
+		for (int i = 0; i < length; i++) {
+			chars[charCount++] = string.charAt(i);
+		}
+		starts[++stringCount] = charCount;
+		return stringCount - 1;
+	}
+
+	int size() {
+		return stringCount;
+	}
+
+	int length(int handle) {
+		return starts[handle + 1] - starts[handle];
+	}
+
+	String get(int handle) {
+		return new String(chars, starts[handle], length(handle));
+	}
+
+	/**
+	 * Compares two stored strings the same way as String#compareTo.
+	 */
+	int compare(int handle, int otherHandle) {
+		int offset = starts[handle];
+		int otherOffset = starts[otherHandle];
+		int length = length(handle);
+		int otherLength = length(otherHandle);
+		for (int i = 0; i < Math.min(length, otherLength); i++) {
+			char c = chars[offset + i];
+			char otherC = chars[otherOffset + i];
+			if (c != otherC) {
+				return c - otherC;
+			}
+		}
+		return length - otherLength;
+	}
+
+	boolean contentEquals(int handle, CharSequence string) {
+		int offset = starts[handle];
+		int length = length(handle);
+		if (length != string.length()) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (chars[offset + i] != string.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Hash of a stored string, equal to String#hashCode of the same characters.
+	 */
+	int hash(int handle) {
+		int hash = 0;
+		for (int i = starts[handle]; i < starts[handle + 1]; i++) {
+			hash = 31 * hash + chars[i];
+		}
+		return hash;
+	}
+}
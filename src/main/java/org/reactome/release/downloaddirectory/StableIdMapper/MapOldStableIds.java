@@ -2,144 +2,310 @@ package org.reactome.release.downloaddirectory.StableIdMapper;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.gk.model.GKInstance;
-import org.gk.model.ReactomeJavaConstants;
-import org.gk.persistence.MySQLAdaptor;
+import org.reactome.release.downloaddirectory.DatabaseConnectionPools;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.zip.GZIPOutputStream;
 
 public class MapOldStableIds {
 	private static final Logger logger = LogManager.getLogger();
+
+	private static final String MAPPING_FILENAME = "reactome_stable_ids.txt";
+	private static final String GZIPPED_MAPPING_FILENAME = MAPPING_FILENAME + ".gz";
+	private static final String LOOKUP_FILENAME = "reactome_stable_ids.lookup";
+	// Largest range of DB ID groups a StableIdMappingTask maps without splitting it
+	static final int GROUPS_PER_TASK = 10_000;
+
 	/**
 	 * This DownloadDirectory module produces a mapping file of current Reactome stable identifiers to old Reactome stable identifiers.
 	 * These stable identifiers denote specific instances in Reactome (Pathway, Reaction, Protein) and can be used to access their pages externally.
 	 * After release '53', Reactome switched its stable identifier format from 'REACT_XXXXX' to 'R-ABC-XXXXXX'. This new format
 	 * contained a bit more information ('ABC' denotes the species) while also mitigating a database corruption issue that sometimes caused
 	 * multiple stable identifiers to be mapped to a single instance.
-	 * @param dba MySQLAdaptor - Connects to release_current relational database.
+	 * @param connectionPools DatabaseConnectionPools - Pooled connections to the release_current and stable_identifiers databases.
 	 * @param releaseNumber String - Current release number, used for storing files in release-specific location.
-	 * @throws Exception - Thrown if there are issues with the MySQLAdaptor and GKInstance classes.
+	 * @param props Properties - Configuration; 'mapOldStableIds.gzipCopy' and 'mapOldStableIds.binaryLookup' turn on
+	 * the optional gzipped copy and binary lookup file, 'mapOldStableIds.parallelism' sets the number of threads used
+	 * to create the mappings and 'mapOldStableIds.snapshot' turns on the incremental mode (see
+	 * #getDbIdToStableIdsIncrementally(Connection, Path)).
 	 * @throws IOException - Thrown if unable to create or write to file.
 	 * @throws SQLException - Thrown if there are issues connecting/querying/interacting with the stable_identifiers database.
-	 * @throws ClassNotFoundException - Thrown if unable to find or crete the MySQL driver.
 	 */
-	public static void execute(MySQLAdaptor dba, String releaseNumber) throws Exception, IOException, SQLException, ClassNotFoundException {
+	public static void execute(DatabaseConnectionPools connectionPools, String releaseNumber, Properties props) throws IOException, SQLException {
 
 		logger.info("Running MapOldStableIds step");
-		ResultSet stableIdResults = retrieveAllStableIdentifiers(dba);
+		String snapshotPath = props.getProperty("mapOldStableIds.snapshot", "");
+		StableIdIndex dbIdToStableIds;
+		logger.info("Connecting to stable_identifiers db...");
+		try (Connection stableIdentifiersConnection = connectionPools.getStableIdentifiersDataSource().getConnection()) {
+			logger.info("Mapping Old Stable IDs to Current Stable IDs...");
+			if (snapshotPath.isEmpty()) {
+				dbIdToStableIds = getDbIdToStableIds(stableIdentifiersConnection);
+			} else {
+				dbIdToStableIds = getDbIdToStableIdsIncrementally(stableIdentifiersConnection, Paths.get(snapshotPath));
+			}
+		}
+		// Orders the DB IDs numerically and the stable IDs of each DB ID alphabetically (a no-op if already sorted)
+		dbIdToStableIds.sort();
 
-		logger.info("Mapping Old Stable IDs to Current Stable IDs...");
-		Map<String, List<String>> dbIdToStableIds = getDbIdToStableIds(stableIdResults);
-		List<String> dbIds = new ArrayList<>(dbIdToStableIds.keySet());
-		Collections.sort(dbIds);
+		logger.info("Retrieving current stable identifiers from the release database");
+		StableIdSet currentStableIdentifiers;
+		try (Connection releaseConnection = connectionPools.getReleaseDataSource().getConnection()) {
+			currentStableIdentifiers = getCurrentStableIdentifiers(releaseConnection);
+		}
 
-		logger.info("Retrieving current stable identifiers from " + dba.getDBName());
-		Set<String> currentStableIdentifiers = getCurrentStableIdentifiers(dba);
+		// Build a mapping for each DB ID and sort it into human/non-human and single/multiple secondary ID groups,
+		// spread over several threads unless 'mapOldStableIds.parallelism' is 1.
+		int parallelism = Integer.parseInt(props.getProperty("mapOldStableIds.parallelism", String.valueOf(ForkJoinPool.getCommonPoolParallelism())));
+		List<StableIdMapping> stableIdsToOldIdsMappings =
+			getStableIdMappings(dbIdToStableIds, currentStableIdentifiers, parallelism).getMappingsInOutputOrder();
 
-		// Iterate through array of stable IDs associated with DB ID, splitting into human and non-human groups.
-		List<StableIdMapping> hsaIds = new ArrayList<>();
-		List<StableIdMapping> nonHsaIds = new ArrayList<>();
-		for (String dbId : dbIds)
-		{
-			List<String> stableIds = dbIdToStableIds.get(dbId);
-			Collections.sort(stableIds);
-			stableIds = sortWithCurrentStableIdAsPrimary(stableIds, currentStableIdentifiers);
+		boolean writeGzippedCopy = Boolean.parseBoolean(props.getProperty("mapOldStableIds.gzipCopy", "false"));
+		boolean writeBinaryLookup = Boolean.parseBoolean(props.getProperty("mapOldStableIds.binaryLookup", "false"));
+		writeMappingsToFile(releaseNumber, stableIdsToOldIdsMappings, currentStableIdentifiers, writeGzippedCopy, writeBinaryLookup);
 
-			StableIdMapping stableIdMapping = new StableIdMapping(stableIds);
-			// After sorting the first stable ID in the array is considered the primary ID.
-			// An Array of Arrays is used here, with each interior array's first element being
-			// the primaryId string and the second element being an array of the remaining stable IDs.
-			// Example: [R-HSA-1006169, [REACT_118604]], [R-HSA-1006173, [REACT_119254]]]
-			if (stableIdMapping.hasSecondaryIds() || stableIdMapping.hasNewFormatPrimaryId())
-			{
-				if (stableIdMapping.isHuman())
-				{
-					hsaIds.add(stableIdMapping);
-				} else {
-					nonHsaIds.add(stableIdMapping);
+		logger.info("MapOldStableIds finished");
+	}
+
+	/**
+	 * Queries the stable_identifiers database for identifier and instanceId from the StableIdentifier table (which holds
+	 * *all* StableIdentifiers and their associated instance ids that have ever existed in Reactome) to build a map of
+	 * instance IDs to StableIdentifiers. The rows are streamed and added to the index as they arrive, rather than the
+	 * whole table first being buffered by the driver.
+	 * @param stableIdentifiersConnection Connection - Connection to the stable_identifiers database.
+	 * @return StableIdIndex - Unsorted mapping of db IDs to Stable Identifiers.
+	 * @throws SQLException - Thrown if there are issues querying the stable_identifiers database.
+	 */
+	static StableIdIndex getDbIdToStableIds(Connection stableIdentifiersConnection) throws SQLException {
+		StableIdIndex dbIdToStableIds = new StableIdIndex();
+		addStableIdentifiers(stableIdentifiersConnection, "SELECT identifier,instanceId FROM StableIdentifier", Collections.emptyList(), dbIdToStableIds);
+		return dbIdToStableIds;
+	}
+
+	/**
+	 * Builds the same map of instance IDs to StableIdentifiers as #getDbIdToStableIds(Connection), but reuses the
+	 * snapshot written by the previous run. The database computes a row count and checksum for each range of DB_IDs
+	 * (see StableIdSnapshot); only the rows of ranges whose digest differs from the one in the snapshot are queried,
+	 * and the rest are read from the snapshot. The snapshot is then replaced by one for this run. If there is no
+	 * snapshot yet, the whole table is queried.
+	 * @param stableIdentifiersConnection Connection - Connection to the stable_identifiers database.
+	 * @param snapshotPath Path - Location of the snapshot to read and update.
+	 * @return StableIdIndex - Sorted mapping of db IDs to Stable Identifiers.
+	 * @throws SQLException - Thrown if there are issues querying the stable_identifiers database.
+	 * @throws IOException - Thrown if the snapshot can't be read or written.
+	 */
+	private static StableIdIndex getDbIdToStableIdsIncrementally(Connection stableIdentifiersConnection, Path snapshotPath) throws SQLException, IOException {
+		Map<Long, StableIdSnapshot.RangeDigest> rangeDigests = getRangeDigests(stableIdentifiersConnection);
+
+		StableIdIndex dbIdToStableIds;
+		if (!Files.exists(snapshotPath)) {
+			logger.info("No stable ID snapshot at " + snapshotPath + ", querying all stable identifiers");
+			dbIdToStableIds = getDbIdToStableIds(stableIdentifiersConnection);
+		} else {
+			Set<Long> changedRanges = StableIdSnapshot.getChangedRanges(rangeDigests, StableIdSnapshot.readRangeDigests(snapshotPath));
+
+			dbIdToStableIds = new StableIdIndex();
+			int reusedStableIdCount = StableIdSnapshot.readStableIds(snapshotPath, dbIdToStableIds, changedRanges);
+			// Ranges that no longer have any rows only need to be dropped from the snapshot
+			List<Long> rangesToQuery = new ArrayList<>(changedRanges);
+			rangesToQuery.retainAll(rangeDigests.keySet());
+			logger.info("Reusing " + reusedStableIdCount + " stable identifiers from " + snapshotPath + ", querying " +
+				rangesToQuery.size() + " of " + rangeDigests.size() + " DB_ID ranges");
+			if (!rangesToQuery.isEmpty()) {
+				// Plain bounds on instanceId, rather than computing the range of each row, so the rows outside the
+				// changed ranges aren't all read
+				List<Object> rangeBounds = new ArrayList<>();
+				for (long range : rangesToQuery) {
+					rangeBounds.add(range * StableIdSnapshot.DB_ID_RANGE_SIZE);
+					rangeBounds.add((range + 1) * StableIdSnapshot.DB_ID_RANGE_SIZE - 1);
 				}
+				String query = "SELECT identifier,instanceId FROM StableIdentifier WHERE " +
+					String.join(" OR ", Collections.nCopies(rangesToQuery.size(), "instanceId BETWEEN ? AND ?"));
+				addStableIdentifiers(stableIdentifiersConnection, query, rangeBounds, dbIdToStableIds);
 			}
 		}
 
-		// Reorder the data so that the interior arrays that have only 1 element are going to be output first.
-		List<StableIdMapping> combinedIds = new ArrayList<>();
-		combinedIds.addAll(hsaIds);
-		combinedIds.addAll(nonHsaIds);
-		List<StableIdMapping> stableIdsToOldIdsMappings = new ArrayList<>();
-		List<StableIdMapping> deferredIds = new ArrayList<>();
-		for (StableIdMapping stableIdMapping : combinedIds)
-		{
-			@SuppressWarnings("unchecked")
-			List<String> secondaryIds = stableIdMapping.getSecondaryIds();
-			if (secondaryIds.size() > 1)
-			{
-				deferredIds.add(stableIdMapping);
-			} else {
-				stableIdsToOldIdsMappings.add(stableIdMapping);
+		dbIdToStableIds.sort();
+		StableIdSnapshot.write(snapshotPath, rangeDigests, dbIdToStableIds);
+		return dbIdToStableIds;
+	}
+
+	/**
+	 * Has the database compute a digest of the StableIdentifier rows of each DB_ID range: their number and the XOR of
+	 * the CRC32 of each row's identifier and instanceId.
+	 * @param stableIdentifiersConnection Connection - Connection to the stable_identifiers database.
+	 * @return Map<Long, StableIdSnapshot.RangeDigest> - Digest of each DB_ID range that has rows, keyed by range number.
+	 * @throws SQLException - Thrown if there are issues querying the stable_identifiers database.
+	 */
+	private static Map<Long, StableIdSnapshot.RangeDigest> getRangeDigests(Connection stableIdentifiersConnection) throws SQLException {
+		String query = "SELECT CAST(instanceId AS UNSIGNED) DIV " + StableIdSnapshot.DB_ID_RANGE_SIZE + " AS dbIdRange, " +
+			"COUNT(*), BIT_XOR(CRC32(CONCAT_WS('\t', identifier, instanceId))) FROM StableIdentifier GROUP BY dbIdRange";
+		Map<Long, StableIdSnapshot.RangeDigest> rangeDigests = new TreeMap<>();
+		try (Statement statement = stableIdentifiersConnection.createStatement();
+			 ResultSet rangeDigestResults = statement.executeQuery(query)) {
+			while (rangeDigestResults.next()) {
+				rangeDigests.put(
+					rangeDigestResults.getLong(1),
+					new StableIdSnapshot.RangeDigest(rangeDigestResults.getLong(2), rangeDigestResults.getLong(3))
+				);
 			}
 		}
-		stableIdsToOldIdsMappings.addAll(deferredIds);
+		return rangeDigests;
+	}
 
-		writeMappingsToFile(releaseNumber, stableIdsToOldIdsMappings, currentStableIdentifiers);
+	/**
+	 * Runs a query for identifier and instanceId on the StableIdentifier table and adds the results to an index. The
+	 * rows are streamed and added to the index as they arrive, rather than the whole result first being buffered by
+	 * the driver.
+	 * @param stableIdentifiersConnection Connection - Connection to the stable_identifiers database.
+	 * @param query String - Query selecting identifier and instanceId, in that order.
+	 * @param parameters List<Object> - Values for the placeholders of the query.
+	 * @param dbIdToStableIds StableIdIndex - Index to which to add the stable identifiers.
+	 * @throws SQLException - Thrown if there are issues querying the stable_identifiers database.
+	 */
+	private static void addStableIdentifiers(Connection stableIdentifiersConnection, String query, List<Object> parameters,
+											 StableIdIndex dbIdToStableIds) throws SQLException {
+		try (PreparedStatement statement = createStreamingStatement(stableIdentifiersConnection, query)) {
+			for (int i = 0; i < parameters.size(); i++) {
+				statement.setObject(i + 1, parameters.get(i));
+			}
+			try (ResultSet stableIdResults = statement.executeQuery()) {
+				// Iterate through returned results of DB IDs and stable IDs
+				while (stableIdResults.next()) {
+					String stableId = stableIdResults.getString(1);
+					String dbId = stableIdResults.getString(2);
 
-		logger.info("MapOldStableIds finished");
+					try {
+						dbIdToStableIds.add(Long.parseLong(dbId), stableId);
+					} catch (NumberFormatException e) {
+						logger.warn("Skipping stable identifier " + stableId + " with non-numeric instanceId '" + dbId + "'");
+					} catch (IllegalArgumentException e) {
+						// DB_IDs that are negative or larger than Integer.MAX_VALUE can't be held by the StableIdIndex
+						logger.warn("Skipping stable identifier " + stableId + " with out of range instanceId '" + dbId + "'");
+					}
+				}
+			}
+		}
 	}
 
 	/**
-	 * Creates a MySQL driver that queries the stable_identifiers database for identifier and instanceId from the StableIdentifier table.
-	 * @param dba MySQLAdaptor, Not used to query the database, but to supply database parameters like host, username and password.
-	 * @return ResultSet from MySQL stable_identifiers database that consists of identifiers and their associated instanceId
-	 * @throws ClassNotFoundException - Thrown if MySQL driver class isn't found
-	 * @throws SQLException - Thrown if there are issues connecting/querying/interacting with stable_identifiers database
+	 * Connector/J reads the full result of a query into memory unless the statement is forward-only, read-only and has
+	 * a fetch size of Integer.MIN_VALUE, in which case rows are read from the server one at a time.
+	 * No other statement can be run on the connection until the streamed ResultSet is closed.
+	 * @param connection Connection - Connection on which to create the statement.
+	 * @param query String - Query for the statement.
+	 * @return PreparedStatement whose ResultSets are streamed row by row.
+	 * @throws SQLException - Thrown if the statement can't be created.
 	 */
-	private static ResultSet retrieveAllStableIdentifiers(MySQLAdaptor dba) throws ClassNotFoundException, SQLException {
-		// Need to use mysql driver to access stable_identifiers db
-		logger.info("Connecting to stable_identifiers db...");
-		Class.forName("com.mysql.jdbc.Driver");
-		Connection connect = DriverManager.getConnection("jdbc:mysql://" + dba.getDBHost() + "/stable_identifiers?" + "user=" + dba.getDBUser() + "&password=" + dba.getDBPwd());
-		Statement statement = connect.createStatement();
-		return statement.executeQuery("SELECT identifier,instanceId FROM StableIdentifier");
+	static PreparedStatement createStreamingStatement(Connection connection, String query) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+		statement.setFetchSize(Integer.MIN_VALUE);
+		return statement;
 	}
 
 	/**
-	 * Uses the resultSet from the stable_identifiers database query (which retrieved *all* StableIdentifiers and
-	 * their associated instance ids that have ever existed in Reactome) to build a map of instance IDs to StableIdentifiers.
-	 * @param stableIdResults ResultSet - Data result of query to stable_identifiers database for stable identifiers and associated instance IDs.
-	 * @return Map<String, List<String>> - Mapping of db IDs to Stable Identifiers.
-	 * @throws SQLException - Thrown if there are issues accessing the ResultSet object.
+	 * Retrieves all StableIdentifiers in the current release database. The 'identifier' column of the StableIdentifier
+	 * table is streamed straight into a StableIdSet, so no GKInstance is created (or left in the MySQLAdaptor's
+	 * instance cache) for them.
+	 * @param releaseConnection Connection - Connection to the release_current database.
+	 * @return StableIdSet, all StableIdentifiers in current release database.
+	 * @throws SQLException - Thrown if there are issues querying the release_current database.
 	 */
-	private static Map<String, List<String>> getDbIdToStableIds(ResultSet stableIdResults) throws SQLException {
-		Map<String, List<String>> dbIdToStableIds = new HashMap<>();
+	private static StableIdSet getCurrentStableIdentifiers(Connection releaseConnection) throws SQLException {
+		StableIdSet currentStableIdentifiersSet = new StableIdSet();
+		try (PreparedStatement statement = createStreamingStatement(releaseConnection, "SELECT identifier FROM StableIdentifier");
+			 ResultSet identifierResults = statement.executeQuery()) {
+			while (identifierResults.next()) {
+				String identifier = identifierResults.getString(1);
+				if (identifier != null) {
+					currentStableIdentifiersSet.add(identifier);
+				}
+			}
+		}
+		return currentStableIdentifiersSet;
+	}
 
-		// Iterate through returned results of DB IDs and stable IDs
-		while (stableIdResults.next()) {
-			String stableId = stableIdResults.getString(1);
-			String dbId = stableIdResults.getString(2);
+	/**
+	 * Creates the StableIdMappings of all DB IDs in the index. With a parallelism above 1, ranges of DB IDs are mapped
+	 * on a ForkJoinPool and their results are appended to each other in DB ID order, so the mappings are the same, and
+	 * in the same order, as when they are created on a single thread.
+	 * @param dbIdToStableIds StableIdIndex - Sorted mapping of db IDs to Stable Identifiers.
+	 * @param currentStableIdentifiers StableIdSet, all StableIdentifiers in current release database.
+	 * @param parallelism int - Number of threads with which to create the mappings.
+	 * @return StableIdMappingBuckets - Mappings sorted into their output groups.
+	 */
+	static StableIdMappingBuckets getStableIdMappings(StableIdIndex dbIdToStableIds, StableIdSet currentStableIdentifiers, int parallelism) {
+		if (parallelism <= 1) {
+			return getStableIdMappings(dbIdToStableIds, currentStableIdentifiers, 0, dbIdToStableIds.groupCount());
+		}
 
-			dbIdToStableIds.computeIfAbsent(dbId, k -> new ArrayList<>()).add(stableId);
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			return pool.invoke(new StableIdMappingTask(dbIdToStableIds, currentStableIdentifiers, 0, dbIdToStableIds.groupCount()));
+		} finally {
+			pool.shutdown();
 		}
-		return dbIdToStableIds;
+	}
+
+	private static StableIdMappingBuckets getStableIdMappings(StableIdIndex dbIdToStableIds, StableIdSet currentStableIdentifiers, int fromGroup, int toGroup) {
+		StableIdMappingBuckets stableIdMappingBuckets = new StableIdMappingBuckets();
+		StableIdIndex.Cursor dbIdCursor = dbIdToStableIds.cursor(fromGroup, toGroup);
+		while (dbIdCursor.next())
+		{
+			List<String> stableIds = sortWithCurrentStableIdAsPrimary(dbIdCursor.identifiers(), currentStableIdentifiers);
+
+			// After sorting the first stable ID in the list is considered the primary ID.
+			StableIdMapping stableIdMapping = new StableIdMapping(stableIds);
+			if (stableIdMapping.hasSecondaryIds() || stableIdMapping.hasNewFormatPrimaryId())
+			{
+				stableIdMappingBuckets.add(stableIdMapping);
+			}
+		}
+		return stableIdMappingBuckets;
 	}
 
 	/**
-	 * Retrieves all StableIdentifiers in the current release database.
-	 * @param dba MySQLAdaptor, connecting to release_current database.
-	 * @return Set<String>, all StableIdentifiers in current release database.
-	 * @throws Exception - Thrown by MySQLAdaptor
+	 * Splits a range of DB ID groups in halves until it is small enough to map directly, then appends the results of
+	 * the second half to those of the first.
 	 */
-	private static Set<String> getCurrentStableIdentifiers(MySQLAdaptor dba) throws Exception {
-		Collection<GKInstance> stableIdentifierInstances = dba.fetchInstancesByClass(ReactomeJavaConstants.StableIdentifier);
-		Set<String> currentStableIdentifiersSet = new HashSet<>();
-		for (GKInstance stableIdentifierInst : stableIdentifierInstances) {
-			currentStableIdentifiersSet.add(stableIdentifierInst.getAttributeValue(ReactomeJavaConstants.identifier).toString());
+	private static class StableIdMappingTask extends RecursiveTask<StableIdMappingBuckets> {
+
+		private final StableIdIndex dbIdToStableIds;
+		private final StableIdSet currentStableIdentifiers;
+		private final int fromGroup;
+		private final int toGroup;
+
+		private StableIdMappingTask(StableIdIndex dbIdToStableIds, StableIdSet currentStableIdentifiers, int fromGroup, int toGroup) {
+			this.dbIdToStableIds = dbIdToStableIds;
+			this.currentStableIdentifiers = currentStableIdentifiers;
+			this.fromGroup = fromGroup;
+			this.toGroup = toGroup;
+		}
+
+		@Override
+		protected StableIdMappingBuckets compute() {
+			if (toGroup - fromGroup <= GROUPS_PER_TASK) {
+				return getStableIdMappings(dbIdToStableIds, currentStableIdentifiers, fromGroup, toGroup);
+			}
+			int middleGroup = (fromGroup + toGroup) >>> 1;
+			StableIdMappingTask secondHalf = new StableIdMappingTask(dbIdToStableIds, currentStableIdentifiers, middleGroup, toGroup);
+			secondHalf.fork();
+			StableIdMappingBuckets firstHalfBuckets =
+				new StableIdMappingTask(dbIdToStableIds, currentStableIdentifiers, fromGroup, middleGroup).compute();
+			return firstHalfBuckets.addAll(secondHalf.join());
 		}
-		return currentStableIdentifiersSet;
 	}
 
-	private static List<String> sortWithCurrentStableIdAsPrimary(List<String> stableIds, Set<String> currentStableIdentifiers) {
+	private static List<String> sortWithCurrentStableIdAsPrimary(List<String> stableIds, StableIdSet currentStableIdentifiers) {
 		List<String> sortedStableIds = new ArrayList<>();
 
 		List<String> deferredStableIds = new ArrayList<>();
@@ -157,36 +323,64 @@ public class MapOldStableIds {
 
 	/**
 	 * With the old stable identifier mappings completed, write the results to the 'reactome_stable_ids.txt' file.
+	 * All output files are produced in a single pass over the mappings.
 	 * @param releaseNumber String - Current release number, used for storing files in release-specific location.
-	 * @param stableIdsToOldIdsMappings List<List<Object>> - List of current stable identifier mappings to older mappings.
-	 * The interior List<Object> is of the form [String, List<String>].
-	 * @param currentStableIdentifiers Set<String>, all StableIdentifiers in current release database.
+	 * @param stableIdsToOldIdsMappings List<StableIdMapping> - List of current stable identifier mappings to older mappings.
+	 * @param currentStableIdentifiers StableIdSet, all StableIdentifiers in current release database.
+	 * @param writeGzippedCopy boolean - Also write 'reactome_stable_ids.txt.gz'.
+	 * @param writeBinaryLookup boolean - Also write 'reactome_stable_ids.lookup', see StableIdLookupFile.
 	 * @throws IOException - Thrown if there are issues with creating mapping file.
 	 */
-	private static void writeMappingsToFile(String releaseNumber, List<StableIdMapping> stableIdsToOldIdsMappings, Set<String> currentStableIdentifiers) throws IOException {
-		Path oldStableIdsMappingFilePath = Paths.get(releaseNumber, "reactome_stable_ids.txt");
+	private static void writeMappingsToFile(String releaseNumber, List<StableIdMapping> stableIdsToOldIdsMappings, StableIdSet currentStableIdentifiers,
+											boolean writeGzippedCopy, boolean writeBinaryLookup) throws IOException {
+		Path oldStableIdsMappingFilePath = Paths.get(releaseNumber, MAPPING_FILENAME);
+		StableIdLookupFile.Builder lookupFileBuilder = writeBinaryLookup ? new StableIdLookupFile.Builder() : null;
 		String header = "# Reactome stable IDs for release " + releaseNumber + "\n" + "Stable_ID\told_identifier(s)\n";
-		Files.write(oldStableIdsMappingFilePath, header.getBytes(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
-		for (StableIdMapping stableIdMapping : stableIdsToOldIdsMappings)
-		{
-			String primaryId = stableIdMapping.getPrimaryId();
-			@SuppressWarnings("unchecked")
-			List<String> secondaryIds = stableIdMapping.getSecondaryIds();
-			if (currentStableIdentifierWithMapping(currentStableIdentifiers, primaryId, secondaryIds)) {
-				String line = primaryId + "\t" + String.join(",", secondaryIds) + "\n";
-				Files.write(oldStableIdsMappingFilePath, line.getBytes(), StandardOpenOption.APPEND);
+		// A null resource is skipped by try-with-resources, so the gzipped writer is only created when needed
+		try (Writer mappingFileWriter = Files.newBufferedWriter(oldStableIdsMappingFilePath, StandardCharsets.UTF_8);
+			 Writer gzippedMappingFileWriter = writeGzippedCopy ? createGzippedWriter(Paths.get(releaseNumber, GZIPPED_MAPPING_FILENAME)) : null) {
+			writeToAll(header, mappingFileWriter, gzippedMappingFileWriter);
+			for (StableIdMapping stableIdMapping : stableIdsToOldIdsMappings)
+			{
+				String primaryId = stableIdMapping.getPrimaryId();
+				@SuppressWarnings("unchecked")
+				List<String> secondaryIds = stableIdMapping.getSecondaryIds();
+				if (currentStableIdentifierWithMapping(currentStableIdentifiers, primaryId, secondaryIds)) {
+					String line = primaryId + "\t" + String.join(",", secondaryIds) + "\n";
+					writeToAll(line, mappingFileWriter, gzippedMappingFileWriter);
+					if (lookupFileBuilder != null) {
+						for (String secondaryId : secondaryIds) {
+							lookupFileBuilder.add(secondaryId, primaryId);
+						}
+					}
+				}
+			}
+		}
+		if (lookupFileBuilder != null) {
+			lookupFileBuilder.write(Paths.get(releaseNumber, LOOKUP_FILENAME));
+		}
+	}
+
+	private static Writer createGzippedWriter(Path gzippedFilePath) throws IOException {
+		return new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(gzippedFilePath)), StandardCharsets.UTF_8));
+	}
+
+	private static void writeToAll(String text, Writer... writers) throws IOException {
+		for (Writer writer : writers) {
+			if (writer != null) {
+				writer.write(text);
 			}
 		}
 	}
 
 	/**
 	 * Checks that the primary identifier taken from the stable_identifiers database is currently used, and it has secondary mappings.
-	 * @param currentStableIdentifiers Set<String> - Set of all StableIdentifiers currently in database.
+	 * @param currentStableIdentifiers StableIdSet - Set of all StableIdentifiers currently in database.
 	 * @param primaryId String - Primary StableIdentifier that maps to secondaryIds.
 	 * @param secondaryIds List<String> - All StableIdentifiers (old and new formats) that map to the primary stable identifier.
 	 * @return boolean, indicating it is a currently used StableIdentifier with secondary mappings.
 	 */
-	private static boolean currentStableIdentifierWithMapping(Set<String> currentStableIdentifiers, String primaryId, List<String> secondaryIds) {
+	private static boolean currentStableIdentifierWithMapping(StableIdSet currentStableIdentifiers, String primaryId, List<String> secondaryIds) {
 		return currentStableIdentifiers.contains(primaryId) && !secondaryIds.isEmpty();
 	}
 }
@@ -0,0 +1,145 @@
+package org.reactome.release.downloaddirectory.StableIdMapper;
+
+/**
+ * A stable identifier parsed once into the parts StableIdMapping needs: whether it is in the new 'R-ABC-1234567' or
+ * old 'REACT_12345' format and its three character species abbreviation. Checks on these parts are plain field
+ * comparisons, so no regular expression is run and no substring is allocated per check.
+ */
+class StableId {
+	private static final String NEW_FORMAT_PREFIX = "R-";
+	private static final String OLD_FORMAT_PREFIX = "REACT_";
+	private static final String HUMAN_PREFIX = "R-HSA";
+	private static final int ABBREVIATION_START = NEW_FORMAT_PREFIX.length();
+	private static final int ABBREVIATION_LENGTH = 3;
+	private static final char LINE_SEPARATOR = (char) 0x2028;
+	private static final char PARAGRAPH_SEPARATOR = (char) 0x2029;
+
+	// Stands for the empty abbreviation of identifiers that aren't of the form 'R-ABC-...'
+	static final long NO_ABBREVIATION = -1L;
+
+	// Species abbreviations of identifiers that are kept as secondary identifiers regardless of the primary's species
+	private static final String[] ABBREVIATION_EXCEPTIONS = {"ALL", "NUL", "HC ", "HCV", "HPC", "HPB", "HBV"};
+	private static final long[] PACKED_ABBREVIATION_EXCEPTIONS = packAbbreviationExceptions();
+
+	private final String identifier;
+	private final boolean newFormat;
+	private final boolean oldFormat;
+	private final boolean human;
+	private final long abbreviation;
+
+	private StableId(String identifier) {
+		this.identifier = identifier;
+		// Equivalent to matching "^R-.*" and "R-HSA.*", as '.' in those patterns does not match line terminators
+		this.newFormat = identifier.startsWith(NEW_FORMAT_PREFIX) && hasNoLineTerminatorFrom(identifier, NEW_FORMAT_PREFIX.length());
+		this.oldFormat = identifier.startsWith(OLD_FORMAT_PREFIX);
+		this.human = identifier.startsWith(HUMAN_PREFIX) && hasNoLineTerminatorFrom(identifier, HUMAN_PREFIX.length());
+		this.abbreviation = parseAbbreviation(identifier);
+	}
+
+	static StableId parse(String identifier) {
+		if (identifier == null) {
+			throw new IllegalArgumentException("Stable identifier can not be null");
+		}
+		return new StableId(identifier);
+	}
+
+	String getIdentifier() {
+		return identifier;
+	}
+
+	/**
+	 * @return boolean - true if the identifier starts with 'R-'.
+	 */
+	boolean hasNewFormat() {
+		return newFormat;
+	}
+
+	/**
+	 * @return boolean - true if the identifier starts with 'REACT_'.
+	 */
+	boolean hasOldFormat() {
+		return oldFormat;
+	}
+
+	/**
+	 * @return boolean - true if the identifier starts with 'R-HSA'.
+	 */
+	boolean isHuman() {
+		return human;
+	}
+
+	/**
+	 * @return long - The three characters after 'R-' packed into a long when they are followed by '-', or
+	 * NO_ABBREVIATION otherwise. Two identifiers have the same abbreviation when these values are equal.
+	 */
+	long getAbbreviation() {
+		return abbreviation;
+	}
+
+	boolean hasAbbreviationException() {
+		for (long abbreviationException : PACKED_ABBREVIATION_EXCEPTIONS) {
+			if (abbreviation == abbreviationException) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return boolean - true if the whole identifier (not its abbreviation) is one of the abbreviation exceptions.
+	 */
+	boolean isAbbreviationException() {
+		for (String abbreviationException : ABBREVIATION_EXCEPTIONS) {
+			if (identifier.equals(abbreviationException)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		return identifier;
+	}
+
+	// Equivalent to capturing group 1 of the pattern "^R-(.{3})-.*"
+	private static long parseAbbreviation(String identifier) {
+		int abbreviationEnd = ABBREVIATION_START + ABBREVIATION_LENGTH;
+		if (!identifier.startsWith(NEW_FORMAT_PREFIX) || identifier.length() <= abbreviationEnd ||
+			identifier.charAt(abbreviationEnd) != '-') {
+			return NO_ABBREVIATION;
+		}
+		long packedAbbreviation = 0;
+		for (int i = ABBREVIATION_START; i < abbreviationEnd; i++) {
+			char abbreviationCharacter = identifier.charAt(i);
+			// '.' in the pattern does not match line terminators
+			if (isLineTerminator(abbreviationCharacter)) {
+				return NO_ABBREVIATION;
+			}
+			packedAbbreviation = (packedAbbreviation << Character.SIZE) | abbreviationCharacter;
+		}
+		return packedAbbreviation;
+	}
+
+	private static boolean hasNoLineTerminatorFrom(String identifier, int start) {
+		for (int i = start; i < identifier.length(); i++) {
+			if (isLineTerminator(identifier.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isLineTerminator(char character) {
+		return character == '\n' || character == '\r' || character == '\u0085' ||
+			character == LINE_SEPARATOR || character == PARAGRAPH_SEPARATOR;
+	}
+
+	private static long[] packAbbreviationExceptions() {
+		long[] packedAbbreviationExceptions = new long[ABBREVIATION_EXCEPTIONS.length];
+		for (int i = 0; i < ABBREVIATION_EXCEPTIONS.length; i++) {
+			packedAbbreviationExceptions[i] = parseAbbreviation(NEW_FORMAT_PREFIX + ABBREVIATION_EXCEPTIONS[i] + "-");
+		}
+		return packedAbbreviationExceptions;
+	}
+}
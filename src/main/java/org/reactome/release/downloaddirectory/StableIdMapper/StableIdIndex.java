@@ -0,0 +1,185 @@
+package org.reactome.release.downloaddirectory.StableIdMapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact index of every stable identifier that has been assigned to each DB_ID. Identifiers are kept in a CharArena
+ * and each (DB_ID, identifier) pair is a single primitive long, so the whole stable_identifiers history takes a
+ * fraction of the heap of a Map<String, List<String>>.
+ *
+ * Once all pairs are added, #sort() orders them numerically by DB_ID and, within each DB_ID, by identifier.
+ * The groups can then be walked in that order with a Cursor, either all of them or a range of them (e.g. one range
+ * per worker thread). A sorted index is only read, so it can be shared by several threads.
+ */
+class StableIdIndex {
+	private static final int INITIAL_CAPACITY = 1 << 12;
+
+	private final CharArena identifiers = new CharArena();
+	// Each entry is the DB_ID in the high 32 bits and the handle of the identifier in the arena in the low 32 bits,
+	// so sorting the entries as longs sorts them by DB_ID
+	private long[] entries = new long[INITIAL_CAPACITY];
+	private int size;
+	// Index of the first entry of each DB_ID group, followed by 'size'; only set while the index is sorted
+	private int[] groupStarts = {0};
+	private boolean sorted = true;
+
+	/**
+	 * Adds a stable identifier assigned to a DB_ID.
+	 * @param dbId long - DB_ID of the instance the identifier was assigned to.
+	 * @param identifier String - Stable identifier.
+	 * @throws IllegalArgumentException - Thrown if the DB_ID is negative or too large to be packed into 31 bits.
+	 */
+	void add(long dbId, String identifier) {
+		if (dbId < 0 || dbId > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("DB_ID " + dbId + " of " + identifier + " is out of range for the stable ID index");
+		}
+		if (size == entries.length) {
+			entries = Arrays.copyOf(entries, entries.length * 2);
+		}
+		int handle = identifiers.add(identifier);
+		entries[size++] = (dbId << 32) | (handle & 0xFFFFFFFFL);
+		sorted = false;
+	}
+
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Sorts the entries by DB_ID and then by identifier (in String#compareTo order). Does nothing if no entries were
+	 * added since the last sort.
+	 */
+	void sort() {
+		if (sorted) {
+			return;
+		}
+		Arrays.sort(entries, 0, size);
+		int[] newGroupStarts = new int[INITIAL_CAPACITY];
+		int groupCount = 0;
+		int groupStart = 0;
+		while (groupStart < size) {
+			if (groupCount + 1 >= newGroupStarts.length) {
+				newGroupStarts = Arrays.copyOf(newGroupStarts, newGroupStarts.length * 2);
+			}
+			newGroupStarts[groupCount++] = groupStart;
+			int groupEnd = getGroupEnd(groupStart);
+			// A DB_ID has only a handful of identifiers, for which an insertion sort is the cheapest option
+			for (int i = groupStart + 1; i < groupEnd; i++) {
+				long entry = entries[i];
+				int j = i - 1;
+				while (j >= groupStart && identifiers.compare(getHandle(entries[j]), getHandle(entry)) > 0) {
+					entries[j + 1] = entries[j];
+					j--;
+				}
+				entries[j + 1] = entry;
+			}
+			groupStart = groupEnd;
+		}
+		newGroupStarts[groupCount] = size;
+		groupStarts = Arrays.copyOf(newGroupStarts, groupCount + 1);
+		sorted = true;
+	}
+
+	/**
+	 * @return int - The number of distinct DB_IDs in the sorted index.
+	 */
+	int groupCount() {
+		checkSorted();
+		return groupStarts.length - 1;
+	}
+
+	/**
+	 * @return Cursor over the DB_ID groups of this index, in ascending DB_ID order.
+	 * @throws IllegalStateException - Thrown if entries were added since the last call to #sort().
+	 */
+	Cursor cursor() {
+		return cursor(0, groupCount());
+	}
+
+	/**
+	 * @param fromGroup int - Position (in DB_ID order) of the first DB_ID group to walk, inclusive.
+	 * @param toGroup int - Position of the last DB_ID group to walk, exclusive.
+	 * @return Cursor over the given range of DB_ID groups of this index, in ascending DB_ID order.
+	 * @throws IllegalStateException - Thrown if entries were added since the last call to #sort().
+	 */
+	Cursor cursor(int fromGroup, int toGroup) {
+		checkSorted();
+		if (fromGroup < 0 || toGroup > groupCount() || fromGroup > toGroup) {
+			throw new IndexOutOfBoundsException("Invalid group range " + fromGroup + " to " + toGroup);
+		}
+		return new Cursor(fromGroup, toGroup);
+	}
+
+	private void checkSorted() {
+		if (!sorted) {
+			throw new IllegalStateException("The stable ID index must be sorted before it is iterated");
+		}
+	}
+
+	private int getGroupEnd(int groupStart) {
+		long dbId = getDbId(entries[groupStart]);
+		int groupEnd = groupStart + 1;
+		while (groupEnd < size && getDbId(entries[groupEnd]) == dbId) {
+			groupEnd++;
+		}
+		return groupEnd;
+	}
+
+	private static long getDbId(long entry) {
+		return entry >>> 32;
+	}
+
+	private static int getHandle(long entry) {
+		return (int) entry;
+	}
+
+	/**
+	 * Walks the DB_ID groups of a sorted StableIdIndex. Call #next() to move to the next group before reading it.
+	 */
+	class Cursor {
+		private final int toGroup;
+		private int group;
+		private int groupStart;
+		private int groupEnd;
+
+		private Cursor(int fromGroup, int toGroup) {
+			this.toGroup = toGroup;
+			this.group = fromGroup - 1;
+		}
+
+		boolean next() {
+			if (group + 1 >= toGroup) {
+				return false;
+			}
+			group++;
+			groupStart = groupStarts[group];
+			groupEnd = groupStarts[group + 1];
+			return true;
+		}
+
+		long dbId() {
+			return getDbId(entries[groupStart]);
+		}
+
+		int size() {
+			return groupEnd - groupStart;
+		}
+
+		String identifier(int i) {
+			return identifiers.get(getHandle(entries[groupStart + i]));
+		}
+
+		/**
+		 * @return List<String> - The identifiers of the current DB_ID, sorted.
+		 */
+		List<String> identifiers() {
+			List<String> groupIdentifiers = new ArrayList<>(size());
+			for (int i = 0; i < size(); i++) {
+				groupIdentifiers.add(identifier(i));
+			}
+			return groupIdentifiers;
+		}
+	}
+}
@@ -0,0 +1,172 @@
+package org.reactome.release.downloaddirectory.StableIdMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary companion of 'reactome_stable_ids.txt' that resolves an old stable identifier to the current stable
+ * identifier(s) it maps to with a binary search, without parsing the text file.
+ *
+ * Layout (all ints are big-endian):
+ * <pre>
+ * int    magic number ("RSID")
+ * int    format version
+ * int    entry count (n)
+ * int[n] offsets of the old stable identifiers in the string block, sorted by old identifier then current identifier
+ * int[n] offsets of the current stable identifiers in the string block, in the same order
+ * string block: each string is an unsigned short byte length followed by its UTF-8 bytes
+ * </pre>
+ */
+public class StableIdLookupFile {
+	private static final int MAGIC_NUMBER = 0x52534944;
+	private static final int FORMAT_VERSION = 1;
+	private static final int HEADER_LENGTH = 3 * Integer.BYTES;
+
+	private final ByteBuffer buffer;
+	private final int entryCount;
+	private final int stringBlockStart;
+
+	private StableIdLookupFile(ByteBuffer buffer) throws IOException {
+		if (buffer.remaining() < HEADER_LENGTH || buffer.getInt(0) != MAGIC_NUMBER) {
+			throw new IOException("Not a stable ID lookup file");
+		}
+		if (buffer.getInt(Integer.BYTES) != FORMAT_VERSION) {
+			throw new IOException("Unsupported stable ID lookup file version " + buffer.getInt(Integer.BYTES));
+		}
+		this.buffer = buffer;
+		this.entryCount = buffer.getInt(2 * Integer.BYTES);
+		this.stringBlockStart = HEADER_LENGTH + 2 * entryCount * Integer.BYTES;
+	}
+
+	/**
+	 * Reads a lookup file into memory.
+	 * @param lookupFilePath Path - Location of a file produced by a StableIdLookupFile.Builder.
+	 * @return StableIdLookupFile - The lookup file, ready for queries.
+	 * @throws IOException - Thrown if the file can't be read or is not a stable ID lookup file.
+	 */
+	public static StableIdLookupFile read(Path lookupFilePath) throws IOException {
+		return new StableIdLookupFile(ByteBuffer.wrap(Files.readAllBytes(lookupFilePath)));
+	}
+
+	public int size() {
+		return entryCount;
+	}
+
+	/**
+	 * Finds the current stable identifiers an old stable identifier maps to.
+	 * @param oldStableId String - Old stable identifier (e.g. 'REACT_98765').
+	 * @return List<String> - Current stable identifiers, sorted. Empty if the old identifier is not in the file.
+	 */
+	public List<String> getCurrentStableIds(String oldStableId) {
+		// Find the first entry with the old identifier, then collect the entries following it with the same identifier
+		int low = 0;
+		int high = entryCount;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (getOldStableId(middle).compareTo(oldStableId) < 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		List<String> currentStableIds = new ArrayList<>();
+		for (int entry = low; entry < entryCount && getOldStableId(entry).equals(oldStableId); entry++) {
+			currentStableIds.add(getCurrentStableId(entry));
+		}
+		return currentStableIds;
+	}
+
+	private String getOldStableId(int entry) {
+		return getString(buffer.getInt(HEADER_LENGTH + entry * Integer.BYTES));
+	}
+
+	private String getCurrentStableId(int entry) {
+		return getString(buffer.getInt(HEADER_LENGTH + (entryCount + entry) * Integer.BYTES));
+	}
+
+	private String getString(int offset) {
+		int position = stringBlockStart + offset;
+		int length = Short.toUnsignedInt(buffer.getShort(position));
+		return new String(buffer.array(), buffer.arrayOffset() + position + Short.BYTES, length, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Collects old to current stable identifier pairs and writes them as a lookup file.
+	 */
+	public static class Builder {
+		private final List<String[]> oldToCurrentStableIds = new ArrayList<>();
+
+		public void add(String oldStableId, String currentStableId) {
+			oldToCurrentStableIds.add(new String[]{oldStableId, currentStableId});
+		}
+
+		public void write(Path lookupFilePath) throws IOException {
+			Collections.sort(oldToCurrentStableIds, (pair, otherPair) -> {
+				int oldStableIdComparison = pair[0].compareTo(otherPair[0]);
+				return oldStableIdComparison != 0 ? oldStableIdComparison : pair[1].compareTo(otherPair[1]);
+			});
+			removeAdjacentDuplicates(oldToCurrentStableIds);
+
+			// Each distinct string is stored once; current identifiers in particular are shared by many entries
+			Map<String, Integer> stringOffsets = new HashMap<>();
+			List<byte[]> strings = new ArrayList<>();
+			int[] oldStableIdOffsets = new int[oldToCurrentStableIds.size()];
+			int[] currentStableIdOffsets = new int[oldToCurrentStableIds.size()];
+			int stringBlockLength = 0;
+			for (int entry = 0; entry < oldToCurrentStableIds.size(); entry++) {
+				for (int column = 0; column < 2; column++) {
+					String stableId = oldToCurrentStableIds.get(entry)[column];
+					Integer offset = stringOffsets.get(stableId);
+					if (offset == null) {
+						byte[] stableIdBytes = stableId.getBytes(StandardCharsets.UTF_8);
+						if (stableIdBytes.length > 0xFFFF) {
+							throw new IOException("Stable identifier is too long for the lookup file: " + stableId);
+						}
+						offset = stringBlockLength;
+						stringOffsets.put(stableId, offset);
+						strings.add(stableIdBytes);
+						stringBlockLength += Short.BYTES + stableIdBytes.length;
+					}
+					(column == 0 ? oldStableIdOffsets : currentStableIdOffsets)[entry] = offset;
+				}
+			}
+
+			try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(lookupFilePath)))) {
+				output.writeInt(MAGIC_NUMBER);
+				output.writeInt(FORMAT_VERSION);
+				output.writeInt(oldToCurrentStableIds.size());
+				for (int offset : oldStableIdOffsets) {
+					output.writeInt(offset);
+				}
+				for (int offset : currentStableIdOffsets) {
+					output.writeInt(offset);
+				}
+				for (byte[] stableIdBytes : strings) {
+					output.writeShort(stableIdBytes.length);
+					output.write(stableIdBytes);
+				}
+			}
+		}
+
+		private static void removeAdjacentDuplicates(List<String[]> sortedPairs) {
+			int distinctPairCount = 0;
+			for (String[] pair : sortedPairs) {
+				if (distinctPairCount == 0 || !Arrays.equals(sortedPairs.get(distinctPairCount - 1), pair)) {
+					sortedPairs.set(distinctPairCount++, pair);
+				}
+			}
+			sortedPairs.subList(distinctPairCount, sortedPairs.size()).clear();
+		}
+	}
+}
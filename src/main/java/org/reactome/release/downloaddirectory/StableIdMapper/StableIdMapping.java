@@ -1,19 +1,14 @@
 package org.reactome.release.downloaddirectory.StableIdMapper;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * @author Joel Weiser (joel.weiser@oicr.on.ca)
  * Created 1/23/2026
  */
 public class StableIdMapping {
-	private final static Pattern STABLE_ID_PATTERN = Pattern.compile("^R-(.{3})-.*");
-
-	private final List<String> stableIds;
+	private final List<StableId> stableIds;
 	private List<String> secondaryIds;
 
 	public StableIdMapping(List<String> stableIds) {
@@ -21,24 +16,26 @@ public class StableIdMapping {
 			throw new IllegalArgumentException("stableIds can not be null or empty");
 		}
 
-		this.stableIds = new ArrayList<>(stableIds);
+		// Each identifier is parsed once, so the checks below only compare already extracted parts
+		this.stableIds = new ArrayList<>(stableIds.size());
+		for (String stableId : stableIds) {
+			this.stableIds.add(StableId.parse(stableId));
+		}
 	}
 
 	public String getPrimaryId() {
-		return stableIds.get(0);
+		return getPrimaryStableId().getIdentifier();
 	}
 
 	public List<String> getSecondaryIds() {
 		if (this.secondaryIds == null) {
-			List<String> stableIdsCopy = new ArrayList<>(stableIds);
-			stableIdsCopy.remove(getPrimaryId());
-			this.secondaryIds = filterOutMismatchedIdentifiers(stableIdsCopy);
+			this.secondaryIds = filterOutMismatchedIdentifiers();
 		}
 		return this.secondaryIds;
 	}
 
 	public boolean hasNewFormatPrimaryId() {
-		return hasNewFormat(getPrimaryId());
+		return getPrimaryStableId().hasNewFormat();
 	}
 
 	public boolean hasSecondaryIds() {
@@ -46,7 +43,7 @@ public class StableIdMapping {
 	}
 
 	public boolean isHuman() {
-		return getPrimaryId().matches("R-HSA.*");
+		return getPrimaryStableId().isHuman();
 	}
 
 	@Override
@@ -54,47 +51,46 @@ public class StableIdMapping {
 		return getPrimaryId() + "\t" + String.join(",", getSecondaryIds()) + "\n";
 	}
 
-	private List<String> filterOutMismatchedIdentifiers(List<String> stableIds) {
-		List<String> filteredStableIds = new ArrayList<>();
-		for (String stableId : stableIds) {
-			if (stableId.startsWith("REACT_") ||
-				getAbbreviation(getPrimaryId()).equals(getAbbreviation(stableId)) ||
-				getAbbreviationExceptions().contains(getAbbreviation(stableId)) ||
-				(getAbbreviationExceptions().contains(getPrimaryId()) && noMismatchWithAlreadyFilteredStableIds(stableId, filteredStableIds))
+	private StableId getPrimaryStableId() {
+		return stableIds.get(0);
+	}
+
+	// Filters all stable ids except the first occurrence of the primary id
+	private List<String> filterOutMismatchedIdentifiers() {
+		StableId primaryStableId = getPrimaryStableId();
+		List<StableId> filteredStableIds = new ArrayList<>();
+		boolean primaryIdSkipped = false;
+		for (StableId stableId : stableIds) {
+			if (!primaryIdSkipped && stableId.getIdentifier().equals(primaryStableId.getIdentifier())) {
+				primaryIdSkipped = true;
+				continue;
+			}
+
+			if (stableId.hasOldFormat() ||
+				primaryStableId.getAbbreviation() == stableId.getAbbreviation() ||
+				stableId.hasAbbreviationException() ||
+				(primaryStableId.isAbbreviationException() && noMismatchWithAlreadyFilteredStableIds(stableId, filteredStableIds))
 			) {
 				filteredStableIds.add(stableId);
 			}
 		}
-		return filteredStableIds;
+
+		List<String> filteredIdentifiers = new ArrayList<>(filteredStableIds.size());
+		for (StableId filteredStableId : filteredStableIds) {
+			filteredIdentifiers.add(filteredStableId.getIdentifier());
+		}
+		return filteredIdentifiers;
 	}
 
-	private boolean noMismatchWithAlreadyFilteredStableIds(String stableId, List<String> filteredStableIds) {
-		if (getAbbreviationExceptions().contains(getAbbreviation(stableId))) {
+	private boolean noMismatchWithAlreadyFilteredStableIds(StableId stableId, List<StableId> filteredStableIds) {
+		if (stableId.hasAbbreviationException()) {
 			return true;
 		}
-		for (String filteredStableId : filteredStableIds) {
-			if (!getAbbreviation(stableId).equals(getAbbreviation(filteredStableId))) {
+		for (StableId filteredStableId : filteredStableIds) {
+			if (stableId.getAbbreviation() != filteredStableId.getAbbreviation()) {
 				return false;
 			}
 		}
 		return true;
 	}
-
-	private boolean hasNewFormat(String stableId) {
-		return stableId.matches("^R-.*");
-	}
-
-	private String getAbbreviation(String stableId) {
-		Matcher stableIdMatcher = STABLE_ID_PATTERN.matcher(stableId);
-
-		if (stableIdMatcher.find()) {
-			return stableIdMatcher.group(1);
-		} else {
-			return "";
-		}
-	}
-
-	private List<String> getAbbreviationExceptions() {
-		return Arrays.asList("ALL", "NUL", "HC ", "HCV", "HPC", "HPB", "HBV");
-	}
 }
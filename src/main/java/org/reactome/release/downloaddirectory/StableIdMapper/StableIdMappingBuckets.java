@@ -0,0 +1,54 @@
+package org.reactome.release.downloaddirectory.StableIdMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sorts StableIdMappings into the four groups that make up the order of 'reactome_stable_ids.txt': human mappings
+ * with at most one secondary identifier, non-human mappings with at most one, then human and non-human mappings
+ * with several. Each group keeps the order in which mappings were added, and buckets filled from consecutive ranges
+ * of DB_IDs can be appended to each other, so mappings can be built in parallel and still come out in the same order.
+ */
+class StableIdMappingBuckets {
+	private final List<StableIdMapping> humanSingleSecondaryIdMappings = new ArrayList<>();
+	private final List<StableIdMapping> nonHumanSingleSecondaryIdMappings = new ArrayList<>();
+	private final List<StableIdMapping> humanMultipleSecondaryIdMappings = new ArrayList<>();
+	private final List<StableIdMapping> nonHumanMultipleSecondaryIdMappings = new ArrayList<>();
+
+	void add(StableIdMapping stableIdMapping) {
+		boolean multipleSecondaryIds = stableIdMapping.getSecondaryIds().size() > 1;
+		if (stableIdMapping.isHuman()) {
+			(multipleSecondaryIds ? humanMultipleSecondaryIdMappings : humanSingleSecondaryIdMappings).add(stableIdMapping);
+		} else {
+			(multipleSecondaryIds ? nonHumanMultipleSecondaryIdMappings : nonHumanSingleSecondaryIdMappings).add(stableIdMapping);
+		}
+	}
+
+	/**
+	 * Appends the mappings of buckets filled from DB_IDs that come after the ones of these buckets.
+	 * @param followingBuckets StableIdMappingBuckets - Buckets to append to these ones.
+	 * @return StableIdMappingBuckets - These buckets, for chaining.
+	 */
+	StableIdMappingBuckets addAll(StableIdMappingBuckets followingBuckets) {
+		humanSingleSecondaryIdMappings.addAll(followingBuckets.humanSingleSecondaryIdMappings);
+		nonHumanSingleSecondaryIdMappings.addAll(followingBuckets.nonHumanSingleSecondaryIdMappings);
+		humanMultipleSecondaryIdMappings.addAll(followingBuckets.humanMultipleSecondaryIdMappings);
+		nonHumanMultipleSecondaryIdMappings.addAll(followingBuckets.nonHumanMultipleSecondaryIdMappings);
+		return this;
+	}
+
+	/**
+	 * @return List<StableIdMapping> - All mappings in the order they are written to the mapping file.
+	 */
+	List<StableIdMapping> getMappingsInOutputOrder() {
+		List<StableIdMapping> mappingsInOutputOrder = new ArrayList<>(
+			humanSingleSecondaryIdMappings.size() + nonHumanSingleSecondaryIdMappings.size() +
+			humanMultipleSecondaryIdMappings.size() + nonHumanMultipleSecondaryIdMappings.size()
+		);
+		mappingsInOutputOrder.addAll(humanSingleSecondaryIdMappings);
+		mappingsInOutputOrder.addAll(nonHumanSingleSecondaryIdMappings);
+		mappingsInOutputOrder.addAll(humanMultipleSecondaryIdMappings);
+		mappingsInOutputOrder.addAll(nonHumanMultipleSecondaryIdMappings);
+		return mappingsInOutputOrder;
+	}
+}
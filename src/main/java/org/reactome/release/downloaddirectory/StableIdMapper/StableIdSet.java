@@ -0,0 +1,85 @@
+package org.reactome.release.downloaddirectory.StableIdMapper;
+
+import java.util.Arrays;
+
+/**
+ * Compact hash set of stable identifiers. The identifiers are stored in a CharArena and the table holds only their
+ * int handles (open addressing with linear probing), so no String or entry object is kept per identifier.
+ */
+class StableIdSet {
+	private static final int INITIAL_CAPACITY = 1 << 12;
+	private static final int EMPTY_SLOT = -1;
+
+	private final CharArena identifiers = new CharArena();
+	private int[] slots = newSlots(INITIAL_CAPACITY);
+
+	/**
+	 * Adds a stable identifier to the set.
+	 * @param identifier CharSequence - Stable identifier.
+	 * @return boolean - true if the identifier was not already in the set.
+	 */
+	boolean add(CharSequence identifier) {
+		int slot = findSlot(identifier);
+		if (slots[slot] != EMPTY_SLOT) {
+			return false;
+		}
+		slots[slot] = identifiers.add(identifier);
+		// Keep the load factor at or below 1/2 so probe sequences stay short
+		if (identifiers.size() * 2 > slots.length) {
+			rehash();
+		}
+		return true;
+	}
+
+	boolean contains(CharSequence identifier) {
+		return slots[findSlot(identifier)] != EMPTY_SLOT;
+	}
+
+	int size() {
+		return identifiers.size();
+	}
+
+	// Returns the slot holding the identifier or, if it is not in the set, the empty slot where it would be added
+	private int findSlot(CharSequence identifier) {
+		int mask = slots.length - 1;
+		int slot = spread(hash(identifier)) & mask;
+		while (slots[slot] != EMPTY_SLOT && !identifiers.contentEquals(slots[slot], identifier)) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private void rehash() {
+		int[] newSlots = newSlots(slots.length * 2);
+		int mask = newSlots.length - 1;
+		for (int handle = 0; handle < identifiers.size(); handle++) {
+			int slot = spread(identifiers.hash(handle)) & mask;
+			while (newSlots[slot] != EMPTY_SLOT) {
+				slot = (slot + 1) & mask;
+			}
+			newSlots[slot] = handle;
+		}
+		slots = newSlots;
+	}
+
+	private static int[] newSlots(int capacity) {
+		int[] newSlots = new int[capacity];
+		Arrays.fill(newSlots, EMPTY_SLOT);
+		return newSlots;
+	}
+
+	// Same as String#hashCode, so it matches CharArena#hash for the stored copy
+	private static int hash(CharSequence identifier) {
+		int hash = 0;
+		for (int i = 0; i < identifier.length(); i++) {
+			hash = 31 * hash + identifier.charAt(i);
+		}
+		return hash;
+	}
+
+	// Identifiers share long prefixes, so scramble the hash and fold its high bits into the low bits used for the slot
+	private static int spread(int hash) {
+		int scrambledHash = hash * 0x9E3779B9;
+		return scrambledHash ^ (scrambledHash >>> 16);
+	}
+}
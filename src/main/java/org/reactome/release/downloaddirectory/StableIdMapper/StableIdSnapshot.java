@@ -0,0 +1,217 @@
+package org.reactome.release.downloaddirectory.StableIdMapper;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Binary snapshot of the stable_identifiers history used by the incremental mode of MapOldStableIds. It holds every
+ * (DB_ID, stable identifier) pair of the StableIdentifier table, plus a digest per range of DB_IDs as computed by the
+ * database when the snapshot was made. On the next run, only the ranges whose digest has changed need to be queried
+ * again; the pairs of all other ranges are read from the snapshot.
+ *
+ * Layout (gzipped, written with DataOutputStream):
+ * <pre>
+ * int  magic number ("RSIS")
+ * int  format version
+ * long DB_ID range size
+ * int  range count, then per range: long range number, long row count, long checksum
+ * int  DB_ID count, then per DB_ID: long DB_ID, int identifier count, identifiers (modified UTF-8)
+ * </pre>
+ */
+class StableIdSnapshot {
+	// DB_IDs are grouped into ranges of this many consecutive values, each with its own digest
+	static final long DB_ID_RANGE_SIZE = 100_000L;
+
+	private static final int MAGIC_NUMBER = 0x52534953;
+	private static final int FORMAT_VERSION = 1;
+
+	private StableIdSnapshot() {}
+
+	static long getRange(long dbId) {
+		return dbId / DB_ID_RANGE_SIZE;
+	}
+
+	/**
+	 * Reads the per range digests at the start of a snapshot, without reading its stable identifiers.
+	 * @param snapshotPath Path - Location of the snapshot.
+	 * @return SortedMap<Long, RangeDigest> - Digest of each DB_ID range, keyed by range number.
+	 * @throws IOException - Thrown if the snapshot can't be read or was written with a different range size.
+	 */
+	static SortedMap<Long, RangeDigest> readRangeDigests(Path snapshotPath) throws IOException {
+		try (DataInputStream input = openSnapshot(snapshotPath)) {
+			return readRangeDigests(input);
+		}
+	}
+
+	/**
+	 * Compares the digests of the database with those of a snapshot.
+	 * @param rangeDigests Map<Long, RangeDigest> - Digest of each DB_ID range in the database, keyed by range number.
+	 * @param previousRangeDigests Map<Long, RangeDigest> - Digest of each DB_ID range in the snapshot, keyed by range number.
+	 * @return Set<Long> - Numbers of the DB_ID ranges that were added, removed or whose digest differs, in ascending order.
+	 */
+	static Set<Long> getChangedRanges(Map<Long, RangeDigest> rangeDigests, Map<Long, RangeDigest> previousRangeDigests) {
+		Set<Long> ranges = new TreeSet<>(rangeDigests.keySet());
+		ranges.addAll(previousRangeDigests.keySet());
+
+		Set<Long> changedRanges = new TreeSet<>();
+		for (Long range : ranges) {
+			if (!Objects.equals(rangeDigests.get(range), previousRangeDigests.get(range))) {
+				changedRanges.add(range);
+			}
+		}
+		return changedRanges;
+	}
+
+	/**
+	 * Adds the stable identifiers of a snapshot to an index, skipping those in the given DB_ID ranges.
+	 * @param snapshotPath Path - Location of the snapshot.
+	 * @param dbIdToStableIds StableIdIndex - Index to which to add the stable identifiers.
+	 * @param rangesToSkip Set<Long> - Numbers of the DB_ID ranges whose stable identifiers are not added.
+	 * @return int - The number of stable identifiers added.
+	 * @throws IOException - Thrown if the snapshot can't be read.
+	 */
+	static int readStableIds(Path snapshotPath, StableIdIndex dbIdToStableIds, Set<Long> rangesToSkip) throws IOException {
+		int stableIdCount = 0;
+		try (DataInputStream input = openSnapshot(snapshotPath)) {
+			readRangeDigests(input);
+			int dbIdCount = input.readInt();
+			for (int i = 0; i < dbIdCount; i++) {
+				long dbId = input.readLong();
+				int identifierCount = input.readInt();
+				boolean skip = rangesToSkip.contains(getRange(dbId));
+				for (int j = 0; j < identifierCount; j++) {
+					String identifier = input.readUTF();
+					if (!skip) {
+						dbIdToStableIds.add(dbId, identifier);
+						stableIdCount++;
+					}
+				}
+			}
+		}
+		return stableIdCount;
+	}
+
+	/**
+	 * Writes a snapshot to a temporary file next to the given path and then moves it into place, so the previous
+	 * snapshot is only replaced by a complete one.
+	 * @param snapshotPath Path - Location of the snapshot.
+	 * @param rangeDigests Map<Long, RangeDigest> - Digest of each DB_ID range, keyed by range number.
+	 * @param dbIdToStableIds StableIdIndex - Sorted index of all stable identifiers.
+	 * @throws IOException - Thrown if the snapshot can't be written.
+	 */
+	static void write(Path snapshotPath, Map<Long, RangeDigest> rangeDigests, StableIdIndex dbIdToStableIds) throws IOException {
+		Path snapshotDirectory = snapshotPath.toAbsolutePath().getParent();
+		Files.createDirectories(snapshotDirectory);
+		Path temporarySnapshotPath = Files.createTempFile(snapshotDirectory, snapshotPath.getFileName().toString(), ".tmp");
+		try {
+			try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+				new GZIPOutputStream(Files.newOutputStream(temporarySnapshotPath))))) {
+				output.writeInt(MAGIC_NUMBER);
+				output.writeInt(FORMAT_VERSION);
+				output.writeLong(DB_ID_RANGE_SIZE);
+				output.writeInt(rangeDigests.size());
+				for (Map.Entry<Long, RangeDigest> rangeDigest : new TreeMap<>(rangeDigests).entrySet()) {
+					output.writeLong(rangeDigest.getKey());
+					output.writeLong(rangeDigest.getValue().getRowCount());
+					output.writeLong(rangeDigest.getValue().getChecksum());
+				}
+
+				output.writeInt(dbIdToStableIds.groupCount());
+				StableIdIndex.Cursor dbIdCursor = dbIdToStableIds.cursor();
+				while (dbIdCursor.next()) {
+					output.writeLong(dbIdCursor.dbId());
+					output.writeInt(dbIdCursor.size());
+					for (int i = 0; i < dbIdCursor.size(); i++) {
+						output.writeUTF(dbIdCursor.identifier(i));
+					}
+				}
+			}
+			Files.move(temporarySnapshotPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temporarySnapshotPath);
+		}
+	}
+
+	private static DataInputStream openSnapshot(Path snapshotPath) throws IOException {
+		DataInputStream input = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(snapshotPath))));
+		try {
+			if (input.readInt() != MAGIC_NUMBER) {
+				throw new IOException(snapshotPath + " is not a stable ID snapshot");
+			}
+			int formatVersion = input.readInt();
+			if (formatVersion != FORMAT_VERSION) {
+				throw new IOException("Unsupported stable ID snapshot version " + formatVersion + " in " + snapshotPath);
+			}
+			long rangeSize = input.readLong();
+			if (rangeSize != DB_ID_RANGE_SIZE) {
+				throw new IOException("Stable ID snapshot " + snapshotPath + " uses a DB_ID range size of " + rangeSize);
+			}
+			return input;
+		} catch (IOException e) {
+			input.close();
+			throw e;
+		}
+	}
+
+	private static SortedMap<Long, RangeDigest> readRangeDigests(DataInputStream input) throws IOException {
+		SortedMap<Long, RangeDigest> rangeDigests = new TreeMap<>();
+		int rangeCount = input.readInt();
+		for (int i = 0; i < rangeCount; i++) {
+			long range = input.readLong();
+			rangeDigests.put(range, new RangeDigest(input.readLong(), input.readLong()));
+		}
+		return rangeDigests;
+	}
+
+	/**
+	 * Row count and checksum of the StableIdentifier rows in one DB_ID range.
+	 */
+	static class RangeDigest {
+		private final long rowCount;
+		private final long checksum;
+
+		RangeDigest(long rowCount, long checksum) {
+			this.rowCount = rowCount;
+			this.checksum = checksum;
+		}
+
+		long getRowCount() {
+			return rowCount;
+		}
+
+		long getChecksum() {
+			return checksum;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof RangeDigest)) {
+				return false;
+			}
+			RangeDigest that = (RangeDigest) o;
+			return rowCount == that.rowCount && checksum == that.checksum;
+		}
+
+		@Override
+		public int hashCode() {
+			return Long.hashCode(rowCount) * 31 + Long.hashCode(checksum);
+		}
+	}
+}
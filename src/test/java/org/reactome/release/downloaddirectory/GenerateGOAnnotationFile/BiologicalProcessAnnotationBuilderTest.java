@@ -38,6 +38,8 @@ public class BiologicalProcessAnnotationBuilderTest {
     private GKInstance mockGOBioProcessInst;
     @Mock
     private GKInstance mockProteinInst;
+    @Mock
+    private GKInstance mockStableIdentifierInst;
 
     private List<GKInstance> mockCatalystSet = new ArrayList<>();
     private List<GKInstance> mockMemberSet = new ArrayList<>();
@@ -62,8 +64,8 @@ public class BiologicalProcessAnnotationBuilderTest {
             .thenReturn(mockSpeciesInst);
         Mockito.when(GOAGeneratorUtilities.getGOAnnotatableProteinsFromCatalystActivity(mockCatalystInst))
             .thenReturn(new HashSet<>(mockMemberSet));
-        Mockito.when(GOAGeneratorUtilities.getAnyIssueForAnnotationDisqualification(mockCatalystPEMemberInst))
-            .thenReturn("");
+        Mockito.when(GOAGeneratorUtilities.getAnyReasonForAnnotationDisqualification(mockCatalystPEMemberInst))
+            .thenReturn(null);
         Mockito.when(GOAGeneratorUtilities.getReferenceEntityFromProtein(mockCatalystPEMemberInst))
             .thenCallRealMethod();
         Mockito.when(GOAGeneratorUtilities.getTaxonIdentifier(mockCatalystPEMemberInst))
@@ -72,10 +74,14 @@ public class BiologicalProcessAnnotationBuilderTest {
             .thenReturn(mockCrossReferenceInst);
         Mockito.when(mockCrossReferenceInst.getAttributeValue(ReactomeJavaConstants.identifier))
             .thenReturn("1234");
-        Mockito.when(mockReactionInst.getReferers(ReactomeJavaConstants.hasEvent))
-            .thenReturn(mockEventReferralSet);
+        Mockito.when(mockReactionInst.getDBID()).thenReturn(1L);
+        Mockito.when(mockEventReferralInst.getDBID()).thenReturn(2L);
+        Mockito.when(mockEventReferralInst.getAttributeValuesList(ReactomeJavaConstants.hasEvent))
+            .thenReturn(Collections.singletonList(mockReactionInst));
         Mockito.when(mockEventReferralInst.getAttributeValuesList(ReactomeJavaConstants.goBiologicalProcess))
             .thenReturn(mockGOBioProcessSet);
+        Mockito.when(mockEventReferralInst.getAttributeValue(ReactomeJavaConstants.stableIdentifier))
+            .thenReturn(mockStableIdentifierInst);
         Mockito.when(mockGOBioProcessInst.getAttributeValue(ReactomeJavaConstants.accession))
             .thenReturn("1234");
         Mockito.when(mockReferenceEntityInst.getAttributeValue(ReactomeJavaConstants.identifier))
@@ -84,18 +90,13 @@ public class BiologicalProcessAnnotationBuilderTest {
             .thenReturn("R5678");
         Mockito.when(GOAGeneratorUtilities.getReactomeIdentifier(mockEventReferralInst))
             .thenReturn("REACTOME:1234");
-        Mockito.when(GOAGeneratorUtilities.generateGOALine(
-            mockCatalystPEMemberInst,
-            GOAGeneratorConstants.BIOLOGICAL_PROCESS_LETTER,
-            GOAGeneratorConstants.BIOLOGICAL_PROCESS_QUALIFIER,
-            "GO:1234",
-            "REACTOME:1234",
-            GOAGeneratorConstants.TRACEABLE_AUTHOR_STATEMENT_CODE
-        )).thenCallRealMethod();
-        Set<String> goaLines = BiologicalProcessAnnotationBuilder.processBiologicalFunctions(mockReactionInst);
+        GOAGenerationContext context =
+            new GOAGenerationContext(GOBiologicalProcessIndex.of(mockEventReferralSet));
+        Set<GOAnnotation> goAnnotations =
+            BiologicalProcessAnnotationBuilder.processBiologicalFunctions(mockReactionInst, context);
 
-        assertThat(goaLines.size(), is(equalTo(1)));
-        assertThat(goaLines.iterator().next(), is((equalTo(
+        assertThat(goAnnotations.size(), is(equalTo(1)));
+        assertThat(goAnnotations.iterator().next().toString(), is((equalTo(
             "UniProtKB\tR1234\tR5678\tinvolved_in\tGO:1234\tREACTOME:1234\tTAS\t\tP\t\t\tprotein\ttaxon:1234")
         )));
     }
@@ -115,8 +116,8 @@ public class BiologicalProcessAnnotationBuilderTest {
             .thenReturn(mockSpeciesInst);
         Mockito.when(GOAGeneratorUtilities.getGOAnnotatableProteinsFromCatalystActivity(mockCatalystInst))
             .thenReturn(mockProteinSet);
-        Mockito.when(GOAGeneratorUtilities.getAnyIssueForAnnotationDisqualification(mockProteinInst))
-            .thenReturn("");
+        Mockito.when(GOAGeneratorUtilities.getAnyReasonForAnnotationDisqualification(mockProteinInst))
+            .thenReturn(null);
         Mockito.when(GOAGeneratorUtilities.getReferenceEntityFromProtein(mockProteinInst))
             .thenCallRealMethod();
         Mockito.when(GOAGeneratorUtilities.getTaxonIdentifier(mockProteinInst))
@@ -136,18 +137,11 @@ public class BiologicalProcessAnnotationBuilderTest {
         Mockito.when(GOAGeneratorUtilities.getReactomeIdentifier(mockReactionInst))
             .thenReturn("REACTOME:1234");
 
-        Mockito.when(GOAGeneratorUtilities.generateGOALine(
-            mockProteinInst,
-            GOAGeneratorConstants.BIOLOGICAL_PROCESS_LETTER,
-            GOAGeneratorConstants.BIOLOGICAL_PROCESS_QUALIFIER,
-            "GO:1234",
-            "REACTOME:1234",
-            GOAGeneratorConstants.TRACEABLE_AUTHOR_STATEMENT_CODE
-        )).thenCallRealMethod();
-        Set<String> goaLines = BiologicalProcessAnnotationBuilder.processBiologicalFunctions(mockReactionInst);
+        Set<GOAnnotation> goAnnotations =
+            BiologicalProcessAnnotationBuilder.processBiologicalFunctions(mockReactionInst, new GOAGenerationContext());
 
-        assertThat(goaLines.size(), is(equalTo(1)));
-        assertThat(goaLines.iterator().next(), is((equalTo(
+        assertThat(goAnnotations.size(), is(equalTo(1)));
+        assertThat(goAnnotations.iterator().next().toString(), is((equalTo(
             "UniProtKB\tR1234\tR5678\tinvolved_in\tGO:1234\tREACTOME:1234\tTAS\t\tP\t\t\tprotein\ttaxon:1234")
         )));
     }
@@ -1,7 +1,6 @@
 package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
 
 import org.gk.model.GKInstance;
-import org.gk.model.InstanceUtilities;
 import org.gk.model.ReactomeJavaConstants;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -16,10 +15,9 @@ import java.util.*;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
-import static org.mockito.Matchers.anyCollection;
 
 @RunWith(PowerMockRunner.class)
-@PrepareForTest({CellularComponentAnnotationBuilder.class, GOAGeneratorUtilities.class, InstanceUtilities.class})
+@PrepareForTest({CellularComponentAnnotationBuilder.class, GOAGeneratorUtilities.class, ProteinTraversal.class})
 @PowerMockIgnore({"org.apache.logging.log4j.*", "javax.management.*", "javax.script.*",
     "javax.xml.*", "com.sun.org.apache.xerces.*", "org.xml.sax.*", "com.sun.xml.*", "org.w3c.dom.*", "org.mockito.*"})
 
@@ -37,6 +35,8 @@ public class CellularComponentAnnotationBuilderTest {
     private GKInstance mockCrossReferenceInst;
     @Mock
     private GKInstance mockCompartmentInst;
+    @Mock
+    private ProteinTraversal mockProteinTraversal;
 
     private Set<GKInstance> mockProteinSet = new HashSet<>();
 
@@ -63,19 +63,11 @@ public class CellularComponentAnnotationBuilderTest {
         mockProteinCompartmentToReturnGOAccession(dummyGOAccession);
         mockReactionlikeEventToReturnReactomeIdentifier(dummyReactomeIdentifier);
 
-        Mockito.when(GOAGeneratorUtilities.generateGOALine(
-            mockProteinInst,
-            GOAGeneratorConstants.CELLULAR_COMPONENT_LETTER,
-            GOAGeneratorConstants.CELLULAR_COMPONENT_QUALIFIER,
-            dummyGOAccessionWithPrefix,
-            dummyReactomeIdentifier,
-            GOAGeneratorConstants.TRACEABLE_AUTHOR_STATEMENT_CODE
-        )).thenCallRealMethod();
-
-        Set<String> goaLines = CellularComponentAnnotationBuilder.processCellularComponents(mockReactionInst);
+        Set<GOAnnotation> goAnnotations =
+            CellularComponentAnnotationBuilder.processCellularComponents(mockReactionInst, new GOAGenerationContext());
 
-        assertThat(goaLines.size(), is(equalTo(1)));
-        assertThat(goaLines.iterator().next(), is(equalTo(expectedCellularComponentGOALine)));
+        assertThat(goAnnotations.size(), is(equalTo(1)));
+        assertThat(goAnnotations.iterator().next().toString(), is(equalTo(expectedCellularComponentGOALine)));
     }
 
     @Test
@@ -87,9 +79,10 @@ public class CellularComponentAnnotationBuilderTest {
         mockProteinToReturnNoDisqualificationsForAnnotation();
         mockProteinCompartmentToReturnGOAccession(dummyGOAccession);
 
-        Set<String> goaLines = CellularComponentAnnotationBuilder.processCellularComponents(mockReactionInst);
+        Set<GOAnnotation> goAnnotations =
+            CellularComponentAnnotationBuilder.processCellularComponents(mockReactionInst, new GOAGenerationContext());
 
-        assertThat(goaLines.size(), is(equalTo(0)));
+        assertThat(goAnnotations.size(), is(equalTo(0)));
     }
 
     @Test
@@ -100,9 +93,10 @@ public class CellularComponentAnnotationBuilderTest {
         mockProteinToReturnNoDisqualificationsForAnnotation();
         Mockito.when(mockProteinInst.getAttributeValue(ReactomeJavaConstants.compartment)).thenReturn(null);
 
-        Set<String> goaLines = CellularComponentAnnotationBuilder.processCellularComponents(mockReactionInst);
+        Set<GOAnnotation> goAnnotations =
+            CellularComponentAnnotationBuilder.processCellularComponents(mockReactionInst, new GOAGenerationContext());
 
-        assertThat(goaLines.size(), is(equalTo(0)));
+        assertThat(goAnnotations.size(), is(equalTo(0)));
     }
 
     @Test
@@ -115,20 +109,21 @@ public class CellularComponentAnnotationBuilderTest {
         mockProteinToReturnMockReferenceEntity();
 
         Mockito.when(GOAGeneratorUtilities.isValidProtein(mockProteinInst)).thenReturn(true);
-        Mockito.when(GOAGeneratorUtilities.getAnyIssueForAnnotationDisqualification(mockProteinInst)).thenCallRealMethod();
+        Mockito.when(GOAGeneratorUtilities.getAnyReasonForAnnotationDisqualification(mockProteinInst))
+            .thenCallRealMethod();
         Mockito.when(GOAGeneratorUtilities.hasExcludedMicrobialSpecies(mockProteinInst)).thenCallRealMethod();
 
-        Set<String> goaLines = CellularComponentAnnotationBuilder.processCellularComponents(mockReactionInst);
+        Set<GOAnnotation> goAnnotations =
+            CellularComponentAnnotationBuilder.processCellularComponents(mockReactionInst, new GOAGenerationContext());
 
-        assertThat(goaLines.size(), is(equalTo(0)));
+        assertThat(goAnnotations.size(), is(equalTo(0)));
     }
 
     private void initMocks(String taxonIdentifier) throws Exception {
         PowerMockito.mockStatic(GOAGeneratorUtilities.class);
-        PowerMockito.mockStatic(InstanceUtilities.class);
+        PowerMockito.whenNew(ProteinTraversal.class).withAnyArguments().thenReturn(mockProteinTraversal);
 
-        PowerMockito.when(InstanceUtilities.followInstanceAttributes(Mockito.any(), anyCollection(), Mockito.any()))
-            .thenReturn(mockProteinSet);
+        PowerMockito.when(mockProteinTraversal.getEWASs(Mockito.any())).thenReturn(mockProteinSet);
 
         mockProteinSet.add(mockProteinInst);
 
@@ -145,7 +140,8 @@ public class CellularComponentAnnotationBuilderTest {
     }
 
     private void mockProteinToReturnNoDisqualificationsForAnnotation() throws Exception {
-        Mockito.when(GOAGeneratorUtilities.getAnyIssueForAnnotationDisqualification(mockProteinInst)).thenReturn("");
+        Mockito.when(GOAGeneratorUtilities.getAnyReasonForAnnotationDisqualification(mockProteinInst))
+            .thenReturn(null);
     }
 
     private void mockProteinToReturnMockReferenceEntity() throws Exception {
@@ -0,0 +1,79 @@
+package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.*;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ConcurrentGOAnnotationWriterTest {
+
+    @Test
+    public void eachWriterGetsTheAnnotationsOfAllBatchesInOrder() throws Exception {
+        Random random = new Random(47);
+        List<GOAnnotation> sortedGOAnnotations = new ArrayList<>();
+        for (int i = 0; i < ConcurrentGOAnnotationWriter.BATCH_SIZE * 2 + 10; i++) {
+            sortedGOAnnotations.add(new GOAnnotation(
+                "P" + random.nextInt(1000), "R" + random.nextInt(3), "enables", "GO:000" + random.nextInt(20),
+                "REACTOME:R-HSA-" + random.nextInt(100), "TAS", "F", "9606"
+            ));
+        }
+        Collections.sort(sortedGOAnnotations);
+
+        StringWriter gafOutput = new StringWriter();
+        StringWriter gpadOutput = new StringWriter();
+        StringWriter gpiOutput = new StringWriter();
+        try (ConcurrentGOAnnotationWriter goAnnotationWriter = new ConcurrentGOAnnotationWriter(Arrays.asList(
+            new GAFWriter(gafOutput), new GPADWriter(gpadOutput), new GPIWriter(gpiOutput)
+        ))) {
+            writeAnnotations(goAnnotationWriter, sortedGOAnnotations);
+        }
+
+        StringWriter expectedGAFOutput = new StringWriter();
+        StringWriter expectedGPADOutput = new StringWriter();
+        StringWriter expectedGPIOutput = new StringWriter();
+        for (GOAnnotationWriter goAnnotationWriter : Arrays.asList(
+            new GAFWriter(expectedGAFOutput), new GPADWriter(expectedGPADOutput), new GPIWriter(expectedGPIOutput)
+        )) {
+            try (GOAnnotationWriter writer = goAnnotationWriter) {
+                writeAnnotations(writer, sortedGOAnnotations);
+            }
+        }
+        assertThat(gafOutput.toString(), is(equalTo(expectedGAFOutput.toString())));
+        assertThat(gpadOutput.toString(), is(equalTo(expectedGPADOutput.toString())));
+        assertThat(gpiOutput.toString(), is(equalTo(expectedGPIOutput.toString())));
+    }
+
+    @Test
+    public void annotationLinesAreParsedForOtherFormats() throws Exception {
+        GOAnnotation goAnnotation =
+            new GOAnnotation("A0AVI4", "TM129_HUMAN", "enables", "GO:0061630", "PMID:24807418", "EXP", "F", "9606");
+        StringWriter gafOutput = new StringWriter();
+        try (GAFWriter gafWriter = new GAFWriter(gafOutput)) {
+            gafWriter.writeAnnotation(goAnnotation, "20170111");
+        }
+
+        StringWriter gpadOutput = new StringWriter();
+        StringWriter expectedGPADOutput = new StringWriter();
+        try (ConcurrentGOAnnotationWriter goAnnotationWriter = new ConcurrentGOAnnotationWriter(Arrays.asList(
+            new GAFWriter(new StringWriter()), new GPADWriter(gpadOutput)
+        ))) {
+            goAnnotationWriter.writeAnnotationLine(gafOutput.toString().replace(System.lineSeparator(), ""));
+        }
+        try (GPADWriter gpadWriter = new GPADWriter(expectedGPADOutput)) {
+            gpadWriter.writeAnnotation(goAnnotation, "20170111");
+        }
+        assertThat(gpadOutput.toString(), is(equalTo(expectedGPADOutput.toString())));
+    }
+
+    private void writeAnnotations(GOAnnotationWriter goAnnotationWriter, List<GOAnnotation> sortedGOAnnotations)
+        throws Exception {
+        goAnnotationWriter.writeHeader("77", "2021-06-30");
+        for (GOAnnotation goAnnotation : sortedGOAnnotations) {
+            goAnnotationWriter.writeAnnotation(goAnnotation, "20210630");
+        }
+    }
+}
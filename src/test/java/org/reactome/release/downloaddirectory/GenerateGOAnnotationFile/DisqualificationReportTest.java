@@ -0,0 +1,95 @@
+package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
+
+import org.gk.model.GKInstance;
+import org.gk.model.ReactomeJavaConstants;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
+
+public class DisqualificationReportTest {
+
+    @Test
+    public void disqualificationsAreCountedPerReasonAndSpecies() throws Exception {
+        DisqualificationReport report = new DisqualificationReport();
+        GKInstance humanProtein = mockInstance(1L, "Homo sapiens");
+        GKInstance mouseProtein = mockInstance(2L, "Mus musculus");
+        GKInstance proteinWithoutSpecies = mockInstance(3L, null);
+
+        report.record(DisqualificationReason.INVALID_PROTEIN, humanProtein, humanProtein);
+        report.record(DisqualificationReason.INVALID_PROTEIN, humanProtein, humanProtein);
+        report.record(DisqualificationReason.INVALID_PROTEIN, mouseProtein, mouseProtein);
+        report.record(DisqualificationReason.INVALID_PROTEIN, proteinWithoutSpecies, proteinWithoutSpecies);
+
+        assertThat(report.getCount(DisqualificationReason.INVALID_PROTEIN), is(equalTo(4L)));
+        assertThat(report.getCount(DisqualificationReason.PROTEIN_BINDING_ACTIVITY), is(equalTo(0L)));
+        assertThat(
+            report.getSpeciesCounts(DisqualificationReason.INVALID_PROTEIN).get("Homo sapiens"), is(equalTo(2L))
+        );
+        assertThat(
+            report.getSpeciesCounts(DisqualificationReason.INVALID_PROTEIN).get(DisqualificationReport.NO_SPECIES),
+            is(equalTo(1L))
+        );
+        assertThat(report.getSummaryLines(), contains("INVALID_PROTEIN: 4 disqualified for GO annotation"));
+    }
+
+    @Test
+    public void sampleKeepsTheSmallestDbIdsWhateverTheOrder() throws Exception {
+        DisqualificationReport report = new DisqualificationReport(2);
+        GKInstance firstCatalyst = mockInstance(30L, null);
+        GKInstance secondCatalyst = mockInstance(10L, null);
+        GKInstance thirdCatalyst = mockInstance(20L, null);
+        GKInstance reaction = mockInstance(1L, "Homo sapiens");
+
+        for (GKInstance catalyst : Arrays.asList(firstCatalyst, secondCatalyst, thirdCatalyst, secondCatalyst)) {
+            report.record(DisqualificationReason.CATALYST_WITHOUT_MOLECULAR_FUNCTION, catalyst, reaction);
+        }
+
+        assertThat(report.getSample(DisqualificationReason.CATALYST_WITHOUT_MOLECULAR_FUNCTION), contains(
+            "Instance 10 has no GO_MolecularFunction attribute, skipping GO annotation",
+            "Instance 20 has no GO_MolecularFunction attribute, skipping GO annotation"
+        ));
+        assertThat(report.getSample(DisqualificationReason.INVALID_PROTEIN), is(empty()));
+        // Display names are only built for instances entering the sample
+        Mockito.verify(secondCatalyst, Mockito.times(1)).getExtendedDisplayName();
+    }
+
+    @Test
+    public void reportOfAnIncrementalRunIsMarkedAsPartial() throws Exception {
+        DisqualificationReport report = new DisqualificationReport();
+        GKInstance humanProtein = mockInstance(1L, "Homo sapiens");
+        report.record(DisqualificationReason.INVALID_PROTEIN, humanProtein, humanProtein);
+        report.setReusedReactionCount(25);
+
+        String partialHeader =
+            "Partial (incremental): disqualifications in the 25 reactions reused from the GO annotation store are " +
+            "not counted";
+        assertThat(report.isPartial(), is(equalTo(true)));
+        assertThat(report.getSummaryLines(), contains(
+            partialHeader, "INVALID_PROTEIN: 1 disqualified for GO annotation"
+        ));
+        StringWriter output = new StringWriter();
+        report.write(output);
+        assertThat(output.toString(), startsWith("# " + partialHeader + System.lineSeparator()));
+    }
+
+    private GKInstance mockInstance(long dbId, String speciesName) throws Exception {
+        GKInstance instance = Mockito.mock(GKInstance.class);
+        Mockito.when(instance.getDBID()).thenReturn(dbId);
+        Mockito.when(instance.getExtendedDisplayName()).thenReturn("Instance " + dbId);
+        if (speciesName != null) {
+            GKInstance speciesInst = Mockito.mock(GKInstance.class);
+            Mockito.when(speciesInst.getDisplayName()).thenReturn(speciesName);
+            Mockito.when(instance.getAttributeValue(ReactomeJavaConstants.species)).thenReturn(speciesInst);
+        }
+        return instance;
+    }
+}
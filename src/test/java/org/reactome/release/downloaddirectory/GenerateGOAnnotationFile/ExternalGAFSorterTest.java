@@ -0,0 +1,65 @@
+package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.*;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ExternalGAFSorterTest {
+
+    @Test
+    public void spilledRunsAreMergedInTheOrderOfAnInMemorySort() throws Exception {
+        Random random = new Random(45);
+        Map<GOAnnotation, String> goAnnotationDates = new LinkedHashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            goAnnotationDates.put(new GOAnnotation(
+                "P" + random.nextInt(100), "R" + random.nextInt(3), "enables", "GO:000" + random.nextInt(20),
+                "REACTOME:R-HSA-" + random.nextInt(100), "TAS", "F", random.nextBoolean() ? "9606" : "96"
+            ), "2021" + (1000 + random.nextInt(300)));
+        }
+
+        String inMemoryOutput;
+        try (ExternalGAFSorter gafSorter = new ExternalGAFSorter(goAnnotationDates.size())) {
+            inMemoryOutput = writeSorted(gafSorter, goAnnotationDates);
+            assertThat(gafSorter.getRunCount(), is(equalTo(0)));
+        }
+
+        String spilledOutput;
+        try (ExternalGAFSorter gafSorter = new ExternalGAFSorter(64)) {
+            spilledOutput = writeSorted(gafSorter, goAnnotationDates);
+            assertThat(gafSorter.getRunCount(), is(equalTo((goAnnotationDates.size() + 63) / 64)));
+        }
+
+        List<GOAnnotation> sortedGOAnnotations = new ArrayList<>(goAnnotationDates.keySet());
+        Collections.sort(sortedGOAnnotations);
+        StringWriter expectedOutput = new StringWriter();
+        try (GAFWriter gafWriter = new GAFWriter(expectedOutput)) {
+            for (GOAnnotation goAnnotation : sortedGOAnnotations) {
+                gafWriter.writeAnnotation(goAnnotation, goAnnotationDates.get(goAnnotation));
+            }
+        }
+        assertThat(inMemoryOutput, is(equalTo(expectedOutput.toString())));
+        assertThat(spilledOutput, is(equalTo(expectedOutput.toString())));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyBufferIsRejected() {
+        new ExternalGAFSorter(0);
+    }
+
+    private String writeSorted(ExternalGAFSorter gafSorter, Map<GOAnnotation, String> goAnnotationDates)
+        throws Exception {
+        for (Map.Entry<GOAnnotation, String> goAnnotationDate : goAnnotationDates.entrySet()) {
+            gafSorter.add(goAnnotationDate.getKey(), goAnnotationDate.getValue());
+        }
+        StringWriter output = new StringWriter();
+        try (GAFWriter gafWriter = new GAFWriter(output)) {
+            gafSorter.writeSorted(gafWriter);
+        }
+        return output.toString();
+    }
+}
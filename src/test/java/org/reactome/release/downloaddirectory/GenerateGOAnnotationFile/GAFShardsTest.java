@@ -0,0 +1,130 @@
+package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
+
+import org.gk.model.GKInstance;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.reactome.release.downloaddirectory.GenerateGOAnnotationFile.GOATestInstances.mockInstanceModifiedOn;
+
+public class GAFShardsTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void mergedShardsAreSortedLikeAllAnnotations() throws Exception {
+        Random random = new Random(44);
+        List<String> taxonIdentifiers = Arrays.asList("9606", "96", "10090", "559292");
+        GOAGenerationContext context = new GOAGenerationContext();
+        GKInstance modifiedInstance = mockInstanceModifiedOn("2021-03-22 01:01:01.0");
+        Set<GOAnnotation> goAnnotations = new LinkedHashSet<>();
+        for (int i = 0; i < 500; i++) {
+            GOAnnotation goAnnotation = new GOAnnotation(
+                "P" + random.nextInt(50), "R" + random.nextInt(3), "enables", "GO:000" + random.nextInt(20),
+                "REACTOME:R-HSA-" + random.nextInt(100), "TAS", "F",
+                taxonIdentifiers.get(random.nextInt(taxonIdentifiers.size()))
+            );
+            context.assignDateForGOAnnotation(modifiedInstance, goAnnotation);
+            goAnnotations.add(goAnnotation);
+        }
+
+        List<Path> shards = GAFShards.writeShards(
+            goAnnotations, context, temporaryFolder.getRoot().toPath(), "77", "20210322"
+        );
+        StringWriter mergedOutput = new StringWriter();
+        try (GAFWriter gafWriter = new GAFWriter(mergedOutput)) {
+            GAFShards.mergeShards(shards, gafWriter);
+        }
+
+        List<GOAnnotation> sortedGOAnnotations = new ArrayList<>(goAnnotations);
+        Collections.sort(sortedGOAnnotations);
+        StringWriter sortedOutput = new StringWriter();
+        try (GAFWriter gafWriter = new GAFWriter(sortedOutput)) {
+            for (GOAnnotation goAnnotation : sortedGOAnnotations) {
+                gafWriter.writeAnnotation(goAnnotation, context.getDateForGOAnnotation(goAnnotation));
+            }
+        }
+        assertThat(mergedOutput.toString(), is(equalTo(sortedOutput.toString())));
+    }
+
+    @Test
+    public void eachShardHasTheHeaderAndTheAnnotationsOfItsTaxon() throws Exception {
+        GOAGenerationContext context = new GOAGenerationContext();
+        GKInstance modifiedInstance = mockInstanceModifiedOn("2021-03-22 01:01:01.0");
+        GOAnnotation humanAnnotation =
+            new GOAnnotation("P1", "R1", "enables", "GO:0001", "REACTOME:R-HSA-1", "TAS", "F", "9606");
+        GOAnnotation mouseAnnotation =
+            new GOAnnotation("P2", "R2", "enables", "GO:0001", "REACTOME:R-MMU-1", "TAS", "F", "10090");
+        context.assignDateForGOAnnotation(modifiedInstance, humanAnnotation);
+        context.assignDateForGOAnnotation(modifiedInstance, mouseAnnotation);
+
+        Path shardDirectory = temporaryFolder.getRoot().toPath();
+        List<Path> shards = GAFShards.writeShards(
+            Arrays.asList(humanAnnotation, mouseAnnotation), context, shardDirectory, "77", "20210322"
+        );
+
+        assertThat(shards, contains(
+            GAFShards.getShardPath(shardDirectory, "10090"), GAFShards.getShardPath(shardDirectory, "9606")
+        ));
+        List<String> humanShardLines = readGzipLines(GAFShards.getShardPath(shardDirectory, "9606"));
+        assertThat(humanShardLines.size(), is(equalTo(5)));
+        assertThat(humanShardLines.get(0), is(equalTo("!gaf-version: 2.2")));
+        assertThat(humanShardLines.get(4), is(equalTo(humanAnnotation + "\t20210322\tReactome\t\t")));
+    }
+
+    @Test
+    public void rerunWithoutATaxonDeletesItsShard() throws Exception {
+        GOAGenerationContext context = new GOAGenerationContext();
+        GKInstance modifiedInstance = mockInstanceModifiedOn("2021-03-22 01:01:01.0");
+        GOAnnotation humanAnnotation =
+            new GOAnnotation("P1", "R1", "enables", "GO:0001", "REACTOME:R-HSA-1", "TAS", "F", "9606");
+        GOAnnotation mouseAnnotation =
+            new GOAnnotation("P2", "R2", "enables", "GO:0001", "REACTOME:R-MMU-1", "TAS", "F", "10090");
+        context.assignDateForGOAnnotation(modifiedInstance, humanAnnotation);
+        context.assignDateForGOAnnotation(modifiedInstance, mouseAnnotation);
+        Path shardDirectory = temporaryFolder.getRoot().toPath();
+        Path otherFile = Files.createFile(shardDirectory.resolve("README.txt"));
+        GAFShards.writeShards(
+            Arrays.asList(humanAnnotation, mouseAnnotation), context, shardDirectory, "77", "20210322"
+        );
+
+        List<Path> shards = GAFShards.writeShards(
+            Collections.singletonList(humanAnnotation), context, shardDirectory, "77", "20210322"
+        );
+
+        assertThat(shards, contains(GAFShards.getShardPath(shardDirectory, "9606")));
+        try (Stream<Path> directoryFiles = Files.list(shardDirectory)) {
+            assertThat(directoryFiles.collect(Collectors.toList()), containsInAnyOrder(
+                GAFShards.getShardPath(shardDirectory, "9606"), otherFile
+            ));
+        }
+    }
+
+    private List<String> readGzipLines(Path path) throws Exception {
+        try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(new GZIPInputStream(Files.newInputStream(path)))
+        )) {
+            List<String> lines = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+            return lines;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+public class GAFWriterTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void headerAndAnnotationLinesAreWrittenInGAFFormat() throws Exception {
+        StringWriter output = new StringWriter();
+        try (GAFWriter gafWriter = new GAFWriter(output)) {
+            gafWriter.writeHeader("77", "2021-06-30");
+            gafWriter.writeAnnotation(new GOAnnotation(
+                "A0AVI4", "TM129_HUMAN", "enables", "GO:0061630", "PMID:24807418", "EXP", "F", "9606"
+            ), "20170111");
+        }
+
+        String lineSeparator = System.lineSeparator();
+        assertThat(output.toString(), is(equalTo(
+            "!gaf-version: 2.2" + lineSeparator +
+            "!generated-by: Reactome" + lineSeparator +
+            "!date-generated: 2021-06-30" + lineSeparator +
+            "!Project-release: Version 77" + lineSeparator +
+            "UniProtKB\tA0AVI4\tTM129_HUMAN\tenables\tGO:0061630\tPMID:24807418\tEXP\t\tF\t\t\tprotein\ttaxon:9606" +
+            "\t20170111\tReactome\t\t" + lineSeparator
+        )));
+    }
+
+    @Test
+    public void gzipGAFIsRenamedIntoPlaceOnceWritten() throws Exception {
+        Path releaseDirectory = temporaryFolder.getRoot().toPath();
+        Path gzipGAF = releaseDirectory.resolve(GOAGeneratorConstants.GOA_FILENAME + ".gz");
+        GAFWriter.writeGzipGAF(gzipGAF, gafWriter -> {
+            assertThat(Files.exists(gzipGAF), is(equalTo(false)));
+            gafWriter.writeHeader("77", "2021-06-30");
+        });
+
+        try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(new GZIPInputStream(Files.newInputStream(gzipGAF)), StandardCharsets.UTF_8)
+        )) {
+            assertThat(reader.readLine(), is(equalTo("!gaf-version: 2.2")));
+        }
+        assertThat(Files.list(releaseDirectory).collect(Collectors.toList()), contains(gzipGAF));
+    }
+
+    @Test
+    public void gzipGAFIsPublishedReadableByAll() throws Exception {
+        Path releaseDirectory = temporaryFolder.getRoot().toPath();
+        assumeTrue(Files.getFileStore(releaseDirectory).supportsFileAttributeView(PosixFileAttributeView.class));
+        Path gzipGAF = releaseDirectory.resolve(GOAGeneratorConstants.GOA_FILENAME + ".gz");
+        GAFWriter.writeGzipGAF(gzipGAF, gafWriter -> gafWriter.writeHeader("77", "2021-06-30"));
+
+        assertThat(Files.getPosixFilePermissions(gzipGAF), is(equalTo(PosixFilePermissions.fromString("rw-r--r--"))));
+    }
+
+    @Test
+    public void failedGzipGAFLeavesNoFile() throws Exception {
+        Path releaseDirectory = temporaryFolder.getRoot().toPath();
+        try {
+            GAFWriter.writeGzipGAF(releaseDirectory.resolve(GOAGeneratorConstants.GOA_FILENAME + ".gz"), gafWriter -> {
+                throw new IOException("Interrupted");
+            });
+        } catch (IOException e) {
+            assertThat(e.getMessage(), is(equalTo("Interrupted")));
+        }
+        assertThat(Files.list(releaseDirectory).count(), is(equalTo(0L)));
+    }
+}
@@ -0,0 +1,106 @@
+package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
+
+import org.gk.model.GKInstance;
+import org.gk.model.ReactomeJavaConstants;
+import org.gk.persistence.MySQLAdaptor;
+import org.gk.schema.SchemaClass;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.util.*;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollection;
+
+public class GOAAttributePrefetcherTest {
+    private final MySQLAdaptor mockAdaptor = Mockito.mock(MySQLAdaptor.class);
+
+    @Test
+    public void attributesAreLoadedClassByClassAlongTheReactionGraph() throws Exception {
+        GKInstance protein = mockInstance(3L, ReactomeJavaConstants.EntityWithAccessionedSequence,
+            ReactomeJavaConstants.referenceEntity, ReactomeJavaConstants.species);
+        GKInstance catalystActivity = mockInstance(2L, ReactomeJavaConstants.CatalystActivity,
+            ReactomeJavaConstants.physicalEntity, ReactomeJavaConstants.activity);
+        GKInstance firstReaction = mockInstance(1L, ReactomeJavaConstants.Reaction,
+            ReactomeJavaConstants.catalystActivity, ReactomeJavaConstants.inferredFrom);
+        GKInstance secondReaction = mockInstance(4L, ReactomeJavaConstants.Reaction,
+            ReactomeJavaConstants.catalystActivity, ReactomeJavaConstants.inferredFrom);
+        mockValues(firstReaction, ReactomeJavaConstants.catalystActivity, catalystActivity);
+        mockValues(secondReaction, ReactomeJavaConstants.catalystActivity, catalystActivity);
+        mockValues(catalystActivity, ReactomeJavaConstants.physicalEntity, protein);
+
+        GOAAttributePrefetcher.prefetch(mockAdaptor, Arrays.asList(firstReaction, secondReaction));
+
+        List<List<GKInstance>> loadedInstances = getLoadedInstances();
+        assertThat(loadedInstances, contains(
+            Arrays.asList(firstReaction, secondReaction),
+            Collections.singletonList(catalystActivity),
+            Collections.singletonList(protein)
+        ));
+    }
+
+    @Test
+    public void instancesOfInferredReactionsAreNotLoaded() throws Exception {
+        GKInstance catalystActivity = mockInstance(2L, ReactomeJavaConstants.CatalystActivity,
+            ReactomeJavaConstants.physicalEntity);
+        GKInstance inferredReaction = mockInstance(1L, ReactomeJavaConstants.Reaction,
+            ReactomeJavaConstants.catalystActivity, ReactomeJavaConstants.inferredFrom);
+        mockValues(inferredReaction, ReactomeJavaConstants.catalystActivity, catalystActivity);
+        Mockito.when(inferredReaction.getAttributeValue(ReactomeJavaConstants.inferredFrom))
+            .thenReturn(Mockito.mock(GKInstance.class));
+
+        GOAAttributePrefetcher.prefetch(mockAdaptor, Collections.singletonList(inferredReaction));
+
+        List<List<GKInstance>> loadedInstances = getLoadedInstances();
+        assertThat(loadedInstances, contains(Collections.singletonList(inferredReaction)));
+        assertThat(loadedInstances, not(hasItem(Collections.singletonList(catalystActivity))));
+    }
+
+    @Test
+    public void onlyAttributesValidForTheClassAreLoaded() throws Exception {
+        GKInstance reaction = mockInstance(1L, ReactomeJavaConstants.Reaction,
+            ReactomeJavaConstants.catalystActivity, ReactomeJavaConstants.stableIdentifier);
+
+        GOAAttributePrefetcher.prefetch(mockAdaptor, Collections.singletonList(reaction));
+
+        ArgumentCaptor<String[]> attributeNames = ArgumentCaptor.forClass(String[].class);
+        Mockito.verify(mockAdaptor).loadInstanceAttributeValues(anyCollection(), attributeNames.capture());
+        assertThat(Arrays.asList(attributeNames.getValue()), containsInAnyOrder(
+            ReactomeJavaConstants.catalystActivity, ReactomeJavaConstants.stableIdentifier
+        ));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<GKInstance>> getLoadedInstances() throws Exception {
+        ArgumentCaptor<Collection> instances = ArgumentCaptor.forClass(Collection.class);
+        Mockito.verify(mockAdaptor, Mockito.atLeastOnce()).loadInstanceAttributeValues(instances.capture(), any());
+        List<List<GKInstance>> loadedInstances = new ArrayList<>();
+        for (Collection loadCall : instances.getAllValues()) {
+            loadedInstances.add(new ArrayList<>(loadCall));
+        }
+        return loadedInstances;
+    }
+
+    private GKInstance mockInstance(long dbId, String className, String... validAttributes) throws Exception {
+        GKInstance instance = Mockito.mock(GKInstance.class);
+        SchemaClass schemaClass = Mockito.mock(SchemaClass.class);
+        Mockito.when(schemaClass.getName()).thenReturn(className);
+        for (String validAttribute : validAttributes) {
+            Mockito.when(schemaClass.isValidAttribute(validAttribute)).thenReturn(true);
+        }
+        Mockito.when(instance.getSchemClass()).thenReturn(schemaClass);
+        Mockito.when(instance.getDBID()).thenReturn(dbId);
+        Mockito.when(instance.getAttributeValuesList(Mockito.anyString())).thenReturn(new ArrayList<>());
+        return instance;
+    }
+
+    private void mockValues(GKInstance instance, String attributeName, GKInstance... values) throws Exception {
+        Mockito.when(instance.getAttributeValuesList(attributeName)).thenReturn(Arrays.asList(values));
+    }
+}
@@ -0,0 +1,65 @@
+package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
+
+import org.gk.model.GKInstance;
+import org.gk.model.ReactomeJavaConstants;
+import org.gk.schema.SchemaClass;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.reactome.release.downloaddirectory.GenerateGOAnnotationFile.GOATestInstances.mockInstanceModifiedOn;
+
+public class GOAGenerationContextTest {
+
+    private final GOAnnotation testGOAnnotation = new GOAnnotation(
+        "ABCD1234", "ABCD1", "located_in", "GO:12345", "REACTOME:123456", "TAS", "C", "9606"
+    );
+
+    @Test
+    public void mostRecentDateIsKeptWhateverTheOrder() throws Exception {
+        GOAGenerationContext context = new GOAGenerationContext();
+
+        context.assignDateForGOAnnotation(mockInstanceModifiedOn("2019-01-01 01:01:01.0"), testGOAnnotation);
+        context.assignDateForGOAnnotation(mockInstanceModifiedOn("2020-06-15 01:01:01.0"), testGOAnnotation);
+        context.assignDateForGOAnnotation(mockInstanceModifiedOn("2018-03-03 01:01:01.0"), testGOAnnotation);
+
+        assertThat(context.getDateForGOAnnotation(testGOAnnotation), is(equalTo("20200615")));
+    }
+
+    @Test
+    public void datesAreNotSharedBetweenContexts() throws Exception {
+        GOAGenerationContext firstRunContext = new GOAGenerationContext();
+        GOAGenerationContext secondRunContext = new GOAGenerationContext();
+
+        firstRunContext.assignDateForGOAnnotation(mockInstanceModifiedOn("2020-06-15 01:01:01.0"), testGOAnnotation);
+        secondRunContext.assignDateForGOAnnotation(mockInstanceModifiedOn("2019-01-01 01:01:01.0"), testGOAnnotation);
+
+        assertThat(firstRunContext.getDateForGOAnnotation(testGOAnnotation), is(equalTo("20200615")));
+        assertThat(secondRunContext.getDateForGOAnnotation(testGOAnnotation), is(equalTo("20190101")));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void annotationWithoutAssignedDateThrowsException() {
+        new GOAGenerationContext().getDateForGOAnnotation(testGOAnnotation);
+    }
+
+    @Test
+    public void proteinQualificationIsCheckedOncePerProtein() throws Exception {
+        GOAGenerationContext context = new GOAGenerationContext();
+        GKInstance proteinWithoutSpecies = Mockito.mock(GKInstance.class);
+        SchemaClass ewasSchemaClass = Mockito.mock(SchemaClass.class);
+        Mockito.when(proteinWithoutSpecies.getDBID()).thenReturn(1L);
+        Mockito.when(proteinWithoutSpecies.getSchemClass()).thenReturn(ewasSchemaClass);
+        Mockito.when(ewasSchemaClass.isa(ReactomeJavaConstants.EntityWithAccessionedSequence)).thenReturn(true);
+
+        String firstIssue = context.getAnyIssueForAnnotationDisqualification(proteinWithoutSpecies);
+        String secondIssue = context.getAnyIssueForAnnotationDisqualification(proteinWithoutSpecies);
+
+        assertThat(firstIssue, endsWith("is an invalid protein, skipping GO annotation"));
+        assertThat(secondIssue, is(equalTo(firstIssue)));
+        Mockito.verify(proteinWithoutSpecies, Mockito.times(1)).getAttributeValue(ReactomeJavaConstants.species);
+    }
+}
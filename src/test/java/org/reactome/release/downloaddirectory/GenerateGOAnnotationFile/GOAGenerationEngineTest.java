@@ -0,0 +1,71 @@
+package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
+
+import org.gk.model.GKInstance;
+import org.gk.model.ReactomeJavaConstants;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class GOAGenerationEngineTest {
+
+    @Test
+    public void reactionsArePartitionedInAscendingDbIdOrder() {
+        List<GKInstance> reactions = new ArrayList<>();
+        long lastDbId = GOAGenerationEngine.REACTIONS_PER_PARTITION * 2 + 4;
+        for (long dbId = lastDbId; dbId > 0; dbId--) {
+            reactions.add(mockReactionWithDbId(dbId));
+        }
+
+        List<List<Long>> partitions = GOAGenerationEngine.getPartitions(reactions);
+
+        assertThat(partitions.size(), is(equalTo(3)));
+        assertThat(partitions.get(0).size(), is(equalTo(GOAGenerationEngine.REACTIONS_PER_PARTITION)));
+        assertThat(partitions.get(0).get(0), is(equalTo(1L)));
+        assertThat(partitions.get(2), contains(lastDbId - 3, lastDbId - 2, lastDbId - 1, lastDbId));
+    }
+
+    @Test
+    public void noReactionsGiveNoPartitions() {
+        assertThat(GOAGenerationEngine.getPartitions(Collections.emptyList()).isEmpty(), is(equalTo(true)));
+    }
+
+    @Test
+    public void speciesPartitionsHaveReactionsOfOneSpecies() throws Exception {
+        GKInstance human = mockReactionWithDbId(48887L);
+        GKInstance mouse = mockReactionWithDbId(48892L);
+        List<GKInstance> reactions = new ArrayList<>();
+        for (long dbId = 1; dbId <= GOAGenerationEngine.REACTIONS_PER_PARTITION + 1; dbId++) {
+            reactions.add(mockReactionWithSpecies(dbId, human));
+        }
+        reactions.add(mockReactionWithSpecies(1000L, mouse));
+        reactions.add(mockReactionWithSpecies(1001L, null));
+
+        List<List<Long>> partitions = GOAGenerationEngine.getSpeciesPartitions(reactions);
+
+        assertThat(partitions.size(), is(equalTo(4)));
+        assertThat(partitions.get(0), contains(1001L));
+        assertThat(partitions.get(1).size(), is(equalTo(GOAGenerationEngine.REACTIONS_PER_PARTITION)));
+        assertThat(partitions.get(2), contains(GOAGenerationEngine.REACTIONS_PER_PARTITION + 1L));
+        assertThat(partitions.get(3), contains(1000L));
+    }
+
+    private GKInstance mockReactionWithSpecies(long dbId, GKInstance species) throws Exception {
+        GKInstance reaction = mockReactionWithDbId(dbId);
+        Mockito.when(reaction.getAttributeValue(ReactomeJavaConstants.species)).thenReturn(species);
+        return reaction;
+    }
+
+    private GKInstance mockReactionWithDbId(long dbId) {
+        GKInstance reaction = Mockito.mock(GKInstance.class);
+        Mockito.when(reaction.getDBID()).thenReturn(dbId);
+        return reaction;
+    }
+}
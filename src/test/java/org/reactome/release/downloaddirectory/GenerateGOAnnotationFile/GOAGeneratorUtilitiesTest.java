@@ -86,7 +86,7 @@ public class GOAGeneratorUtilitiesTest {
         Mockito.when(mockReferenceEntityInst.getAttributeValue(ReactomeJavaConstants.identifier)).thenReturn("ABCD1234");
         Mockito.when(mockReferenceEntityInst.getAttributeValue(ReactomeJavaConstants.geneName)).thenReturn("ABCD1");
 
-        String goaLine = GOAGeneratorUtilities.generateGOALine(
+        GOAnnotation goAnnotation = GOAGeneratorUtilities.generateGOAnnotation(
             mockProteinInst,
             "C",
             "located_in",
@@ -95,7 +95,7 @@ public class GOAGeneratorUtilitiesTest {
             "TAS"
         );
 
-        assertThat(testGOALine, is(equalTo(goaLine)));
+        assertThat(testGOALine, is(equalTo(goAnnotation.toString())));
     }
 
     @Test
@@ -119,16 +119,13 @@ public class GOAGeneratorUtilitiesTest {
     }
 
     @Test
-    public void assignDateForGOALineTest() throws Exception {
+    public void getMostRecentDateTest() throws Exception {
         mockModifiedSet.add(mockModifiedInst);
 
         Mockito.when(mockReactionInst.getAttributeValuesList(ReactomeJavaConstants.modified)).thenReturn(mockModifiedSet);
         Mockito.when(mockModifiedInst.getAttributeValue(ReactomeJavaConstants.dateTime)).thenReturn("2019-01-01 01:01:01.0");
 
-        GOAGeneratorUtilities.assignDateForGOALine(mockReactionInst, testGOALine);
-        String testDate = GOAGeneratorUtilities.getDateForGOALine(testGOALine);
-
-        assertThat(testDate, is(equalTo("20190101")));
+        assertThat(GOAGeneratorUtilities.getMostRecentDate(mockReactionInst), is(equalTo(20190101)));
     }
 
     private void mockTaxonIdentifierRetrieval(String taxonIdentifier) throws Exception {
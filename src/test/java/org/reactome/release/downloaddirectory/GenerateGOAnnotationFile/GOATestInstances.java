@@ -0,0 +1,39 @@
+package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
+
+import org.gk.model.GKInstance;
+import org.gk.model.ReactomeJavaConstants;
+import org.mockito.Mockito;
+
+import java.util.Collections;
+
+/**
+ * Mock GKInstances shared by the tests of the GO annotation dates.
+ */
+final class GOATestInstances {
+
+    private GOATestInstances() {}
+
+    /**
+     * @param dateTime -- dateTime of the InstanceEdit, e.g. "2021-03-22 01:01:01.0"
+     * @return -- Mock instance whose only 'modified' InstanceEdit has the dateTime
+     * @throws Exception -- MySQLAdaptor exception.
+     */
+    static GKInstance mockInstanceModifiedOn(String dateTime) throws Exception {
+        GKInstance instance = Mockito.mock(GKInstance.class);
+        GKInstance instanceEdit = mockInstanceEdit(dateTime);
+        Mockito.when(instance.getAttributeValuesList(ReactomeJavaConstants.modified))
+            .thenReturn(Collections.singletonList(instanceEdit));
+        return instance;
+    }
+
+    /**
+     * @param dateTime -- dateTime of the InstanceEdit, e.g. "2021-03-22 01:01:01.0"
+     * @return -- Mock InstanceEdit with the dateTime
+     * @throws Exception -- MySQLAdaptor exception.
+     */
+    static GKInstance mockInstanceEdit(String dateTime) throws Exception {
+        GKInstance instanceEdit = Mockito.mock(GKInstance.class);
+        Mockito.when(instanceEdit.getAttributeValue(ReactomeJavaConstants.dateTime)).thenReturn(dateTime);
+        return instanceEdit;
+    }
+}
@@ -0,0 +1,112 @@
+package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
+
+import org.gk.model.GKInstance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the GO annotation builders, and the generation of gene_association.reactome from the annotation of the
+ * reactions to the written file, over a SyntheticGOAGraph, so no release database is needed. Each invocation starts
+ * with a new GOAGenerationContext, so the protein caches are filled as in a release run.
+ *
+ * Reactions are fetched from the database by CreateGOAFile, and the GOBiologicalProcessIndex is built from it, so
+ * neither is measured here; the reactions are annotated serially, as the worker threads each need a database
+ * connection.
+ *
+ * Run with:
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) org.openjdk.jmh.Main GOAnnotationBenchmark
+ * Add '-p reactionCount=20000' to measure at another scale.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GOAnnotationBenchmark {
+    private static final long SEED = 42L;
+    private static final String RELEASE_NUMBER = "77";
+
+    @Param({"5000"})
+    public int reactionCount;
+
+    private SyntheticGOAGraph graph;
+    private List<GKInstance> curatedReactionlikeEvents;
+    private Path releaseDirectory;
+
+    @Setup
+    public void generateGraph() throws Exception {
+        graph = SyntheticGOAGraph.generate(reactionCount, SEED);
+        // The builders are only called for curated reactions
+        curatedReactionlikeEvents = new ArrayList<>();
+        for (GKInstance reactionlikeEvent : graph.getReactionlikeEvents()) {
+            if (!GOAGenerationEngine.isInferred(reactionlikeEvent)) {
+                curatedReactionlikeEvents.add(reactionlikeEvent);
+            }
+        }
+        releaseDirectory = Files.createTempDirectory(GOAGeneratorConstants.GOA_FILENAME);
+    }
+
+    @TearDown
+    public void deleteReleaseDirectory() throws IOException {
+        Files.deleteIfExists(releaseDirectory.resolve(GOAnnotationFormat.GAF.getFileName()));
+        Files.deleteIfExists(releaseDirectory);
+    }
+
+    @Benchmark
+    public void cellularComponents(Blackhole blackhole) throws Exception {
+        GOAGenerationContext context = graph.newContext();
+        for (GKInstance reactionlikeEvent : curatedReactionlikeEvents) {
+            blackhole.consume(CellularComponentAnnotationBuilder.processCellularComponents(reactionlikeEvent, context));
+        }
+    }
+
+    @Benchmark
+    public void molecularFunctions(Blackhole blackhole) throws Exception {
+        GOAGenerationContext context = graph.newContext();
+        for (GKInstance reactionlikeEvent : curatedReactionlikeEvents) {
+            blackhole.consume(MolecularFunctionAnnotationBuilder.processMolecularFunctions(reactionlikeEvent, context));
+        }
+    }
+
+    @Benchmark
+    public void biologicalProcesses(Blackhole blackhole) throws Exception {
+        GOAGenerationContext context = graph.newContext();
+        for (GKInstance reactionlikeEvent : curatedReactionlikeEvents) {
+            blackhole.consume(
+                BiologicalProcessAnnotationBuilder.processBiologicalFunctions(reactionlikeEvent, context)
+            );
+        }
+    }
+
+    @Benchmark
+    public void goaFile() throws Exception {
+        GOAGenerationContext context = graph.newContext();
+        Set<GOAnnotation> goAnnotations = new LinkedHashSet<>();
+        for (GKInstance reactionlikeEvent : graph.getReactionlikeEvents()) {
+            goAnnotations.addAll(GOAGenerationEngine.generateGOAnnotations(reactionlikeEvent, context));
+        }
+        CreateGOAFile.writeGOAFiles(
+            goAnnotations, context, releaseDirectory, RELEASE_NUMBER,
+            Collections.singletonList(GOAnnotationFormat.GAF), CreateGOAFile.DEFAULT_SORT_BUFFER_SIZE
+        );
+    }
+}
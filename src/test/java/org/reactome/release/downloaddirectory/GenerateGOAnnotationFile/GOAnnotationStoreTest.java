@@ -0,0 +1,136 @@
+package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
+
+import org.gk.model.GKInstance;
+import org.gk.model.ReactomeJavaConstants;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class GOAnnotationStoreTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final GOAnnotation firstAnnotation =
+        new GOAnnotation("P1", "R1", "enables", "GO:0001", "REACTOME:R-HSA-1", "TAS", "F", "9606");
+    private final GOAnnotation secondAnnotation =
+        new GOAnnotation("P2", "R2", "located_in", "GO:0002", "REACTOME:R-HSA-2", "TAS", "C", "9606");
+
+    @Test
+    public void unchangedReactionsAreReusedWithTheirDates() throws Exception {
+        Path storePath = saveStore();
+        GKInstance firstReaction = mockReaction(1L);
+        GKInstance secondReaction = mockReaction(2L);
+        GKInstance newReaction = mockReaction(3L);
+
+        GOAnnotationStore goAnnotationStore = GOAnnotationStore.load(storePath);
+        GOAGenerationContext context = new GOAGenerationContext();
+        Set<GOAnnotation> goAnnotations = new HashSet<>();
+        List<GKInstance> changedReactions = goAnnotationStore.reuseUnchangedReactions(
+            Arrays.asList(firstReaction, secondReaction, newReaction), Collections.emptySet(), context, goAnnotations
+        );
+
+        assertThat(goAnnotationStore.getWatermark(), is(equalTo(500L)));
+        assertThat(changedReactions, contains(newReaction));
+        assertThat(goAnnotations, containsInAnyOrder(firstAnnotation, secondAnnotation));
+        assertThat(context.getDateForGOAnnotation(firstAnnotation), is(equalTo("20210101")));
+        assertThat(context.getDateForGOAnnotation(secondAnnotation), is(equalTo("20210202")));
+    }
+
+    @Test
+    public void reactionsDependingOnAChangedInstanceAreAnnotatedAgain() throws Exception {
+        Path storePath = saveStore();
+        GKInstance firstReaction = mockReaction(1L);
+        GKInstance secondReaction = mockReaction(2L);
+
+        GOAnnotationStore goAnnotationStore = GOAnnotationStore.load(storePath);
+        Set<GOAnnotation> goAnnotations = new HashSet<>();
+        List<GKInstance> changedReactions = goAnnotationStore.reuseUnchangedReactions(
+            Arrays.asList(firstReaction, secondReaction), Collections.singleton(300L), new GOAGenerationContext(),
+            goAnnotations
+        );
+
+        assertThat(changedReactions, contains(secondReaction));
+        assertThat(goAnnotations, contains(firstAnnotation));
+
+        // Only the reused reaction is carried over, until the changed one is stored again
+        goAnnotationStore.save(600L);
+        List<GKInstance> reactionsNotInStore = GOAnnotationStore.load(storePath).reuseUnchangedReactions(
+            Arrays.asList(firstReaction, secondReaction), Collections.emptySet(), new GOAGenerationContext(),
+            new HashSet<>()
+        );
+        assertThat(reactionsNotInStore, contains(secondReaction));
+    }
+
+    @Test
+    public void reactionsInheritingAChangedGOBiologicalProcessAreAnnotatedAgain() throws Exception {
+        Path storePath = saveStore();
+        GKInstance firstReaction = mockReaction(1L);
+        GKInstance secondReaction = mockReaction(2L);
+        GKInstance goBiologicalProcess = Mockito.mock(GKInstance.class);
+        Mockito.when(goBiologicalProcess.getDBID()).thenReturn(1001L);
+        Mockito.when(goBiologicalProcess.getAttributeValue(ReactomeJavaConstants.accession)).thenReturn("0008150");
+        GKInstance stableIdentifier = Mockito.mock(GKInstance.class);
+        Mockito.when(stableIdentifier.getDBID()).thenReturn(1002L);
+        Mockito.when(stableIdentifier.getAttributeValue(ReactomeJavaConstants.identifier)).thenReturn("R-HSA-1000");
+        GKInstance parentPathway = mockReaction(1000L);
+        Mockito.when(parentPathway.getAttributeValuesList(ReactomeJavaConstants.hasEvent))
+            .thenReturn(Collections.singletonList(firstReaction));
+        Mockito.when(parentPathway.getAttributeValuesList(ReactomeJavaConstants.goBiologicalProcess))
+            .thenReturn(Collections.singletonList(goBiologicalProcess));
+        Mockito.when(parentPathway.getAttributeValue(ReactomeJavaConstants.stableIdentifier))
+            .thenReturn(stableIdentifier);
+        GOAGenerationContext context = new GOAGenerationContext(
+            GOBiologicalProcessIndex.of(Collections.singletonList(parentPathway))
+        );
+
+        // Only the parent's GO_BiologicalProcess has changed, not the parent or the reactions themselves
+        Set<GOAnnotation> goAnnotations = new HashSet<>();
+        List<GKInstance> changedReactions = GOAnnotationStore.load(storePath).reuseUnchangedReactions(
+            Arrays.asList(firstReaction, secondReaction), Collections.singleton(1001L), context, goAnnotations
+        );
+
+        assertThat(changedReactions, contains(firstReaction));
+        assertThat(goAnnotations, contains(secondAnnotation));
+    }
+
+    @Test
+    public void missingStoreHasNoReactions() throws Exception {
+        Path storePath = temporaryFolder.getRoot().toPath().resolve("goa.store");
+        GOAnnotationStore goAnnotationStore = GOAnnotationStore.load(storePath);
+
+        assertThat(goAnnotationStore.hasWatermark(), is(equalTo(false)));
+        assertThat(goAnnotationStore.reuseUnchangedReactions(
+            Collections.emptyList(), Collections.emptySet(), new GOAGenerationContext(), new HashSet<>()
+        ), is(empty()));
+    }
+
+    private Path saveStore() throws Exception {
+        Path storePath = temporaryFolder.getRoot().toPath().resolve("goa.store");
+        GOAnnotationStore goAnnotationStore = GOAnnotationStore.load(storePath);
+        goAnnotationStore.put(
+            1L, new HashSet<>(Arrays.asList(1L, 100L, 200L)), Collections.singletonMap(firstAnnotation, 20210101)
+        );
+        goAnnotationStore.put(
+            2L, new HashSet<>(Arrays.asList(2L, 300L, 100000L)), Collections.singletonMap(secondAnnotation, 20210202)
+        );
+        goAnnotationStore.save(500L);
+        return storePath;
+    }
+
+    private GKInstance mockReaction(long dbId) {
+        GKInstance reaction = Mockito.mock(GKInstance.class);
+        Mockito.when(reaction.getDBID()).thenReturn(dbId);
+        return reaction;
+    }
+}
@@ -0,0 +1,70 @@
+package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+
+public class GOAnnotationTest {
+
+    @Test
+    public void toStringIsTheGOALine() {
+        GOAnnotation goAnnotation = new GOAnnotation(
+            "P01234", "R5678", "located_in", "GO:0004321", "REACTOME:R-HSA-1234", "TAS", "C", "9606"
+        );
+
+        assertThat(goAnnotation.toString(), is(equalTo(
+            "UniProtKB\tP01234\tR5678\tlocated_in\tGO:0004321\tREACTOME:R-HSA-1234\tTAS\t\tC\t\t\tprotein\ttaxon:9606"
+        )));
+    }
+
+    @Test
+    public void annotationsWithTheSameColumnsAreEqual() {
+        GOAnnotation goAnnotation = new GOAnnotation("P01234", "R5678", "enables", "GO:1", "PMID:1", "EXP", "F", "9606");
+        GOAnnotation sameGOAnnotation = new GOAnnotation(
+            new String("P01234"), "R5678", "enables", "GO:1", "PMID:1", "EXP", "F", "9606"
+        );
+        GOAnnotation otherGOAnnotation = new GOAnnotation("P01234", "R5678", "enables", "GO:1", "PMID:2", "EXP", "F", "9606");
+
+        assertThat(goAnnotation, is(equalTo(sameGOAnnotation)));
+        assertThat(goAnnotation.hashCode(), is(equalTo(sameGOAnnotation.hashCode())));
+        assertThat(goAnnotation.compareTo(sameGOAnnotation), is(equalTo(0)));
+        assertThat(goAnnotation, is(not(equalTo(otherGOAnnotation))));
+    }
+
+    @Test
+    public void annotationsSortInTheOrderOfTheirGOALines() {
+        // Short values that are often prefixes of each other, as with 'P0123' and 'P0123-1'
+        String[] values = {"", "A", "AB", "A-", "A1", "a", "1", "10", "1-2", "_"};
+        Random random = new Random(38);
+        List<GOAnnotation> goAnnotations = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            goAnnotations.add(new GOAnnotation(
+                pick(values, random), pick(values, random), pick(values, random), pick(values, random),
+                pick(values, random), pick(values, random), pick(values, random), pick(values, random)
+            ));
+        }
+
+        List<String> sortedGOALines = new ArrayList<>();
+        for (GOAnnotation goAnnotation : goAnnotations) {
+            sortedGOALines.add(goAnnotation.toString());
+        }
+        Collections.sort(sortedGOALines);
+        Collections.sort(goAnnotations);
+
+        for (int i = 0; i < goAnnotations.size(); i++) {
+            assertThat(goAnnotations.get(i).toString(), is(equalTo(sortedGOALines.get(i))));
+        }
+    }
+
+    private static String pick(String[] values, Random random) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,131 @@
+package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
+
+import org.gk.model.GKInstance;
+import org.gk.model.ReactomeJavaConstants;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.*;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class GOBiologicalProcessIndexTest {
+
+    @Test
+    public void accessionsOfGrandparentAreFoundThroughParentWithoutAccessions() throws Exception {
+        GKInstance reaction = mockEvent(1L, null);
+        GKInstance parentPathway = mockEvent(2L, null, reaction);
+        GKInstance grandparentPathway = mockEvent(3L, "0008150", parentPathway);
+
+        GOBiologicalProcessIndex index = GOBiologicalProcessIndex.of(Arrays.asList(parentPathway, grandparentPathway));
+
+        assertThat(getAccessions(index.getReferrerGOBiologicalProcessAccessions(1L)), contains("GO:0008150"));
+    }
+
+    @Test
+    public void accessionsBeyondGrandparentAreNotUsed() throws Exception {
+        GKInstance reaction = mockEvent(1L, null);
+        GKInstance parentPathway = mockEvent(2L, null, reaction);
+        GKInstance grandparentPathway = mockEvent(3L, null, parentPathway);
+        GKInstance greatGrandparentPathway = mockEvent(4L, "0008150", grandparentPathway);
+
+        GOBiologicalProcessIndex index = GOBiologicalProcessIndex.of(
+            Arrays.asList(parentPathway, grandparentPathway, greatGrandparentPathway)
+        );
+
+        assertThat(index.getReferrerGOBiologicalProcessAccessions(1L), is(empty()));
+    }
+
+    @Test
+    public void referrersAreFoundUpToGrandparent() throws Exception {
+        GKInstance reaction = mockEvent(1L, null);
+        GKInstance parentPathway = mockEvent(2L, null, reaction);
+        GKInstance grandparentPathway = mockEvent(3L, null, parentPathway);
+        GKInstance greatGrandparentPathway = mockEvent(4L, "0008150", grandparentPathway);
+
+        GOBiologicalProcessIndex index = GOBiologicalProcessIndex.of(
+            Arrays.asList(parentPathway, grandparentPathway, greatGrandparentPathway)
+        );
+
+        assertThat(index.getReferrerDbIds(1L), containsInAnyOrder(2L, 3L));
+    }
+
+    @Test
+    public void referrerDependenciesIncludeTheInstancesOfTheirAccessions() throws Exception {
+        GKInstance reaction = mockEvent(1L, null);
+        GKInstance parentPathway = mockEvent(2L, null, reaction);
+        GKInstance grandparentPathway = mockEvent(3L, "0008150", parentPathway);
+
+        GOBiologicalProcessIndex index = GOBiologicalProcessIndex.of(Arrays.asList(parentPathway, grandparentPathway));
+
+        assertThat(index.getReferrerDependencyDbIds(1L), containsInAnyOrder(2L, 3L, 301L, 302L));
+        assertThat(index.getReferrerDependencyDbIds(2L), containsInAnyOrder(3L, 301L, 302L));
+    }
+
+    @Test
+    public void siblingReactionsShareTheAccessionsOfTheirParent() throws Exception {
+        GKInstance firstReaction = mockEvent(1L, null);
+        GKInstance secondReaction = mockEvent(2L, null);
+        GKInstance parentPathway = mockEvent(3L, "0008150", firstReaction, secondReaction);
+
+        GOBiologicalProcessIndex index = GOBiologicalProcessIndex.of(Collections.singletonList(parentPathway));
+
+        List<Map<String, String>> firstReactionAccessions = index.getReferrerGOBiologicalProcessAccessions(1L);
+        List<Map<String, String>> secondReactionAccessions = index.getReferrerGOBiologicalProcessAccessions(2L);
+        assertThat(getAccessions(firstReactionAccessions), contains("GO:0008150"));
+        assertThat(secondReactionAccessions, is(equalTo(firstReactionAccessions)));
+        assertThat(
+            secondReactionAccessions.get(0).get(GOAGeneratorConstants.EVENT_STRING),
+            is(equalTo("REACTOME:R-HSA-3"))
+        );
+    }
+
+    @Test
+    public void eventWithoutStableIdentifierIsSkipped() throws Exception {
+        GKInstance firstReaction = mockEvent(1L, null);
+        GKInstance secondReaction = mockEvent(2L, null);
+        GKInstance parentPathway = mockEvent(3L, "0008150", firstReaction);
+        GKInstance unrelatedPathway = mockEvent(4L, "0008152", secondReaction);
+        Mockito.when(unrelatedPathway.getAttributeValue(ReactomeJavaConstants.stableIdentifier)).thenReturn(null);
+
+        GOBiologicalProcessIndex index = GOBiologicalProcessIndex.of(Arrays.asList(parentPathway, unrelatedPathway));
+
+        assertThat(getAccessions(index.getReferrerGOBiologicalProcessAccessions(1L)), contains("GO:0008150"));
+        assertThat(index.getReferrerGOBiologicalProcessAccessions(2L), is(empty()));
+    }
+
+    private GKInstance mockEvent(long dbId, String goAccession, GKInstance... childEvents) throws Exception {
+        GKInstance event = Mockito.mock(GKInstance.class);
+        Mockito.when(event.getDBID()).thenReturn(dbId);
+        Mockito.when(event.getAttributeValuesList(ReactomeJavaConstants.hasEvent))
+            .thenReturn(Arrays.asList(childEvents));
+        if (goAccession != null) {
+            GKInstance goBiologicalProcess = Mockito.mock(GKInstance.class);
+            GKInstance stableIdentifier = Mockito.mock(GKInstance.class);
+            Mockito.when(goBiologicalProcess.getDBID()).thenReturn(dbId * 100 + 1);
+            Mockito.when(stableIdentifier.getDBID()).thenReturn(dbId * 100 + 2);
+            Mockito.when(goBiologicalProcess.getAttributeValue(ReactomeJavaConstants.accession))
+                .thenReturn(goAccession);
+            Mockito.when(stableIdentifier.getAttributeValue(ReactomeJavaConstants.identifier))
+                .thenReturn("R-HSA-" + dbId);
+            Mockito.when(event.getAttributeValuesList(ReactomeJavaConstants.goBiologicalProcess))
+                .thenReturn(Collections.singletonList(goBiologicalProcess));
+            Mockito.when(event.getAttributeValue(ReactomeJavaConstants.stableIdentifier))
+                .thenReturn(stableIdentifier);
+        }
+        return event;
+    }
+
+    private List<String> getAccessions(List<Map<String, String>> goBiologicalProcessAccessions) {
+        List<String> accessions = new ArrayList<>();
+        for (Map<String, String> goBiologicalProcessAccession : goBiologicalProcessAccessions) {
+            accessions.add(goBiologicalProcessAccession.get(GOAGeneratorConstants.ACCESSION_STRING));
+        }
+        return accessions;
+    }
+}
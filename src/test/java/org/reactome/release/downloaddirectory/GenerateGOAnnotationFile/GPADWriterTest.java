@@ -0,0 +1,38 @@
+package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class GPADWriterTest {
+
+    @Test
+    public void headerAndAnnotationLinesAreWrittenInGPADFormat() throws Exception {
+        StringWriter output = new StringWriter();
+        try (GPADWriter gpadWriter = new GPADWriter(output)) {
+            gpadWriter.writeHeader("77", "2021-06-30");
+            gpadWriter.writeAnnotation(new GOAnnotation(
+                "A0AVI4", "TM129_HUMAN", "enables", "GO:0061630", "PMID:24807418", "EXP", "F", "9606"
+            ), "20170111");
+            gpadWriter.writeAnnotation(new GOAnnotation(
+                "A0AVI4", "TM129_HUMAN", "located_in", "GO:0005789", "REACTOME:R-HSA-1", "TAS", "C", "9606"
+            ), "20170112");
+        }
+
+        String lineSeparator = System.lineSeparator();
+        assertThat(output.toString(), is(equalTo(
+            "!gpad-version: 2.0" + lineSeparator +
+            "!generated-by: Reactome" + lineSeparator +
+            "!date-generated: 2021-06-30" + lineSeparator +
+            "!Project-release: Version 77" + lineSeparator +
+            "UniProtKB:A0AVI4\t\tRO:0002327\tGO:0061630\tPMID:24807418\tECO:0000269\t\t\t2017-01-11\tReactome\t\t" +
+            lineSeparator +
+            "UniProtKB:A0AVI4\t\tRO:0001025\tGO:0005789\tREACTOME:R-HSA-1\tECO:0000304\t\t\t2017-01-12\tReactome\t\t" +
+            lineSeparator
+        )));
+    }
+}
@@ -0,0 +1,39 @@
+package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class GPIWriterTest {
+
+    @Test
+    public void eachProteinIsWrittenOnceInGPIFormat() throws Exception {
+        StringWriter output = new StringWriter();
+        try (GPIWriter gpiWriter = new GPIWriter(output)) {
+            gpiWriter.writeHeader("77", "2021-06-30");
+            gpiWriter.writeAnnotation(new GOAnnotation(
+                "A0AVI4", "TM129_HUMAN", "enables", "GO:0061630", "PMID:24807418", "EXP", "F", "9606"
+            ), "20170111");
+            gpiWriter.writeAnnotation(new GOAnnotation(
+                "A0AVI4", "TM129_HUMAN", "located_in", "GO:0005789", "REACTOME:R-HSA-1", "TAS", "C", "9606"
+            ), "20170112");
+            gpiWriter.writeAnnotation(new GOAnnotation(
+                "P12345", "AATM_RABIT", "enables", "GO:0004069", "REACTOME:R-OCU-1", "TAS", "F", "9986"
+            ), "20170112");
+        }
+
+        String lineSeparator = System.lineSeparator();
+        assertThat(output.toString(), is(equalTo(
+            "!gpi-version: 2.0" + lineSeparator +
+            "!generated-by: Reactome" + lineSeparator +
+            "!date-generated: 2021-06-30" + lineSeparator +
+            "!Project-release: Version 77" + lineSeparator +
+            "UniProtKB:A0AVI4\tTM129_HUMAN\t\t\tPR:000000001\tNCBITaxon:9606\t\t\t\t\t" + lineSeparator +
+            "UniProtKB:P12345\tAATM_RABIT\t\t\tPR:000000001\tNCBITaxon:9986\t\t\t\t\t" + lineSeparator
+        )));
+    }
+}
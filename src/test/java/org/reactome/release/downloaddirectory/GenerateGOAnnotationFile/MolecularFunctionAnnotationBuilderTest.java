@@ -86,7 +86,8 @@ public class MolecularFunctionAnnotationBuilderTest {
         Mockito.when(mockSchemaClass.isa(ReactomeJavaConstants.EntityWithAccessionedSequence)).thenReturn(true);
         Mockito.when(mockActiveUnitInst.getAttributeValue(ReactomeJavaConstants.referenceEntity)).thenReturn(mockReferenceEntityInst);
         Mockito.when(mockActiveUnitInst.getAttributeValue(ReactomeJavaConstants.species)).thenReturn(mockSpeciesInst);
-        Mockito.when(GOAGeneratorUtilities.getAnyIssueForAnnotationDisqualification(mockActiveUnitInst)).thenReturn("");
+        Mockito.when(GOAGeneratorUtilities.getAnyReasonForAnnotationDisqualification(mockActiveUnitInst))
+            .thenReturn(null);
         Mockito.when(GOAGeneratorUtilities.isValidProtein(mockActiveUnitInst)).thenReturn(true);
         Mockito.when(GOAGeneratorUtilities.hasExcludedMicrobialSpecies(mockActiveUnitInst)).thenReturn(false);
         Mockito.when(GOAGeneratorUtilities.getReferenceEntityFromProtein(mockActiveUnitInst)).thenCallRealMethod();
@@ -103,18 +104,13 @@ public class MolecularFunctionAnnotationBuilderTest {
 
 
 
-        Mockito.when(GOAGeneratorUtilities.generateGOALine(
-                mockActiveUnitInst,
-                GOAGeneratorConstants.MOLECULAR_FUNCTION_LETTER,
-                GOAGeneratorConstants.MOLECULAR_FUNCTION_QUALIFIER,
-                "GO:1234",
-                "PMID:1234",
-                GOAGeneratorConstants.INFERRED_FROM_EXPERIMENT_CODE
-        )).thenCallRealMethod();
-        Set<String> goaLines = MolecularFunctionAnnotationBuilder.processMolecularFunctions(mockReactionInst);
+        Set<GOAnnotation> goAnnotations =
+            MolecularFunctionAnnotationBuilder.processMolecularFunctions(mockReactionInst, new GOAGenerationContext());
 
-        assertThat(goaLines.size(), is(equalTo(1)));
-        assertThat(goaLines.iterator().next(), is((equalTo("UniProtKB\tR1234\tR5678\tenables\tGO:1234\tPMID:1234\tEXP\t\tF\t\t\tprotein\ttaxon:1234"))));
+        assertThat(goAnnotations.size(), is(equalTo(1)));
+        assertThat(goAnnotations.iterator().next().toString(), is((equalTo(
+            "UniProtKB\tR1234\tR5678\tenables\tGO:1234\tPMID:1234\tEXP\t\tF\t\t\tprotein\ttaxon:1234"
+        ))));
     }
 
     @Test
@@ -127,7 +123,8 @@ public class MolecularFunctionAnnotationBuilderTest {
         Mockito.when(GOAGeneratorUtilities.getGOAnnotatableProteinsFromCatalystActivity(mockCatalystInst)).thenReturn(new HashSet<>(mockActiveUnitSet));
         Mockito.when(mockActiveUnitInst.getAttributeValue(ReactomeJavaConstants.referenceEntity)).thenReturn(mockReferenceEntityInst);
         Mockito.when(mockActiveUnitInst.getAttributeValue(ReactomeJavaConstants.species)).thenReturn(mockSpeciesInst);
-        Mockito.when(GOAGeneratorUtilities.getAnyIssueForAnnotationDisqualification(mockActiveUnitInst)).thenReturn("");
+        Mockito.when(GOAGeneratorUtilities.getAnyReasonForAnnotationDisqualification(mockActiveUnitInst))
+            .thenReturn(null);
         Mockito.when(GOAGeneratorUtilities.getReferenceEntityFromProtein(mockActiveUnitInst)).thenCallRealMethod();
         Mockito.when(GOAGeneratorUtilities.getTaxonIdentifier(mockActiveUnitInst)).thenCallRealMethod();
         Mockito.when(GOAGeneratorUtilities.getReactomeIdentifier(mockReactionInst)).thenCallRealMethod();
@@ -138,18 +135,13 @@ public class MolecularFunctionAnnotationBuilderTest {
         Mockito.when(mockReferenceEntityInst.getAttributeValue(ReactomeJavaConstants.identifier)).thenReturn("R1234");
         Mockito.when(GOAGeneratorUtilities.getSecondaryIdentifier(mockActiveUnitInst)).thenReturn("R5678");
         Mockito.when(GOAGeneratorUtilities.getStableIdentifierIdentifier(mockReactionInst)).thenReturn("1234");
-        Mockito.when(GOAGeneratorUtilities.generateGOALine(
-                mockActiveUnitInst,
-                GOAGeneratorConstants.MOLECULAR_FUNCTION_LETTER,
-                GOAGeneratorConstants.MOLECULAR_FUNCTION_QUALIFIER,
-                "GO:1234",
-                "REACTOME:1234",
-                GOAGeneratorConstants.TRACEABLE_AUTHOR_STATEMENT_CODE
-        )).thenCallRealMethod();
-        Set<String> goaLines = MolecularFunctionAnnotationBuilder.processMolecularFunctions(mockReactionInst);
-
-        assertThat(goaLines.size(), is(equalTo(1)));
-        assertThat(goaLines.iterator().next(), is((equalTo("UniProtKB\tR1234\tR5678\tenables\tGO:1234\tREACTOME:1234\tTAS\t\tF\t\t\tprotein\ttaxon:1234"))));
+        Set<GOAnnotation> goAnnotations =
+            MolecularFunctionAnnotationBuilder.processMolecularFunctions(mockReactionInst, new GOAGenerationContext());
+
+        assertThat(goAnnotations.size(), is(equalTo(1)));
+        assertThat(goAnnotations.iterator().next().toString(), is((equalTo(
+            "UniProtKB\tR1234\tR5678\tenables\tGO:1234\tREACTOME:1234\tTAS\t\tF\t\t\tprotein\ttaxon:1234"
+        ))));
     }
 
     @Test
@@ -157,9 +149,10 @@ public class MolecularFunctionAnnotationBuilderTest {
         mockCatalystActivitySet.add(mockCatalystInst);
 
         Mockito.when(mockReactionInst.getAttributeValuesList(ReactomeJavaConstants.catalystActivity)).thenReturn(mockCatalystActivitySet);
-        Set<String> goaLines = MolecularFunctionAnnotationBuilder.processMolecularFunctions(mockReactionInst);
+        Set<GOAnnotation> goAnnotations =
+            MolecularFunctionAnnotationBuilder.processMolecularFunctions(mockReactionInst, new GOAGenerationContext());
 
-        assertThat(goaLines.size(), is(equalTo(0)));
+        assertThat(goAnnotations.size(), is(equalTo(0)));
     }
 
     @Test
@@ -174,9 +167,10 @@ public class MolecularFunctionAnnotationBuilderTest {
         Mockito.when(mockSchemaClass.isa(ReactomeJavaConstants.EntitySet)).thenReturn(true);
         Mockito.when(mockActiveUnitInst.getAttributeValuesList(ReactomeJavaConstants.hasMember)).thenReturn(mockMemberSet);
         Mockito.when(mockMemberInst.getSchemClass()).thenReturn(mockSchemaClass);
-        Set<String> goaLines = MolecularFunctionAnnotationBuilder.processMolecularFunctions(mockReactionInst);
+        Set<GOAnnotation> goAnnotations =
+            MolecularFunctionAnnotationBuilder.processMolecularFunctions(mockReactionInst, new GOAGenerationContext());
 
-        assertThat(goaLines.size(), is(equalTo(0)));
+        assertThat(goAnnotations.size(), is(equalTo(0)));
     }
 
     @Test
@@ -197,9 +191,10 @@ public class MolecularFunctionAnnotationBuilderTest {
         Mockito.when(((GKInstance) mockSpeciesInst.getAttributeValue(ReactomeJavaConstants.crossReference))).thenReturn(mockCrossReferenceInst);
         Mockito.when(mockCrossReferenceInst.getAttributeValue(ReactomeJavaConstants.identifier)).thenReturn("1234");
         Mockito.when(mockCatalystInst.getAttributeValue(ReactomeJavaConstants.activity)).thenReturn(null);
-        Set<String> goaLines = MolecularFunctionAnnotationBuilder.processMolecularFunctions(mockReactionInst);
+        Set<GOAnnotation> goAnnotations =
+            MolecularFunctionAnnotationBuilder.processMolecularFunctions(mockReactionInst, new GOAGenerationContext());
 
-        assertThat(goaLines.size(), is(equalTo(0)));
+        assertThat(goAnnotations.size(), is(equalTo(0)));
     }
 
     @Test
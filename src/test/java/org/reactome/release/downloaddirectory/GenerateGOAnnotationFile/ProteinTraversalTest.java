@@ -0,0 +1,100 @@
+package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
+
+import org.gk.model.GKInstance;
+import org.gk.model.ReactomeJavaConstants;
+import org.gk.schema.SchemaClass;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.*;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ProteinTraversalTest {
+
+    @Test
+    public void ewasOfNestedComplexesAndSetsAreFound() throws Exception {
+        GKInstance firstEWAS = mockInstance(1L, ReactomeJavaConstants.EntityWithAccessionedSequence);
+        GKInstance secondEWAS = mockInstance(2L, ReactomeJavaConstants.EntityWithAccessionedSequence);
+        GKInstance entitySet = mockInstance(3L, ReactomeJavaConstants.EntitySet, ReactomeJavaConstants.hasMember,
+            secondEWAS);
+        GKInstance complex = mockInstance(4L, ReactomeJavaConstants.Complex, ReactomeJavaConstants.hasComponent,
+            firstEWAS, entitySet);
+        GKInstance reaction = mockInstance(5L, ReactomeJavaConstants.ReactionlikeEvent, ReactomeJavaConstants.input,
+            complex);
+
+        Set<GKInstance> ewass = CellularComponentAnnotationBuilder.createProteinTraversal().getEWASs(reaction);
+
+        assertThat(ewass, containsInAnyOrder(firstEWAS, secondEWAS));
+    }
+
+    @Test
+    public void complexSharedByReactionsIsExpandedOnce() throws Exception {
+        GKInstance ewas = mockInstance(1L, ReactomeJavaConstants.EntityWithAccessionedSequence);
+        GKInstance complex = mockInstance(2L, ReactomeJavaConstants.Complex, ReactomeJavaConstants.hasComponent,
+            ewas);
+        GKInstance firstReaction = mockInstance(3L, ReactomeJavaConstants.ReactionlikeEvent,
+            ReactomeJavaConstants.input, complex);
+        GKInstance secondReaction = mockInstance(4L, ReactomeJavaConstants.ReactionlikeEvent,
+            ReactomeJavaConstants.input, complex);
+        ProteinTraversal proteinTraversal = CellularComponentAnnotationBuilder.createProteinTraversal();
+
+        assertThat(proteinTraversal.getEWASs(firstReaction), containsInAnyOrder(ewas));
+        assertThat(proteinTraversal.getEWASs(secondReaction), containsInAnyOrder(ewas));
+        Mockito.verify(complex, Mockito.times(1)).getAttributeValuesList(ReactomeJavaConstants.hasComponent);
+    }
+
+    @Test
+    public void attributesOutsideThePlanAreNotFollowed() throws Exception {
+        GKInstance ewas = mockInstance(1L, ReactomeJavaConstants.EntityWithAccessionedSequence);
+        GKInstance complex = mockInstance(2L, ReactomeJavaConstants.Complex, ReactomeJavaConstants.hasMember, ewas);
+        GKInstance reaction = mockInstance(3L, ReactomeJavaConstants.ReactionlikeEvent, ReactomeJavaConstants.input,
+            complex);
+
+        assertThat(CellularComponentAnnotationBuilder.createProteinTraversal().getEWASs(reaction), is(empty()));
+    }
+
+    @Test
+    public void setsMembersOfEachOtherHaveTheEWASsOfBoth() throws Exception {
+        GKInstance firstEWAS = mockInstance(1L, ReactomeJavaConstants.EntityWithAccessionedSequence);
+        GKInstance secondEWAS = mockInstance(2L, ReactomeJavaConstants.EntityWithAccessionedSequence);
+        GKInstance firstSet = mockInstance(3L, ReactomeJavaConstants.EntitySet);
+        GKInstance secondSet = mockInstance(4L, ReactomeJavaConstants.EntitySet, ReactomeJavaConstants.hasMember,
+            firstSet, secondEWAS);
+        Mockito.when(firstSet.getSchemClass().isValidAttribute(ReactomeJavaConstants.hasMember)).thenReturn(true);
+        Mockito.when(firstSet.getAttributeValuesList(ReactomeJavaConstants.hasMember))
+            .thenReturn(Arrays.asList(secondSet, firstEWAS));
+        GKInstance firstReaction = mockInstance(5L, ReactomeJavaConstants.ReactionlikeEvent,
+            ReactomeJavaConstants.input, firstSet);
+        GKInstance secondReaction = mockInstance(6L, ReactomeJavaConstants.ReactionlikeEvent,
+            ReactomeJavaConstants.input, secondSet);
+        ProteinTraversal proteinTraversal = CellularComponentAnnotationBuilder.createProteinTraversal();
+
+        assertThat(proteinTraversal.getEWASs(firstReaction), containsInAnyOrder(firstEWAS, secondEWAS));
+        // The closure of the second set was incomplete while the first set was in progress, so it wasn't kept
+        assertThat(proteinTraversal.getEWASs(secondReaction), containsInAnyOrder(firstEWAS, secondEWAS));
+    }
+
+    // Mocks an instance of a schema class named after the class it is a kind of, with values for one attribute
+    private GKInstance mockInstance(long dbId, String className, String attributeName, GKInstance... values)
+        throws Exception {
+        GKInstance instance = mockInstance(dbId, className);
+        SchemaClass schemaClass = instance.getSchemClass();
+        Mockito.when(schemaClass.isValidAttribute(attributeName)).thenReturn(true);
+        Mockito.when(instance.getAttributeValuesList(attributeName)).thenReturn(Arrays.asList(values));
+        return instance;
+    }
+
+    private GKInstance mockInstance(long dbId, String className) {
+        GKInstance instance = Mockito.mock(GKInstance.class);
+        SchemaClass schemaClass = Mockito.mock(SchemaClass.class);
+        Mockito.when(instance.getDBID()).thenReturn(dbId);
+        Mockito.when(instance.getSchemClass()).thenReturn(schemaClass);
+        Mockito.when(schemaClass.getName()).thenReturn(className);
+        Mockito.when(schemaClass.isa(className)).thenReturn(true);
+        return instance;
+    }
+}
@@ -0,0 +1,544 @@
+package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
+
+import org.gk.model.GKInstance;
+import org.gk.model.ReactomeJavaConstants;
+import org.gk.schema.SchemaClass;
+
+import java.lang.reflect.Proxy;
+import java.util.*;
+
+import static org.reactome.release.downloaddirectory.GenerateGOAnnotationFile.GOAGeneratorConstants.*;
+
+/**
+ * In-memory graph of the instances read by the GO annotation builders, shaped like a release database at a given
+ * number of ReactionlikeEvents: reactions with inputs, outputs and catalyst activities, whose entities are EWASs,
+ * Complexes and EntitySets drawn from shared pools, so the same proteins are reached from many reactions, and
+ * pathways grouping the reactions with their own 'goBiologicalProcess' accessions.
+ *
+ * A share of the instances is generated with each of the issues for which the builders skip an annotation (invalid
+ * proteins, excluded or alternative compartment species, catalysts without an activity, ...), and some reactions
+ * are inferred or have literature references for their catalysts, so all paths of the builders are taken.
+ *
+ * Instances hold their attribute values themselves and have schema classes declaring only the attributes used here,
+ * so no database is needed; reading an attribute a class doesn't declare throws an IllegalArgumentException, as
+ * reading an invalid attribute of a GKInstance does. The same number of reactions and seed give the same graph.
+ */
+class SyntheticGOAGraph {
+    private static final List<String> DATABASE_OBJECT_ATTRIBUTES = Arrays.asList(
+        ReactomeJavaConstants.created, ReactomeJavaConstants.modified, ReactomeJavaConstants.stableIdentifier
+    );
+    private static final List<String> EVENT_ATTRIBUTES = Arrays.asList(
+        ReactomeJavaConstants.species, ReactomeJavaConstants.goBiologicalProcess, ReactomeJavaConstants.inferredFrom,
+        ReactomeJavaConstants.evidenceType, ReactomeJavaConstants.literatureReference
+    );
+    private static final List<String> REACTIONLIKE_EVENT_ATTRIBUTES = Arrays.asList(
+        ReactomeJavaConstants.input, ReactomeJavaConstants.output, ReactomeJavaConstants.catalystActivity,
+        ReactomeJavaConstants.catalystActivityReference
+    );
+    private static final List<String> PHYSICAL_ENTITY_ATTRIBUTES = Arrays.asList(
+        ReactomeJavaConstants.compartment, ReactomeJavaConstants.species
+    );
+
+    private static final SchemaClass REACTION = schemaClass(
+        ReactomeJavaConstants.Reaction,
+        Arrays.asList(ReactomeJavaConstants.ReactionlikeEvent, ReactomeJavaConstants.Event),
+        concat(EVENT_ATTRIBUTES, REACTIONLIKE_EVENT_ATTRIBUTES)
+    );
+    private static final SchemaClass PATHWAY = schemaClass(
+        ReactomeJavaConstants.Pathway,
+        Collections.singletonList(ReactomeJavaConstants.Event),
+        concat(EVENT_ATTRIBUTES, Collections.singletonList(ReactomeJavaConstants.hasEvent))
+    );
+    private static final SchemaClass EWAS = schemaClass(
+        ReactomeJavaConstants.EntityWithAccessionedSequence,
+        Arrays.asList(ReactomeJavaConstants.GenomeEncodedEntity, ReactomeJavaConstants.PhysicalEntity),
+        concat(PHYSICAL_ENTITY_ATTRIBUTES, Collections.singletonList(ReactomeJavaConstants.referenceEntity))
+    );
+    private static final SchemaClass COMPLEX = schemaClass(
+        ReactomeJavaConstants.Complex,
+        Collections.singletonList(ReactomeJavaConstants.PhysicalEntity),
+        concat(PHYSICAL_ENTITY_ATTRIBUTES, Collections.singletonList(ReactomeJavaConstants.hasComponent))
+    );
+    private static final SchemaClass DEFINED_SET = schemaClass(
+        ReactomeJavaConstants.DefinedSet,
+        Arrays.asList(ReactomeJavaConstants.EntitySet, ReactomeJavaConstants.PhysicalEntity),
+        concat(PHYSICAL_ENTITY_ATTRIBUTES, Collections.singletonList(ReactomeJavaConstants.hasMember))
+    );
+    private static final SchemaClass CATALYST_ACTIVITY = schemaClass(
+        ReactomeJavaConstants.CatalystActivity,
+        Collections.emptyList(),
+        Arrays.asList(
+            ReactomeJavaConstants.physicalEntity, ReactomeJavaConstants.activeUnit, ReactomeJavaConstants.activity
+        )
+    );
+    private static final SchemaClass CATALYST_ACTIVITY_REFERENCE = schemaClass(
+        ReactomeJavaConstants.CatalystActivityReference,
+        Collections.emptyList(),
+        Arrays.asList(ReactomeJavaConstants.catalystActivity, ReactomeJavaConstants.literatureReference)
+    );
+    private static final SchemaClass REFERENCE_GENE_PRODUCT = schemaClass(
+        ReactomeJavaConstants.ReferenceGeneProduct,
+        Arrays.asList(ReactomeJavaConstants.ReferenceSequence, ReactomeJavaConstants.ReferenceEntity),
+        Arrays.asList(
+            ReactomeJavaConstants.identifier, ReactomeJavaConstants.secondaryIdentifier,
+            ReactomeJavaConstants.geneName, ReactomeJavaConstants.referenceDatabase
+        )
+    );
+    private static final SchemaClass SPECIES = schemaClass(
+        ReactomeJavaConstants.Species,
+        Collections.singletonList(ReactomeJavaConstants.Taxon),
+        Collections.singletonList(ReactomeJavaConstants.crossReference)
+    );
+    private static final SchemaClass DATABASE_IDENTIFIER = schemaClass(
+        ReactomeJavaConstants.DatabaseIdentifier,
+        Collections.emptyList(),
+        Collections.singletonList(ReactomeJavaConstants.identifier)
+    );
+    private static final SchemaClass REFERENCE_DATABASE = schemaClass(
+        ReactomeJavaConstants.ReferenceDatabase, Collections.emptyList(), Collections.emptyList()
+    );
+    private static final SchemaClass COMPARTMENT = schemaClass(
+        ReactomeJavaConstants.Compartment,
+        Collections.singletonList(ReactomeJavaConstants.GO_CellularComponent),
+        Collections.singletonList(ReactomeJavaConstants.accession)
+    );
+    private static final SchemaClass GO_MOLECULAR_FUNCTION = schemaClass(
+        ReactomeJavaConstants.GO_MolecularFunction,
+        Collections.emptyList(),
+        Collections.singletonList(ReactomeJavaConstants.accession)
+    );
+    private static final SchemaClass GO_BIOLOGICAL_PROCESS = schemaClass(
+        ReactomeJavaConstants.GO_BiologicalProcess,
+        Collections.emptyList(),
+        Collections.singletonList(ReactomeJavaConstants.accession)
+    );
+    private static final SchemaClass STABLE_IDENTIFIER = schemaClass(
+        ReactomeJavaConstants.StableIdentifier,
+        Collections.emptyList(),
+        Collections.singletonList(ReactomeJavaConstants.identifier)
+    );
+    private static final SchemaClass LITERATURE_REFERENCE = schemaClass(
+        ReactomeJavaConstants.LiteratureReference,
+        Collections.emptyList(),
+        Collections.singletonList(ReactomeJavaConstants.pubMedIdentifier)
+    );
+    private static final SchemaClass INSTANCE_EDIT = schemaClass(
+        ReactomeJavaConstants.InstanceEdit,
+        Collections.emptyList(),
+        Collections.singletonList(ReactomeJavaConstants.dateTime)
+    );
+
+    // Reactions per pathway, and pathways per top level pathway
+    private static final int EVENTS_PER_PATHWAY = 20;
+
+    private final Random random;
+    private long nextDbId = 1L;
+
+    private final List<GKInstance> species = new ArrayList<>();
+    private final List<GKInstance> speciesWithIssues = new ArrayList<>();
+    private final List<GKInstance> compartments = new ArrayList<>();
+    private final List<GKInstance> goMolecularFunctions = new ArrayList<>();
+    private final List<GKInstance> goBiologicalProcesses = new ArrayList<>();
+    private final List<GKInstance> instanceEdits = new ArrayList<>();
+    private GKInstance uniProt;
+    private GKInstance ensembl;
+
+    private final List<GKInstance> proteins = new ArrayList<>();
+    private final List<GKInstance> complexes = new ArrayList<>();
+    private final List<GKInstance> entitySets = new ArrayList<>();
+    private final List<GKInstance> reactionlikeEvents = new ArrayList<>();
+    private final List<GKInstance> pathways = new ArrayList<>();
+
+    private SyntheticGOAGraph(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Generates a graph with as many proteins as reactions, a Complex or EntitySet for every two reactions, and one
+     * or two catalyst activities for most reactions.
+     * @param reactionCount -- Number of ReactionlikeEvents of the graph
+     * @param seed -- Seed from which the graph is generated
+     * @return -- SyntheticGOAGraph of the given size
+     */
+    static SyntheticGOAGraph generate(int reactionCount, long seed) {
+        SyntheticGOAGraph graph = new SyntheticGOAGraph(seed);
+        graph.createReferenceInstances();
+        for (int i = 0; i < reactionCount; i++) {
+            graph.proteins.add(graph.createProtein());
+        }
+        for (int i = 0; i < reactionCount / 3; i++) {
+            graph.complexes.add(graph.createComplex());
+        }
+        for (int i = 0; i < reactionCount / 6; i++) {
+            graph.entitySets.add(graph.createEntitySet());
+        }
+        for (int i = 0; i < reactionCount; i++) {
+            graph.reactionlikeEvents.add(graph.createReaction());
+        }
+        graph.createPathways();
+        return graph;
+    }
+
+    /**
+     * @return -- ReactionlikeEvents of the graph, including the inferred ones
+     */
+    List<GKInstance> getReactionlikeEvents() {
+        return Collections.unmodifiableList(reactionlikeEvents);
+    }
+
+    /**
+     * @return -- Pathways of the graph, i.e. the events with a 'hasEvent' attribute
+     */
+    List<GKInstance> getPathways() {
+        return Collections.unmodifiableList(pathways);
+    }
+
+    /**
+     * Creates the context of a new run, with a GOBiologicalProcessIndex of the pathways of the graph.
+     * @return -- GOAGenerationContext with nothing recorded or cached
+     * @throws Exception -- Never thrown by the instances of the graph
+     */
+    GOAGenerationContext newContext() throws Exception {
+        return new GOAGenerationContext(GOBiologicalProcessIndex.of(pathways));
+    }
+
+    private void createReferenceInstances() {
+        for (String taxonIdentifier : Arrays.asList("9606", "9606", "9606", "10090", "10116", "7955")) {
+            species.add(createSpecies(taxonIdentifier));
+        }
+        speciesWithIssues.add(createSpecies(E_COLI_CROSS_REFERENCE));
+        speciesWithIssues.add(createSpecies(HIV_1_CROSS_REFERENCE));
+
+        uniProt = create(REFERENCE_DATABASE, UNIPROT_STRING);
+        ensembl = create(REFERENCE_DATABASE, "ENSEMBL");
+        for (int i = 0; i < 50; i++) {
+            compartments.add(createGOTerm(COMPARTMENT, 5000 + i));
+            goMolecularFunctions.add(createGOTerm(GO_MOLECULAR_FUNCTION, 3000 + i));
+        }
+        goMolecularFunctions.add(createGOTerm(GO_MOLECULAR_FUNCTION, 5515));
+        for (int i = 0; i < 200; i++) {
+            goBiologicalProcesses.add(createGOTerm(GO_BIOLOGICAL_PROCESS, 6000 + i));
+        }
+        for (int i = 0; i < 100; i++) {
+            SyntheticInstance instanceEdit = create(INSTANCE_EDIT, "Curator, 20" + (10 + i % 12));
+            instanceEdit.add(
+                ReactomeJavaConstants.dateTime,
+                String.format("20%02d-%02d-%02d 10:00:00.0", 10 + i % 12, 1 + i % 12, 1 + i % 28)
+            );
+            instanceEdits.add(instanceEdit);
+        }
+    }
+
+    private GKInstance createSpecies(String taxonIdentifier) {
+        SyntheticInstance crossReference = create(DATABASE_IDENTIFIER, "NCBI_taxonomy:" + taxonIdentifier);
+        crossReference.add(ReactomeJavaConstants.identifier, taxonIdentifier);
+        SyntheticInstance speciesInst = create(SPECIES, "Taxon " + taxonIdentifier);
+        speciesInst.add(ReactomeJavaConstants.crossReference, crossReference);
+        return speciesInst;
+    }
+
+    private GKInstance createGOTerm(SchemaClass schemaClass, int accessionNumber) {
+        SyntheticInstance goTerm = create(schemaClass, schemaClass.getName() + " " + accessionNumber);
+        goTerm.add(ReactomeJavaConstants.accession, String.format("%07d", accessionNumber));
+        return goTerm;
+    }
+
+    // Mostly valid UniProt proteins; about 3% of them have an issue disqualifying them for any or some annotations
+    private GKInstance createProtein() {
+        String uniProtIdentifier = String.format("P%05d", nextDbId % 100000);
+        SyntheticInstance referenceGeneProduct = createDated(REFERENCE_GENE_PRODUCT, "UniProt:" + uniProtIdentifier);
+        referenceGeneProduct.add(ReactomeJavaConstants.identifier, uniProtIdentifier);
+        if (random.nextInt(4) == 0) {
+            referenceGeneProduct.add(ReactomeJavaConstants.secondaryIdentifier, uniProtIdentifier + "-1");
+        } else if (random.nextInt(3) > 0) {
+            referenceGeneProduct.add(ReactomeJavaConstants.geneName, "GENE" + uniProtIdentifier);
+        }
+        referenceGeneProduct.add(
+            ReactomeJavaConstants.referenceDatabase, random.nextInt(100) == 0 ? ensembl : uniProt
+        );
+
+        SyntheticInstance protein = createDated(EWAS, "Protein " + uniProtIdentifier);
+        protein.add(ReactomeJavaConstants.referenceEntity, referenceGeneProduct);
+        int speciesDraw = random.nextInt(100);
+        if (speciesDraw == 0) {
+            protein.add(ReactomeJavaConstants.species, pick(speciesWithIssues));
+        } else if (speciesDraw > 1) {
+            protein.add(ReactomeJavaConstants.species, pick(species));
+        }
+        if (random.nextInt(50) > 0) {
+            protein.add(ReactomeJavaConstants.compartment, pick(compartments));
+        }
+        return protein;
+    }
+
+    // Complexes of proteins and of complexes created before them, so they never contain themselves
+    private GKInstance createComplex() {
+        SyntheticInstance complex = createDated(COMPLEX, "Complex " + complexes.size());
+        complex.add(ReactomeJavaConstants.compartment, pick(compartments));
+        int componentCount = 2 + random.nextInt(4);
+        for (int i = 0; i < componentCount; i++) {
+            if (!complexes.isEmpty() && random.nextInt(10) == 0) {
+                complex.add(ReactomeJavaConstants.hasComponent, pick(complexes));
+            } else {
+                complex.add(ReactomeJavaConstants.hasComponent, pick(proteins));
+            }
+        }
+        return complex;
+    }
+
+    // Sets of proteins, a fifth of which also have a Complex as member
+    private GKInstance createEntitySet() {
+        SyntheticInstance entitySet = createDated(DEFINED_SET, "Set " + entitySets.size());
+        entitySet.add(ReactomeJavaConstants.compartment, pick(compartments));
+        int memberCount = 2 + random.nextInt(4);
+        for (int i = 0; i < memberCount; i++) {
+            entitySet.add(ReactomeJavaConstants.hasMember, pick(proteins));
+        }
+        if (random.nextInt(5) == 0) {
+            entitySet.add(ReactomeJavaConstants.hasMember, pick(complexes));
+        }
+        return entitySet;
+    }
+
+    private GKInstance createReaction() {
+        SyntheticInstance reaction = createDated(REACTION, "Reaction " + reactionlikeEvents.size());
+        reaction.add(ReactomeJavaConstants.stableIdentifier, createStableIdentifier(reaction));
+        reaction.add(ReactomeJavaConstants.species, pick(species));
+        int inputCount = 1 + random.nextInt(3);
+        for (int i = 0; i < inputCount; i++) {
+            reaction.add(ReactomeJavaConstants.input, pickPhysicalEntity());
+        }
+        int outputCount = 1 + random.nextInt(2);
+        for (int i = 0; i < outputCount; i++) {
+            reaction.add(ReactomeJavaConstants.output, pickPhysicalEntity());
+        }
+        int catalystCount = random.nextInt(10) < 3 ? 0 : 1 + random.nextInt(2);
+        for (int i = 0; i < catalystCount; i++) {
+            reaction.add(ReactomeJavaConstants.catalystActivity, createCatalystActivity());
+        }
+        if (catalystCount > 0 && random.nextInt(5) == 0) {
+            reaction.add(
+                ReactomeJavaConstants.catalystActivityReference,
+                createCatalystActivityReference((GKInstance) reaction.getAttributeValue(
+                    ReactomeJavaConstants.catalystActivity
+                ))
+            );
+        }
+        int goBiologicalProcessCount = random.nextInt(10) < 3 ? 1 + random.nextInt(2) : 0;
+        for (int i = 0; i < goBiologicalProcessCount; i++) {
+            reaction.add(ReactomeJavaConstants.goBiologicalProcess, pick(goBiologicalProcesses));
+        }
+        if (!reactionlikeEvents.isEmpty() && random.nextInt(10) == 0) {
+            reaction.add(ReactomeJavaConstants.inferredFrom, pick(reactionlikeEvents));
+        }
+        return reaction;
+    }
+
+    // Catalyst activities of a protein, set or complex; a few lack an entity, an activity or a compartment
+    private GKInstance createCatalystActivity() {
+        SyntheticInstance catalystActivity = createDated(CATALYST_ACTIVITY, "Catalyst activity " + nextDbId);
+        int entityDraw = random.nextInt(100);
+        if (entityDraw < 50) {
+            catalystActivity.add(ReactomeJavaConstants.physicalEntity, pick(proteins));
+        } else if (entityDraw < 80) {
+            catalystActivity.add(ReactomeJavaConstants.physicalEntity, pick(entitySets));
+        } else if (entityDraw < 99) {
+            catalystActivity.add(ReactomeJavaConstants.physicalEntity, pick(complexes));
+            if (random.nextInt(2) == 0) {
+                catalystActivity.add(ReactomeJavaConstants.activeUnit, pick(proteins));
+            }
+        }
+        if (random.nextInt(10) > 0) {
+            catalystActivity.add(ReactomeJavaConstants.activity, pick(goMolecularFunctions));
+        }
+        return catalystActivity;
+    }
+
+    private GKInstance createCatalystActivityReference(GKInstance catalystActivity) {
+        SyntheticInstance catalystActivityReference =
+            createDated(CATALYST_ACTIVITY_REFERENCE, "Reference of " + catalystActivity.getDisplayName());
+        catalystActivityReference.add(ReactomeJavaConstants.catalystActivity, catalystActivity);
+        int literatureReferenceCount = 1 + random.nextInt(2);
+        for (int i = 0; i < literatureReferenceCount; i++) {
+            SyntheticInstance literatureReference = create(LITERATURE_REFERENCE, "Literature reference " + nextDbId);
+            literatureReference.add(ReactomeJavaConstants.pubMedIdentifier, 10000000 + random.nextInt(20000000));
+            catalystActivityReference.add(ReactomeJavaConstants.literatureReference, literatureReference);
+        }
+        return catalystActivityReference;
+    }
+
+    // Pathways of reactions, grouped in turn in top level pathways, so the index recurses on grandparents
+    private void createPathways() {
+        List<GKInstance> topLevelPathways = new ArrayList<>();
+        for (int i = 0; i < reactionlikeEvents.size(); i += EVENTS_PER_PATHWAY) {
+            SyntheticInstance pathway = createPathway(reactionlikeEvents.subList(
+                i, Math.min(i + EVENTS_PER_PATHWAY, reactionlikeEvents.size())
+            ));
+            if (pathways.size() % EVENTS_PER_PATHWAY == 0) {
+                topLevelPathways.add(createPathway(Collections.emptyList()));
+            }
+            ((SyntheticInstance) topLevelPathways.get(topLevelPathways.size() - 1))
+                .add(ReactomeJavaConstants.hasEvent, pathway);
+            pathways.add(pathway);
+        }
+        pathways.addAll(topLevelPathways);
+    }
+
+    private SyntheticInstance createPathway(List<GKInstance> events) {
+        SyntheticInstance pathway = createDated(PATHWAY, "Pathway " + nextDbId);
+        pathway.add(ReactomeJavaConstants.stableIdentifier, createStableIdentifier(pathway));
+        pathway.add(ReactomeJavaConstants.species, pick(species));
+        for (GKInstance event : events) {
+            pathway.add(ReactomeJavaConstants.hasEvent, event);
+        }
+        if (random.nextInt(10) < 6) {
+            pathway.add(ReactomeJavaConstants.goBiologicalProcess, pick(goBiologicalProcesses));
+        }
+        return pathway;
+    }
+
+    private GKInstance createStableIdentifier(GKInstance event) {
+        SyntheticInstance stableIdentifier = create(STABLE_IDENTIFIER, "R-HSA-" + event.getDBID());
+        stableIdentifier.add(ReactomeJavaConstants.identifier, "R-HSA-" + event.getDBID());
+        return stableIdentifier;
+    }
+
+    private GKInstance pickPhysicalEntity() {
+        int entityDraw = random.nextInt(10);
+        if (entityDraw < 5) {
+            return pick(proteins);
+        } else if (entityDraw < 8) {
+            return pick(complexes);
+        }
+        return pick(entitySets);
+    }
+
+    private GKInstance pick(List<GKInstance> instances) {
+        return instances.get(random.nextInt(instances.size()));
+    }
+
+    // Instance created and, for two thirds of them, modified up to twice
+    private SyntheticInstance createDated(SchemaClass schemaClass, String displayName) {
+        SyntheticInstance instance = create(schemaClass, displayName);
+        instance.add(ReactomeJavaConstants.created, pick(instanceEdits));
+        int modifiedCount = random.nextInt(3);
+        for (int i = 0; i < modifiedCount; i++) {
+            instance.add(ReactomeJavaConstants.modified, pick(instanceEdits));
+        }
+        return instance;
+    }
+
+    private SyntheticInstance create(SchemaClass schemaClass, String displayName) {
+        return new SyntheticInstance(nextDbId++, schemaClass, displayName);
+    }
+
+    private static List<String> concat(List<String> attributeNames, List<String> otherAttributeNames) {
+        List<String> allAttributeNames = new ArrayList<>(attributeNames);
+        allAttributeNames.addAll(otherAttributeNames);
+        return allAttributeNames;
+    }
+
+    // Schema class answering only the questions the GO annotation classes ask of one
+    private static SchemaClass schemaClass(String name, List<String> superClassNames, List<String> attributeNames) {
+        Set<String> classNames = new HashSet<>(superClassNames);
+        classNames.add(name);
+        classNames.add(ReactomeJavaConstants.DatabaseObject);
+        Set<String> validAttributeNames = new HashSet<>(attributeNames);
+        validAttributeNames.addAll(DATABASE_OBJECT_ATTRIBUTES);
+
+        return (SchemaClass) Proxy.newProxyInstance(
+            SchemaClass.class.getClassLoader(),
+            new Class<?>[] {SchemaClass.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getName":
+                    case "toString":
+                        return name;
+                    case "isa":
+                        return classNames.contains(getName(args[0]));
+                    case "isValidAttribute":
+                        return validAttributeNames.contains(args[0]);
+                    case "hashCode":
+                        return name.hashCode();
+                    case "equals":
+                        return proxy == args[0];
+                    default:
+                        throw new UnsupportedOperationException(
+                            method.getName() + " of synthetic schema class " + name
+                        );
+                }
+            }
+        );
+    }
+
+    private static Object getName(Object schemaClassOrName) {
+        return schemaClassOrName instanceof SchemaClass ?
+            ((SchemaClass) schemaClassOrName).getName() :
+            schemaClassOrName;
+    }
+
+    /**
+     * GKInstance holding its attribute values in memory, without a database adaptor.
+     */
+    private static class SyntheticInstance extends GKInstance {
+        private final Long dbId;
+        private final SchemaClass schemaClass;
+        private final String displayName;
+        private final Map<String, List<Object>> attributeValues = new HashMap<>();
+
+        private SyntheticInstance(long dbId, SchemaClass schemaClass, String displayName) {
+            this.dbId = dbId;
+            this.schemaClass = schemaClass;
+            this.displayName = displayName;
+        }
+
+        private void add(String attributeName, Object value) {
+            throwIfInvalidAttribute(attributeName);
+            attributeValues.computeIfAbsent(attributeName, name -> new ArrayList<>()).add(value);
+        }
+
+        @Override
+        public Long getDBID() {
+            return dbId;
+        }
+
+        @Override
+        public SchemaClass getSchemClass() {
+            return schemaClass;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        @Override
+        public String getExtendedDisplayName() {
+            return "[" + schemaClass.getName() + ":" + dbId + "] " + displayName;
+        }
+
+        @Override
+        public Object getAttributeValue(String attributeName) {
+            List<Object> values = getAttributeValuesList(attributeName);
+            return values.isEmpty() ? null : values.get(0);
+        }
+
+        @Override
+        public List<Object> getAttributeValuesList(String attributeName) {
+            throwIfInvalidAttribute(attributeName);
+            List<Object> values = attributeValues.get(attributeName);
+            return values != null ? Collections.unmodifiableList(values) : Collections.emptyList();
+        }
+
+        @Override
+        public String toString() {
+            return getExtendedDisplayName();
+        }
+
+        private void throwIfInvalidAttribute(String attributeName) {
+            if (!schemaClass.isValidAttribute(attributeName)) {
+                throw new IllegalArgumentException(attributeName + " is not an attribute of " + schemaClass.getName());
+            }
+        }
+    }
+}
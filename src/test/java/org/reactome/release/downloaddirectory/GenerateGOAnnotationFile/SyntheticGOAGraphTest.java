@@ -0,0 +1,76 @@
+package org.reactome.release.downloaddirectory.GenerateGOAnnotationFile;
+
+import org.gk.model.GKInstance;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class SyntheticGOAGraphTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void syntheticGraphTakesEveryPathOfTheBuilders() throws Exception {
+        SyntheticGOAGraph graph = SyntheticGOAGraph.generate(2000, 42L);
+        GOAGenerationContext context = graph.newContext();
+
+        Set<GOAnnotation> goAnnotations = annotate(graph, context);
+
+        Set<String> goLetters = new HashSet<>();
+        Set<String> evidenceCodes = new HashSet<>();
+        for (GOAnnotation goAnnotation : goAnnotations) {
+            goLetters.add(goAnnotation.getGOLetter());
+            evidenceCodes.add(goAnnotation.getEvidenceCode());
+        }
+        assertThat(goLetters, containsInAnyOrder("C", "F", "P"));
+        assertThat(evidenceCodes, containsInAnyOrder("TAS", "EXP"));
+        for (DisqualificationReason reason : DisqualificationReason.values()) {
+            assertThat(reason.toString(), context.getDisqualificationReport().getCount(reason), is(greaterThan(0L)));
+        }
+    }
+
+    @Test
+    public void sameSeedGivesTheSameGOAFile() throws Exception {
+        assertThat(writeGOAFile(SyntheticGOAGraph.generate(500, 7L)), is(equalTo(
+            writeGOAFile(SyntheticGOAGraph.generate(500, 7L))
+        )));
+    }
+
+    private Set<GOAnnotation> annotate(SyntheticGOAGraph graph, GOAGenerationContext context) throws Exception {
+        Set<GOAnnotation> goAnnotations = new LinkedHashSet<>();
+        for (GKInstance reactionlikeEvent : graph.getReactionlikeEvents()) {
+            goAnnotations.addAll(GOAGenerationEngine.generateGOAnnotations(reactionlikeEvent, context));
+        }
+        return goAnnotations;
+    }
+
+    private List<String> writeGOAFile(SyntheticGOAGraph graph) throws Exception {
+        GOAGenerationContext context = graph.newContext();
+        Path releaseDirectory = temporaryFolder.newFolder().toPath();
+        CreateGOAFile.writeGOAFiles(
+            annotate(graph, context), context, releaseDirectory, "77",
+            Collections.singletonList(GOAnnotationFormat.GAF), 100
+        );
+
+        Path goaFile = releaseDirectory.resolve(GOAnnotationFormat.GAF.getFileName());
+        try (BufferedReader goaFileReader = new BufferedReader(new InputStreamReader(
+            new GZIPInputStream(Files.newInputStream(goaFile)), StandardCharsets.UTF_8
+        ))) {
+            List<String> lines = goaFileReader.lines().collect(Collectors.toList());
+            assertThat(lines.size(), is(greaterThan(1000)));
+            return lines;
+        }
+    }
+}
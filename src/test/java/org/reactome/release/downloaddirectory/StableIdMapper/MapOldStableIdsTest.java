@@ -0,0 +1,83 @@
+package org.reactome.release.downloaddirectory.StableIdMapper;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Random;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+
+public class MapOldStableIdsTest {
+	private static final String[] SPECIES_ABBREVIATIONS = {"HSA", "HSA", "MMU", "RNO", "DRE", "ALL", "HCV"};
+
+	@Test
+	public void parallelMappingsAreTheSameAsSerialOnes() {
+		// Enough DB_IDs for the mapping to be split into several tasks
+		int dbIdCount = MapOldStableIds.GROUPS_PER_TASK * 4 + 123;
+		Random random = new Random(42);
+		StableIdIndex dbIdToStableIds = new StableIdIndex();
+		StableIdSet currentStableIdentifiers = new StableIdSet();
+		for (long dbId = 1; dbId <= dbIdCount; dbId++) {
+			String abbreviation = SPECIES_ABBREVIATIONS[random.nextInt(SPECIES_ABBREVIATIONS.length)];
+			String stableId = "R-" + abbreviation + "-" + dbId;
+			dbIdToStableIds.add(dbId, stableId);
+			if (random.nextInt(10) < 9) {
+				currentStableIdentifiers.add(stableId);
+			}
+			for (int i = random.nextInt(3); i > 0; i--) {
+				dbIdToStableIds.add(dbId, "REACT_" + random.nextInt(1_000_000));
+			}
+			if (random.nextInt(10) == 0) {
+				dbIdToStableIds.add(dbId, "R-" + SPECIES_ABBREVIATIONS[random.nextInt(SPECIES_ABBREVIATIONS.length)] + "-" + dbId);
+			}
+		}
+		dbIdToStableIds.sort();
+
+		byte[] serialMappings = getMappingFileContent(dbIdToStableIds, currentStableIdentifiers, 1);
+		byte[] parallelMappings = getMappingFileContent(dbIdToStableIds, currentStableIdentifiers, 4);
+
+		assertThat(serialMappings.length, is(greaterThan(0)));
+		assertThat(parallelMappings, is(equalTo(serialMappings)));
+	}
+
+	@Test
+	public void rowsWithUnusableInstanceIdsAreSkipped() throws Exception {
+		ResultSet stableIdResults = Mockito.mock(ResultSet.class);
+		Mockito.when(stableIdResults.next()).thenReturn(true, true, true, true, true, false);
+		Mockito.when(stableIdResults.getString(1)).thenReturn("R-HSA-1", "R-HSA-2", "R-HSA-3", "R-HSA-4", "R-HSA-5");
+		Mockito.when(stableIdResults.getString(2)).thenReturn("1", "abc", "-3", "2147483648", "2147483647");
+		PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+		Mockito.when(statement.executeQuery()).thenReturn(stableIdResults);
+		Connection stableIdentifiersConnection = Mockito.mock(Connection.class);
+		Mockito.when(stableIdentifiersConnection.prepareStatement(anyString(), anyInt(), anyInt())).thenReturn(statement);
+
+		StableIdIndex dbIdToStableIds = MapOldStableIds.getDbIdToStableIds(stableIdentifiersConnection);
+		dbIdToStableIds.sort();
+
+		assertThat(dbIdToStableIds.size(), is(equalTo(2)));
+		StableIdIndex.Cursor dbIdCursor = dbIdToStableIds.cursor();
+		assertThat(dbIdCursor.next(), is(true));
+		assertThat(dbIdCursor.dbId(), is(equalTo(1L)));
+		assertThat(dbIdCursor.next(), is(true));
+		assertThat(dbIdCursor.dbId(), is(equalTo((long) Integer.MAX_VALUE)));
+		assertThat(dbIdCursor.next(), is(false));
+	}
+
+	// The lines of the mappings, as written to 'reactome_stable_ids.txt'
+	private static byte[] getMappingFileContent(StableIdIndex dbIdToStableIds, StableIdSet currentStableIdentifiers, int parallelism) {
+		StringBuilder mappingFileContent = new StringBuilder();
+		for (StableIdMapping stableIdMapping : MapOldStableIds.getStableIdMappings(dbIdToStableIds, currentStableIdentifiers, parallelism).getMappingsInOutputOrder()) {
+			mappingFileContent.append(stableIdMapping);
+		}
+		return mappingFileContent.toString().getBytes(StandardCharsets.UTF_8);
+	}
+}
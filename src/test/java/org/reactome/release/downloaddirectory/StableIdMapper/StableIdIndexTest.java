@@ -0,0 +1,77 @@
+package org.reactome.release.downloaddirectory.StableIdMapper;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class StableIdIndexTest {
+
+	@Test
+	public void dbIdsAreIteratedInNumericOrder() {
+		StableIdIndex stableIdIndex = new StableIdIndex();
+		stableIdIndex.add(100L, "R-HSA-100");
+		stableIdIndex.add(99L, "R-HSA-99");
+		stableIdIndex.add(1000L, "R-HSA-1000");
+		stableIdIndex.sort();
+
+		List<Long> dbIds = new ArrayList<>();
+		StableIdIndex.Cursor cursor = stableIdIndex.cursor();
+		while (cursor.next()) {
+			dbIds.add(cursor.dbId());
+		}
+
+		assertThat(dbIds, contains(99L, 100L, 1000L));
+	}
+
+	@Test
+	public void stableIdsOfADbIdAreGroupedAndSorted() {
+		StableIdIndex stableIdIndex = new StableIdIndex();
+		stableIdIndex.add(5L, "REACT_1234");
+		stableIdIndex.add(7L, "R-MMU-7");
+		stableIdIndex.add(5L, "R-HSA-5");
+		stableIdIndex.add(5L, "R-ALL-5");
+		stableIdIndex.sort();
+
+		StableIdIndex.Cursor cursor = stableIdIndex.cursor();
+		cursor.next();
+		assertThat(cursor.dbId(), is(equalTo(5L)));
+		assertThat(cursor.identifiers(), contains("R-ALL-5", "R-HSA-5", "REACT_1234"));
+		cursor.next();
+		assertThat(cursor.dbId(), is(equalTo(7L)));
+		assertThat(cursor.identifiers(), is(equalTo(Arrays.asList("R-MMU-7"))));
+		assertThat(cursor.next(), is(equalTo(false)));
+	}
+
+	@Test
+	public void cursorOverGroupRangeOnlyVisitsThoseGroups() {
+		StableIdIndex stableIdIndex = new StableIdIndex();
+		for (long dbId = 1; dbId <= 5; dbId++) {
+			stableIdIndex.add(dbId, "R-HSA-" + dbId);
+			stableIdIndex.add(dbId, "REACT_" + dbId);
+		}
+		stableIdIndex.sort();
+
+		List<Long> dbIds = new ArrayList<>();
+		StableIdIndex.Cursor cursor = stableIdIndex.cursor(1, 3);
+		while (cursor.next()) {
+			dbIds.add(cursor.dbId());
+		}
+
+		assertThat(stableIdIndex.groupCount(), is(equalTo(5)));
+		assertThat(dbIds, contains(2L, 3L));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void iteratingAnUnsortedIndexThrowsException() {
+		StableIdIndex stableIdIndex = new StableIdIndex();
+		stableIdIndex.add(1L, "R-HSA-1");
+		stableIdIndex.cursor();
+	}
+}
@@ -0,0 +1,39 @@
+package org.reactome.release.downloaddirectory.StableIdMapper;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class StableIdLookupFileTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void writtenLookupFileResolvesOldStableIds() throws Exception {
+		StableIdLookupFile.Builder lookupFileBuilder = new StableIdLookupFile.Builder();
+		lookupFileBuilder.add("REACT_2", "R-HSA-200");
+		lookupFileBuilder.add("REACT_1", "R-HSA-100");
+		lookupFileBuilder.add("REACT_2", "R-HSA-150");
+		lookupFileBuilder.add("REACT_1", "R-HSA-100");
+		lookupFileBuilder.add("R-ALL-100", "R-HSA-100");
+
+		Path lookupFilePath = temporaryFolder.getRoot().toPath().resolve("reactome_stable_ids.lookup");
+		lookupFileBuilder.write(lookupFilePath);
+		StableIdLookupFile lookupFile = StableIdLookupFile.read(lookupFilePath);
+
+		assertThat(lookupFile.size(), is(equalTo(4)));
+		assertThat(lookupFile.getCurrentStableIds("REACT_1"), contains("R-HSA-100"));
+		assertThat(lookupFile.getCurrentStableIds("REACT_2"), contains("R-HSA-150", "R-HSA-200"));
+		assertThat(lookupFile.getCurrentStableIds("R-ALL-100"), contains("R-HSA-100"));
+		assertThat(lookupFile.getCurrentStableIds("REACT_3"), is(empty()));
+	}
+}
@@ -0,0 +1,158 @@
+package org.reactome.release.downloaddirectory.StableIdMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares StableIdMapping with the regular expression based classification it replaced, over groups of stable
+ * identifiers shaped like those of the stable_identifiers database: mostly one current identifier per DB_ID, often
+ * with an old 'REACT_' identifier, sometimes with identifiers of other or exception species.
+ *
+ * Run with:
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) org.openjdk.jmh.Main StableIdMappingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StableIdMappingBenchmark {
+	private static final int DB_ID_COUNT = 100_000;
+	private static final String[] SPECIES_ABBREVIATIONS = {
+		"HSA", "HSA", "HSA", "MMU", "RNO", "CFA", "BTA", "SSC", "DRE", "XTR", "GGA", "DME", "CEL", "DDI", "SPO",
+		"SCE", "PFA", "MTU", "ALL", "NUL", "HCV"
+	};
+
+	private List<List<String>> stableIdGroups;
+
+	@Setup
+	public void createStableIdGroups() {
+		Random random = new Random(42);
+		stableIdGroups = new ArrayList<>(DB_ID_COUNT);
+		for (int i = 0; i < DB_ID_COUNT; i++) {
+			String abbreviation = SPECIES_ABBREVIATIONS[random.nextInt(SPECIES_ABBREVIATIONS.length)];
+			List<String> stableIdGroup = new ArrayList<>();
+			stableIdGroup.add("R-" + abbreviation + "-" + (1_000_000 + i));
+			if (random.nextInt(10) < 4) {
+				stableIdGroup.add("REACT_" + (100_000 + random.nextInt(100_000)));
+			}
+			if (random.nextInt(10) == 0) {
+				stableIdGroup.add("R-" + SPECIES_ABBREVIATIONS[random.nextInt(SPECIES_ABBREVIATIONS.length)] + "-" + (1_000_000 + i));
+			}
+			stableIdGroups.add(stableIdGroup);
+		}
+	}
+
+	@Benchmark
+	public void stableIdMapping(Blackhole blackhole) {
+		for (List<String> stableIdGroup : stableIdGroups) {
+			StableIdMapping stableIdMapping = new StableIdMapping(stableIdGroup);
+			blackhole.consume(stableIdMapping.hasSecondaryIds() || stableIdMapping.hasNewFormatPrimaryId());
+			blackhole.consume(stableIdMapping.isHuman());
+			blackhole.consume(stableIdMapping.getSecondaryIds());
+		}
+	}
+
+	@Benchmark
+	public void regexStableIdMapping(Blackhole blackhole) {
+		for (List<String> stableIdGroup : stableIdGroups) {
+			RegexStableIdMapping stableIdMapping = new RegexStableIdMapping(stableIdGroup);
+			blackhole.consume(stableIdMapping.hasSecondaryIds() || stableIdMapping.hasNewFormatPrimaryId());
+			blackhole.consume(stableIdMapping.isHuman());
+			blackhole.consume(stableIdMapping.getSecondaryIds());
+		}
+	}
+
+	/**
+	 * The regular expression based StableIdMapping, kept here as the baseline.
+	 */
+	private static class RegexStableIdMapping {
+		private final static Pattern STABLE_ID_PATTERN = Pattern.compile("^R-(.{3})-.*");
+
+		private final List<String> stableIds;
+		private List<String> secondaryIds;
+
+		private RegexStableIdMapping(List<String> stableIds) {
+			this.stableIds = new ArrayList<>(stableIds);
+		}
+
+		private String getPrimaryId() {
+			return stableIds.get(0);
+		}
+
+		private List<String> getSecondaryIds() {
+			if (this.secondaryIds == null) {
+				List<String> stableIdsCopy = new ArrayList<>(stableIds);
+				stableIdsCopy.remove(getPrimaryId());
+				this.secondaryIds = filterOutMismatchedIdentifiers(stableIdsCopy);
+			}
+			return this.secondaryIds;
+		}
+
+		private boolean hasNewFormatPrimaryId() {
+			return getPrimaryId().matches("^R-.*");
+		}
+
+		private boolean hasSecondaryIds() {
+			return !getSecondaryIds().isEmpty();
+		}
+
+		private boolean isHuman() {
+			return getPrimaryId().matches("R-HSA.*");
+		}
+
+		private List<String> filterOutMismatchedIdentifiers(List<String> stableIds) {
+			List<String> filteredStableIds = new ArrayList<>();
+			for (String stableId : stableIds) {
+				if (stableId.startsWith("REACT_") ||
+					getAbbreviation(getPrimaryId()).equals(getAbbreviation(stableId)) ||
+					getAbbreviationExceptions().contains(getAbbreviation(stableId)) ||
+					(getAbbreviationExceptions().contains(getPrimaryId()) && noMismatchWithAlreadyFilteredStableIds(stableId, filteredStableIds))
+				) {
+					filteredStableIds.add(stableId);
+				}
+			}
+			return filteredStableIds;
+		}
+
+		private boolean noMismatchWithAlreadyFilteredStableIds(String stableId, List<String> filteredStableIds) {
+			if (getAbbreviationExceptions().contains(getAbbreviation(stableId))) {
+				return true;
+			}
+			for (String filteredStableId : filteredStableIds) {
+				if (!getAbbreviation(stableId).equals(getAbbreviation(filteredStableId))) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private String getAbbreviation(String stableId) {
+			Matcher stableIdMatcher = STABLE_ID_PATTERN.matcher(stableId);
+			return stableIdMatcher.find() ? stableIdMatcher.group(1) : "";
+		}
+
+		private List<String> getAbbreviationExceptions() {
+			return Arrays.asList("ALL", "NUL", "HC ", "HCV", "HPC", "HPB", "HBV");
+		}
+	}
+}
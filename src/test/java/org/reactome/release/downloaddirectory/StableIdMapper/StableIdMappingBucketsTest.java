@@ -0,0 +1,78 @@
+package org.reactome.release.downloaddirectory.StableIdMapper;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class StableIdMappingBucketsTest {
+
+	@Test
+	public void mappingsWithOneSecondaryIdComeBeforeThoseWithTwo() {
+		StableIdMappingBuckets stableIdMappingBuckets = new StableIdMappingBuckets();
+		stableIdMappingBuckets.add(mapping("R-HSA-1", "REACT_1", "REACT_2"));
+		stableIdMappingBuckets.add(mapping("R-MMU-2", "REACT_3", "REACT_4"));
+		stableIdMappingBuckets.add(mapping("R-MMU-3", "REACT_5"));
+		stableIdMappingBuckets.add(mapping("R-HSA-4", "REACT_6"));
+
+		assertThat(getPrimaryIds(stableIdMappingBuckets), contains("R-HSA-4", "R-MMU-3", "R-HSA-1", "R-MMU-2"));
+	}
+
+	@Test
+	public void mappingWithoutSecondaryIdsIsGroupedWithSingleSecondaryIds() {
+		StableIdMappingBuckets stableIdMappingBuckets = new StableIdMappingBuckets();
+		stableIdMappingBuckets.add(mapping("R-HSA-1", "REACT_1", "REACT_2"));
+		stableIdMappingBuckets.add(mapping("R-HSA-2"));
+
+		assertThat(getPrimaryIds(stableIdMappingBuckets), contains("R-HSA-2", "R-HSA-1"));
+	}
+
+	@Test
+	public void onlyIdentifiersStartingWithRHSAAreHuman() {
+		StableIdMappingBuckets stableIdMappingBuckets = new StableIdMappingBuckets();
+		stableIdMappingBuckets.add(mapping("R-ALL-1", "REACT_1"));
+		stableIdMappingBuckets.add(mapping("REACT_2", "R-HSA-2"));
+		stableIdMappingBuckets.add(mapping("R-HSA-3", "REACT_3"));
+
+		assertThat(getPrimaryIds(stableIdMappingBuckets), contains("R-HSA-3", "R-ALL-1", "REACT_2"));
+	}
+
+	@Test
+	public void appendedBucketsFollowInEachGroup() {
+		StableIdMappingBuckets firstBuckets = new StableIdMappingBuckets();
+		firstBuckets.add(mapping("R-HSA-1", "REACT_1"));
+		firstBuckets.add(mapping("R-MMU-2", "REACT_2", "REACT_3"));
+		StableIdMappingBuckets followingBuckets = new StableIdMappingBuckets();
+		followingBuckets.add(mapping("R-MMU-3", "REACT_4", "REACT_5"));
+		followingBuckets.add(mapping("R-HSA-4", "REACT_6"));
+
+		assertThat(getPrimaryIds(firstBuckets.addAll(followingBuckets)), contains(
+			"R-HSA-1", "R-HSA-4", "R-MMU-2", "R-MMU-3"
+		));
+	}
+
+	@Test
+	public void emptyBucketsHaveNoMappings() {
+		StableIdMappingBuckets stableIdMappingBuckets = new StableIdMappingBuckets().addAll(new StableIdMappingBuckets());
+
+		assertThat(stableIdMappingBuckets.getMappingsInOutputOrder(), is(empty()));
+	}
+
+	private static StableIdMapping mapping(String... stableIds) {
+		return new StableIdMapping(Arrays.asList(stableIds));
+	}
+
+	private static List<String> getPrimaryIds(StableIdMappingBuckets stableIdMappingBuckets) {
+		List<String> primaryIds = new ArrayList<>();
+		for (StableIdMapping stableIdMapping : stableIdMappingBuckets.getMappingsInOutputOrder()) {
+			primaryIds.add(stableIdMapping.getPrimaryId());
+		}
+		return primaryIds;
+	}
+}
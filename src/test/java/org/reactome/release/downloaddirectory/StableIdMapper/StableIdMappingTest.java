@@ -0,0 +1,43 @@
+package org.reactome.release.downloaddirectory.StableIdMapper;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class StableIdMappingTest {
+
+	@Test
+	public void secondaryIdsOfOtherSpeciesAreFilteredOut() {
+		StableIdMapping stableIdMapping = new StableIdMapping(
+			Arrays.asList("R-HSA-123", "R-ALL-123", "R-MMU-123", "REACT_456", "R-HSA-124")
+		);
+
+		assertThat(stableIdMapping.getPrimaryId(), is(equalTo("R-HSA-123")));
+		assertThat(stableIdMapping.getSecondaryIds(), contains("R-ALL-123", "REACT_456", "R-HSA-124"));
+		assertThat(stableIdMapping.isHuman(), is(equalTo(true)));
+		assertThat(stableIdMapping.hasNewFormatPrimaryId(), is(equalTo(true)));
+	}
+
+	@Test
+	public void oldFormatPrimaryIdIsNotHumanOrNewFormat() {
+		StableIdMapping stableIdMapping = new StableIdMapping(Arrays.asList("REACT_456"));
+
+		assertThat(stableIdMapping.getSecondaryIds(), is(empty()));
+		assertThat(stableIdMapping.isHuman(), is(equalTo(false)));
+		assertThat(stableIdMapping.hasNewFormatPrimaryId(), is(equalTo(false)));
+	}
+
+	@Test
+	public void nonHumanMappingLineHasCommaSeparatedSecondaryIds() {
+		StableIdMapping stableIdMapping = new StableIdMapping(Arrays.asList("R-MMU-123", "REACT_1", "REACT_2"));
+
+		assertThat(stableIdMapping.isHuman(), is(equalTo(false)));
+		assertThat(stableIdMapping.toString(), is(equalTo("R-MMU-123\tREACT_1,REACT_2\n")));
+	}
+}
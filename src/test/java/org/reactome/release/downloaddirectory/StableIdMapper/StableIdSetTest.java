@@ -0,0 +1,71 @@
+package org.reactome.release.downloaddirectory.StableIdMapper;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class StableIdSetTest {
+
+	@Test
+	public void addedStableIdIsContainedOnce() {
+		StableIdSet stableIdSet = new StableIdSet();
+
+		assertThat(stableIdSet.add("R-HSA-123"), is(true));
+		assertThat(stableIdSet.add("R-HSA-123"), is(false));
+		assertThat(stableIdSet.contains("R-HSA-123"), is(true));
+		assertThat(stableIdSet.contains("R-HSA-12"), is(false));
+		assertThat(stableIdSet.contains("R-HSA-1234"), is(false));
+		assertThat(stableIdSet.size(), is(equalTo(1)));
+	}
+
+	@Test
+	public void emptyStringIsAStableIdLikeAnyOther() {
+		StableIdSet stableIdSet = new StableIdSet();
+		assertThat(stableIdSet.contains(""), is(false));
+
+		assertThat(stableIdSet.add(""), is(true));
+		assertThat(stableIdSet.add(""), is(false));
+		assertThat(stableIdSet.contains(""), is(true));
+		assertThat(stableIdSet.size(), is(equalTo(1)));
+	}
+
+	@Test
+	public void stableIdsWithTheSameHashAreToldApart() {
+		// "Aa" and "BB" have the same String#hashCode
+		StableIdSet stableIdSet = new StableIdSet();
+		stableIdSet.add("R-HSA-Aa");
+
+		assertThat(stableIdSet.contains("R-HSA-BB"), is(false));
+		assertThat(stableIdSet.add("R-HSA-BB"), is(true));
+		assertThat(stableIdSet.contains("R-HSA-Aa"), is(true));
+		assertThat(stableIdSet.contains("R-HSA-BB"), is(true));
+	}
+
+	@Test
+	public void anyCharSequenceMatchesTheEqualString() {
+		StableIdSet stableIdSet = new StableIdSet();
+		stableIdSet.add(new StringBuilder("REACT_").append(42));
+
+		assertThat(stableIdSet.contains("REACT_42"), is(true));
+		assertThat(stableIdSet.add("REACT_42"), is(false));
+	}
+
+	@Test
+	public void stableIdsAreKeptWhenTheTableGrows() {
+		StableIdSet stableIdSet = new StableIdSet();
+		// Well past the initial capacity, so the table is rehashed several times, including at the exact load factor
+		int stableIdCount = 20_000;
+		for (int i = 0; i < stableIdCount; i++) {
+			assertThat(stableIdSet.add("R-HSA-" + i), is(true));
+			assertThat(stableIdSet.contains("R-HSA-" + i), is(true));
+		}
+
+		assertThat(stableIdSet.size(), is(equalTo(stableIdCount)));
+		for (int i = 0; i < stableIdCount; i++) {
+			assertThat(stableIdSet.contains("R-HSA-" + i), is(true));
+			assertThat(stableIdSet.contains("R-MMU-" + i), is(false));
+		}
+	}
+}
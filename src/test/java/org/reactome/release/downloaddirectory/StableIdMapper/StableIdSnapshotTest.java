@@ -0,0 +1,136 @@
+package org.reactome.release.downloaddirectory.StableIdMapper;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPOutputStream;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class StableIdSnapshotTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void writtenSnapshotIsReadBack() throws Exception {
+		Map<Long, StableIdSnapshot.RangeDigest> rangeDigests = getRangeDigests();
+		Path snapshotPath = temporaryFolder.getRoot().toPath().resolve("stable_ids.snapshot");
+		StableIdSnapshot.write(snapshotPath, rangeDigests, getIndex());
+
+		assertThat(StableIdSnapshot.readRangeDigests(snapshotPath), is(equalTo(rangeDigests)));
+		StableIdIndex dbIdToStableIds = new StableIdIndex();
+		assertThat(StableIdSnapshot.readStableIds(snapshotPath, dbIdToStableIds, Collections.emptySet()), is(equalTo(5)));
+		assertThat(getPairs(dbIdToStableIds), contains(
+			"5\tR-HSA-5", "5\tREACT_1", "99999\tR-HSA-99999", "100000\tR-MMU-100000", "250000\tR-HSA-250000"
+		));
+	}
+
+	@Test
+	public void stableIdsOfSkippedRangesAreNotRead() throws Exception {
+		Path snapshotPath = temporaryFolder.getRoot().toPath().resolve("stable_ids.snapshot");
+		StableIdSnapshot.write(snapshotPath, getRangeDigests(), getIndex());
+
+		StableIdIndex dbIdToStableIds = new StableIdIndex();
+		int stableIdCount = StableIdSnapshot.readStableIds(snapshotPath, dbIdToStableIds, Collections.singleton(0L));
+
+		assertThat(stableIdCount, is(equalTo(2)));
+		assertThat(getPairs(dbIdToStableIds), contains("100000\tR-MMU-100000", "250000\tR-HSA-250000"));
+	}
+
+	@Test
+	public void rewrittenSnapshotReplacesThePreviousOne() throws Exception {
+		Path snapshotPath = temporaryFolder.getRoot().toPath().resolve("stable_ids.snapshot");
+		StableIdSnapshot.write(snapshotPath, getRangeDigests(), getIndex());
+		StableIdIndex dbIdToStableIds = new StableIdIndex();
+		dbIdToStableIds.add(7, "R-HSA-7");
+		dbIdToStableIds.sort();
+		Map<Long, StableIdSnapshot.RangeDigest> rangeDigests = new TreeMap<>();
+		rangeDigests.put(0L, new StableIdSnapshot.RangeDigest(1, 9));
+		StableIdSnapshot.write(snapshotPath, rangeDigests, dbIdToStableIds);
+
+		StableIdIndex readDbIdToStableIds = new StableIdIndex();
+		StableIdSnapshot.readStableIds(snapshotPath, readDbIdToStableIds, Collections.emptySet());
+
+		assertThat(StableIdSnapshot.readRangeDigests(snapshotPath), is(equalTo(rangeDigests)));
+		assertThat(getPairs(readDbIdToStableIds), contains("7\tR-HSA-7"));
+		assertThat(temporaryFolder.getRoot().list(), is(equalTo(new String[] {"stable_ids.snapshot"})));
+	}
+
+	@Test
+	public void addedRemovedAndModifiedRangesHaveChanged() {
+		Map<Long, StableIdSnapshot.RangeDigest> previousRangeDigests = new TreeMap<>();
+		previousRangeDigests.put(0L, new StableIdSnapshot.RangeDigest(2, 11));
+		previousRangeDigests.put(1L, new StableIdSnapshot.RangeDigest(1, 22));
+		previousRangeDigests.put(2L, new StableIdSnapshot.RangeDigest(1, 33));
+		Map<Long, StableIdSnapshot.RangeDigest> rangeDigests = new TreeMap<>();
+		rangeDigests.put(0L, new StableIdSnapshot.RangeDigest(2, 11));
+		rangeDigests.put(1L, new StableIdSnapshot.RangeDigest(1, 23));
+		rangeDigests.put(3L, new StableIdSnapshot.RangeDigest(1, 44));
+
+		assertThat(StableIdSnapshot.getChangedRanges(rangeDigests, previousRangeDigests), contains(1L, 2L, 3L));
+		assertThat(StableIdSnapshot.getChangedRanges(rangeDigests, rangeDigests), is(empty()));
+	}
+
+	@Test
+	public void dbIdsAtTheEdgesOfARangeAreInIt() {
+		assertThat(StableIdSnapshot.getRange(0), is(equalTo(0L)));
+		assertThat(StableIdSnapshot.getRange(StableIdSnapshot.DB_ID_RANGE_SIZE - 1), is(equalTo(0L)));
+		assertThat(StableIdSnapshot.getRange(StableIdSnapshot.DB_ID_RANGE_SIZE), is(equalTo(1L)));
+	}
+
+	@Test(expected = IOException.class)
+	public void fileThatIsNotASnapshotIsRejected() throws Exception {
+		Path snapshotPath = temporaryFolder.getRoot().toPath().resolve("stable_ids.snapshot");
+		try (DataOutputStream output = new DataOutputStream(new GZIPOutputStream(Files.newOutputStream(snapshotPath)))) {
+			output.writeInt(0);
+		}
+
+		StableIdSnapshot.readRangeDigests(snapshotPath);
+	}
+
+	private static Map<Long, StableIdSnapshot.RangeDigest> getRangeDigests() {
+		Map<Long, StableIdSnapshot.RangeDigest> rangeDigests = new TreeMap<>();
+		rangeDigests.put(0L, new StableIdSnapshot.RangeDigest(3, 123));
+		rangeDigests.put(1L, new StableIdSnapshot.RangeDigest(1, 456));
+		rangeDigests.put(2L, new StableIdSnapshot.RangeDigest(1, -789));
+		return rangeDigests;
+	}
+
+	private static StableIdIndex getIndex() {
+		StableIdIndex dbIdToStableIds = new StableIdIndex();
+		dbIdToStableIds.add(250000, "R-HSA-250000");
+		dbIdToStableIds.add(5, "REACT_1");
+		dbIdToStableIds.add(100000, "R-MMU-100000");
+		dbIdToStableIds.add(99999, "R-HSA-99999");
+		dbIdToStableIds.add(5, "R-HSA-5");
+		dbIdToStableIds.sort();
+		return dbIdToStableIds;
+	}
+
+	private static List<String> getPairs(StableIdIndex dbIdToStableIds) {
+		dbIdToStableIds.sort();
+		List<String> pairs = new ArrayList<>();
+		StableIdIndex.Cursor dbIdCursor = dbIdToStableIds.cursor();
+		while (dbIdCursor.next()) {
+			for (int i = 0; i < dbIdCursor.size(); i++) {
+				pairs.add(dbIdCursor.dbId() + "\t" + dbIdCursor.identifier(i));
+			}
+		}
+		return pairs;
+	}
+}